@@ -0,0 +1,29 @@
+#!/bin/bash
+echo "======================================"
+echo " Benchmarks del Sistema de Anime"
+echo "======================================"
+
+# Uso: ./benchmark/ejecutar_benchmarks.sh [ClaseBenchmark] [argumentos...]
+# Se ejecuta desde la raíz del proyecto.
+CLASE=${1:-BenchmarkIndiceTitulos}
+shift
+
+mkdir -p out/benchmark
+
+echo "Compilando benchmarks..."
+javac -encoding UTF-8 -d out/benchmark \
+    src/excepcion/*.java \
+    src/modelo/*.java \
+    src/repositorio/*.java \
+    src/servicio/*.java \
+    src/utilidad/*.java \
+    benchmark/src/benchmark/*.java
+
+if [ $? -ne 0 ]; then
+    echo ""
+    echo "ERROR: La compilación de los benchmarks falló."
+    exit 1
+fi
+
+echo ""
+java -Xms2g -Xmx2g -cp out/benchmark benchmark.$CLASE "$@"
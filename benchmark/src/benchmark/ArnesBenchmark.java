@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Arnés mínimo de micro-benchmarks: calentamiento, iteraciones medidas y sumidero de
+ * resultados para evitar que el JIT elimine el trabajo medido.
+ */
+public final class ArnesBenchmark {
+    
+    private static volatile Object sumidero;
+    
+    private final int calentamientos;
+    private final int iteraciones;
+    
+    public ArnesBenchmark(int calentamientos, int iteraciones) {
+        this.calentamientos = calentamientos;
+        this.iteraciones = iteraciones;
+    }
+    
+    public ArnesBenchmark() {
+        this(3, 5);
+    }
+    
+    /**
+     * Mide una operación e imprime la mediana, el mínimo y el máximo en milisegundos.
+     *
+     * @return la mediana en milisegundos
+     */
+    public double medir(String nombre, Callable<?> operacion) throws Exception {
+        for (int i = 0; i < calentamientos; i++) {
+            sumidero = operacion.call();
+        }
+        
+        double[] tiempos = new double[iteraciones];
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            sumidero = operacion.call();
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+        
+        Arrays.sort(tiempos);
+        double mediana = tiempos[tiempos.length / 2];
+        System.out.printf("%-60s mediana %10.3f ms   (min %10.3f, max %10.3f)%n",
+            nombre, mediana, tiempos[0], tiempos[tiempos.length - 1]);
+        return mediana;
+    }
+    
+    /**
+     * Consume un valor para que no pueda descartarse como código muerto.
+     */
+    public static void consumir(Object valor) {
+        sumidero = valor;
+    }
+}
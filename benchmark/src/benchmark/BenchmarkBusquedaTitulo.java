@@ -0,0 +1,57 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceTitulos;
+import servicio.GeneradorCatalogo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda por subcadena del título: el recorrido con tituloContiene contra el índice de
+ * trigramas de IndiceTitulos, para consultas con distinta cantidad de resultados.
+ *
+ * Uso: java benchmark.BenchmarkBusquedaTitulo [cantidad] [semilla]
+ */
+public class BenchmarkBusquedaTitulo {
+    
+    private static final String[] CONSULTAS = {"sintético 123456", "654321", "o 4242", "99", "anime"};
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        
+        long inicio = System.nanoTime();
+        indice.buscarPorTituloContiene("xyz");
+        System.out.printf("Catálogo: %,d anime, índice de trigramas construido en %.1f ms%n%n",
+            cantidad, (System.nanoTime() - inicio) / 1e6);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 9);
+        for (String consulta : CONSULTAS) {
+            System.out.printf("\"%s\": %,d resultados%n", consulta, indice.buscarPorTituloContiene(consulta).size());
+            arnes.medir("  recorrido con tituloContiene", () -> recorrer(animes, consulta).size());
+            arnes.medir("  índice de trigramas", () -> indice.buscarPorTituloContiene(consulta).size());
+        }
+        
+        int[] siguiente = {0};
+        arnes.medir("renombrar + guardar (mantiene el índice)", () -> {
+            AnimeBase anime = animes.get(siguiente[0]++ % cantidad);
+            anime.establecerTitulo(anime.obtenerTitulo() + "'");
+            return indice.guardar(anime) == null ? 1 : 0;
+        });
+    }
+    
+    private static List<AnimeBase> recorrer(List<AnimeBase> animes, String consulta) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (anime.tituloContiene(consulta)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import utilidad.CatalogoColumnar;
+import utilidad.FiltroAnime;
+import utilidad.OrdenamientoPorAnio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filtrado de un catálogo de un millón de anime: recorrido de objetos con
+ * FiltroAnime.cumpleFiltro contra la evaluación sobre CatalogoColumnar.
+ *
+ * Uso: java benchmark.BenchmarkCatalogoColumnar [catalogo_importar.txt] [lineas]
+ */
+public class BenchmarkCatalogoColumnar {
+    
+    public static void main(String[] args) throws Exception {
+        String rutaCatalogo = args.length > 0 ? args[0] : "catalogo_importar.txt";
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        List<AnimeBase> animes = BenchmarkIndiceTitulos.parsear(
+            BenchmarkIndiceTitulos.escalarCatalogo(rutaCatalogo, lineas));
+        System.out.printf("Catálogo: %,d anime%n%n", animes.size());
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 7);
+        arnes.medir("construir CatalogoColumnar", () -> CatalogoColumnar.construir(animes));
+        CatalogoColumnar catalogo = CatalogoColumnar.construir(animes);
+        
+        FiltroAnime porGenero = new FiltroAnime().porGenero(Genero.SHONEN);
+        FiltroAnime combinado = new FiltroAnime()
+            .porGenero(Genero.SHONEN)
+            .porEstado(Estado.POR_VER)
+            .porRangoAnios(2000, 2020);
+        FiltroAnime conEstudio = new FiltroAnime()
+            .porRangoAnios(1990, null)
+            .porEstudio("madhouse");
+        
+        medirFiltro(arnes, "género", porGenero, animes, catalogo);
+        medirFiltro(arnes, "género + estado + años", combinado, animes, catalogo);
+        medirFiltro(arnes, "años + estudio", conEstudio, animes, catalogo);
+        
+        OrdenamientoPorAnio porAnio = new OrdenamientoPorAnio();
+        arnes.medir("filtrar + ordenar por año (objetos)", () -> {
+            List<AnimeBase> resultado = filtrarObjetos(combinado, animes);
+            Collections.sort(resultado, porAnio);
+            return resultado;
+        });
+        arnes.medir("filtrar + ordenar por año (columnar)",
+            () -> catalogo.ordenar(combinado.filtrar(catalogo), porAnio));
+    }
+    
+    private static void medirFiltro(ArnesBenchmark arnes, String nombre, FiltroAnime filtro,
+                                    List<AnimeBase> animes, CatalogoColumnar catalogo) throws Exception {
+        arnes.medir("filtro " + nombre + " (objetos)", () -> filtrarObjetos(filtro, animes));
+        arnes.medir("filtro " + nombre + " (columnar, BitSet)", () -> filtro.filtrar(catalogo));
+    }
+    
+    private static List<AnimeBase> filtrarObjetos(FiltroAnime filtro, List<AnimeBase> animes) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (filtro.cumpleFiltro(anime)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.RepositorioAnime;
+import repositorio.RepositorioAnimeArchivo;
+import repositorio.RepositorioAnimeMapeado;
+import servicio.GeneradorCatalogo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Arranque en frío del catálogo: el repositorio de archivo, que decodifica todo el catálogo
+ * en la primera consulta, contra el repositorio mapeado en memoria. Cada iteración abre un
+ * repositorio nuevo, cuenta y busca un título.
+ *
+ * Uso: java benchmark.BenchmarkCatalogoMapeado [cantidad] [semilla]
+ */
+public class BenchmarkCatalogoMapeado {
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        Path directorio = Files.createTempDirectory("benchmark_mapeado");
+        String rutaDat = directorio.resolve("animes.dat").toString();
+        String rutaCol = directorio.resolve("animes.col").toString();
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        new RepositorioAnimeArchivo(rutaDat).guardarTodos(animes);
+        new RepositorioAnimeMapeado(rutaCol).guardarTodos(animes);
+        String buscado = animes.get(animes.size() / 2).obtenerTitulo();
+        animes = null;
+        
+        System.out.printf("Catálogo: %,d anime (.dat %,d bytes, .col %,d bytes)%n%n", cantidad,
+            Files.size(directorio.resolve("animes.dat")), Files.size(directorio.resolve("animes.col")));
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(2, 5);
+        arnes.medir("arranque archivo (contar + buscar)",
+            () -> arrancar(new RepositorioAnimeArchivo(rutaDat), buscado));
+        arnes.medir("arranque mapeado (contar + buscar)",
+            () -> arrancar(new RepositorioAnimeMapeado(rutaCol), buscado));
+        
+        System.out.println();
+        medirMemoria("heap tras arrancar archivo", () -> new RepositorioAnimeArchivo(rutaDat), buscado);
+        medirMemoria("heap tras arrancar mapeado", () -> new RepositorioAnimeMapeado(rutaCol), buscado);
+        
+        Files.delete(directorio.resolve("animes.dat"));
+        Files.delete(directorio.resolve("animes.col"));
+        Files.delete(directorio);
+    }
+    
+    private static int arrancar(RepositorioAnime repositorio, String titulo) throws Exception {
+        int cantidad = repositorio.contar();
+        return repositorio.buscarPorTitulo(titulo) != null ? cantidad : -1;
+    }
+    
+    private static void medirMemoria(String nombre, Supplier<RepositorioAnime> fabrica, String titulo)
+            throws Exception {
+        long antes = memoriaUsada();
+        RepositorioAnime repositorio = fabrica.get();
+        arrancar(repositorio, titulo);
+        long despues = memoriaUsada();
+        System.out.printf("%-40s %,10d KB%n", nombre, (despues - antes) / 1024);
+        if (repositorio.contar() < 0) {
+            throw new IllegalStateException();
+        }
+    }
+    
+    private static long memoriaUsada() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceEstudios;
+import repositorio.IndiceTitulos;
+import servicio.GeneradorCatalogo;
+import utilidad.FiltroAnime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtro y agrupamiento por estudio: recorrer el catálogo comparando el texto del estudio de
+ * cada anime, contra el índice invertido de estudios codificados con diccionario de
+ * IndiceTitulos.
+ *
+ * Uso: java benchmark.BenchmarkEstudios [cantidad] [estudios] [semilla]
+ */
+public class BenchmarkEstudios {
+    
+    private static final String[] CONSULTAS = {"estudio 42", "estudio 7", "estudio"};
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int estudios = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla)
+            .conCantidad(cantidad)
+            .conCantidadEstudios(estudios)
+            .generarLista();
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        System.out.printf("Catálogo: %,d anime, %,d estudios%n%n", cantidad, estudios);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 9);
+        for (String consulta : CONSULTAS) {
+            FiltroAnime filtro = new FiltroAnime().porEstudio(consulta);
+            System.out.printf("\"%s\": %,d resultados%n", consulta, indice.buscarPorEstudio(consulta).size());
+            arnes.medir("  recorrido con cumpleFiltro", () -> recorrer(animes, filtro).size());
+            arnes.medir("  índice de estudios", () -> indice.buscarPorEstudio(consulta).size());
+        }
+        
+        System.out.println("Cantidad por estudio");
+        arnes.medir("  recorrido separando cada estudio", () -> contar(animes).size());
+        arnes.medir("  índice de estudios", () -> indice.contarPorEstudio().size());
+        
+        int[] siguiente = {0};
+        arnes.medir("cambiar estudio + guardar (mantiene el índice)", () -> {
+            AnimeBase anime = animes.get(siguiente[0]++ % cantidad);
+            anime.establecerEstudio(anime.obtenerEstudio() + " / Estudio invitado");
+            return indice.guardar(anime) == null ? 1 : 0;
+        });
+    }
+    
+    private static List<AnimeBase> recorrer(List<AnimeBase> animes, FiltroAnime filtro) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (filtro.cumpleFiltro(anime)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+    
+    private static Map<String, Long> contar(List<AnimeBase> animes) {
+        Map<String, Long> cantidades = new HashMap<>();
+        for (AnimeBase anime : animes) {
+            for (String estudio : IndiceEstudios.separar(anime.obtenerEstudio())) {
+                cantidades.merge(estudio, 1L, Long::sum);
+            }
+        }
+        return cantidades;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import servicio.GeneradorCatalogo;
+import utilidad.CatalogoColumnar;
+import utilidad.EstadisticasCatalogo;
+import utilidad.FiltroAnime;
+import utilidad.FiltroCompilado;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Filtros combinados: cumpleFiltro, que evalúa los criterios en orden fijo, contra el filtro
+ * compilado con los criterios ordenados por las estadísticas del catálogo, recorriendo los
+ * anime y sobre la instantánea columnar.
+ *
+ * Uso: java benchmark.BenchmarkFiltroCompilado [cantidad] [semilla]
+ */
+public class BenchmarkFiltroCompilado {
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        CatalogoColumnar catalogo = CatalogoColumnar.construir(animes);
+        System.out.printf("Catálogo: %,d anime%n%n", cantidad);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 9);
+        EstadisticasCatalogo[] estadisticas = new EstadisticasCatalogo[1];
+        arnes.medir("estadísticas del catálogo", () -> {
+            estadisticas[0] = EstadisticasCatalogo.de(animes);
+            return estadisticas[0].obtenerTotal();
+        });
+        
+        FiltroAnime[] filtros = {
+            new FiltroAnime().porTitulo("sintético 12").porEstado(Estado.ABANDONADO)
+                .porCalificacionMinima(5),
+            new FiltroAnime().porTitulo("anime").porGenero(Genero.values()[0])
+                .porRangoAnios(2010, 2012),
+            new FiltroAnime().porEstudio("estudio 1").porGeneros(EnumSet.of(Genero.values()[1],
+                Genero.values()[2])).soloCalificados(),
+            new FiltroAnime().porRangoAnios(1990, 1995).porEstado(Estado.POR_VER)
+                .porCalificacionMinima(4)
+        };
+        
+        for (FiltroAnime filtro : filtros) {
+            FiltroCompilado compilado = filtro.compilar(estadisticas[0]);
+            System.out.printf("%s: %,d resultados%n", compilado, recorrer(animes, compilado).size());
+            arnes.medir("  recorrido con cumpleFiltro", () -> recorrer(animes, filtro::cumpleFiltro).size());
+            arnes.medir("  recorrido con el filtro compilado", () -> recorrer(animes, compilado).size());
+            arnes.medir("  columnar en orden fijo", () -> filtro.filtrar(catalogo).cardinality());
+            arnes.medir("  columnar compilado", () -> compilado.filtrar(catalogo).cardinality());
+        }
+    }
+    
+    private static List<AnimeBase> recorrer(List<AnimeBase> animes, Predicate<AnimeBase> filtro) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (filtro.test(anime)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceTitulos;
+import servicio.ServicioAnime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Importación de catalogo_importar.txt escalado a un millón de líneas: búsqueda lineal
+ * por título (algoritmo anterior del repositorio) contra el índice hash de títulos.
+ *
+ * Uso: java benchmark.BenchmarkIndiceTitulos [catalogo_importar.txt] [lineas]
+ */
+public class BenchmarkIndiceTitulos {
+    
+    private static final int[] TAMANIOS_LINEALES = {1_000, 10_000, 30_000};
+    
+    public static void main(String[] args) throws Exception {
+        String rutaCatalogo = args.length > 0 ? args[0] : "catalogo_importar.txt";
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        List<AnimeBase> animes = parsear(escalarCatalogo(rutaCatalogo, lineas));
+        System.out.printf("Catálogo escalado: %,d líneas parseadas%n%n", animes.size());
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(2, 5);
+        for (int tamanio : TAMANIOS_LINEALES) {
+            List<AnimeBase> muestra = animes.subList(0, Math.min(tamanio, animes.size()));
+            arnes.medir(String.format("importar %,d líneas (búsqueda lineal)", muestra.size()),
+                () -> importarLineal(muestra));
+            arnes.medir(String.format("importar %,d líneas (IndiceTitulos)", muestra.size()),
+                () -> importarIndexado(muestra));
+        }
+        arnes.medir(String.format("importar %,d líneas (IndiceTitulos)", animes.size()),
+            () -> importarIndexado(animes));
+    }
+    
+    /**
+     * Repite las líneas de datos del catálogo con un sufijo numérico para que cada título
+     * sea único, y reinserta cada 10 líneas un título ya visto para ejercitar duplicados.
+     */
+    static List<String> escalarCatalogo(String rutaCatalogo, int lineas) throws IOException {
+        List<String> base = new ArrayList<>();
+        for (String linea : Files.readAllLines(Paths.get(rutaCatalogo), StandardCharsets.UTF_8)) {
+            if (!linea.trim().isEmpty() && !linea.trim().startsWith("#")) {
+                base.add(linea);
+            }
+        }
+        
+        List<String> resultado = new ArrayList<>(lineas);
+        for (int i = 0; i < lineas; i++) {
+            String linea = base.get(i % base.size());
+            int copia = (i % 10 == 9) ? (i / base.size()) / 2 : i / base.size();
+            int inicioTitulo = linea.indexOf('|') + 1;
+            int finTitulo = linea.indexOf('|', inicioTitulo);
+            resultado.add(linea.substring(0, finTitulo) + " #" + copia + linea.substring(finTitulo));
+        }
+        return resultado;
+    }
+    
+    static List<AnimeBase> parsear(List<String> lineas) {
+        ServicioAnime parser = new ServicioAnime(null);
+        List<AnimeBase> animes = new ArrayList<>(lineas.size());
+        for (String linea : lineas) {
+            AnimeBase anime = parser.parsearLineaAnime(linea);
+            if (anime != null) {
+                animes.add(anime);
+            }
+        }
+        return animes;
+    }
+    
+    /**
+     * Reproduce el algoritmo anterior: existePorTitulo + guardar, ambos con recorrido
+     * lineal por equalsIgnoreCase y un indexOf adicional al reemplazar.
+     */
+    private static int importarLineal(List<AnimeBase> animes) {
+        List<AnimeBase> cache = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (buscarLineal(cache, anime.obtenerTitulo()) == null) {
+                AnimeBase existente = buscarLineal(cache, anime.obtenerTitulo());
+                if (existente != null) {
+                    cache.set(cache.indexOf(existente), anime);
+                } else {
+                    cache.add(anime);
+                }
+            }
+        }
+        return cache.size();
+    }
+    
+    private static AnimeBase buscarLineal(List<AnimeBase> cache, String titulo) {
+        for (AnimeBase anime : cache) {
+            if (anime.obtenerTitulo().equalsIgnoreCase(titulo)) {
+                return anime;
+            }
+        }
+        return null;
+    }
+    
+    private static int importarIndexado(List<AnimeBase> animes) {
+        IndiceTitulos indice = new IndiceTitulos();
+        for (AnimeBase anime : animes) {
+            if (!indice.contiene(anime.obtenerTitulo())) {
+                indice.guardar(anime);
+            }
+        }
+        return indice.tamanio();
+    }
+}
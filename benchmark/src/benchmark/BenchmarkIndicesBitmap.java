@@ -0,0 +1,58 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import repositorio.IndiceTitulos;
+import utilidad.FiltroAnime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtro por género + estado + calificación mínima sobre un millón de anime: recorrido
+ * completo con FiltroAnime.cumpleFiltro contra los mapas de bits de IndiceTitulos.
+ *
+ * Uso: java benchmark.BenchmarkIndicesBitmap [catalogo_importar.txt] [lineas]
+ */
+public class BenchmarkIndicesBitmap {
+    
+    public static void main(String[] args) throws Exception {
+        String rutaCatalogo = args.length > 0 ? args[0] : "catalogo_importar.txt";
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        List<AnimeBase> animes = BenchmarkIndiceTitulos.parsear(
+            BenchmarkIndiceTitulos.escalarCatalogo(rutaCatalogo, lineas));
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        List<AnimeBase> catalogo = new ArrayList<>(indice.valores());
+        System.out.printf("Catálogo: %,d anime%n%n", catalogo.size());
+        
+        FiltroAnime filtro = new FiltroAnime()
+            .porGenero(Genero.SHONEN)
+            .porEstado(Estado.FINALIZADO)
+            .porCalificacionMinima(4);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 7);
+        arnes.medir("género + estado + calificación (recorrido)", () -> {
+            List<AnimeBase> resultado = new ArrayList<>();
+            for (AnimeBase anime : catalogo) {
+                if (filtro.cumpleFiltro(anime)) {
+                    resultado.add(anime);
+                }
+            }
+            return resultado;
+        });
+        arnes.medir("género + estado + calificación (mapas de bits)", () -> indice.buscarPorAtributos(
+            filtro.obtenerEstado(), filtro.obtenerMascaraGenerosRequeridos(),
+            filtro.obtenerMascaraGenerosAlguno(), filtro.obtenerCalificacionMinimaRequerida()));
+        arnes.medir("contar por estado (mapas de bits)",
+            () -> indice.contarPorAtributos(Estado.FINALIZADO, 0, 0, 0));
+        
+        AnimeBase muestra = catalogo.get(catalogo.size() / 2);
+        arnes.medir("actualizar un anime (guardar incremental)", () -> {
+            muestra.establecerEstado(muestra.obtenerEstado() == Estado.VIENDO ? Estado.FINALIZADO : Estado.VIENDO);
+            return indice.guardar(muestra);
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceTitulos;
+import servicio.GeneradorCatalogo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura del catálogo completo desde el índice en memoria de los repositorios: la copia
+ * defensiva de obtenerTodos contra la instantánea inmutable, con y sin una modificación
+ * entre lectura y lectura.
+ *
+ * Uso: java benchmark.BenchmarkInstantaneas [cantidad] [semilla]
+ */
+public class BenchmarkInstantaneas {
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        System.out.printf("Catálogo: %,d anime%n%n", cantidad);
+        
+        int[] siguiente = {0};
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 7);
+        arnes.medir("copia defensiva", () -> new ArrayList<>(indice.valores()).size());
+        arnes.medir("instantánea sin cambios", () -> indice.instantanea().tamanio());
+        arnes.medir("guardar + copia defensiva", () -> {
+            indice.guardar(animes.get(siguiente[0]++ % cantidad));
+            return new ArrayList<>(indice.valores()).size();
+        });
+        arnes.medir("guardar + instantánea", () -> {
+            indice.guardar(animes.get(siguiente[0]++ % cantidad));
+            return indice.instantanea().tamanio();
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import servicio.ServicioEstadisticas;
+import servicio.ServicioEstadisticas.ResumenEstadisticas;
+
+import java.util.*;
+
+/**
+ * Resumen de estadísticas de un millón de anime: el cálculo anterior (una copia del catálogo
+ * y una pasada por cada campo) contra la pasada única, secuencial y en paralelo.
+ *
+ * Uso: java benchmark.BenchmarkResumenEstadisticas [catalogo_importar.txt] [lineas]
+ */
+public class BenchmarkResumenEstadisticas {
+    
+    public static void main(String[] args) throws Exception {
+        String rutaCatalogo = args.length > 0 ? args[0] : "catalogo_importar.txt";
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        List<AnimeBase> animes = BenchmarkIndiceTitulos.parsear(
+            BenchmarkIndiceTitulos.escalarCatalogo(rutaCatalogo, lineas));
+        Random aleatorio = new Random(42);
+        for (AnimeBase anime : animes) {
+            if (aleatorio.nextInt(3) > 0) {
+                anime.establecerCalificacion(1 + aleatorio.nextInt(AnimeBase.CALIFICACION_MAXIMA));
+            }
+        }
+        System.out.printf("Catálogo: %,d anime, %d hilos disponibles%n%n",
+            animes.size(), Runtime.getRuntime().availableProcessors());
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 7);
+        arnes.medir("resumen (varias pasadas y copias)", () -> resumenVariasPasadas(animes));
+        arnes.medir("resumen (una pasada)", () -> ServicioEstadisticas.calcularResumen(animes));
+        arnes.medir("resumen (una pasada, fork/join)",
+            () -> ServicioEstadisticas.calcularResumenEnParalelo(animes));
+    }
+    
+    /**
+     * Reproduce el cálculo anterior de obtenerResumenEstadisticas: cada consulta auxiliar
+     * vuelve a copiar el catálogo desde el repositorio y lo recorre por separado.
+     */
+    private static ResumenEstadisticas resumenVariasPasadas(List<AnimeBase> catalogo) {
+        List<AnimeBase> animes = new ArrayList<>(catalogo);
+        
+        int calificados = 0;
+        for (AnimeBase anime : animes) {
+            if (anime.tieneCalificacion()) {
+                calificados++;
+            }
+        }
+        
+        int suma = 0;
+        int cantidad = 0;
+        for (AnimeBase anime : new ArrayList<>(catalogo)) {
+            if (anime.tieneCalificacion()) {
+                suma += anime.obtenerCalificacion();
+                cantidad++;
+            }
+        }
+        double promedio = cantidad == 0 ? 0.0 : (double) suma / cantidad;
+        
+        Map<Estado, Long> porEstado = new EnumMap<>(Estado.class);
+        for (Estado estado : Estado.values()) {
+            porEstado.put(estado, 0L);
+        }
+        for (AnimeBase anime : new ArrayList<>(catalogo)) {
+            porEstado.put(anime.obtenerEstado(), porEstado.get(anime.obtenerEstado()) + 1);
+        }
+        
+        Map<Genero, Long> conteoGeneros = new EnumMap<>(Genero.class);
+        for (AnimeBase anime : new ArrayList<>(catalogo)) {
+            for (Genero genero : anime.obtenerGeneros()) {
+                conteoGeneros.merge(genero, 1L, Long::sum);
+            }
+        }
+        List<Map.Entry<Genero, Long>> topGeneros = new ArrayList<>(conteoGeneros.entrySet());
+        topGeneros.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        topGeneros = new ArrayList<>(topGeneros.subList(0, Math.min(3, topGeneros.size())));
+        
+        AnimeBase masAntiguo = null;
+        AnimeBase masNuevo = null;
+        AnimeBase mejorCalificado = null;
+        for (AnimeBase anime : animes) {
+            if (masAntiguo == null || anime.obtenerAnioLanzamiento() < masAntiguo.obtenerAnioLanzamiento()) {
+                masAntiguo = anime;
+            }
+            if (masNuevo == null || anime.obtenerAnioLanzamiento() > masNuevo.obtenerAnioLanzamiento()) {
+                masNuevo = anime;
+            }
+            if (anime.tieneCalificacion()
+                    && (mejorCalificado == null || anime.obtenerCalificacion() > mejorCalificado.obtenerCalificacion())) {
+                mejorCalificado = anime;
+            }
+        }
+        
+        return new ResumenEstadisticas(animes.size(), calificados, promedio, porEstado, topGeneros,
+            masAntiguo, masNuevo, mejorCalificado);
+    }
+}
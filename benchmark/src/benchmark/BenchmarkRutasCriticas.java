@@ -0,0 +1,147 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import repositorio.RepositorioAnimeArchivo;
+import servicio.GeneradorCatalogo;
+import servicio.ServicioAnime;
+import servicio.ServicioEstadisticas;
+import utilidad.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rutas críticas de repositorio, servicios y estrategias sobre catálogos sintéticos de
+ * distintos tamaños, para seguir regresiones entre versiones:
+ * carga y persistencia de RepositorioAnimeArchivo, busquedaAvanzada con filtros típicos,
+ * ordenar con cada CriterioOrdenamiento, cada CriterioRecomendacion,
+ * obtenerResumenEstadisticas y parsearLineaAnime.
+ *
+ * Uso: java benchmark.BenchmarkRutasCriticas [tamaños separados por coma] [semilla]
+ */
+public class BenchmarkRutasCriticas {
+    
+    private static final int[] TAMANIOS = {1_000, 100_000, 1_000_000};
+    private static final int CANTIDAD_RECOMENDACIONES = 10;
+    
+    public static void main(String[] args) throws Exception {
+        int[] tamanios = args.length > 0
+            ? Arrays.stream(args[0].split(",")).mapToInt(t -> Integer.parseInt(t.trim())).toArray()
+            : TAMANIOS;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        
+        for (int tamanio : tamanios) {
+            System.out.printf("%n===== Catálogo sintético: %,d anime =====%n", tamanio);
+            medirTamanio(new GeneradorCatalogo(semilla).conCantidad(tamanio).generarLista());
+        }
+    }
+    
+    private static void medirTamanio(List<AnimeBase> animes) throws Exception {
+        ArnesBenchmark arnes = animes.size() >= 1_000_000 ? new ArnesBenchmark(1, 3) : new ArnesBenchmark(3, 7);
+        Path directorio = Files.createTempDirectory("benchmark-anime");
+        Path archivo = directorio.resolve("animes.dat");
+        Path exportado = directorio.resolve("catalogo.txt");
+        try {
+            medirRepositorio(arnes, animes, archivo);
+            
+            RepositorioAnimeArchivo repositorio = new RepositorioAnimeArchivo(archivo.toString());
+            ServicioAnime servicioAnime = new ServicioAnime(repositorio);
+            ServicioEstadisticas servicioEstadisticas = new ServicioEstadisticas(repositorio);
+            repositorio.contar();
+            
+            medirBusquedas(arnes, servicioAnime);
+            medirOrdenamientos(arnes, servicioAnime, animes);
+            medirRecomendaciones(arnes, animes);
+            
+            arnes.medir("obtenerResumenEstadisticas",
+                () -> servicioEstadisticas.obtenerResumenEstadisticas());
+            arnes.medir("calcularResumen (recorrido)", () -> ServicioEstadisticas.calcularResumen(animes));
+            
+            servicioAnime.exportarATxt(animes, exportado, OyenteProgreso.NINGUNO);
+            List<String> lineas = new ArrayList<>();
+            for (String linea : Files.readAllLines(exportado, StandardCharsets.UTF_8)) {
+                if (!linea.startsWith("#")) {
+                    lineas.add(linea);
+                }
+            }
+            arnes.medir("parsearLineaAnime (todas las líneas)", () -> {
+                int validas = 0;
+                for (String linea : lineas) {
+                    if (servicioAnime.parsearLineaAnime(linea) != null) {
+                        validas++;
+                    }
+                }
+                return validas;
+            });
+        } finally {
+            Files.deleteIfExists(archivo);
+            Files.deleteIfExists(exportado);
+            Files.deleteIfExists(directorio);
+        }
+    }
+    
+    private static void medirRepositorio(ArnesBenchmark arnes, List<AnimeBase> animes, Path archivo)
+            throws Exception {
+        arnes.medir("RepositorioAnimeArchivo.guardarTodos (persistir)", () -> {
+            new RepositorioAnimeArchivo(archivo.toString()).guardarTodos(animes);
+            return archivo;
+        });
+        arnes.medir("RepositorioAnimeArchivo (cargar)",
+            () -> new RepositorioAnimeArchivo(archivo.toString()).contar());
+    }
+    
+    private static void medirBusquedas(ArnesBenchmark arnes, ServicioAnime servicio) throws Exception {
+        Map<String, FiltroAnime> filtros = new LinkedHashMap<>();
+        filtros.put("género", new FiltroAnime().porGenero(Genero.SHONEN));
+        filtros.put("estado + calificación", new FiltroAnime()
+            .porEstado(Estado.FINALIZADO)
+            .porCalificacionMinima(4));
+        filtros.put("géneros (alguno) + años", new FiltroAnime()
+            .porGeneros(EnumSet.of(Genero.MECHA, Genero.ISEKAI))
+            .porRangoAnios(1990, 2010));
+        filtros.put("título + estudio", new FiltroAnime()
+            .porTitulo("sintético 1")
+            .porEstudio("estudio 7"));
+        
+        for (Map.Entry<String, FiltroAnime> filtro : filtros.entrySet()) {
+            arnes.medir("busquedaAvanzada " + filtro.getKey(),
+                () -> servicio.busquedaAvanzada(filtro.getValue()));
+        }
+        arnes.medir("busquedaAvanzada género + orden por calificación",
+            () -> servicio.busquedaAvanzada(filtros.get("género"), new OrdenamientoPorCalificacion()));
+    }
+    
+    private static void medirOrdenamientos(ArnesBenchmark arnes, ServicioAnime servicio, List<AnimeBase> animes)
+            throws Exception {
+        List<CriterioOrdenamiento> criterios = Arrays.asList(
+            new OrdenamientoPorTitulo(),
+            new OrdenamientoPorTitulo(false),
+            new OrdenamientoPorCalificacion(),
+            new OrdenamientoPorCalificacion(false),
+            new OrdenamientoPorAnio(),
+            new OrdenamientoPorAnio(false));
+        for (CriterioOrdenamiento criterio : criterios) {
+            arnes.medir("ordenar " + criterio.obtenerDescripcion(), () -> servicio.ordenar(animes, criterio));
+        }
+    }
+    
+    private static void medirRecomendaciones(ArnesBenchmark arnes, List<AnimeBase> animes) throws Exception {
+        List<CriterioRecomendacion> criterios = Arrays.asList(
+            new RecomendacionTopGlobal(),
+            new RecomendacionTopPorGenero(Genero.SEINEN),
+            new RecomendacionPorEstado(Estado.POR_VER));
+        for (CriterioRecomendacion criterio : criterios) {
+            arnes.medir("recomendar " + criterio.obtenerNombre(),
+                () -> criterio.recomendar(animes, CANTIDAD_RECOMENDACIONES));
+        }
+    }
+}
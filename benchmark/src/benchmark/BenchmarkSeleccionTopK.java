@@ -0,0 +1,52 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import utilidad.OrdenamientoPorCalificacion;
+import utilidad.RecomendacionTopGlobal;
+import utilidad.SeleccionTopK;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Top 10 por calificación de un millón de anime: ordenamiento completo (algoritmo anterior
+ * de las estrategias de recomendación) contra selección por conteo y montículo acotado.
+ *
+ * Uso: java benchmark.BenchmarkSeleccionTopK [catalogo_importar.txt] [lineas]
+ */
+public class BenchmarkSeleccionTopK {
+    
+    private static final int CANTIDAD = 10;
+    
+    public static void main(String[] args) throws Exception {
+        String rutaCatalogo = args.length > 0 ? args[0] : "catalogo_importar.txt";
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        List<AnimeBase> animes = BenchmarkIndiceTitulos.parsear(
+            BenchmarkIndiceTitulos.escalarCatalogo(rutaCatalogo, lineas));
+        Random aleatorio = new Random(42);
+        for (AnimeBase anime : animes) {
+            anime.establecerCalificacion(1 + aleatorio.nextInt(AnimeBase.CALIFICACION_MAXIMA));
+        }
+        System.out.printf("Catálogo: %,d anime calificados%n%n", animes.size());
+        
+        OrdenamientoPorCalificacion porCalificacion = new OrdenamientoPorCalificacion();
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 7);
+        arnes.medir("top 10 (copiar + ordenar + copiar)", () -> {
+            List<AnimeBase> copia = new ArrayList<>(animes);
+            Collections.sort(copia, porCalificacion);
+            return new ArrayList<>(copia.subList(0, CANTIDAD));
+        });
+        arnes.medir("top 10 (SeleccionTopK.porCalificacion)",
+            () -> new RecomendacionTopGlobal().recomendar(animes, CANTIDAD));
+        arnes.medir("top 10 (SeleccionTopK.conComparador)", () -> {
+            SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.conComparador(CANTIDAD, porCalificacion);
+            for (AnimeBase anime : animes) {
+                seleccion.ofrecer(anime);
+            }
+            return seleccion.obtenerResultado();
+        });
+    }
+}
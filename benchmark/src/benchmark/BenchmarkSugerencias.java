@@ -0,0 +1,66 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceTitulos;
+import servicio.GeneradorCatalogo;
+import utilidad.SeleccionTopK;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sugerencias de autocompletado: las 8 mejores completaciones de un prefijo recorriendo el
+ * catálogo con una selección top-K, contra el índice de prefijos de IndiceTitulos.
+ *
+ * Uso: java benchmark.BenchmarkSugerencias [cantidad] [semilla]
+ */
+public class BenchmarkSugerencias {
+    
+    private static final int LIMITE = 8;
+    private static final String[] PREFIJOS = {"a", "anime sint", "anime sintético 12", "anime sintético 123456"};
+    
+    private static final Comparator<AnimeBase> ORDEN =
+        Comparator.comparingInt((AnimeBase anime) -> Math.min(anime.obtenerCalificacion(), AnimeBase.CALIFICACION_MAXIMA))
+            .reversed()
+            .thenComparing(anime -> IndiceTitulos.normalizar(anime.obtenerTitulo()));
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        
+        long inicio = System.nanoTime();
+        indice.sugerirPorPrefijo("", 1);
+        System.out.printf("Catálogo: %,d anime, índice de prefijos construido en %.1f ms%n%n",
+            cantidad, (System.nanoTime() - inicio) / 1e6);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(3, 9);
+        for (String prefijo : PREFIJOS) {
+            System.out.printf("\"%s\"%n", prefijo);
+            arnes.medir("  recorrido con selección top-K", () -> recorrer(animes, prefijo).size());
+            arnes.medir("  índice de prefijos", () -> indice.sugerirPorPrefijo(prefijo, LIMITE).size());
+        }
+        
+        int[] siguiente = {0};
+        arnes.medir("calificar + guardar (mantiene el índice)", () -> {
+            AnimeBase anime = animes.get(siguiente[0]++ % cantidad);
+            anime.establecerCalificacion(anime.obtenerCalificacion() % AnimeBase.CALIFICACION_MAXIMA + 1);
+            return indice.guardar(anime) == null ? 1 : 0;
+        });
+    }
+    
+    private static List<AnimeBase> recorrer(List<AnimeBase> animes, String prefijo) {
+        String consulta = prefijo.toLowerCase(Locale.ROOT);
+        SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.conComparador(LIMITE, ORDEN);
+        for (AnimeBase anime : animes) {
+            if (IndiceTitulos.normalizar(anime.obtenerTitulo()).startsWith(consulta)) {
+                seleccion.ofrecer(anime);
+            }
+        }
+        return seleccion.obtenerResultado();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import modelo.AnimeBase;
+import repositorio.IndiceDistanciaEdicion;
+import repositorio.IndiceTitulos;
+import servicio.GeneradorCatalogo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda aproximada por título: la distancia de Levenshtein contra todo el catálogo frente
+ * al índice de distancia de edición de IndiceTitulos, para títulos con errores de tipeo.
+ *
+ * Uso: java benchmark.BenchmarkTitulosAproximados [cantidad] [semilla]
+ */
+public class BenchmarkTitulosAproximados {
+    
+    private static final int LIMITE = 5;
+    private static final String[] CONSULTAS = {"anime sintetico 123456", "anme sintético 4242", "sintético 77", "xyz"};
+    private static final int[] DISTANCIAS = {1, 2, 3};
+    
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        
+        List<AnimeBase> animes = new GeneradorCatalogo(semilla).conCantidad(cantidad).generarLista();
+        IndiceTitulos indice = new IndiceTitulos();
+        indice.reemplazarTodos(animes);
+        
+        long inicio = System.nanoTime();
+        indice.buscarAproximados("", 0, 1);
+        System.out.printf("Catálogo: %,d anime, índice de distancia de edición construido en %.1f ms%n%n",
+            cantidad, (System.nanoTime() - inicio) / 1e6);
+        
+        ArnesBenchmark arnes = new ArnesBenchmark(2, 5);
+        for (String consulta : CONSULTAS) {
+            for (int distancia : DISTANCIAS) {
+                System.out.printf("\"%s\", distancia %d: %,d resultados%n", consulta, distancia,
+                    indice.buscarAproximados(consulta, distancia, LIMITE).size());
+                arnes.medir("  Levenshtein contra todo el catálogo", () -> recorrer(animes, consulta, distancia).size());
+                arnes.medir("  índice de distancia de edición", () -> indice.buscarAproximados(consulta, distancia, LIMITE).size());
+            }
+        }
+    }
+    
+    private static List<AnimeBase> recorrer(List<AnimeBase> animes, String consulta, int distanciaMaxima) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            if (IndiceDistanciaEdicion.distancia(consulta, IndiceTitulos.normalizar(anime.obtenerTitulo()), distanciaMaxima)
+                    <= distanciaMaxima) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import modelo.Estado;
+import servicio.GeneradorCatalogo;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Escribe un catálogo sintético en formato TXT para pruebas de carga, sin tenerlo en memoria.
+ *
+ * Uso: java benchmark.GenerarCatalogoSintetico archivo.txt [cantidad] [semilla] [estudios]
+ *      [sesgoCalificacion]
+ */
+public class GenerarCatalogoSintetico {
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Uso: GenerarCatalogoSintetico archivo.txt [cantidad] [semilla] [estudios] [sesgoCalificacion]");
+            return;
+        }
+        Path archivo = Paths.get(args[0]);
+        long cantidad = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int estudios = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        double sesgo = args.length > 4 ? Double.parseDouble(args[4]) : 1.0;
+        
+        // Un catálogo personal típico: mayoría pendiente o terminada, pocos abandonados
+        Map<Estado, Double> estados = new EnumMap<>(Estado.class);
+        estados.put(Estado.POR_VER, 4.0);
+        estados.put(Estado.VIENDO, 1.0);
+        estados.put(Estado.FINALIZADO, 4.0);
+        estados.put(Estado.ABANDONADO, 1.0);
+        
+        GeneradorCatalogo generador = new GeneradorCatalogo(semilla)
+            .conCantidad(cantidad)
+            .conCantidadEstudios(estudios)
+            .conCalificaciones(sesgo, 0.3)
+            .conPesosEstados(estados);
+        
+        long inicio = System.nanoTime();
+        generador.escribirTxt(archivo, (procesados, total) -> {
+            if (procesados % 1_000_000 == 0 || procesados == total) {
+                System.out.printf("  %,d / %,d%n", procesados, total);
+            }
+        });
+        System.out.printf("Generado %s en %.1f s%n", archivo, (System.nanoTime() - inicio) / 1e9);
+    }
+}
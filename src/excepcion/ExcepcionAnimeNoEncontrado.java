@@ -1,19 +1,35 @@
 package excepcion;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Excepción lanzada cuando no se encuentra un anime buscado.
  */
 public class ExcepcionAnimeNoEncontrado extends ExcepcionAnime {
     
     private final String titulo;
+    private final List<String> sugerencias;
     
     public ExcepcionAnimeNoEncontrado(String titulo) {
-        super("No se encontró el anime: " + titulo);
+        this(titulo, Collections.emptyList());
+    }
+    
+    /**
+     * @param sugerencias títulos parecidos que sí existen, del más al menos parecido
+     */
+    public ExcepcionAnimeNoEncontrado(String titulo, List<String> sugerencias) {
+        super("No se encontró el anime: " + titulo
+            + (sugerencias.isEmpty() ? "" : ". ¿Quisiste decir: " + String.join(", ", sugerencias) + "?"));
         this.titulo = titulo;
+        this.sugerencias = Collections.unmodifiableList(sugerencias);
     }
     
     public String obtenerTitulo() {
         return titulo;
     }
+    
+    public List<String> obtenerSugerencias() {
+        return sugerencias;
+    }
 }
-
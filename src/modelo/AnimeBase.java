@@ -1,8 +1,11 @@
 package modelo;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
 
@@ -26,6 +29,9 @@ public abstract class AnimeBase implements Calificable, Serializable {
     protected int calificacionUsuario;
     protected Set<Genero> generos;
     
+    /** Máscara de bits de {@link #generos}; se recalcula en cada modificación y al deserializar. */
+    private transient int mascaraGeneros;
+    
     /**
      * Constructor protegido para uso de subclases.
      */
@@ -35,7 +41,7 @@ public abstract class AnimeBase implements Calificable, Serializable {
         this.estudio = estudio;
         this.estado = Estado.POR_VER;
         this.calificacionUsuario = 0;
-        this.generos = generos != null ? new HashSet<>(generos) : new HashSet<>();
+        establecerGeneros(generos);
     }
     
     // ========== Métodos abstractos ==========
@@ -83,19 +89,29 @@ public abstract class AnimeBase implements Calificable, Serializable {
      * Verifica si el anime pertenece a un género específico.
      */
     public boolean perteneceAGenero(Genero genero) {
-        return generos.contains(genero);
+        return genero != null && (mascaraGeneros & genero.obtenerMascara()) != 0;
     }
     
     /**
      * Verifica si el anime tiene al menos uno de los géneros especificados.
      */
     public boolean perteneceAAlgunGenero(Set<Genero> generosABuscar) {
-        for (Genero g : generosABuscar) {
-            if (generos.contains(g)) {
-                return true;
-            }
-        }
-        return false;
+        return coincideConAlgunGenero(Genero.mascaraDe(generosABuscar));
+    }
+    
+    /**
+     * Verifica si el anime tiene al menos uno de los géneros de la máscara
+     * (ver {@link Genero#mascaraDe}).
+     */
+    public boolean coincideConAlgunGenero(int mascara) {
+        return (mascaraGeneros & mascara) != 0;
+    }
+    
+    /**
+     * Verifica si el anime tiene todos los géneros de la máscara.
+     */
+    public boolean coincideConTodosLosGeneros(int mascara) {
+        return (mascaraGeneros & mascara) == mascara;
     }
     
     /**
@@ -109,7 +125,7 @@ public abstract class AnimeBase implements Calificable, Serializable {
      * Verifica si el título contiene el texto buscado (case-insensitive).
      */
     public boolean tituloContiene(String texto) {
-        return titulo.toLowerCase().contains(texto.toLowerCase());
+        return titulo.toLowerCase(Locale.ROOT).contains(texto.toLowerCase(Locale.ROOT));
     }
     
     /**
@@ -157,16 +173,39 @@ public abstract class AnimeBase implements Calificable, Serializable {
         return Collections.unmodifiableSet(generos);
     }
     
+    /**
+     * Retorna los géneros como máscara de bits (un bit por ordinal de {@link Genero}).
+     */
+    public int obtenerMascaraGeneros() {
+        return mascaraGeneros;
+    }
+    
     public void establecerGeneros(Set<Genero> generos) {
-        this.generos = generos != null ? new HashSet<>(generos) : new HashSet<>();
+        Set<Genero> copia = EnumSet.noneOf(Genero.class);
+        if (generos != null) {
+            copia.addAll(generos);
+        }
+        this.generos = copia;
+        this.mascaraGeneros = Genero.mascaraDe(copia);
     }
     
     public void agregarGenero(Genero genero) {
         this.generos.add(genero);
+        this.mascaraGeneros |= genero.obtenerMascara();
     }
     
     public void removerGenero(Genero genero) {
         this.generos.remove(genero);
+        this.mascaraGeneros &= ~genero.obtenerMascara();
+    }
+    
+    /**
+     * Los archivos antiguos guardan los géneros como HashSet: se convierten a EnumSet
+     * y se recalcula la máscara, que no se serializa.
+     */
+    private void readObject(ObjectInputStream entrada) throws IOException, ClassNotFoundException {
+        entrada.defaultReadObject();
+        establecerGeneros(generos);
     }
     
     // ========== equals, hashCode, toString ==========
@@ -176,12 +215,12 @@ public abstract class AnimeBase implements Calificable, Serializable {
         if (this == o) return true;
         if (o == null || !(o instanceof AnimeBase)) return false;
         AnimeBase animeBase = (AnimeBase) o;
-        return Objects.equals(titulo.toLowerCase(), animeBase.titulo.toLowerCase());
+        return Objects.equals(titulo.toLowerCase(Locale.ROOT), animeBase.titulo.toLowerCase(Locale.ROOT));
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(titulo.toLowerCase());
+        return Objects.hash(titulo.toLowerCase(Locale.ROOT));
     }
     
     @Override
@@ -1,5 +1,9 @@
 package modelo;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum que representa los géneros de anime disponibles.
  */
@@ -12,16 +16,53 @@ public enum Genero {
     ISEKAI("Isekai"),
     SLICE_OF_LIFE("Slice of Life");
     
+    private static final Genero[] VALORES = values();
+    
     private final String descripcion;
+    private final int mascara;
     
     Genero(String descripcion) {
         this.descripcion = descripcion;
+        this.mascara = 1 << ordinal();
     }
     
     public String obtenerDescripcion() {
         return descripcion;
     }
     
+    /**
+     * Retorna el bit que representa a este género dentro de una máscara de géneros.
+     */
+    public int obtenerMascara() {
+        return mascara;
+    }
+    
+    /**
+     * Combina un conjunto de géneros en una máscara de bits (un bit por ordinal).
+     */
+    public static int mascaraDe(Collection<Genero> generos) {
+        int resultado = 0;
+        if (generos != null) {
+            for (Genero g : generos) {
+                resultado |= g.mascara;
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Reconstruye el conjunto de géneros de una máscara; los bits desconocidos se ignoran.
+     */
+    public static Set<Genero> desdeMascara(int mascara) {
+        Set<Genero> generos = EnumSet.noneOf(Genero.class);
+        for (Genero g : VALORES) {
+            if ((mascara & g.mascara) != 0) {
+                generos.add(g);
+            }
+        }
+        return generos;
+    }
+    
     @Override
     public String toString() {
         return descripcion;
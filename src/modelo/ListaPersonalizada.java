@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -29,6 +30,15 @@ public class ListaPersonalizada implements Serializable {
         this.animes = new ArrayList<>();
     }
     
+    /**
+     * Crea una copia con los mismos datos y las mismas instancias de anime.
+     */
+    public ListaPersonalizada copiar() {
+        ListaPersonalizada copia = new ListaPersonalizada(nombre, descripcion);
+        copia.animes.addAll(animes);
+        return copia;
+    }
+    
     // ========== Operaciones sobre la colección ==========
     
     /**
@@ -117,12 +127,12 @@ public class ListaPersonalizada implements Serializable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ListaPersonalizada that = (ListaPersonalizada) o;
-        return Objects.equals(nombre.toLowerCase(), that.nombre.toLowerCase());
+        return Objects.equals(nombre.toLowerCase(Locale.ROOT), that.nombre.toLowerCase(Locale.ROOT));
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(nombre.toLowerCase());
+        return Objects.hash(nombre.toLowerCase(Locale.ROOT));
     }
     
     @Override
@@ -0,0 +1,67 @@
+package repositorio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reemplazo de archivos a prueba de cortes: el contenido nuevo se escribe en un archivo
+ * temporal junto al destino, se fuerza a disco y recién entonces se mueve sobre el destino.
+ * Si el proceso se interrumpe a mitad de camino queda el archivo anterior completo.
+ */
+final class ArchivoAtomico {
+    
+    static final String SUFIJO_TEMPORAL = ".tmp";
+    
+    interface Escritura {
+        void escribir(Path destino) throws IOException;
+    }
+    
+    private ArchivoAtomico() {
+    }
+    
+    static void reemplazar(Path archivo, Escritura escritura) throws IOException {
+        Path dirPadre = archivo.toAbsolutePath().getParent();
+        if (dirPadre != null) {
+            Files.createDirectories(dirPadre);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + SUFIJO_TEMPORAL);
+        try {
+            escritura.escribir(temporal);
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                canal.force(true);
+            }
+            try {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ignorada) {
+                // el error original es el relevante
+            }
+            throw e;
+        }
+        if (dirPadre != null) {
+            sincronizarDirectorio(dirPadre);
+        }
+    }
+    
+    /**
+     * Fuerza a disco la entrada de directorio del renombrado. No todos los sistemas permiten
+     * abrir un directorio; en ese caso el renombrado queda a cargo del sistema de archivos.
+     */
+    private static void sincronizarDirectorio(Path directorio) {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // no soportado en esta plataforma
+        }
+    }
+}
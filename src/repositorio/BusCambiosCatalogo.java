@@ -0,0 +1,128 @@
+package repositorio;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Distribuye los cambios del catálogo a sus suscriptores.
+ *
+ * Los suscriptores sincrónicos reciben cada cambio en el hilo que modifica el repositorio y,
+ * en los repositorios sincronizados, mientras se mantiene su bloqueo: deben ser breves, y una
+ * excepción que lancen llega a quien hizo la modificación. Los asincrónicos lo reciben por su
+ * propio ejecutor, en el mismo orden y nunca dos a la vez, sin demorar la modificación; una
+ * excepción que lancen va al manejador de excepciones no capturadas del hilo que entrega.
+ */
+public class BusCambiosCatalogo {
+    
+    private static final ExecutorService EJECUTOR_COMPARTIDO = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "cambios-catalogo");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    
+    private final List<Suscripcion> suscripciones;
+    
+    public BusCambiosCatalogo() {
+        this.suscripciones = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Ejecutor de un hilo compartido por los suscriptores asincrónicos que no indican otro.
+     */
+    public static Executor ejecutorCompartido() {
+        return EJECUTOR_COMPARTIDO;
+    }
+    
+    /**
+     * Registra un suscriptor.
+     *
+     * @param ejecutor ejecutor por el que entregarle los cambios, o null para entregárselos
+     *                 en el hilo que los publica
+     * @return la suscripción, para entregarle cambios solo a ella
+     */
+    public Suscripcion suscribir(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        Suscripcion suscripcion = new Suscripcion(suscriptor, ejecutor);
+        suscripciones.add(suscripcion);
+        return suscripcion;
+    }
+    
+    /**
+     * Quita todas las suscripciones del suscriptor. Los cambios asincrónicos pendientes de
+     * entrega se descartan.
+     */
+    public void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+        for (Suscripcion suscripcion : suscripciones) {
+            if (suscripcion.suscriptor == suscriptor) {
+                suscripcion.activa = false;
+                suscripciones.remove(suscripcion);
+            }
+        }
+    }
+    
+    public boolean tieneSuscriptores() {
+        return !suscripciones.isEmpty();
+    }
+    
+    public void publicar(CambioCatalogo cambio) {
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.entregar(cambio);
+        }
+    }
+    
+    /**
+     * Registro de un suscriptor. Los asincrónicos tienen su propia cola, que se vacía en una
+     * tarea del ejecutor a la vez para conservar el orden aunque el ejecutor tenga varios hilos.
+     */
+    public static final class Suscripcion {
+        private final SuscriptorCambiosCatalogo suscriptor;
+        private final Executor ejecutor;
+        private final Queue<CambioCatalogo> pendientes;
+        private final AtomicBoolean programada;
+        private volatile boolean activa;
+        
+        private Suscripcion(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+            this.suscriptor = suscriptor;
+            this.ejecutor = ejecutor;
+            this.pendientes = ejecutor != null ? new ConcurrentLinkedQueue<>() : null;
+            this.programada = new AtomicBoolean();
+            this.activa = true;
+        }
+        
+        public void entregar(CambioCatalogo cambio) {
+            if (ejecutor == null) {
+                suscriptor.cambioCatalogo(cambio);
+                return;
+            }
+            pendientes.add(cambio);
+            if (programada.compareAndSet(false, true)) {
+                ejecutor.execute(this::vaciar);
+            }
+        }
+        
+        private void vaciar() {
+            do {
+                CambioCatalogo cambio;
+                while ((cambio = pendientes.poll()) != null) {
+                    if (!activa) {
+                        pendientes.clear();
+                        break;
+                    }
+                    try {
+                        suscriptor.cambioCatalogo(cambio);
+                    } catch (RuntimeException e) {
+                        Thread hilo = Thread.currentThread();
+                        hilo.getUncaughtExceptionHandler().uncaughtException(hilo, e);
+                    }
+                }
+                programada.set(false);
+                // Un cambio encolado justo antes de liberar la marca no programó otra tarea
+            } while (!pendientes.isEmpty() && programada.compareAndSet(false, true));
+        }
+    }
+}
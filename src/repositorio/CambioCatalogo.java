@@ -0,0 +1,99 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+/**
+ * Modificación del catálogo de un repositorio de anime, tal como la reciben los
+ * suscriptores de {@link BusCambiosCatalogo}.
+ *
+ * Cada cambio lleva la versión del catálogo tras aplicarlo, la misma que tendrá la
+ * instantánea que se obtenga a continuación (ver {@link RepositorioAnime#obtenerInstantanea}).
+ */
+public final class CambioCatalogo {
+    
+    public enum Tipo {
+        /** Se guardó un anime con un título que no estaba. */
+        AGREGADO,
+        /**
+         * Se volvió a guardar un anime. Si anterior y nuevo son la misma instancia pudo cambiar
+         * cualquiera de sus datos, incluido el título; si son distintas, nuevo ocupa la
+         * posición de anterior, que sale del catálogo, y si nuevo ya estaba bajo otro título
+         * deja su posición previa.
+         */
+        ACTUALIZADO,
+        /** Se eliminó un anime. */
+        ELIMINADO,
+        /** El contenido completo pasó a ser el de la instantánea (carga, guardarTodos, eliminarTodos). */
+        CATALOGO_REEMPLAZADO
+    }
+    
+    private final Tipo tipo;
+    private final AnimeBase anterior;
+    private final AnimeBase nuevo;
+    private final InstantaneaCatalogo catalogo;
+    private final long version;
+    
+    private CambioCatalogo(Tipo tipo, AnimeBase anterior, AnimeBase nuevo, InstantaneaCatalogo catalogo,
+                           long version) {
+        this.tipo = tipo;
+        this.anterior = anterior;
+        this.nuevo = nuevo;
+        this.catalogo = catalogo;
+        this.version = version;
+    }
+    
+    public static CambioCatalogo agregado(AnimeBase nuevo, long version) {
+        return new CambioCatalogo(Tipo.AGREGADO, null, nuevo, null, version);
+    }
+    
+    public static CambioCatalogo actualizado(AnimeBase anterior, AnimeBase nuevo, long version) {
+        return new CambioCatalogo(Tipo.ACTUALIZADO, anterior, nuevo, null, version);
+    }
+    
+    public static CambioCatalogo eliminado(AnimeBase anterior, long version) {
+        return new CambioCatalogo(Tipo.ELIMINADO, anterior, null, null, version);
+    }
+    
+    public static CambioCatalogo catalogoReemplazado(InstantaneaCatalogo catalogo) {
+        return new CambioCatalogo(Tipo.CATALOGO_REEMPLAZADO, null, null, catalogo, catalogo.obtenerVersion());
+    }
+    
+    public Tipo obtenerTipo() {
+        return tipo;
+    }
+    
+    /**
+     * Anime que estaba en el catálogo, en ACTUALIZADO y ELIMINADO; null en los demás.
+     */
+    public AnimeBase obtenerAnterior() {
+        return anterior;
+    }
+    
+    /**
+     * Anime que quedó en el catálogo, en AGREGADO y ACTUALIZADO; null en los demás.
+     */
+    public AnimeBase obtenerNuevo() {
+        return nuevo;
+    }
+    
+    /**
+     * Contenido nuevo del catálogo en CATALOGO_REEMPLAZADO; null en los demás.
+     */
+    public InstantaneaCatalogo obtenerCatalogo() {
+        return catalogo;
+    }
+    
+    public long obtenerVersion() {
+        return version;
+    }
+    
+    @Override
+    public String toString() {
+        switch (tipo) {
+            case AGREGADO: return "AGREGADO[" + nuevo.obtenerTitulo() + "] v" + version;
+            case ACTUALIZADO: return "ACTUALIZADO[" + anterior.obtenerTitulo() + " -> " + nuevo.obtenerTitulo() + "] v" + version;
+            case ELIMINADO: return "ELIMINADO[" + anterior.obtenerTitulo() + "] v" + version;
+            default: return "CATALOGO_REEMPLAZADO[" + catalogo.tamanio() + "] v" + version;
+        }
+    }
+}
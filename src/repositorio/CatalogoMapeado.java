@@ -0,0 +1,459 @@
+package repositorio;
+
+import modelo.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Archivo de catálogo columnar abierto con un mapeo de memoria de sólo lectura.
+ *
+ * Abrirlo sólo lee la cabecera; los valores se leen del mapeo cuando se consultan y los
+ * anime se materializan de a uno. El archivo incluye una tabla hash de títulos normalizados
+ * para buscar por título sin recorrerlo.
+ *
+ * <pre>
+ * cabecera (32 bytes) magia, versión, filas, cadenas del diccionario, capacidad del índice,
+ *                     bytes de títulos, bytes del diccionario
+ * int[filas]          año, máscara de géneros, duración, hash del título normalizado,
+ *                     estudio y director (índices del diccionario, -1 si no hay)
+ * int[capacidad]      índice de títulos: fila + 1, o 0 si la posición está libre
+ * int[filas + 1]      desplazamientos de los títulos
+ * int[cadenas + 1]    desplazamientos del diccionario
+ * byte[filas]         tipo (bit 0: película, bit 1: en emisión), estado, calificación
+ * bytes UTF-8         títulos (uno por fila) y diccionario de estudios y directores
+ * </pre>
+ */
+final class CatalogoMapeado {
+    
+    static final int MAGIA = 0x414E494D; // "ANIM"
+    static final int VERSION = 1;
+    
+    private static final int TAMANIO_CABECERA = 32;
+    private static final int SIN_CADENA = -1;
+    private static final int BIT_PELICULA = 1;
+    private static final int BIT_EN_EMISION = 2;
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    
+    private final ByteBuffer datos;
+    private final Disposicion disposicion;
+    
+    /** Cadenas del diccionario ya decodificadas, compartidas por todas las filas que las usan */
+    private final String[] cadenasDecodificadas;
+    
+    private CatalogoMapeado(ByteBuffer datos, Disposicion disposicion) {
+        this.datos = datos;
+        this.disposicion = disposicion;
+        this.cadenasDecodificadas = new String[disposicion.cadenasDiccionario];
+    }
+    
+    /**
+     * Catálogo sin filas, para cuando todavía no existe el archivo.
+     */
+    static CatalogoMapeado vacio() {
+        Disposicion disposicion = new Disposicion(0, 0, capacidadIndice(0), 0, 0);
+        return new CatalogoMapeado(ByteBuffer.allocate((int) disposicion.tamanioTotal), disposicion);
+    }
+    
+    static CatalogoMapeado abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio < TAMANIO_CABECERA) {
+                throw new IOException("Archivo de catálogo truncado");
+            }
+            if (tamanio > Integer.MAX_VALUE) {
+                throw new IOException("El catálogo supera el máximo que se puede mapear: " + tamanio + " bytes");
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+            
+            if (mapeo.getInt(0) != MAGIA) {
+                throw new IOException("Formato de catálogo inválido");
+            }
+            int version = mapeo.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Versión de catálogo no soportada: " + version);
+            }
+            Disposicion disposicion = new Disposicion(mapeo.getInt(8), mapeo.getInt(12), mapeo.getInt(16),
+                mapeo.getInt(20), mapeo.getInt(24));
+            if (disposicion.tamanioTotal != tamanio) {
+                throw new IOException("El tamaño del catálogo no coincide con su cabecera");
+            }
+            return new CatalogoMapeado(mapeo, disposicion);
+        }
+    }
+    
+    // ========== Lectura de filas ==========
+    
+    int tamanio() {
+        return disposicion.filas;
+    }
+    
+    int anio(int fila) {
+        return entero(disposicion.anios, fila);
+    }
+    
+    int mascaraGeneros(int fila) {
+        return entero(disposicion.mascaras, fila);
+    }
+    
+    int estado(int fila) {
+        return octeto(disposicion.estados, fila);
+    }
+    
+    int calificacion(int fila) {
+        return octeto(disposicion.calificaciones, fila);
+    }
+    
+    String titulo(int fila) {
+        int desde = entero(disposicion.desplazamientosTitulos, fila);
+        int hasta = entero(disposicion.desplazamientosTitulos, fila + 1);
+        return cadena(disposicion.bytesTitulos + desde, hasta - desde);
+    }
+    
+    /**
+     * Construye una instancia nueva con los valores de la fila.
+     */
+    AnimeBase materializar(int fila) {
+        int tipo = octeto(disposicion.tipos, fila);
+        String titulo = titulo(fila);
+        int anio = anio(fila);
+        String estudio = cadenaDiccionario(entero(disposicion.estudios, fila));
+        int duracion = entero(disposicion.duraciones, fila);
+        Set<Genero> generos = Genero.desdeMascara(mascaraGeneros(fila));
+        
+        AnimeBase anime;
+        if ((tipo & BIT_PELICULA) != 0) {
+            anime = new AnimePelicula(titulo, anio, estudio, duracion, generos,
+                cadenaDiccionario(entero(disposicion.directores, fila)));
+        } else {
+            anime = new AnimeSerie(titulo, anio, estudio, duracion, generos, (tipo & BIT_EN_EMISION) != 0);
+        }
+        anime.establecerEstado(ESTADOS[estado(fila)]);
+        int calificacion = calificacion(fila);
+        if (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion <= AnimeBase.CALIFICACION_MAXIMA) {
+            anime.establecerCalificacion(calificacion);
+        }
+        return anime;
+    }
+    
+    /**
+     * Busca la fila de un título ya normalizado con {@link IndiceTitulos#normalizar}.
+     *
+     * @return la fila, o -1 si no está
+     */
+    int buscarFila(String clave) {
+        int hash = clave.hashCode();
+        int mascara = disposicion.capacidad - 1;
+        for (int posicion = mezclar(hash) & mascara; ; posicion = (posicion + 1) & mascara) {
+            int valor = entero(disposicion.indice, posicion);
+            if (valor == 0) {
+                return -1;
+            }
+            int fila = valor - 1;
+            if (entero(disposicion.hashes, fila) == hash && IndiceTitulos.normalizar(titulo(fila)).equals(clave)) {
+                return fila;
+            }
+        }
+    }
+    
+    private int entero(long seccion, int indice) {
+        return datos.getInt((int) (seccion + 4L * indice));
+    }
+    
+    private byte octeto(long seccion, int indice) {
+        return datos.get((int) (seccion + indice));
+    }
+    
+    private String cadenaDiccionario(int indice) {
+        if (indice == SIN_CADENA) {
+            return null;
+        }
+        String cadena = cadenasDecodificadas[indice];
+        if (cadena == null) {
+            int desde = entero(disposicion.desplazamientosDiccionario, indice);
+            int hasta = entero(disposicion.desplazamientosDiccionario, indice + 1);
+            cadena = cadena(disposicion.bytesDiccionario + desde, hasta - desde);
+            cadenasDecodificadas[indice] = cadena;
+        }
+        return cadena;
+    }
+    
+    private String cadena(long posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        datos.get((int) posicion, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static int mezclar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+    
+    private static int capacidadIndice(int filas) {
+        int capacidad = 16;
+        while (capacidad < filas * 2L && capacidad < (1 << 30)) {
+            capacidad <<= 1;
+        }
+        return capacidad;
+    }
+    
+    // ========== Disposición del archivo ==========
+    
+    /**
+     * Posición de cada sección, calculada a partir de las cantidades de la cabecera.
+     */
+    private static final class Disposicion {
+        final int filas;
+        final int cadenasDiccionario;
+        final int capacidad;
+        final long anios;
+        final long mascaras;
+        final long duraciones;
+        final long hashes;
+        final long estudios;
+        final long directores;
+        final long indice;
+        final long desplazamientosTitulos;
+        final long desplazamientosDiccionario;
+        final long tipos;
+        final long estados;
+        final long calificaciones;
+        final long bytesTitulos;
+        final long bytesDiccionario;
+        final long tamanioTotal;
+        
+        Disposicion(int filas, int cadenasDiccionario, int capacidad, int longitudTitulos, int longitudDiccionario) {
+            this.filas = filas;
+            this.cadenasDiccionario = cadenasDiccionario;
+            this.capacidad = capacidad;
+            anios = TAMANIO_CABECERA;
+            mascaras = anios + 4L * filas;
+            duraciones = mascaras + 4L * filas;
+            hashes = duraciones + 4L * filas;
+            estudios = hashes + 4L * filas;
+            directores = estudios + 4L * filas;
+            indice = directores + 4L * filas;
+            desplazamientosTitulos = indice + 4L * capacidad;
+            desplazamientosDiccionario = desplazamientosTitulos + 4L * (filas + 1);
+            tipos = desplazamientosDiccionario + 4L * (cadenasDiccionario + 1);
+            estados = tipos + filas;
+            calificaciones = estados + filas;
+            bytesTitulos = calificaciones + filas;
+            bytesDiccionario = bytesTitulos + longitudTitulos;
+            tamanioTotal = bytesDiccionario + longitudDiccionario;
+        }
+    }
+    
+    // ========== Escritura ==========
+    
+    /**
+     * Arma un archivo nuevo fila por fila, a partir de anime o copiando filas de un catálogo
+     * mapeado sin materializarlas.
+     */
+    static final class Escritor {
+        private int filas;
+        private byte[] tipos = new byte[1024];
+        private byte[] estados = new byte[1024];
+        private byte[] calificaciones = new byte[1024];
+        private int[] anios = new int[1024];
+        private int[] mascaras = new int[1024];
+        private int[] duraciones = new int[1024];
+        private int[] hashes = new int[1024];
+        private int[] estudios = new int[1024];
+        private int[] directores = new int[1024];
+        private int[] finTitulos = new int[1024];
+        private byte[] titulos = new byte[1 << 16];
+        private int longitudTitulos;
+        
+        private final DiccionarioNombres diccionario = new DiccionarioNombres();
+        private final Map<CatalogoMapeado, int[]> traducciones = new IdentityHashMap<>();
+        
+        void agregar(AnimeBase anime) {
+            int fila = reservarFila();
+            boolean esPelicula = anime instanceof AnimePelicula;
+            int tipo = esPelicula ? BIT_PELICULA : 0;
+            if (!esPelicula && ((AnimeSerie) anime).estaEnEmision()) {
+                tipo |= BIT_EN_EMISION;
+            }
+            tipos[fila] = (byte) tipo;
+            estados[fila] = (byte) anime.obtenerEstado().ordinal();
+            calificaciones[fila] = (byte) anime.obtenerCalificacion();
+            anios[fila] = anime.obtenerAnioLanzamiento();
+            mascaras[fila] = anime.obtenerMascaraGeneros();
+            duraciones[fila] = anime.obtenerDuracion();
+            hashes[fila] = IndiceTitulos.normalizar(anime.obtenerTitulo()).hashCode();
+            estudios[fila] = registrar(anime.obtenerEstudio());
+            directores[fila] = esPelicula ? registrar(((AnimePelicula) anime).obtenerDirector()) : SIN_CADENA;
+            agregarTitulo(fila, anime.obtenerTitulo().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        /**
+         * Copia una fila de otro catálogo tal como está guardada.
+         */
+        void copiar(CatalogoMapeado origen, int filaOrigen) {
+            int fila = reservarFila();
+            Disposicion d = origen.disposicion;
+            tipos[fila] = origen.octeto(d.tipos, filaOrigen);
+            estados[fila] = origen.octeto(d.estados, filaOrigen);
+            calificaciones[fila] = origen.octeto(d.calificaciones, filaOrigen);
+            anios[fila] = origen.entero(d.anios, filaOrigen);
+            mascaras[fila] = origen.entero(d.mascaras, filaOrigen);
+            duraciones[fila] = origen.entero(d.duraciones, filaOrigen);
+            hashes[fila] = origen.entero(d.hashes, filaOrigen);
+            estudios[fila] = traducir(origen, origen.entero(d.estudios, filaOrigen));
+            directores[fila] = traducir(origen, origen.entero(d.directores, filaOrigen));
+            
+            int desde = origen.entero(d.desplazamientosTitulos, filaOrigen);
+            int hasta = origen.entero(d.desplazamientosTitulos, filaOrigen + 1);
+            byte[] titulo = new byte[hasta - desde];
+            origen.datos.get((int) (d.bytesTitulos + desde), titulo);
+            agregarTitulo(fila, titulo);
+        }
+        
+        private int reservarFila() {
+            if (filas == tipos.length) {
+                int capacidad = tipos.length * 2;
+                tipos = Arrays.copyOf(tipos, capacidad);
+                estados = Arrays.copyOf(estados, capacidad);
+                calificaciones = Arrays.copyOf(calificaciones, capacidad);
+                anios = Arrays.copyOf(anios, capacidad);
+                mascaras = Arrays.copyOf(mascaras, capacidad);
+                duraciones = Arrays.copyOf(duraciones, capacidad);
+                hashes = Arrays.copyOf(hashes, capacidad);
+                estudios = Arrays.copyOf(estudios, capacidad);
+                directores = Arrays.copyOf(directores, capacidad);
+                finTitulos = Arrays.copyOf(finTitulos, capacidad);
+            }
+            return filas++;
+        }
+        
+        private void agregarTitulo(int fila, byte[] titulo) {
+            if (longitudTitulos + titulo.length > titulos.length) {
+                titulos = Arrays.copyOf(titulos, Math.max(titulos.length * 2, longitudTitulos + titulo.length));
+            }
+            System.arraycopy(titulo, 0, titulos, longitudTitulos, titulo.length);
+            longitudTitulos += titulo.length;
+            finTitulos[fila] = longitudTitulos;
+        }
+        
+        private int registrar(String cadena) {
+            return cadena != null ? diccionario.id(cadena) : SIN_CADENA;
+        }
+        
+        private int traducir(CatalogoMapeado origen, int indiceOrigen) {
+            if (indiceOrigen == SIN_CADENA) {
+                return SIN_CADENA;
+            }
+            int[] traduccion = traducciones.computeIfAbsent(origen, o -> {
+                int[] vacia = new int[o.disposicion.cadenasDiccionario];
+                Arrays.fill(vacia, Integer.MIN_VALUE);
+                return vacia;
+            });
+            if (traduccion[indiceOrigen] == Integer.MIN_VALUE) {
+                traduccion[indiceOrigen] = registrar(origen.cadenaDiccionario(indiceOrigen));
+            }
+            return traduccion[indiceOrigen];
+        }
+        
+        /**
+         * Escribe el archivo completo. El índice de títulos se arma con los hashes de las filas;
+         * los títulos repetidos deben descartarse antes de agregarlos.
+         */
+        void escribir(Path archivo) throws IOException {
+            int capacidad = capacidadIndice(filas);
+            byte[][] diccionarioUtf8 = new byte[diccionario.tamanio()][];
+            int longitudDiccionario = 0;
+            for (int i = 0; i < diccionarioUtf8.length; i++) {
+                diccionarioUtf8[i] = diccionario.nombre(i).getBytes(StandardCharsets.UTF_8);
+                longitudDiccionario += diccionarioUtf8[i].length;
+            }
+            Disposicion d = new Disposicion(filas, diccionario.tamanio(), capacidad, longitudTitulos, longitudDiccionario);
+            if (d.tamanioTotal > Integer.MAX_VALUE) {
+                throw new IOException("El catálogo supera el máximo que se puede mapear: " + d.tamanioTotal + " bytes");
+            }
+            
+            int[] indice = new int[capacidad];
+            for (int fila = 0; fila < filas; fila++) {
+                int posicion = mezclar(hashes[fila]) & (capacidad - 1);
+                while (indice[posicion] != 0) {
+                    posicion = (posicion + 1) & (capacidad - 1);
+                }
+                indice[posicion] = fila + 1;
+            }
+            
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+                buffer.putInt(MAGIA).putInt(VERSION).putInt(filas).putInt(diccionario.tamanio()).putInt(capacidad)
+                    .putInt(longitudTitulos).putInt(longitudDiccionario).putInt(0);
+                escribirEnteros(canal, buffer, anios, filas);
+                escribirEnteros(canal, buffer, mascaras, filas);
+                escribirEnteros(canal, buffer, duraciones, filas);
+                escribirEnteros(canal, buffer, hashes, filas);
+                escribirEnteros(canal, buffer, estudios, filas);
+                escribirEnteros(canal, buffer, directores, filas);
+                escribirEnteros(canal, buffer, indice, capacidad);
+                
+                escribirEntero(canal, buffer, 0);
+                escribirEnteros(canal, buffer, finTitulos, filas);
+                int fin = 0;
+                escribirEntero(canal, buffer, fin);
+                for (byte[] cadena : diccionarioUtf8) {
+                    fin += cadena.length;
+                    escribirEntero(canal, buffer, fin);
+                }
+                
+                escribirBytes(canal, buffer, tipos, filas);
+                escribirBytes(canal, buffer, estados, filas);
+                escribirBytes(canal, buffer, calificaciones, filas);
+                escribirBytes(canal, buffer, titulos, longitudTitulos);
+                for (byte[] cadena : diccionarioUtf8) {
+                    escribirBytes(canal, buffer, cadena, cadena.length);
+                }
+                vaciar(canal, buffer);
+            }
+        }
+        
+        private static void escribirEnteros(FileChannel canal, ByteBuffer buffer, int[] valores, int cantidad)
+                throws IOException {
+            for (int i = 0; i < cantidad; i++) {
+                escribirEntero(canal, buffer, valores[i]);
+            }
+        }
+        
+        private static void escribirEntero(FileChannel canal, ByteBuffer buffer, int valor) throws IOException {
+            if (buffer.remaining() < 4) {
+                vaciar(canal, buffer);
+            }
+            buffer.putInt(valor);
+        }
+        
+        private static void escribirBytes(FileChannel canal, ByteBuffer buffer, byte[] valores, int cantidad)
+                throws IOException {
+            int escritos = 0;
+            while (escritos < cantidad) {
+                if (!buffer.hasRemaining()) {
+                    vaciar(canal, buffer);
+                }
+                int parte = Math.min(buffer.remaining(), cantidad - escritos);
+                buffer.put(valores, escritos, parte);
+                escritos += parte;
+            }
+        }
+        
+        private static void vaciar(FileChannel canal, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package repositorio;
+
+import modelo.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Codificación binaria compacta de un anime, independiente de la serialización de Java.
+ */
+final class CodificadorAnime {
+    
+    private static final byte TIPO_SERIE = 0;
+    private static final byte TIPO_PELICULA = 1;
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    
+    private CodificadorAnime() {
+    }
+    
+    static void escribir(DataOutput salida, AnimeBase anime) throws IOException {
+        boolean esSerie = anime instanceof AnimeSerie;
+        salida.writeByte(esSerie ? TIPO_SERIE : TIPO_PELICULA);
+        salida.writeUTF(anime.obtenerTitulo());
+        salida.writeInt(anime.obtenerAnioLanzamiento());
+        salida.writeUTF(anime.obtenerEstudio() != null ? anime.obtenerEstudio() : "");
+        salida.writeByte(anime.obtenerEstado().ordinal());
+        salida.writeByte(anime.obtenerCalificacion());
+        salida.writeInt(anime.obtenerMascaraGeneros());
+        salida.writeInt(anime.obtenerDuracion());
+        
+        if (esSerie) {
+            salida.writeBoolean(((AnimeSerie) anime).estaEnEmision());
+        } else {
+            String director = ((AnimePelicula) anime).obtenerDirector();
+            salida.writeUTF(director != null ? director : "");
+        }
+    }
+    
+    /**
+     * @param nombres diccionario con el que se comparten estudios y directores repetidos
+     */
+    static AnimeBase leer(DataInput entrada, DiccionarioNombres nombres) throws IOException {
+        byte tipo = entrada.readByte();
+        String titulo = entrada.readUTF();
+        int anio = entrada.readInt();
+        String estudio = nombres.canonico(entrada.readUTF());
+        int estado = entrada.readByte();
+        int calificacion = entrada.readByte();
+        Set<Genero> generos = Genero.desdeMascara(entrada.readInt());
+        int duracion = entrada.readInt();
+        
+        AnimeBase anime;
+        if (tipo == TIPO_SERIE) {
+            anime = new AnimeSerie(titulo, anio, estudio, duracion, generos, entrada.readBoolean());
+        } else if (tipo == TIPO_PELICULA) {
+            anime = new AnimePelicula(titulo, anio, estudio, duracion, generos, nombres.canonico(entrada.readUTF()));
+        } else {
+            throw new IOException("Tipo de anime desconocido: " + tipo);
+        }
+        
+        if (estado < 0 || estado >= ESTADOS.length) {
+            throw new IOException("Estado desconocido: " + estado);
+        }
+        anime.establecerEstado(ESTADOS[estado]);
+        if (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion <= AnimeBase.CALIFICACION_MAXIMA) {
+            anime.establecerCalificacion(calificacion);
+        }
+        
+        return anime;
+    }
+}
@@ -0,0 +1,197 @@
+package repositorio;
+
+import excepcion.ExcepcionPersistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Cola acotada de operaciones pendientes de escribir, atendida por un hilo en segundo plano.
+ *
+ * El hilo toma de una vez todas las operaciones acumuladas y se las entrega juntas al
+ * aplicador, que puede combinarlas. Cuando la cola está llena, quien encola espera a que se
+ * libere lugar. Lo pendiente se escribe también al cerrar la JVM.
+ *
+ * Un lote que falla no se descarta: el hilo lo vuelve a intentar cada cierto tiempo, o en
+ * cuanto alguien llama a confirmar, y mientras tanto no toma operaciones nuevas.
+ */
+final class ColaEscrituraDiferida<T> {
+    
+    private static final long ESPERA_REINTENTO_MS = 2000;
+    
+    interface Aplicador<T> {
+        void aplicar(List<T> lote) throws ExcepcionPersistencia;
+    }
+    
+    private final BlockingQueue<T> cola;
+    private final Aplicador<T> aplicador;
+    private final Thread escritor;
+    private final Thread ganchoCierre;
+    
+    /** Operaciones encoladas y aplicadas desde el inicio; protegidos por this */
+    private long encoladas;
+    private long aplicadas;
+    private boolean cerrada;
+    
+    /** Intentos de escritura desde el inicio y número del último que falló */
+    private long intentos;
+    private long intentoFallido;
+    /** Fallo del lote retenido, hasta que un reintento tenga éxito */
+    private ExcepcionPersistencia ultimoFallo;
+    /** Fallo que todavía no se informó al encolar */
+    private ExcepcionPersistencia falloPendiente;
+    private boolean reintentoSolicitado;
+    
+    ColaEscrituraDiferida(String nombre, int capacidad, Aplicador<T> aplicador) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.aplicador = aplicador;
+        this.escritor = new Thread(this::atender, nombre);
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+        this.ganchoCierre = new Thread(this::confirmarAlCerrar, nombre + "-cierre");
+        Runtime.getRuntime().addShutdownHook(ganchoCierre);
+    }
+    
+    /**
+     * Encola una operación, esperando si la cola está llena. Informa el fallo de una escritura
+     * anterior, si lo hubo; la operación queda encolada igualmente.
+     */
+    void encolar(T operacion) throws ExcepcionPersistencia {
+        ExcepcionPersistencia fallo;
+        synchronized (this) {
+            if (cerrada) {
+                throw new IllegalStateException("La cola de escritura está cerrada");
+            }
+            encoladas++;
+            fallo = falloPendiente;
+            falloPendiente = null;
+        }
+        try {
+            cola.put(operacion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (this) {
+                encoladas--;
+                if (falloPendiente == null) {
+                    falloPendiente = fallo;
+                }
+                notifyAll();
+            }
+            throw new ExcepcionPersistencia("Se interrumpió la espera para encolar una escritura", e);
+        }
+        if (fallo != null) {
+            throw fallo;
+        }
+    }
+    
+    /**
+     * Espera a que se apliquen todas las operaciones encoladas hasta ahora. Si hay un lote
+     * fallido lo reintenta de inmediato; si el intento vuelve a fallar, informa ese fallo y
+     * el lote sigue pendiente.
+     */
+    void confirmar() throws ExcepcionPersistencia {
+        ExcepcionPersistencia fallo;
+        synchronized (this) {
+            long objetivo = encoladas;
+            long intentosPrevios = intentos;
+            // Sólo cuenta el fallo de un intento que empezó después de esta llamada
+            while (aplicadas < objetivo && intentoFallido <= intentosPrevios) {
+                if (ultimoFallo != null && intentos == intentosPrevios) {
+                    reintentoSolicitado = true;
+                    notifyAll();
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExcepcionPersistencia("Se interrumpió la espera de las escrituras pendientes", e);
+                }
+            }
+            if (aplicadas >= objetivo) {
+                return;
+            }
+            fallo = ultimoFallo;
+            falloPendiente = null;
+        }
+        throw fallo;
+    }
+    
+    /**
+     * Aplica lo pendiente y detiene el hilo escritor.
+     */
+    void cerrar() throws ExcepcionPersistencia {
+        try {
+            confirmar();
+        } finally {
+            synchronized (this) {
+                cerrada = true;
+            }
+            escritor.interrupt();
+            try {
+                Runtime.getRuntime().removeShutdownHook(ganchoCierre);
+            } catch (IllegalStateException e) {
+                // la JVM ya se está cerrando
+            }
+        }
+    }
+    
+    private void atender() {
+        List<T> lote = new ArrayList<>();
+        while (true) {
+            try {
+                if (lote.isEmpty()) {
+                    lote.add(cola.take());
+                    cola.drainTo(lote);
+                } else {
+                    esperarReintento();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            long intento;
+            synchronized (this) {
+                intento = ++intentos;
+            }
+            try {
+                aplicador.aplicar(lote);
+            } catch (ExcepcionPersistencia | RuntimeException e) {
+                // El lote se conserva para reintentarlo; lo nuevo espera en la cola
+                synchronized (this) {
+                    ultimoFallo = e instanceof ExcepcionPersistencia ? (ExcepcionPersistencia) e
+                        : new ExcepcionPersistencia("Error en la escritura diferida: " + e.getMessage(), e);
+                    falloPendiente = ultimoFallo;
+                    intentoFallido = intento;
+                    notifyAll();
+                }
+                continue;
+            }
+            synchronized (this) {
+                aplicadas += lote.size();
+                ultimoFallo = null;
+                falloPendiente = null;
+                notifyAll();
+            }
+            lote.clear();
+        }
+    }
+    
+    private synchronized void esperarReintento() throws InterruptedException {
+        if (!reintentoSolicitado) {
+            wait(ESPERA_REINTENTO_MS);
+        }
+        reintentoSolicitado = false;
+    }
+    
+    private void confirmarAlCerrar() {
+        try {
+            confirmar();
+        } catch (ExcepcionPersistencia e) {
+            System.err.println("No se pudieron guardar los últimos cambios: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package repositorio;
+
+import excepcion.ExcepcionPersistencia;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa las escrituras de un repositorio: la primera modificación programa una escritura
+ * para dentro de la ventana indicada y las que llegan mientras tanto se incluyen en ella.
+ *
+ * Una caída puede perder las modificaciones de la última ventana, pero el archivo siempre
+ * queda en un estado completo. Si la escritura en segundo plano falla, lo pendiente se
+ * conserva y se reintenta; el error sólo se informa desde {@link #confirmar()}, que escribe
+ * en el momento. Lo pendiente se escribe también al cerrar la JVM.
+ */
+final class ConfirmacionAgrupada {
+    
+    interface Escritura {
+        void escribir() throws ExcepcionPersistencia;
+    }
+    
+    private static final long ESPERA_REINTENTO_MS = 2000;
+    
+    private static final ScheduledExecutorService PLANIFICADOR = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "confirmacion-agrupada");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    
+    private final long ventanaMillis;
+    private final Escritura escritura;
+    private final Object escribiendo = new Object();
+    
+    /** Hay modificaciones sin escribir */
+    private boolean pendiente;
+    
+    /** Hay una escritura en segundo plano programada */
+    private boolean programada;
+    
+    private boolean ganchoRegistrado;
+    
+    ConfirmacionAgrupada(long ventanaMillis, Escritura escritura) {
+        if (ventanaMillis <= 0) {
+            throw new IllegalArgumentException("La ventana debe ser positiva: " + ventanaMillis);
+        }
+        this.ventanaMillis = ventanaMillis;
+        this.escritura = escritura;
+    }
+    
+    /**
+     * Registra una modificación y programa su escritura si no había una programada.
+     */
+    synchronized void programar() {
+        if (!ganchoRegistrado) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::confirmarAlCerrar, "confirmacion-agrupada-cierre"));
+            ganchoRegistrado = true;
+        }
+        pendiente = true;
+        programarEscritura(ventanaMillis);
+    }
+    
+    /**
+     * Escribe ahora lo pendiente, si lo hay. Si falla, lo pendiente se conserva.
+     */
+    void confirmar() throws ExcepcionPersistencia {
+        synchronized (escribiendo) {
+            synchronized (this) {
+                if (!pendiente) {
+                    return;
+                }
+                pendiente = false;
+            }
+            try {
+                escritura.escribir();
+            } catch (ExcepcionPersistencia e) {
+                synchronized (this) {
+                    pendiente = true;
+                }
+                throw e;
+            }
+        }
+    }
+    
+    private void programarEscritura(long demoraMillis) {
+        if (!programada) {
+            programada = true;
+            PLANIFICADOR.schedule(this::confirmarEnSegundoPlano, demoraMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void confirmarEnSegundoPlano() {
+        synchronized (this) {
+            programada = false;
+        }
+        try {
+            confirmar();
+        } catch (ExcepcionPersistencia e) {
+            // Lo pendiente sigue marcado: se reintenta, y confirmar() informa si vuelve a fallar
+            synchronized (this) {
+                programarEscritura(Math.max(ventanaMillis, ESPERA_REINTENTO_MS));
+            }
+        }
+    }
+    
+    private void confirmarAlCerrar() {
+        try {
+            confirmar();
+        } catch (ExcepcionPersistencia e) {
+            throw new IllegalStateException("No se pudieron guardar los últimos cambios", e);
+        }
+    }
+}
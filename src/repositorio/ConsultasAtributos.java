@@ -0,0 +1,38 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import excepcion.ExcepcionPersistencia;
+
+import java.util.List;
+
+/**
+ * Consultas que un repositorio resuelve sin recorrer el catálogo materializado, con índices
+ * secundarios o leyendo sus columnas. Los servicios las usan cuando el repositorio las
+ * implementa y si no recorren la instantánea.
+ */
+public interface ConsultasAtributos {
+    
+    /**
+     * Obtiene, en el orden de obtenerTodos, los anime que cumplen todos los criterios dados.
+     *
+     * @param estado              estado exigido, o null
+     * @param generosRequeridos   máscara de géneros que deben estar todos, o 0
+     * @param generosAlguno       máscara de géneros de los que debe haber al menos uno, o 0
+     * @param calificacionMinima  calificación mínima (excluye los no calificados), o 0
+     */
+    List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                       int calificacionMinima) throws ExcepcionPersistencia;
+    
+    /**
+     * Cuenta los anime que cumplen los criterios de buscarPorAtributos.
+     */
+    int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                           int calificacionMinima) throws ExcepcionPersistencia;
+    
+    /**
+     * Obtiene, en el orden de obtenerTodos, los anime cuyo título contiene el texto sin
+     * distinguir mayúsculas.
+     */
+    List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia;
+}
@@ -0,0 +1,40 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import excepcion.ExcepcionPersistencia;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas que los repositorios con el catálogo en un {@link IndiceTitulos} resuelven con
+ * sus índices de estudios, prefijos y distancia de edición, además de las de atributos.
+ */
+public interface ConsultasCatalogo extends ConsultasAtributos {
+    
+    /**
+     * Obtiene, en el orden de obtenerTodos, los anime cuyo estudio contiene el texto sin
+     * distinguir mayúsculas.
+     */
+    List<AnimeBase> buscarPorEstudio(String texto) throws ExcepcionPersistencia;
+    
+    /**
+     * Cuenta los anime por estudio individual, separando por "/" los valores con varios
+     * estudios, de más a menos frecuente y, a igual cantidad, por nombre.
+     */
+    Map<String, Long> contarPorEstudio() throws ExcepcionPersistencia;
+    
+    /**
+     * Obtiene hasta limite anime cuyo título empieza con el prefijo sin distinguir
+     * mayúsculas, de mayor a menor calificación y, a igual calificación, por título.
+     */
+    List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) throws ExcepcionPersistencia;
+    
+    /**
+     * Obtiene hasta limite anime cuyo título está a distancia de edición distanciaMaxima o
+     * menor del dado, sin distinguir mayúsculas, de más cercano a más lejano y, a igual
+     * distancia, por título.
+     */
+    List<AnimeBase> buscarPorTituloAproximado(String titulo, int distanciaMaxima, int limite)
+        throws ExcepcionPersistencia;
+}
@@ -0,0 +1,63 @@
+package repositorio;
+
+import java.util.*;
+
+/**
+ * Diccionario de nombres repetidos (estudios, directores) con un id entero por nombre.
+ *
+ * Cada nombre distinto se guarda una sola vez: {@link #canonico} devuelve siempre la misma
+ * instancia para textos iguales, de modo que miles de anime del mismo estudio comparten un
+ * único String aunque se hayan leído por separado.
+ */
+public class DiccionarioNombres {
+    
+    private final Map<String, Integer> ids;
+    private final List<String> nombres;
+    
+    public DiccionarioNombres() {
+        this.ids = new HashMap<>();
+        this.nombres = new ArrayList<>();
+    }
+    
+    /**
+     * Retorna el id del nombre, registrándolo si es nuevo. Los ids son consecutivos desde 0.
+     */
+    public int id(String nombre) {
+        Integer id = ids.get(nombre);
+        if (id == null) {
+            id = nombres.size();
+            ids.put(nombre, id);
+            nombres.add(nombre);
+        }
+        return id;
+    }
+    
+    /**
+     * Retorna el id del nombre, o -1 si no está registrado.
+     */
+    public int buscarId(String nombre) {
+        Integer id = ids.get(nombre);
+        return id != null ? id : -1;
+    }
+    
+    public String nombre(int id) {
+        return nombres.get(id);
+    }
+    
+    /**
+     * Retorna la instancia registrada igual al nombre, registrándolo si es nuevo; null
+     * queda como null.
+     */
+    public String canonico(String nombre) {
+        return nombre != null ? nombres.get(id(nombre)) : null;
+    }
+    
+    public int tamanio() {
+        return nombres.size();
+    }
+    
+    public void limpiar() {
+        ids.clear();
+        nombres.clear();
+    }
+}
@@ -0,0 +1,205 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+import java.util.*;
+
+/**
+ * Arreglo de filas por bloques que publica instantáneas inmutables compartiendo estructura.
+ *
+ * Las filas coinciden con las de {@link IndiceBitmap}: un anime por fila y huecos (null) en
+ * las eliminadas. Entre dos publicaciones los bloques se modifican en el lugar; publicar
+ * marca todos los bloques como compartidos, y la siguiente escritura en cada bloque lo copia
+ * antes de modificarlo. Así una instantánea cuesta lo que el índice de bloques y cada
+ * modificación posterior, a lo sumo un bloque.
+ */
+final class FilasVersionadas {
+    
+    private static final int BITS_BLOQUE = 7;
+    private static final int TAMANIO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANIO_BLOQUE - 1;
+    
+    private AnimeBase[][] bloques;
+    private int[] vivasPorBloque;
+    /** Generación dueña de cada bloque; los de generaciones anteriores están compartidos */
+    private int[] generaciones;
+    private boolean indiceCompartido;
+    private int generacion;
+    
+    private int filas;
+    private int vivas;
+    private long version;
+    private InstantaneaCatalogo publicada;
+    
+    FilasVersionadas() {
+        limpiar();
+    }
+    
+    /**
+     * Asigna el anime de una fila existente, o agrega una al final si fila es igual a la
+     * cantidad de filas. Un anime null deja la fila como hueco.
+     */
+    void establecer(int fila, AnimeBase anime) {
+        if (fila > filas) {
+            throw new IndexOutOfBoundsException("Fila " + fila + " con " + filas + " filas");
+        }
+        if (indiceCompartido) {
+            bloques = bloques.clone();
+            vivasPorBloque = vivasPorBloque.clone();
+            generaciones = generaciones.clone();
+            indiceCompartido = false;
+        }
+        int bloque = fila >>> BITS_BLOQUE;
+        if (fila == filas) {
+            if ((fila & MASCARA_BLOQUE) == 0) {
+                agregarBloque(bloque);
+            }
+            filas++;
+        }
+        if (generaciones[bloque] != generacion) {
+            bloques[bloque] = bloques[bloque].clone();
+            generaciones[bloque] = generacion;
+        }
+        
+        AnimeBase[] datos = bloques[bloque];
+        int cambio = (anime != null ? 1 : 0) - (datos[fila & MASCARA_BLOQUE] != null ? 1 : 0);
+        datos[fila & MASCARA_BLOQUE] = anime;
+        vivasPorBloque[bloque] += cambio;
+        vivas += cambio;
+        
+        version++;
+        publicada = null;
+    }
+    
+    private void agregarBloque(int bloque) {
+        if (bloque == bloques.length) {
+            int capacidad = Math.max(16, bloques.length * 2);
+            bloques = Arrays.copyOf(bloques, capacidad);
+            vivasPorBloque = Arrays.copyOf(vivasPorBloque, capacidad);
+            generaciones = Arrays.copyOf(generaciones, capacidad);
+        }
+        bloques[bloque] = new AnimeBase[TAMANIO_BLOQUE];
+        generaciones[bloque] = generacion;
+    }
+    
+    void limpiar() {
+        bloques = new AnimeBase[16][];
+        vivasPorBloque = new int[16];
+        generaciones = new int[16];
+        indiceCompartido = false;
+        generacion++;
+        filas = 0;
+        vivas = 0;
+        version++;
+        publicada = null;
+    }
+    
+    long obtenerVersion() {
+        return version;
+    }
+    
+    /**
+     * Cantidad de filas, contando los huecos.
+     */
+    int obtenerCantidadFilas() {
+        return filas;
+    }
+    
+    /**
+     * Retorna la instantánea del estado actual; mientras no haya modificaciones se retorna
+     * siempre la misma.
+     */
+    InstantaneaCatalogo publicar() {
+        if (publicada == null) {
+            int cantidadBloques = (filas + MASCARA_BLOQUE) >>> BITS_BLOQUE;
+            int[] acumuladas = new int[cantidadBloques + 1];
+            for (int i = 0; i < cantidadBloques; i++) {
+                acumuladas[i + 1] = acumuladas[i] + vivasPorBloque[i];
+            }
+            publicada = new InstantaneaCatalogo(version, new Vista(bloques, acumuladas, filas));
+            indiceCompartido = true;
+            generacion++;
+        }
+        return publicada;
+    }
+    
+    /**
+     * Lista inmutable de los anime vivos de una publicación, sin los huecos.
+     */
+    private static final class Vista extends AbstractList<AnimeBase> implements RandomAccess {
+        private final AnimeBase[][] bloques;
+        /** Anime vivos antes de cada bloque */
+        private final int[] acumuladas;
+        private final int filas;
+        
+        Vista(AnimeBase[][] bloques, int[] acumuladas, int filas) {
+            this.bloques = bloques;
+            this.acumuladas = acumuladas;
+            this.filas = filas;
+        }
+        
+        @Override
+        public AnimeBase get(int indice) {
+            Objects.checkIndex(indice, size());
+            int desde = 0;
+            int hasta = acumuladas.length - 2;
+            while (desde < hasta) {
+                int medio = (desde + hasta + 1) >>> 1;
+                if (acumuladas[medio] <= indice) {
+                    desde = medio;
+                } else {
+                    hasta = medio - 1;
+                }
+            }
+            AnimeBase[] datos = bloques[desde];
+            int posicion = indice - acumuladas[desde];
+            if (acumuladas[desde + 1] - acumuladas[desde] == longitudBloque(desde)) {
+                return datos[posicion];
+            }
+            for (AnimeBase anime : datos) {
+                if (anime != null && posicion-- == 0) {
+                    return anime;
+                }
+            }
+            throw new IllegalStateException("Bloque inconsistente: " + desde);
+        }
+        
+        private int longitudBloque(int bloque) {
+            return Math.min(TAMANIO_BLOQUE, filas - (bloque << BITS_BLOQUE));
+        }
+        
+        @Override
+        public int size() {
+            return acumuladas[acumuladas.length - 1];
+        }
+        
+        @Override
+        public Iterator<AnimeBase> iterator() {
+            return new Iterator<AnimeBase>() {
+                private int fila = siguienteViva(0);
+                
+                @Override
+                public boolean hasNext() {
+                    return fila < filas;
+                }
+                
+                @Override
+                public AnimeBase next() {
+                    if (fila >= filas) {
+                        throw new NoSuchElementException();
+                    }
+                    AnimeBase anime = bloques[fila >>> BITS_BLOQUE][fila & MASCARA_BLOQUE];
+                    fila = siguienteViva(fila + 1);
+                    return anime;
+                }
+            };
+        }
+        
+        private int siguienteViva(int fila) {
+            while (fila < filas && bloques[fila >>> BITS_BLOQUE][fila & MASCARA_BLOQUE] == null) {
+                fila++;
+            }
+            return fila;
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package repositorio;
+
+import modelo.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binario versionado de los archivos de catálogo y de listas personalizadas.
+ *
+ * <pre>
+ * cabecera    (32 bytes) magia, versión, contenido, cantidades de cada sección
+ * cadenas     por cada cadena: longitud en bytes (int) + UTF-8
+ * anime       registros de 28 bytes:
+ *               tipo, estado, calificación, en emisión (1 byte c/u),
+ *               año, máscara de géneros, duración,
+ *               título, estudio, director (índices en la tabla de cadenas, -1 si no hay)
+ * listas      registros de 12 bytes: nombre, descripción, cantidad de anime
+ * referencias índice de registro de anime por cada elemento de cada lista
+ * pie         (8 bytes) magia del pie, CRC32C del cuerpo seguido de la cabecera
+ * </pre>
+ *
+ * Los estudios y directores repetidos se guardan una sola vez en la tabla de cadenas. Se lee
+ * y escribe con FileChannel a través de un buffer directo. Los archivos de la versión 1 no
+ * tienen pie y se leen sin verificar.
+ *
+ * Frente al texto exportado el archivo ocupa alrededor de un tercio menos (88 MB contra 55 MB
+ * en el catálogo generado de prueba), no un orden de magnitud: lo que queda son sobre todo
+ * los títulos, únicos por anime, que la tabla de cadenas no puede compartir. Codificar los
+ * enteros de los registros como varint ahorraría a lo sumo 12 de sus 28 bytes; para ganar
+ * más habría que comprimir los títulos, y eso ya no es un cambio de este formato.
+ */
+final class FormatoBinario {
+    
+    static final int MAGIA = 0x414E4942; // "ANIB"
+    static final short VERSION = 2;
+    static final short VERSION_SIN_PIE = 1;
+    static final int MAGIA_PIE = 0x46494E42; // "FINB"
+    
+    static final short CONTENIDO_CATALOGO = 1;
+    static final short CONTENIDO_LISTAS = 2;
+    
+    private static final int TAMANIO_CABECERA = 32;
+    private static final int TAMANIO_REGISTRO_ANIME = 28;
+    private static final int TAMANIO_REGISTRO_LISTA = 12;
+    private static final int TAMANIO_PIE = 8;
+    private static final int TAMANIO_BUFFER = 1 << 20;
+    
+    private static final byte TIPO_SERIE = 0;
+    private static final byte TIPO_PELICULA = 1;
+    private static final int SIN_CADENA = -1;
+    private static final int CADENAS_POR_ANIME = 3;
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    
+    private FormatoBinario() {
+    }
+    
+    // ========== Escritura ==========
+    
+    static void escribirCatalogo(Path archivo, Collection<AnimeBase> animes) throws IOException {
+        TablaCadenas cadenas = new TablaCadenas();
+        int[] indices = new int[animes.size() * CADENAS_POR_ANIME];
+        int registro = 0;
+        for (AnimeBase anime : animes) {
+            cadenas.registrar(anime, indices, registro++);
+        }
+        
+        try (Salida salida = new Salida(archivo)) {
+            salida.saltarCabecera();
+            long bytesCadenas = cadenas.escribir(salida);
+            registro = 0;
+            for (AnimeBase anime : animes) {
+                escribirAnime(salida, anime, indices, registro++);
+            }
+            salida.terminar(CONTENIDO_CATALOGO, cadenas.tamanio(), animes.size(), 0, 0, bytesCadenas);
+        }
+    }
+    
+    /**
+     * Escribe las listas con sus anime. Un anime presente en varias listas se guarda una vez
+     * y al leer se comparte entre ellas.
+     */
+    static void escribirListas(Path archivo, List<ListaPersonalizada> listas) throws IOException {
+        TablaCadenas cadenas = new TablaCadenas();
+        Map<AnimeBase, Integer> registros = new IdentityHashMap<>();
+        List<AnimeBase> animes = new ArrayList<>();
+        int[] indices = new int[64];
+        int referencias = 0;
+        for (ListaPersonalizada lista : listas) {
+            cadenas.registrar(lista.obtenerNombre());
+            cadenas.registrar(lista.obtenerDescripcion());
+            for (AnimeBase anime : lista.obtenerAnimes()) {
+                if (registros.putIfAbsent(anime, animes.size()) == null) {
+                    if ((animes.size() + 1) * CADENAS_POR_ANIME > indices.length) {
+                        indices = Arrays.copyOf(indices, indices.length * 2);
+                    }
+                    cadenas.registrar(anime, indices, animes.size());
+                    animes.add(anime);
+                }
+                referencias++;
+            }
+        }
+        
+        try (Salida salida = new Salida(archivo)) {
+            salida.saltarCabecera();
+            long bytesCadenas = cadenas.escribir(salida);
+            for (int i = 0; i < animes.size(); i++) {
+                escribirAnime(salida, animes.get(i), indices, i);
+            }
+            for (ListaPersonalizada lista : listas) {
+                ByteBuffer buffer = salida.reservar(TAMANIO_REGISTRO_LISTA);
+                buffer.putInt(cadenas.indice(lista.obtenerNombre()));
+                buffer.putInt(cadenas.indice(lista.obtenerDescripcion()));
+                buffer.putInt(lista.obtenerCantidadAnimes());
+            }
+            for (ListaPersonalizada lista : listas) {
+                for (AnimeBase anime : lista.obtenerAnimes()) {
+                    salida.reservar(4).putInt(registros.get(anime));
+                }
+            }
+            salida.terminar(CONTENIDO_LISTAS, cadenas.tamanio(), animes.size(), listas.size(),
+                referencias, bytesCadenas);
+        }
+    }
+    
+    /**
+     * Escribe un registro usando los índices de cadenas tomados al registrarlo, de modo que
+     * un cambio de título concurrente no deje referencias a cadenas inexistentes.
+     */
+    private static void escribirAnime(Salida salida, AnimeBase anime, int[] indices, int registro)
+            throws IOException {
+        int base = registro * CADENAS_POR_ANIME;
+        boolean esSerie = anime instanceof AnimeSerie;
+        ByteBuffer buffer = salida.reservar(TAMANIO_REGISTRO_ANIME);
+        buffer.put(esSerie ? TIPO_SERIE : TIPO_PELICULA);
+        buffer.put((byte) anime.obtenerEstado().ordinal());
+        buffer.put((byte) anime.obtenerCalificacion());
+        buffer.put((byte) (esSerie && ((AnimeSerie) anime).estaEnEmision() ? 1 : 0));
+        buffer.putInt(anime.obtenerAnioLanzamiento());
+        buffer.putInt(anime.obtenerMascaraGeneros());
+        buffer.putInt(anime.obtenerDuracion());
+        buffer.putInt(indices[base]);
+        buffer.putInt(indices[base + 1]);
+        buffer.putInt(indices[base + 2]);
+    }
+    
+    // ========== Lectura ==========
+    
+    static List<AnimeBase> leerCatalogo(Path archivo) throws IOException {
+        try (Entrada entrada = new Entrada(archivo)) {
+            Cabecera cabecera = entrada.leerCabecera(CONTENIDO_CATALOGO);
+            String[] cadenas = entrada.leerCadenas(cabecera.cantidadCadenas);
+            return Arrays.asList(entrada.leerAnimes(cabecera.cantidadAnimes, cadenas));
+        }
+    }
+    
+    static List<ListaPersonalizada> leerListas(Path archivo) throws IOException {
+        try (Entrada entrada = new Entrada(archivo)) {
+            Cabecera cabecera = entrada.leerCabecera(CONTENIDO_LISTAS);
+            String[] cadenas = entrada.leerCadenas(cabecera.cantidadCadenas);
+            AnimeBase[] animes = entrada.leerAnimes(cabecera.cantidadAnimes, cadenas);
+            
+            List<ListaPersonalizada> listas = new ArrayList<>(cabecera.cantidadListas);
+            int[] cantidades = new int[cabecera.cantidadListas];
+            for (int i = 0; i < cabecera.cantidadListas; i++) {
+                ByteBuffer buffer = entrada.asegurar(TAMANIO_REGISTRO_LISTA);
+                String nombre = cadena(cadenas, buffer.getInt());
+                String descripcion = cadena(cadenas, buffer.getInt());
+                cantidades[i] = buffer.getInt();
+                listas.add(new ListaPersonalizada(nombre, descripcion));
+            }
+            for (int i = 0; i < listas.size(); i++) {
+                for (int j = 0; j < cantidades[i]; j++) {
+                    int registro = entrada.asegurar(4).getInt();
+                    if (registro < 0 || registro >= animes.length) {
+                        throw new IOException("Referencia a anime fuera de rango: " + registro);
+                    }
+                    listas.get(i).agregarAnime(animes[registro]);
+                }
+            }
+            return listas;
+        }
+    }
+    
+    private static String cadena(String[] cadenas, int indice) throws IOException {
+        if (indice == SIN_CADENA) {
+            return null;
+        }
+        if (indice < 0 || indice >= cadenas.length) {
+            throw new IOException("Índice de cadena fuera de rango: " + indice);
+        }
+        return cadenas[indice];
+    }
+    
+    private static final class Cabecera {
+        int cantidadCadenas;
+        int cantidadAnimes;
+        int cantidadListas;
+        int cantidadReferencias;
+    }
+    
+    // ========== Tabla de cadenas ==========
+    
+    private static final class TablaCadenas {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> cadenas = new ArrayList<>();
+        
+        /**
+         * Registra título, estudio y director y anota sus índices a partir de
+         * registro * CADENAS_POR_ANIME.
+         */
+        void registrar(AnimeBase anime, int[] destino, int registro) {
+            int base = registro * CADENAS_POR_ANIME;
+            destino[base] = registrar(anime.obtenerTitulo());
+            destino[base + 1] = registrar(anime.obtenerEstudio());
+            destino[base + 2] = anime instanceof AnimePelicula
+                ? registrar(((AnimePelicula) anime).obtenerDirector()) : SIN_CADENA;
+        }
+        
+        int registrar(String cadena) {
+            if (cadena == null) {
+                return SIN_CADENA;
+            }
+            Integer indice = indices.get(cadena);
+            if (indice == null) {
+                indice = cadenas.size();
+                indices.put(cadena, indice);
+                cadenas.add(cadena);
+            }
+            return indice;
+        }
+        
+        int indice(String cadena) {
+            return cadena == null ? SIN_CADENA : indices.get(cadena);
+        }
+        
+        int tamanio() {
+            return cadenas.size();
+        }
+        
+        long escribir(Salida salida) throws IOException {
+            long bytes = 0;
+            for (String cadena : cadenas) {
+                byte[] utf8 = cadena.getBytes(StandardCharsets.UTF_8);
+                salida.reservar(4).putInt(utf8.length);
+                salida.escribir(utf8);
+                bytes += 4 + utf8.length;
+            }
+            return bytes;
+        }
+    }
+    
+    // ========== Canales ==========
+    
+    private static final class Salida implements AutoCloseable {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private final CRC32C suma = new CRC32C();
+        private long escritos;
+        
+        Salida(Path archivo) throws IOException {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        
+        void saltarCabecera() throws IOException {
+            reservar(TAMANIO_CABECERA).position(TAMANIO_CABECERA);
+        }
+        
+        /**
+         * Garantiza lugar para los bytes indicados, vaciando el buffer si hace falta.
+         */
+        ByteBuffer reservar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                vaciar();
+            }
+            return buffer;
+        }
+        
+        void escribir(byte[] datos) throws IOException {
+            int desplazamiento = 0;
+            while (desplazamiento < datos.length) {
+                if (!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                int cantidad = Math.min(buffer.remaining(), datos.length - desplazamiento);
+                buffer.put(datos, desplazamiento, cantidad);
+                desplazamiento += cantidad;
+            }
+        }
+        
+        private void vaciar() throws IOException {
+            buffer.flip();
+            ByteBuffer cuerpo = buffer.duplicate();
+            if (escritos < TAMANIO_CABECERA) {
+                cuerpo.position((int) Math.min(cuerpo.limit(), TAMANIO_CABECERA - escritos));
+            }
+            suma.update(cuerpo);
+            escritos += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        /**
+         * Vacía los datos pendientes, agrega el pie con la suma de verificación y escribe la
+         * cabecera al principio del archivo.
+         */
+        void terminar(short contenido, int cadenas, int animes, int listas, int referencias,
+                              long bytesCadenas) throws IOException {
+            vaciar();
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+            cabecera.putInt(MAGIA);
+            cabecera.putShort(VERSION);
+            cabecera.putShort(contenido);
+            cabecera.putInt(cadenas);
+            cabecera.putInt(animes);
+            cabecera.putInt(listas);
+            cabecera.putInt(referencias);
+            cabecera.putLong(bytesCadenas);
+            cabecera.flip();
+            suma.update(cabecera.duplicate());
+            
+            ByteBuffer pie = ByteBuffer.allocate(TAMANIO_PIE);
+            pie.putInt(MAGIA_PIE);
+            pie.putInt((int) suma.getValue());
+            pie.flip();
+            escribirEn(pie, escritos);
+            escribirEn(cabecera, 0);
+        }
+        
+        private void escribirEn(ByteBuffer datos, long posicion) throws IOException {
+            while (datos.hasRemaining()) {
+                posicion += canal.write(datos, posicion);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+    
+    private static final class Entrada implements AutoCloseable {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        
+        Entrada(Path archivo) throws IOException {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+            buffer.flip();
+        }
+        
+        /**
+         * Garantiza que haya al menos la cantidad de bytes indicada en el buffer.
+         */
+        ByteBuffer asegurar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                buffer.compact();
+                while (buffer.position() < bytes) {
+                    if (canal.read(buffer) < 0) {
+                        throw new EOFException("El archivo está truncado");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+        
+        Cabecera leerCabecera(short contenidoEsperado) throws IOException {
+            ByteBuffer datos = asegurar(TAMANIO_CABECERA);
+            if (datos.getInt() != MAGIA) {
+                throw new IOException("Formato de archivo inválido");
+            }
+            short version = datos.getShort();
+            if (version == VERSION) {
+                verificarSuma();
+            } else if (version != VERSION_SIN_PIE) {
+                throw new IOException("Versión de formato no soportada: " + version);
+            }
+            short contenido = datos.getShort();
+            if (contenido != contenidoEsperado) {
+                throw new IOException("El archivo no contiene el tipo de datos esperado: " + contenido);
+            }
+            Cabecera cabecera = new Cabecera();
+            cabecera.cantidadCadenas = datos.getInt();
+            cabecera.cantidadAnimes = datos.getInt();
+            cabecera.cantidadListas = datos.getInt();
+            cabecera.cantidadReferencias = datos.getInt();
+            datos.getLong();
+            if (cabecera.cantidadCadenas < 0 || cabecera.cantidadAnimes < 0
+                    || cabecera.cantidadListas < 0 || cabecera.cantidadReferencias < 0) {
+                throw new IOException("Cabecera corrupta");
+            }
+            return cabecera;
+        }
+        
+        /**
+         * Recorre el archivo con el buffer de lectura y compara su CRC32C con el del pie. No
+         * se mapea: un archivo mapeado queda abierto hasta que lo recolecta el GC, y en Windows
+         * eso impide reemplazarlo al guardar.
+         */
+        private void verificarSuma() throws IOException {
+            long siguiente = canal.position() - buffer.remaining();
+            long tamanio = canal.size();
+            if (tamanio < TAMANIO_CABECERA + TAMANIO_PIE) {
+                throw new EOFException("El archivo está truncado");
+            }
+            long finCuerpo = tamanio - TAMANIO_PIE;
+            ByteBuffer pie = ByteBuffer.allocate(TAMANIO_PIE);
+            leerEn(pie, finCuerpo);
+            if (pie.getInt(0) != MAGIA_PIE) {
+                throw new IOException("El archivo está truncado o incompleto");
+            }
+            
+            CRC32C suma = new CRC32C();
+            for (long posicion = TAMANIO_CABECERA; posicion < finCuerpo; ) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), finCuerpo - posicion));
+                leerEn(buffer, posicion);
+                posicion += buffer.remaining();
+                suma.update(buffer);
+            }
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+            leerEn(cabecera, 0);
+            suma.update(cabecera);
+            if ((int) suma.getValue() != pie.getInt(4)) {
+                throw new IOException("El archivo está dañado: la suma de verificación no coincide");
+            }
+            
+            // Se vuelve a leer el resto de la cabecera, que el recorrido descartó del buffer
+            buffer.clear();
+            buffer.flip();
+            canal.position(siguiente);
+            asegurar(TAMANIO_CABECERA - (int) siguiente);
+        }
+        
+        private void leerEn(ByteBuffer destino, long posicion) throws IOException {
+            while (destino.hasRemaining()) {
+                int leidos = canal.read(destino, posicion);
+                if (leidos < 0) {
+                    throw new EOFException("El archivo está truncado");
+                }
+                posicion += leidos;
+            }
+            destino.flip();
+        }
+        
+        String[] leerCadenas(int cantidad) throws IOException {
+            String[] cadenas = new String[cantidad];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < cantidad; i++) {
+                int longitud = asegurar(4).getInt();
+                if (longitud < 0) {
+                    throw new IOException("Longitud de cadena inválida: " + longitud);
+                }
+                if (longitud > bytes.length) {
+                    bytes = new byte[Math.max(longitud, bytes.length * 2)];
+                }
+                int leidos = 0;
+                while (leidos < longitud) {
+                    int parte = Math.min(longitud - leidos, TAMANIO_BUFFER);
+                    asegurar(parte).get(bytes, leidos, parte);
+                    leidos += parte;
+                }
+                cadenas[i] = new String(bytes, 0, longitud, StandardCharsets.UTF_8);
+            }
+            return cadenas;
+        }
+        
+        AnimeBase[] leerAnimes(int cantidad, String[] cadenas) throws IOException {
+            AnimeBase[] animes = new AnimeBase[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                ByteBuffer datos = asegurar(TAMANIO_REGISTRO_ANIME);
+                byte tipo = datos.get();
+                int estado = datos.get();
+                int calificacion = datos.get();
+                boolean enEmision = datos.get() != 0;
+                int anio = datos.getInt();
+                Set<Genero> generos = Genero.desdeMascara(datos.getInt());
+                int duracion = datos.getInt();
+                String titulo = cadena(cadenas, datos.getInt());
+                String estudio = cadena(cadenas, datos.getInt());
+                String director = cadena(cadenas, datos.getInt());
+                
+                AnimeBase anime;
+                if (tipo == TIPO_SERIE) {
+                    anime = new AnimeSerie(titulo, anio, estudio, duracion, generos, enEmision);
+                } else if (tipo == TIPO_PELICULA) {
+                    anime = new AnimePelicula(titulo, anio, estudio, duracion, generos, director);
+                } else {
+                    throw new IOException("Tipo de anime desconocido: " + tipo);
+                }
+                if (estado < 0 || estado >= ESTADOS.length) {
+                    throw new IOException("Estado desconocido: " + estado);
+                }
+                anime.establecerEstado(ESTADOS[estado]);
+                if (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion <= AnimeBase.CALIFICACION_MAXIMA) {
+                    anime.establecerCalificacion(calificacion);
+                }
+                animes[i] = anime;
+            }
+            return animes;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+
+import java.util.*;
+
+/**
+ * Índices secundarios de mapa de bits por estado, género y calificación.
+ *
+ * Cada anime ocupa una fila; por cada valor de Estado y de Genero hay un BitSet con las filas
+ * que lo tienen, y por cada nivel de calificación k un BitSet con las filas calificadas con
+ * k o más. Para poder actualizar sin recorrer, se guardan los valores con los que se indexó
+ * cada fila. Las filas eliminadas quedan como huecos hasta que el dueño reconstruye el índice.
+ *
+ * Los estudios, con demasiados valores para un mapa de bits por valor, van en un
+ * {@link IndiceEstudios} con las mismas filas.
+ */
+public class IndiceBitmap {
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Genero[] GENEROS = Genero.values();
+    
+    private final BitSet ocupadas;
+    private final BitSet[] porEstado;
+    private final BitSet[] porGenero;
+    private final BitSet[] porCalificacionMinima;
+    private final IndiceEstudios estudios;
+    
+    private AnimeBase[] filas;
+    private byte[] estadosIndexados;
+    private byte[] calificacionesIndexadas;
+    private int[] generosIndexados;
+    private int siguienteFila;
+    private int vivas;
+    
+    public IndiceBitmap() {
+        this.ocupadas = new BitSet();
+        this.porEstado = crear(ESTADOS.length);
+        this.porGenero = crear(GENEROS.length);
+        this.porCalificacionMinima = crear(AnimeBase.CALIFICACION_MAXIMA + 1);
+        this.estudios = new IndiceEstudios();
+        limpiar();
+    }
+    
+    private static BitSet[] crear(int cantidad) {
+        BitSet[] mapas = new BitSet[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            mapas[i] = new BitSet();
+        }
+        return mapas;
+    }
+    
+    // ========== Mantenimiento ==========
+    
+    /**
+     * Indexa un anime en una fila nueva al final.
+     *
+     * @return la fila asignada
+     */
+    public int agregar(AnimeBase anime) {
+        if (siguienteFila == filas.length) {
+            int capacidad = Math.max(16, filas.length + (filas.length >> 1));
+            filas = Arrays.copyOf(filas, capacidad);
+            estadosIndexados = Arrays.copyOf(estadosIndexados, capacidad);
+            calificacionesIndexadas = Arrays.copyOf(calificacionesIndexadas, capacidad);
+            generosIndexados = Arrays.copyOf(generosIndexados, capacidad);
+        }
+        int fila = siguienteFila++;
+        ocupadas.set(fila);
+        vivas++;
+        marcar(fila, anime);
+        return fila;
+    }
+    
+    /**
+     * Reindexa una fila con los valores actuales del anime (que puede ser otra instancia).
+     */
+    public void actualizar(int fila, AnimeBase anime) {
+        desmarcar(fila);
+        marcar(fila, anime);
+    }
+    
+    public void eliminar(int fila) {
+        if (!ocupadas.get(fila)) {
+            return;
+        }
+        desmarcar(fila);
+        estudios.quitar(fila);
+        ocupadas.clear(fila);
+        filas[fila] = null;
+        vivas--;
+    }
+    
+    public void limpiar() {
+        filas = new AnimeBase[0];
+        estadosIndexados = new byte[0];
+        calificacionesIndexadas = new byte[0];
+        generosIndexados = new int[0];
+        siguienteFila = 0;
+        vivas = 0;
+        ocupadas.clear();
+        limpiar(porEstado);
+        limpiar(porGenero);
+        limpiar(porCalificacionMinima);
+        estudios.limpiar();
+    }
+    
+    private static void limpiar(BitSet[] mapas) {
+        for (BitSet mapa : mapas) {
+            mapa.clear();
+        }
+    }
+    
+    /**
+     * Cantidad de filas eliminadas que aún ocupan espacio.
+     */
+    public int huecos() {
+        return siguienteFila - vivas;
+    }
+    
+    /**
+     * Calificación con la que se indexó la fila (0 si no estaba calificado), acotada a la
+     * máxima.
+     */
+    public int calificacionIndexada(int fila) {
+        return calificacionesIndexadas[fila];
+    }
+    
+    public int tamanio() {
+        return vivas;
+    }
+    
+    private void marcar(int fila, AnimeBase anime) {
+        filas[fila] = anime;
+        
+        int estado = anime.obtenerEstado().ordinal();
+        estadosIndexados[fila] = (byte) estado;
+        porEstado[estado].set(fila);
+        
+        int mascara = anime.obtenerMascaraGeneros();
+        generosIndexados[fila] = mascara;
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((mascara & (1 << g)) != 0) {
+                porGenero[g].set(fila);
+            }
+        }
+        
+        int calificacion = Math.min(anime.obtenerCalificacion(), AnimeBase.CALIFICACION_MAXIMA);
+        calificacionesIndexadas[fila] = (byte) calificacion;
+        for (int k = 1; k <= calificacion; k++) {
+            porCalificacionMinima[k].set(fila);
+        }
+        
+        // Sin desmarcar antes: si el estudio no cambió, la fila queda donde estaba
+        estudios.establecer(fila, anime.obtenerEstudio());
+    }
+    
+    private void desmarcar(int fila) {
+        porEstado[estadosIndexados[fila]].clear(fila);
+        
+        int mascara = generosIndexados[fila];
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((mascara & (1 << g)) != 0) {
+                porGenero[g].clear(fila);
+            }
+        }
+        
+        for (int k = 1; k <= calificacionesIndexadas[fila]; k++) {
+            porCalificacionMinima[k].clear(fila);
+        }
+    }
+    
+    // ========== Consultas ==========
+    
+    /**
+     * Resuelve una consulta con operaciones AND/OR sobre los mapas de bits.
+     *
+     * @param estado              estado exigido, o null
+     * @param generosRequeridos   máscara de géneros que deben estar todos, o 0
+     * @param generosAlguno       máscara de géneros de los que debe haber al menos uno, o 0
+     * @param calificacionMinima  calificación mínima (las filas sin calificar nunca cumplen), o 0
+     * @return las filas que cumplen todos los criterios; el conjunto es una copia
+     */
+    public BitSet filtrar(Estado estado, int generosRequeridos, int generosAlguno, int calificacionMinima) {
+        if (calificacionMinima > AnimeBase.CALIFICACION_MAXIMA) {
+            return new BitSet();
+        }
+        
+        BitSet resultado;
+        if (estado != null) {
+            resultado = (BitSet) porEstado[estado.ordinal()].clone();
+        } else if (calificacionMinima > 0) {
+            resultado = (BitSet) porCalificacionMinima[calificacionMinima].clone();
+            calificacionMinima = 0;
+        } else {
+            resultado = (BitSet) ocupadas.clone();
+        }
+        
+        for (int g = 0; g < GENEROS.length && !resultado.isEmpty(); g++) {
+            if ((generosRequeridos & (1 << g)) != 0) {
+                resultado.and(porGenero[g]);
+            }
+        }
+        
+        if (generosAlguno != 0 && !resultado.isEmpty()) {
+            BitSet alguno = new BitSet();
+            for (int g = 0; g < GENEROS.length; g++) {
+                if ((generosAlguno & (1 << g)) != 0) {
+                    alguno.or(porGenero[g]);
+                }
+            }
+            resultado.and(alguno);
+        }
+        
+        if (calificacionMinima > 0 && !resultado.isEmpty()) {
+            resultado.and(porCalificacionMinima[calificacionMinima]);
+        }
+        
+        return resultado;
+    }
+    
+    /**
+     * Filas cuyo estudio contiene el texto, que ya debe estar en minúsculas.
+     */
+    public BitSet filtrarEstudio(String textoEnMinusculas) {
+        return estudios.filasQueContienen(textoEnMinusculas);
+    }
+    
+    /**
+     * Cantidad de filas por estudio individual (ver {@link IndiceEstudios#contarPorEstudio}).
+     */
+    public Map<String, Long> contarPorEstudio() {
+        return estudios.contarPorEstudio();
+    }
+    
+    /**
+     * Retorna los anime de las filas marcadas, en orden de fila.
+     */
+    public List<AnimeBase> obtenerFilas(BitSet seleccion) {
+        List<AnimeBase> resultado = new ArrayList<>(seleccion.cardinality());
+        for (int i = seleccion.nextSetBit(0); i >= 0; i = seleccion.nextSetBit(i + 1)) {
+            resultado.add(filas[i]);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,213 @@
+package repositorio;
+
+import java.util.*;
+
+/**
+ * Índice de títulos normalizados para búsquedas aproximadas por distancia de edición
+ * (Levenshtein).
+ *
+ * Los títulos se guardan en un arreglo ordenado, que se recorre como un trie: la fila de la
+ * matriz de Levenshtein de cada prefijo se calcula una sola vez para todos los títulos que lo
+ * comparten. Cuando todos los valores de una fila superan la distancia pedida, ningún título
+ * con ese prefijo puede estar cerca de la consulta y el tramo entero se saltea con una
+ * búsqueda binaria.
+ *
+ * Altas y bajas desplazan el tramo siguiente del arreglo, como en {@link IndicePrefijos}.
+ */
+public class IndiceDistanciaEdicion {
+    
+    private String[] titulos;
+    private int tamanio;
+    
+    public IndiceDistanciaEdicion() {
+        limpiar();
+    }
+    
+    // ========== Mantenimiento ==========
+    
+    /**
+     * Carga títulos ya normalizados y sin repetir, en cualquier orden.
+     */
+    public void agregarTodos(Collection<String> titulosNormalizados) {
+        titulos = Arrays.copyOf(titulos, tamanio + titulosNormalizados.size());
+        for (String titulo : titulosNormalizados) {
+            titulos[tamanio++] = titulo;
+        }
+        Arrays.sort(titulos, 0, tamanio);
+    }
+    
+    public void agregar(String tituloNormalizado) {
+        int posicion = Arrays.binarySearch(titulos, 0, tamanio, tituloNormalizado);
+        if (posicion >= 0) {
+            return;
+        }
+        posicion = -posicion - 1;
+        if (tamanio == titulos.length) {
+            titulos = Arrays.copyOf(titulos, Math.max(16, tamanio + (tamanio >> 1)));
+        }
+        System.arraycopy(titulos, posicion, titulos, posicion + 1, tamanio - posicion);
+        titulos[posicion] = tituloNormalizado;
+        tamanio++;
+    }
+    
+    public void quitar(String tituloNormalizado) {
+        int posicion = Arrays.binarySearch(titulos, 0, tamanio, tituloNormalizado);
+        if (posicion < 0) {
+            return;
+        }
+        System.arraycopy(titulos, posicion + 1, titulos, posicion, tamanio - posicion - 1);
+        titulos[--tamanio] = null;
+    }
+    
+    public void limpiar() {
+        titulos = new String[0];
+        tamanio = 0;
+    }
+    
+    // ========== Consultas ==========
+    
+    /**
+     * Retorna hasta limite títulos a distancia de edición distanciaMaxima o menor de la
+     * consulta (normalizada), de más cercano a más lejano y, a igual distancia, en orden
+     * alfabético.
+     */
+    public List<String> buscar(String consulta, int distanciaMaxima, int limite) {
+        List<List<String>> porDistancia = new ArrayList<>();
+        for (int d = 0; d <= distanciaMaxima; d++) {
+            porDistancia.add(new ArrayList<>());
+        }
+        
+        // filas[p] es la fila de Levenshtein del prefijo de largo p del último título visto
+        int[][] filas = new int[1][];
+        filas[0] = new int[consulta.length() + 1];
+        for (int j = 0; j <= consulta.length(); j++) {
+            filas[0][j] = j;
+        }
+        String anterior = "";
+        int filasValidas = 0;
+        
+        int i = 0;
+        while (i < tamanio) {
+            String titulo = titulos[i];
+            if (titulo.length() >= filas.length) {
+                filas = Arrays.copyOf(filas, titulo.length() + 1);
+            }
+            int p = prefijoComun(anterior, titulo, filasValidas);
+            boolean descartado = false;
+            while (p < titulo.length() && !descartado) {
+                descartado = siguienteFila(filas, p, titulo.charAt(p), consulta) > distanciaMaxima;
+                p++;
+            }
+            anterior = titulo;
+            filasValidas = p;
+            
+            if (descartado) {
+                i = finDelTramo(titulo.substring(0, p), i + 1);
+                continue;
+            }
+            int distancia = filas[p][consulta.length()];
+            if (distancia <= distanciaMaxima) {
+                porDistancia.get(distancia).add(titulo);
+            }
+            i++;
+        }
+        
+        List<String> resultado = new ArrayList<>();
+        for (List<String> encontrados : porDistancia) {
+            for (int j = 0; j < encontrados.size() && resultado.size() < limite; j++) {
+                resultado.add(encontrados.get(j));
+            }
+        }
+        return resultado;
+    }
+    
+    private static int prefijoComun(String a, String b, int maximo) {
+        int limite = Math.min(maximo, Math.min(a.length(), b.length()));
+        int i = 0;
+        while (i < limite && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    /**
+     * Calcula filas[p + 1] a partir de filas[p] agregando el carácter c al prefijo.
+     *
+     * @return el menor valor de la fila nueva
+     */
+    private static int siguienteFila(int[][] filas, int p, char c, String consulta) {
+        int[] anterior = filas[p];
+        int[] actual = filas[p + 1];
+        if (actual == null) {
+            actual = new int[consulta.length() + 1];
+            filas[p + 1] = actual;
+        }
+        actual[0] = p + 1;
+        int minimo = actual[0];
+        for (int j = 1; j <= consulta.length(); j++) {
+            int sustitucion = anterior[j - 1] + (c == consulta.charAt(j - 1) ? 0 : 1);
+            actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+            minimo = Math.min(minimo, actual[j]);
+        }
+        return minimo;
+    }
+    
+    /**
+     * Primera posición desde la dada cuyo título no empieza con el prefijo. Los títulos con
+     * el prefijo forman un tramo contiguo que empieza antes de desde.
+     */
+    private int finDelTramo(String prefijo, int desde) {
+        int bajo = desde;
+        int alto = tamanio;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (titulos[medio].startsWith(prefijo)) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+    
+    /**
+     * Distancia de Levenshtein entre dos textos. Si supera la cota, retorna cota + 1 sin
+     * terminar de calcularla.
+     */
+    public static int distancia(String a, String b, int cota) {
+        if (a.length() < b.length()) {
+            String temporal = a;
+            a = b;
+            b = temporal;
+        }
+        // La distancia nunca supera la longitud del texto más largo
+        cota = Math.min(cota, a.length());
+        if (a.length() - b.length() > cota) {
+            return cota + 1;
+        }
+        
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            char c = a.charAt(i - 1);
+            actual[0] = i;
+            int minimoFila = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = anterior[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                int valor = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                actual[j] = valor;
+                minimoFila = Math.min(minimoFila, valor);
+            }
+            if (minimoFila > cota) {
+                return cota + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return Math.min(anterior[b.length()], cota + 1);
+    }
+}
@@ -0,0 +1,212 @@
+package repositorio;
+
+import java.util.*;
+
+/**
+ * Índice invertido de estudios codificados con diccionario.
+ *
+ * Cada valor distinto del campo estudio recibe un id y una lista ordenada de las filas que lo
+ * tienen. Los valores con varios estudios ("Wit Studio / MAPPA") se separan por "/" en
+ * estudios individuales, y cada estudio conoce los valores en los que aparece: las filas de
+ * un estudio son la unión de las listas de esos valores.
+ *
+ * Filtrar por texto compara sólo los valores distintos, no cada fila, y agrupar por estudio
+ * suma los tamaños de las listas.
+ */
+public class IndiceEstudios {
+    
+    private static final int SIN_ESTUDIO = -1;
+    
+    /** Valores completos del campo estudio */
+    private final DiccionarioNombres valores;
+    private final List<Filas> filasPorValor;
+    private final List<int[]> estudiosPorValor;
+    /** Cómo escribe cada valor a cada uno de sus estudios */
+    private final List<String[]> nombresPorValor;
+    
+    /** Estudios individuales, por nombre en minúsculas */
+    private final DiccionarioNombres estudios;
+    private final List<List<Integer>> valoresPorEstudio;
+    
+    private int[] valorDeFila;
+    
+    public IndiceEstudios() {
+        this.valores = new DiccionarioNombres();
+        this.filasPorValor = new ArrayList<>();
+        this.estudiosPorValor = new ArrayList<>();
+        this.nombresPorValor = new ArrayList<>();
+        this.estudios = new DiccionarioNombres();
+        this.valoresPorEstudio = new ArrayList<>();
+        limpiar();
+    }
+    
+    /**
+     * Lista creciente de filas de un valor.
+     */
+    private static final class Filas {
+        int[] filas = new int[4];
+        int tamanio;
+        
+        void agregar(int fila) {
+            if (tamanio == filas.length) {
+                filas = Arrays.copyOf(filas, tamanio + (tamanio >> 1));
+            }
+            // Las filas nuevas llegan al final; sólo las reindexadas caen en el medio
+            int posicion = tamanio == 0 || filas[tamanio - 1] < fila
+                ? tamanio : -Arrays.binarySearch(filas, 0, tamanio, fila) - 1;
+            System.arraycopy(filas, posicion, filas, posicion + 1, tamanio - posicion);
+            filas[posicion] = fila;
+            tamanio++;
+        }
+        
+        void quitar(int fila) {
+            int posicion = Arrays.binarySearch(filas, 0, tamanio, fila);
+            if (posicion >= 0) {
+                System.arraycopy(filas, posicion + 1, filas, posicion, tamanio - posicion - 1);
+                tamanio--;
+            }
+        }
+    }
+    
+    /**
+     * Separa un valor del campo estudio en los estudios que nombra, sin espacios extremos y
+     * omitiendo los vacíos.
+     */
+    public static List<String> separar(String estudio) {
+        List<String> partes = new ArrayList<>();
+        if (estudio != null) {
+            for (String parte : estudio.split("/")) {
+                String nombre = parte.trim();
+                if (!nombre.isEmpty()) {
+                    partes.add(nombre);
+                }
+            }
+        }
+        return partes;
+    }
+    
+    // ========== Mantenimiento ==========
+    
+    /**
+     * Indexa la fila con el estudio dado, reemplazando el que tenía.
+     */
+    public void establecer(int fila, String estudio) {
+        int valor = idDeValor(estudio != null ? estudio : "");
+        if (fila >= valorDeFila.length) {
+            int capacidad = Math.max(16, Math.max(fila + 1, valorDeFila.length + (valorDeFila.length >> 1)));
+            int anterior = valorDeFila.length;
+            valorDeFila = Arrays.copyOf(valorDeFila, capacidad);
+            Arrays.fill(valorDeFila, anterior, capacidad, SIN_ESTUDIO);
+        }
+        if (valorDeFila[fila] == valor) {
+            return;
+        }
+        quitar(fila);
+        valorDeFila[fila] = valor;
+        filasPorValor.get(valor).agregar(fila);
+    }
+    
+    public void quitar(int fila) {
+        if (fila < valorDeFila.length && valorDeFila[fila] != SIN_ESTUDIO) {
+            filasPorValor.get(valorDeFila[fila]).quitar(fila);
+            valorDeFila[fila] = SIN_ESTUDIO;
+        }
+    }
+    
+    public void limpiar() {
+        valores.limpiar();
+        filasPorValor.clear();
+        estudiosPorValor.clear();
+        nombresPorValor.clear();
+        estudios.limpiar();
+        valoresPorEstudio.clear();
+        valorDeFila = new int[0];
+    }
+    
+    private int idDeValor(String estudio) {
+        int valor = valores.id(estudio);
+        if (valor < filasPorValor.size()) {
+            return valor;
+        }
+        
+        int[] ids = new int[0];
+        String[] nombres = new String[0];
+        for (String parte : separar(estudio)) {
+            int id = estudios.id(parte.toLowerCase(Locale.ROOT));
+            if (id == valoresPorEstudio.size()) {
+                valoresPorEstudio.add(new ArrayList<>());
+            }
+            // "A / a" nombra una sola vez al estudio
+            List<Integer> valoresDelEstudio = valoresPorEstudio.get(id);
+            if (valoresDelEstudio.isEmpty() || valoresDelEstudio.get(valoresDelEstudio.size() - 1) != valor) {
+                valoresDelEstudio.add(valor);
+                ids = Arrays.copyOf(ids, ids.length + 1);
+                ids[ids.length - 1] = id;
+                nombres = Arrays.copyOf(nombres, nombres.length + 1);
+                nombres[nombres.length - 1] = parte;
+            }
+        }
+        filasPorValor.add(new Filas());
+        estudiosPorValor.add(ids);
+        nombresPorValor.add(nombres);
+        return valor;
+    }
+    
+    // ========== Consultas ==========
+    
+    /**
+     * Retorna las filas cuyo estudio contiene el texto, que ya debe estar en minúsculas.
+     */
+    public BitSet filasQueContienen(String textoEnMinusculas) {
+        BitSet resultado = new BitSet();
+        for (int valor = 0; valor < valores.tamanio(); valor++) {
+            if (valores.nombre(valor).toLowerCase(Locale.ROOT).contains(textoEnMinusculas)) {
+                marcar(filasPorValor.get(valor), resultado);
+            }
+        }
+        return resultado;
+    }
+    
+    private static void marcar(Filas filas, BitSet resultado) {
+        for (int i = 0; i < filas.tamanio; i++) {
+            resultado.set(filas.filas[i]);
+        }
+    }
+    
+    /**
+     * Cantidad de filas en las que participa cada estudio, de más a menos frecuente y, a igual
+     * cantidad, por nombre. Si un estudio se escribe de varias formas ("Bones", "bones"),
+     * aparece con la primera en orden alfabético entre las de los anime que lo tienen.
+     */
+    public Map<String, Long> contarPorEstudio() {
+        long[] cantidades = new long[estudios.tamanio()];
+        String[] nombres = new String[estudios.tamanio()];
+        for (int valor = 0; valor < filasPorValor.size(); valor++) {
+            int filas = filasPorValor.get(valor).tamanio;
+            if (filas == 0) {
+                continue;
+            }
+            int[] ids = estudiosPorValor.get(valor);
+            for (int i = 0; i < ids.length; i++) {
+                cantidades[ids[i]] += filas;
+                String nombre = nombresPorValor.get(valor)[i];
+                if (nombres[ids[i]] == null || nombre.compareTo(nombres[ids[i]]) < 0) {
+                    nombres[ids[i]] = nombre;
+                }
+            }
+        }
+        
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < cantidades.length; id++) {
+            if (cantidades[id] > 0) {
+                ids.add(id);
+            }
+        }
+        ids.sort(Comparator.comparingLong((Integer id) -> -cantidades[id]).thenComparing(id -> nombres[id]));
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (int id : ids) {
+            resultado.put(nombres[id], cantidades[id]);
+        }
+        return resultado;
+    }
+}
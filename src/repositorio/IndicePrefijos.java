@@ -0,0 +1,106 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+import java.util.*;
+
+/**
+ * Índice de títulos normalizados por prefijo para sugerencias de autocompletado.
+ *
+ * Por cada nivel de calificación (0 para los no calificados) hay un arreglo ordenado de
+ * títulos. Las completaciones de un prefijo en un nivel son un tramo contiguo que se ubica con
+ * búsqueda binaria, así que las N mejores salen de recorrer los niveles de mayor a menor:
+ * O(log n + N), sin importar cuántos títulos empiecen con el prefijo.
+ *
+ * Altas y bajas desplazan el tramo siguiente del arreglo de su nivel.
+ */
+public class IndicePrefijos {
+    
+    private final String[][] titulos;
+    private final int[] tamanios;
+    
+    public IndicePrefijos() {
+        this.titulos = new String[AnimeBase.CALIFICACION_MAXIMA + 1][];
+        this.tamanios = new int[AnimeBase.CALIFICACION_MAXIMA + 1];
+        limpiar();
+    }
+    
+    // ========== Mantenimiento ==========
+    
+    /**
+     * Carga títulos sin orden previo, ordenando cada nivel una sola vez.
+     *
+     * @param calificaciones calificación de cada título, entre 0 y la máxima
+     */
+    public void agregarTodos(String[] titulosNormalizados, int[] calificaciones, int cantidad) {
+        int[] cantidades = new int[titulos.length];
+        for (int i = 0; i < cantidad; i++) {
+            cantidades[calificaciones[i]]++;
+        }
+        for (int nivel = 0; nivel < titulos.length; nivel++) {
+            titulos[nivel] = Arrays.copyOf(titulos[nivel], tamanios[nivel] + cantidades[nivel]);
+        }
+        for (int i = 0; i < cantidad; i++) {
+            int nivel = calificaciones[i];
+            titulos[nivel][tamanios[nivel]++] = titulosNormalizados[i];
+        }
+        for (int nivel = 0; nivel < titulos.length; nivel++) {
+            Arrays.sort(titulos[nivel], 0, tamanios[nivel]);
+        }
+    }
+    
+    public void agregar(String tituloNormalizado, int calificacion) {
+        String[] nivel = titulos[calificacion];
+        int tamanio = tamanios[calificacion];
+        int posicion = Arrays.binarySearch(nivel, 0, tamanio, tituloNormalizado);
+        if (posicion >= 0) {
+            return;
+        }
+        posicion = -posicion - 1;
+        if (tamanio == nivel.length) {
+            nivel = Arrays.copyOf(nivel, Math.max(16, tamanio + (tamanio >> 1)));
+            titulos[calificacion] = nivel;
+        }
+        System.arraycopy(nivel, posicion, nivel, posicion + 1, tamanio - posicion);
+        nivel[posicion] = tituloNormalizado;
+        tamanios[calificacion]++;
+    }
+    
+    public void quitar(String tituloNormalizado, int calificacion) {
+        String[] nivel = titulos[calificacion];
+        int tamanio = tamanios[calificacion];
+        int posicion = Arrays.binarySearch(nivel, 0, tamanio, tituloNormalizado);
+        if (posicion < 0) {
+            return;
+        }
+        System.arraycopy(nivel, posicion + 1, nivel, posicion, tamanio - posicion - 1);
+        nivel[--tamanios[calificacion]] = null;
+    }
+    
+    public void limpiar() {
+        for (int nivel = 0; nivel < titulos.length; nivel++) {
+            titulos[nivel] = new String[0];
+            tamanios[nivel] = 0;
+        }
+    }
+    
+    // ========== Consultas ==========
+    
+    /**
+     * Retorna hasta limite títulos que empiezan con el prefijo (normalizado), de mayor a
+     * menor calificación y, dentro de cada una, en orden alfabético.
+     */
+    public List<String> sugerir(String prefijo, int limite) {
+        List<String> resultado = new ArrayList<>(Math.max(0, Math.min(limite, 64)));
+        for (int calificacion = titulos.length - 1; calificacion >= 0 && resultado.size() < limite; calificacion--) {
+            String[] nivel = titulos[calificacion];
+            int tamanio = tamanios[calificacion];
+            int posicion = Arrays.binarySearch(nivel, 0, tamanio, prefijo);
+            for (int i = posicion >= 0 ? posicion : -posicion - 1;
+                 i < tamanio && resultado.size() < limite && nivel[i].startsWith(prefijo); i++) {
+                resultado.add(nivel[i]);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,374 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Índice hash de anime por título normalizado (sin distinguir mayúsculas).
+ *
+ * Conserva el orden de inserción, de modo que también sirve como almacenamiento del
+ * catálogo en memoria; un anime renombrado o reemplazado mantiene su posición. Búsquedas,
+ * altas, reemplazos y bajas son O(1).
+ *
+ * Mantiene además un {@link IndiceBitmap} por estado, género y calificación cuyas filas
+ * siguen el mismo orden de inserción, para resolver filtros sin recorrer el catálogo.
+ * Las mismas filas se reflejan en un {@link FilasVersionadas} para publicar instantáneas
+ * inmutables del catálogo sin copiarlo, y en un {@link IndiceTrigramas} para buscar por
+ * subcadena del título. Este último, el {@link IndicePrefijos} de las sugerencias y el
+ * {@link IndiceDistanciaEdicion} de las búsquedas aproximadas se construyen recién con la
+ * primera consulta que los usa.
+ */
+public class IndiceTitulos {
+    
+    /** Reconstruir los mapas de bits cuando los huecos superan esta cantidad y a las filas vivas. */
+    private static final int HUECOS_MINIMOS_COMPACTACION = 1024;
+    
+    private final Map<String, AnimeBase> entradas;
+    private final Map<AnimeBase, Ubicacion> ubicaciones;
+    private final IndiceBitmap bitmaps;
+    private final FilasVersionadas filas;
+    private IndiceTrigramas trigramas;
+    private IndicePrefijos prefijos;
+    private IndiceDistanciaEdicion aproximados;
+    private final BusCambiosCatalogo cambios;
+    
+    public IndiceTitulos() {
+        this.entradas = new HashMap<>();
+        this.ubicaciones = new IdentityHashMap<>();
+        this.bitmaps = new IndiceBitmap();
+        this.filas = new FilasVersionadas();
+        this.cambios = new BusCambiosCatalogo();
+    }
+    
+    /**
+     * Clave y fila del índice de mapas de bits de una instancia indexada.
+     */
+    private static final class Ubicacion {
+        String clave;
+        int fila;
+        
+        Ubicacion(String clave, int fila) {
+            this.clave = clave;
+            this.fila = fila;
+        }
+    }
+    
+    /**
+     * Normaliza un título para usarlo como clave: sin espacios extremos y en minúsculas
+     * con reglas independientes de la configuración regional.
+     */
+    public static String normalizar(String titulo) {
+        return titulo.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public AnimeBase buscar(String titulo) {
+        return entradas.get(normalizar(titulo));
+    }
+    
+    public boolean contiene(String titulo) {
+        return entradas.containsKey(normalizar(titulo));
+    }
+    
+    /**
+     * Retorna la clave bajo la que está indexada esta instancia, o null si no está.
+     * Permite detectar que un anime ya guardado fue renombrado.
+     */
+    public String claveDe(AnimeBase anime) {
+        Ubicacion ubicacion = ubicaciones.get(anime);
+        return ubicacion != null ? ubicacion.clave : null;
+    }
+    
+    /**
+     * Inserta o reemplaza un anime. Si la misma instancia estaba indexada bajo otro título,
+     * se reindexa bajo el título actual sin cambiar de posición; si ese título lo tenía otro
+     * anime, éste se elimina. En todos los casos se reindexan sus atributos.
+     *
+     * @return la instancia distinta que ocupaba el título, o null
+     */
+    public AnimeBase guardar(AnimeBase anime) {
+        boolean indexada = ubicaciones.containsKey(anime);
+        AnimeBase anterior = guardarSinNotificar(anime);
+        if (cambios.tieneSuscriptores()) {
+            long version = filas.obtenerVersion();
+            if (anterior != null) {
+                cambios.publicar(CambioCatalogo.actualizado(anterior, anime, version));
+            } else if (indexada) {
+                cambios.publicar(CambioCatalogo.actualizado(anime, anime, version));
+            } else {
+                cambios.publicar(CambioCatalogo.agregado(anime, version));
+            }
+        }
+        return anterior;
+    }
+    
+    private AnimeBase guardarSinNotificar(AnimeBase anime) {
+        String clave = normalizar(anime.obtenerTitulo());
+        
+        Ubicacion ubicacion = ubicaciones.get(anime);
+        if (ubicacion != null && !ubicacion.clave.equals(clave)) {
+            // Renombrada: conserva su fila y pasa al título nuevo
+            entradas.remove(ubicacion.clave);
+            if (prefijos != null) {
+                prefijos.quitar(ubicacion.clave, bitmaps.calificacionIndexada(ubicacion.fila));
+            }
+            if (aproximados != null) {
+                aproximados.quitar(ubicacion.clave);
+                aproximados.agregar(clave);
+            }
+            // Los trigramas sólo admiten filas nuevas al final: se reconstruyen con la próxima búsqueda
+            trigramas = null;
+            ubicacion.clave = clave;
+        }
+        
+        AnimeBase anterior = entradas.put(clave, anime);
+        if (anterior != null && anterior != anime) {
+            Ubicacion desplazada = ubicaciones.remove(anterior);
+            if (ubicacion == null) {
+                // El título conserva su posición: la nueva instancia ocupa la fila de la anterior
+                ubicacion = desplazada;
+                ubicaciones.put(anime, ubicacion);
+            } else {
+                // Un renombrado sobre un título existente conserva su fila y reemplaza al otro
+                if (prefijos != null) {
+                    prefijos.quitar(clave, bitmaps.calificacionIndexada(desplazada.fila));
+                }
+                bitmaps.eliminar(desplazada.fila);
+                filas.establecer(desplazada.fila, null);
+                if (trigramas != null) {
+                    trigramas.eliminar(desplazada.fila);
+                }
+            }
+        }
+        
+        if (ubicacion == null) {
+            ubicacion = new Ubicacion(clave, bitmaps.agregar(anime));
+            ubicaciones.put(anime, ubicacion);
+            if (trigramas != null) {
+                trigramas.agregar(ubicacion.fila, clave);
+            }
+            if (aproximados != null) {
+                aproximados.agregar(clave);
+            }
+        } else {
+            if (prefijos != null) {
+                prefijos.quitar(clave, bitmaps.calificacionIndexada(ubicacion.fila));
+            }
+            bitmaps.actualizar(ubicacion.fila, anime);
+        }
+        filas.establecer(ubicacion.fila, anime);
+        if (prefijos != null) {
+            prefijos.agregar(clave, bitmaps.calificacionIndexada(ubicacion.fila));
+        }
+        compactarSiNecesario();
+        
+        return anterior != anime ? anterior : null;
+    }
+    
+    /**
+     * Elimina el anime con el título dado.
+     *
+     * @return el anime eliminado, o null si no existía
+     */
+    public AnimeBase eliminar(String titulo) {
+        AnimeBase eliminado = entradas.remove(normalizar(titulo));
+        if (eliminado != null) {
+            int fila = ubicaciones.remove(eliminado).fila;
+            if (prefijos != null) {
+                prefijos.quitar(normalizar(titulo), bitmaps.calificacionIndexada(fila));
+            }
+            bitmaps.eliminar(fila);
+            filas.establecer(fila, null);
+            if (trigramas != null) {
+                trigramas.eliminar(fila);
+            }
+            if (aproximados != null) {
+                aproximados.quitar(normalizar(titulo));
+            }
+            compactarSiNecesario();
+            if (cambios.tieneSuscriptores()) {
+                cambios.publicar(CambioCatalogo.eliminado(eliminado, filas.obtenerVersion()));
+            }
+        }
+        return eliminado;
+    }
+    
+    public void reemplazarTodos(Collection<AnimeBase> animes) {
+        vaciar();
+        for (AnimeBase anime : animes) {
+            guardarSinNotificar(anime);
+        }
+        notificarReemplazo();
+    }
+    
+    public void limpiar() {
+        vaciar();
+        notificarReemplazo();
+    }
+    
+    private void vaciar() {
+        entradas.clear();
+        ubicaciones.clear();
+        bitmaps.limpiar();
+        filas.limpiar();
+        trigramas = null;
+        prefijos = null;
+        aproximados = null;
+    }
+    
+    private void notificarReemplazo() {
+        if (cambios.tieneSuscriptores()) {
+            cambios.publicar(CambioCatalogo.catalogoReemplazado(instantanea()));
+        }
+    }
+    
+    // ========== Suscriptores ==========
+    
+    /**
+     * Registra un suscriptor de cambios y le entrega el contenido actual como reemplazo.
+     *
+     * @param ejecutor ejecutor para entregarle los cambios de forma asincrónica, o null para
+     *                 entregárselos en el hilo que modifica el índice
+     */
+    public void suscribir(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        cambios.suscribir(suscriptor, ejecutor).entregar(CambioCatalogo.catalogoReemplazado(instantanea()));
+    }
+    
+    public void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+        cambios.desuscribir(suscriptor);
+    }
+    
+    public int tamanio() {
+        return entradas.size();
+    }
+    
+    /**
+     * Vista no modificable de los anime en orden de inserción.
+     */
+    public Collection<AnimeBase> valores() {
+        return filas.publicar().obtenerAnimes();
+    }
+    
+    /**
+     * Retorna, en orden de inserción, los anime cuyo título contiene el texto sin distinguir
+     * mayúsculas, resueltos con el índice de trigramas.
+     */
+    public List<AnimeBase> buscarPorTituloContiene(String texto) {
+        if (trigramas == null) {
+            trigramas = new IndiceTrigramas();
+            for (AnimeBase anime : valores()) {
+                Ubicacion ubicacion = ubicaciones.get(anime);
+                trigramas.agregar(ubicacion.fila, ubicacion.clave);
+            }
+        }
+        return bitmaps.obtenerFilas(trigramas.buscar(normalizar(texto)));
+    }
+    
+    /**
+     * Retorna, en orden de inserción, los anime cuyo estudio contiene el texto sin distinguir
+     * mayúsculas, resueltos con el índice de estudios.
+     */
+    public List<AnimeBase> buscarPorEstudio(String texto) {
+        return bitmaps.obtenerFilas(bitmaps.filtrarEstudio(texto.trim().toLowerCase(Locale.ROOT)));
+    }
+    
+    /**
+     * Cantidad de anime por estudio individual, de más a menos frecuente; un anime de
+     * "Wit Studio / MAPPA" cuenta para ambos.
+     */
+    public Map<String, Long> contarPorEstudio() {
+        return bitmaps.contarPorEstudio();
+    }
+    
+    /**
+     * Retorna hasta limite anime cuyo título empieza con el prefijo sin distinguir
+     * mayúsculas, de mayor a menor calificación y, a igual calificación, por título.
+     */
+    public List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) {
+        if (prefijos == null) {
+            String[] claves = new String[entradas.size()];
+            int[] calificaciones = new int[entradas.size()];
+            int cantidad = 0;
+            for (Ubicacion ubicacion : ubicaciones.values()) {
+                claves[cantidad] = ubicacion.clave;
+                calificaciones[cantidad++] = bitmaps.calificacionIndexada(ubicacion.fila);
+            }
+            prefijos = new IndicePrefijos();
+            prefijos.agregarTodos(claves, calificaciones, cantidad);
+        }
+        
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (String clave : prefijos.sugerir(prefijo.stripLeading().toLowerCase(Locale.ROOT), limite)) {
+            resultado.add(entradas.get(clave));
+        }
+        return resultado;
+    }
+    
+    /**
+     * Retorna hasta limite anime cuyo título normalizado está a distancia de edición
+     * distanciaMaxima o menor del título dado, de más cercano a más lejano.
+     */
+    public List<AnimeBase> buscarAproximados(String titulo, int distanciaMaxima, int limite) {
+        if (aproximados == null) {
+            aproximados = new IndiceDistanciaEdicion();
+            aproximados.agregarTodos(entradas.keySet());
+        }
+        
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (String clave : aproximados.buscar(normalizar(titulo), distanciaMaxima, limite)) {
+            resultado.add(entradas.get(clave));
+        }
+        return resultado;
+    }
+    
+    /**
+     * Retorna una instantánea inmutable del contenido actual, en orden de inserción. Su
+     * versión cambia con cada modificación del índice, y mientras no haya modificaciones se
+     * retorna la misma instantánea.
+     */
+    public InstantaneaCatalogo instantanea() {
+        return filas.publicar();
+    }
+    
+    /**
+     * Retorna, en orden de inserción, los anime que cumplen los criterios resueltos con
+     * los mapas de bits (ver {@link IndiceBitmap#filtrar}).
+     */
+    public List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                              int calificacionMinima) {
+        return bitmaps.obtenerFilas(
+            bitmaps.filtrar(estado, generosRequeridos, generosAlguno, calificacionMinima));
+    }
+    
+    public int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                  int calificacionMinima) {
+        return bitmaps.filtrar(estado, generosRequeridos, generosAlguno, calificacionMinima).cardinality();
+    }
+    
+    /**
+     * Las bajas dejan huecos en los mapas de bits; cuando dominan, se renumeran las filas
+     * siguiendo el orden de inserción.
+     */
+    private void compactarSiNecesario() {
+        int huecos = bitmaps.huecos();
+        if (huecos < HUECOS_MINIMOS_COMPACTACION || huecos <= bitmaps.tamanio()) {
+            return;
+        }
+        Collection<AnimeBase> vivos = valores();
+        bitmaps.limpiar();
+        filas.limpiar();
+        if (trigramas != null) {
+            trigramas.limpiar();
+        }
+        for (AnimeBase anime : vivos) {
+            Ubicacion ubicacion = ubicaciones.get(anime);
+            ubicacion.fila = bitmaps.agregar(anime);
+            filas.establecer(ubicacion.fila, anime);
+            if (trigramas != null) {
+                trigramas.agregar(ubicacion.fila, ubicacion.clave);
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package repositorio;
+
+import java.util.*;
+
+/**
+ * Índice invertido de trigramas de títulos normalizados para búsquedas por subcadena.
+ *
+ * Cada título se indexa en la misma fila que ocupa en {@link IndiceBitmap}; por cada
+ * secuencia de tres caracteres se guarda la lista ordenada de filas que la contienen. Una
+ * consulta de tres o más caracteres interseca las listas de sus trigramas, empezando por la
+ * más corta, y verifica la subcadena sólo en los candidatos que quedan. Una consulta más
+ * corta une las listas de los trigramas que la contienen, sin verificar.
+ *
+ * El título normalizado de una fila no cambia mientras la fila existe, así que las bajas sólo
+ * descartan el título: las listas conservan la fila hasta que el dueño reconstruye el índice.
+ */
+public class IndiceTrigramas {
+    
+    /** Con esta cantidad de candidatos o menos se verifican sin seguir intersecando. */
+    private static final int CANDIDATOS_VERIFICACION_DIRECTA = 64;
+    
+    /** Tabla de trigramas con direccionamiento abierto; un trigrama nunca es 0 */
+    private long[] trigramas;
+    private Filas[] listas;
+    private int cantidadTrigramas;
+    
+    private String[] titulos;
+    private int siguienteFila;
+    /** Filas con títulos de menos de tres caracteres, que no tienen trigramas */
+    private Filas cortos;
+    
+    public IndiceTrigramas() {
+        limpiar();
+    }
+    
+    /**
+     * Lista creciente de filas de un trigrama.
+     */
+    private static final class Filas {
+        int[] filas = new int[4];
+        int tamanio;
+        
+        void agregar(int fila) {
+            // Las filas llegan en orden: un trigrama repetido en el título ya agregó esta fila
+            if (tamanio > 0 && filas[tamanio - 1] == fila) {
+                return;
+            }
+            if (tamanio == filas.length) {
+                filas = Arrays.copyOf(filas, tamanio + (tamanio >> 1));
+            }
+            filas[tamanio++] = fila;
+        }
+    }
+    
+    // ========== Mantenimiento ==========
+    
+    /**
+     * Indexa un título ya normalizado. Las filas deben agregarse en orden creciente.
+     */
+    public void agregar(int fila, String titulo) {
+        if (fila < siguienteFila) {
+            throw new IllegalArgumentException("Fila " + fila + " fuera de orden");
+        }
+        if (fila >= titulos.length) {
+            titulos = Arrays.copyOf(titulos, Math.max(16, Math.max(fila + 1, titulos.length + (titulos.length >> 1))));
+        }
+        titulos[fila] = titulo;
+        siguienteFila = fila + 1;
+        
+        if (titulo.length() < 3) {
+            cortos.agregar(fila);
+        }
+        for (int i = 0; i + 3 <= titulo.length(); i++) {
+            listaDe(trigrama(titulo, i)).agregar(fila);
+        }
+    }
+    
+    public void eliminar(int fila) {
+        if (fila < siguienteFila) {
+            titulos[fila] = null;
+        }
+    }
+    
+    public void limpiar() {
+        trigramas = new long[1024];
+        listas = new Filas[1024];
+        cantidadTrigramas = 0;
+        titulos = new String[0];
+        siguienteFila = 0;
+        cortos = new Filas();
+    }
+    
+    private static long trigrama(String texto, int desde) {
+        return ((long) texto.charAt(desde) << 32) | ((long) texto.charAt(desde + 1) << 16) | texto.charAt(desde + 2)
+            | 1L << 48;
+    }
+    
+    private static int posicionInicial(long trigrama, int mascara) {
+        long mezcla = trigrama * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+    }
+    
+    private Filas buscarLista(long trigrama) {
+        int mascara = trigramas.length - 1;
+        for (int i = posicionInicial(trigrama, mascara); trigramas[i] != 0; i = (i + 1) & mascara) {
+            if (trigramas[i] == trigrama) {
+                return listas[i];
+            }
+        }
+        return null;
+    }
+    
+    private Filas listaDe(long trigrama) {
+        int mascara = trigramas.length - 1;
+        int i = posicionInicial(trigrama, mascara);
+        for (; trigramas[i] != 0; i = (i + 1) & mascara) {
+            if (trigramas[i] == trigrama) {
+                return listas[i];
+            }
+        }
+        Filas lista = new Filas();
+        trigramas[i] = trigrama;
+        listas[i] = lista;
+        if (++cantidadTrigramas * 2 > trigramas.length) {
+            agrandarTabla();
+        }
+        return lista;
+    }
+    
+    private void agrandarTabla() {
+        long[] anteriores = trigramas;
+        Filas[] listasAnteriores = listas;
+        trigramas = new long[anteriores.length * 2];
+        listas = new Filas[anteriores.length * 2];
+        int mascara = trigramas.length - 1;
+        for (int j = 0; j < anteriores.length; j++) {
+            if (anteriores[j] != 0) {
+                int i = posicionInicial(anteriores[j], mascara);
+                while (trigramas[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                trigramas[i] = anteriores[j];
+                listas[i] = listasAnteriores[j];
+            }
+        }
+    }
+    
+    // ========== Consultas ==========
+    
+    /**
+     * Retorna las filas cuyo título normalizado contiene la consulta, que también debe
+     * estar normalizada.
+     */
+    public BitSet buscar(String consulta) {
+        return consulta.length() < 3 ? buscarCorta(consulta) : buscarLarga(consulta);
+    }
+    
+    /**
+     * Toda aparición de una consulta de uno o dos caracteres en un título de tres o más cae
+     * dentro de alguno de sus trigramas: alcanza con unir las listas de los que la contienen.
+     */
+    private BitSet buscarCorta(String consulta) {
+        BitSet resultado = new BitSet(siguienteFila);
+        for (int j = 0; j < trigramas.length; j++) {
+            if (trigramas[j] != 0 && trigramaContiene(trigramas[j], consulta)) {
+                marcarVivas(listas[j], resultado);
+            }
+        }
+        for (int i = 0; i < cortos.tamanio; i++) {
+            String titulo = titulos[cortos.filas[i]];
+            if (titulo != null && titulo.contains(consulta)) {
+                resultado.set(cortos.filas[i]);
+            }
+        }
+        return resultado;
+    }
+    
+    private static boolean trigramaContiene(long trigrama, String consulta) {
+        char a = (char) (trigrama >>> 32);
+        char b = (char) (trigrama >>> 16);
+        char c = (char) trigrama;
+        if (consulta.length() == 1) {
+            char x = consulta.charAt(0);
+            return a == x || b == x || c == x;
+        }
+        char x = consulta.charAt(0);
+        char y = consulta.charAt(1);
+        return (a == x && b == y) || (b == x && c == y);
+    }
+    
+    private void marcarVivas(Filas lista, BitSet resultado) {
+        for (int i = 0; i < lista.tamanio; i++) {
+            int fila = lista.filas[i];
+            if (titulos[fila] != null) {
+                resultado.set(fila);
+            }
+        }
+    }
+    
+    private BitSet buscarLarga(String consulta) {
+        BitSet resultado = new BitSet(siguienteFila);
+        List<Filas> candidatas = new ArrayList<>();
+        for (int i = 0; i + 3 <= consulta.length(); i++) {
+            Filas lista = buscarLista(trigrama(consulta, i));
+            if (lista == null) {
+                return resultado;
+            }
+            if (!candidatas.contains(lista)) {
+                candidatas.add(lista);
+            }
+        }
+        candidatas.sort(Comparator.comparingInt(lista -> lista.tamanio));
+        
+        if (consulta.length() == 3) {
+            marcarVivas(candidatas.get(0), resultado);
+            return resultado;
+        }
+        
+        int[] candidatos = Arrays.copyOf(candidatas.get(0).filas, candidatas.get(0).tamanio);
+        int cantidad = candidatos.length;
+        for (int i = 1; i < candidatas.size() && cantidad > CANDIDATOS_VERIFICACION_DIRECTA; i++) {
+            cantidad = intersecar(candidatos, cantidad, candidatas.get(i));
+        }
+        
+        for (int i = 0; i < cantidad; i++) {
+            String titulo = titulos[candidatos[i]];
+            if (titulo != null && titulo.contains(consulta)) {
+                resultado.set(candidatos[i]);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Deja en candidatos sólo las filas que también están en la lista. Como la lista suele
+     * ser mucho más larga, cada candidato se busca avanzando a saltos desde el anterior.
+     *
+     * @return la cantidad de candidatos que quedan
+     */
+    private static int intersecar(int[] candidatos, int cantidad, Filas lista) {
+        int[] filas = lista.filas;
+        int quedan = 0;
+        int desde = 0;
+        for (int i = 0; i < cantidad && desde < lista.tamanio; i++) {
+            int buscada = candidatos[i];
+            int paso = 1;
+            int hasta = desde;
+            while (hasta < lista.tamanio && filas[hasta] < buscada) {
+                desde = hasta + 1;
+                hasta += paso;
+                paso <<= 1;
+            }
+            int posicion = Arrays.binarySearch(filas, desde, Math.min(hasta + 1, lista.tamanio), buscada);
+            if (posicion >= 0) {
+                candidatos[quedan++] = buscada;
+                desde = posicion + 1;
+            } else {
+                desde = -posicion - 1;
+            }
+        }
+        return quedan;
+    }
+}
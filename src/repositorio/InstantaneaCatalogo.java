@@ -0,0 +1,49 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+import java.util.List;
+
+/**
+ * Estado del catálogo en un momento dado: una lista inmutable que se puede compartir sin
+ * copiarla y el número de versión del repositorio que la publicó.
+ *
+ * La versión cambia con cada modificación del repositorio, así que alcanza con compararla
+ * para saber si un resultado calculado a partir de una instantánea anterior sigue vigente.
+ */
+public final class InstantaneaCatalogo {
+    
+    /** Versión de las instantáneas de repositorios que no llevan versiones. */
+    public static final long SIN_VERSION = -1;
+    
+    private final long version;
+    private final List<AnimeBase> animes;
+    
+    public InstantaneaCatalogo(long version, List<AnimeBase> animes) {
+        this.version = version;
+        this.animes = animes;
+    }
+    
+    public long obtenerVersion() {
+        return version;
+    }
+    
+    /**
+     * Anime en el orden de obtenerTodos. La lista no se puede modificar.
+     */
+    public List<AnimeBase> obtenerAnimes() {
+        return animes;
+    }
+    
+    public int tamanio() {
+        return animes.size();
+    }
+    
+    /**
+     * Indica si esta instantánea tiene la versión dada; las instantáneas sin versión nunca
+     * se consideran vigentes.
+     */
+    public boolean esVersion(long otraVersion) {
+        return version != SIN_VERSION && version == otraVersion;
+    }
+}
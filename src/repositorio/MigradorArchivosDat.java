@@ -0,0 +1,119 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.ListaPersonalizada;
+import excepcion.ExcepcionPersistencia;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Migración de los archivos .dat escritos con serialización de Java al formato binario
+ * de {@link FormatoBinario}.
+ *
+ * Los repositorios migran solos al encontrar un archivo antiguo; también se puede ejecutar
+ * una vez desde la línea de comandos:
+ * <pre>java repositorio.MigradorArchivosDat [animes.dat] [listas.dat]</pre>
+ * El archivo original se conserva con la extensión ".serializado".
+ */
+public final class MigradorArchivosDat {
+    
+    private static final int MAGIA_SERIALIZACION = 0xACED;
+    private static final String SUFIJO_RESPALDO = ".serializado";
+    
+    private MigradorArchivosDat() {
+    }
+    
+    public static void main(String[] args) {
+        Path catalogo = Paths.get(args.length > 0 ? args[0] : "data/animes.dat");
+        Path listas = Paths.get(args.length > 1 ? args[1] : "data/listas.dat");
+        try {
+            informar(catalogo, migrarCatalogoSiEsNecesario(catalogo));
+            informar(listas, migrarListasSiEsNecesario(listas));
+        } catch (ExcepcionPersistencia e) {
+            System.err.println("Error en la migración: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    private static void informar(Path archivo, boolean migrado) {
+        System.out.println(archivo + (migrado
+            ? ": migrado (original en " + archivo.getFileName() + SUFIJO_RESPALDO + ")"
+            : ": nada que migrar"));
+    }
+    
+    /**
+     * Indica si el archivo fue escrito con ObjectOutputStream.
+     */
+    public static boolean esSerializacionJava(Path archivo) throws ExcepcionPersistencia {
+        try (DataInputStream entrada = new DataInputStream(Files.newInputStream(archivo))) {
+            return entrada.readUnsignedShort() == MAGIA_SERIALIZACION;
+        } catch (EOFException | NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al leer " + archivo + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Convierte el catálogo si está en el formato antiguo.
+     *
+     * @return true si se migró
+     */
+    public static boolean migrarCatalogoSiEsNecesario(Path archivo) throws ExcepcionPersistencia {
+        if (!esSerializacionJava(archivo)) {
+            return false;
+        }
+        List<AnimeBase> animes = leerSerializado(archivo);
+        reemplazar(archivo, temporal -> FormatoBinario.escribirCatalogo(temporal, animes));
+        return true;
+    }
+    
+    /**
+     * Convierte las listas personalizadas si están en el formato antiguo.
+     *
+     * @return true si se migró
+     */
+    public static boolean migrarListasSiEsNecesario(Path archivo) throws ExcepcionPersistencia {
+        if (!esSerializacionJava(archivo)) {
+            return false;
+        }
+        List<ListaPersonalizada> listas = leerSerializado(archivo);
+        reemplazar(archivo, temporal -> FormatoBinario.escribirListas(temporal, listas));
+        return true;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> leerSerializado(Path archivo) throws ExcepcionPersistencia {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+            Object obj = ois.readObject();
+            if (!(obj instanceof List)) {
+                throw new ExcepcionPersistencia("Formato de archivo inválido: " + archivo);
+            }
+            return (List<T>) obj;
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al leer " + archivo + ": " + e.getMessage(), e);
+        } catch (ClassNotFoundException e) {
+            throw new ExcepcionPersistencia("Error al deserializar: clase no encontrada", e);
+        }
+    }
+    
+    /**
+     * Respalda el original y lo reemplaza por el archivo convertido.
+     */
+    private static void reemplazar(Path archivo, ArchivoAtomico.Escritura escritura) throws ExcepcionPersistencia {
+        Path respaldo = archivo.resolveSibling(archivo.getFileName() + SUFIJO_RESPALDO);
+        try {
+            Files.copy(archivo, respaldo, StandardCopyOption.REPLACE_EXISTING);
+            ArchivoAtomico.reemplazar(archivo, escritura);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al migrar " + archivo + ": " + e.getMessage(), e);
+        }
+    }
+}
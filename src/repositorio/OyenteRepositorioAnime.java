@@ -0,0 +1,61 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+import java.util.Collection;
+
+/**
+ * Recibe las modificaciones de un repositorio de anime en el momento en que ocurren, con
+ * un método por tipo de cambio (ver {@link CambioCatalogo}).
+ *
+ * Las notificaciones se emiten en el hilo que modifica el repositorio y, en los repositorios
+ * sincronizados, mientras se mantiene su bloqueo: las implementaciones deben ser breves.
+ */
+public interface OyenteRepositorioAnime extends SuscriptorCambiosCatalogo {
+    
+    /**
+     * Se guardó un anime nuevo o se volvió a guardar uno existente (posiblemente modificado).
+     */
+    void animeGuardado(AnimeBase anime);
+    
+    /**
+     * Se eliminó un anime.
+     */
+    void animeEliminado(AnimeBase anime);
+    
+    /**
+     * Se guardó una instancia con el título de otra, que sale del repositorio. La nueva
+     * ocupa la posición de la anterior en el orden del catálogo.
+     */
+    default void animeReemplazado(AnimeBase anterior, AnimeBase nuevo) {
+        animeEliminado(anterior);
+        animeGuardado(nuevo);
+    }
+    
+    /**
+     * El contenido completo del repositorio pasó a ser la colección dada (carga inicial,
+     * guardarTodos o eliminarTodos). También se emite al registrar el oyente.
+     */
+    void catalogoReemplazado(Collection<AnimeBase> animes);
+    
+    @Override
+    default void cambioCatalogo(CambioCatalogo cambio) {
+        switch (cambio.obtenerTipo()) {
+            case AGREGADO:
+                animeGuardado(cambio.obtenerNuevo());
+                break;
+            case ACTUALIZADO:
+                if (cambio.obtenerAnterior() == cambio.obtenerNuevo()) {
+                    animeGuardado(cambio.obtenerNuevo());
+                } else {
+                    animeReemplazado(cambio.obtenerAnterior(), cambio.obtenerNuevo());
+                }
+                break;
+            case ELIMINADO:
+                animeEliminado(cambio.obtenerAnterior());
+                break;
+            default:
+                catalogoReemplazado(cambio.obtenerCatalogo().obtenerAnimes());
+        }
+    }
+}
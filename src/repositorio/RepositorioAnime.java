@@ -3,10 +3,16 @@ package repositorio;
 import modelo.AnimeBase;
 import excepcion.ExcepcionPersistencia;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Interfaz que define las operaciones de persistencia para anime.
+ *
+ * Las consultas que algunos repositorios resuelven con índices están aparte, en
+ * {@link ConsultasAtributos} y {@link ConsultasCatalogo}.
  */
 public interface RepositorioAnime {
     
@@ -30,6 +36,18 @@ public interface RepositorioAnime {
      */
     List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia;
     
+    /**
+     * Obtiene el catálogo como una instantánea inmutable con su versión, sin copiarlo cuando
+     * el repositorio lo permite. Los anime son los mismos que tiene el repositorio: quien los
+     * quiera modificar debe guardarlos después.
+     *
+     * Por defecto copia obtenerTodos y no lleva versión.
+     */
+    default InstantaneaCatalogo obtenerInstantanea() throws ExcepcionPersistencia {
+        return new InstantaneaCatalogo(InstantaneaCatalogo.SIN_VERSION,
+            Collections.unmodifiableList(new ArrayList<>(obtenerTodos())));
+    }
+    
     /**
      * Elimina un anime por su título.
      */
@@ -54,5 +72,55 @@ public interface RepositorioAnime {
      * Elimina todos los anime del repositorio.
      */
     void eliminarTodos() throws ExcepcionPersistencia;
+    
+    /**
+     * Espera a que estén escritas todas las modificaciones hechas hasta ahora. Los
+     * repositorios que escriben en cada modificación no tienen nada que esperar.
+     */
+    default void confirmarEscrituras() throws ExcepcionPersistencia {
+    }
+    
+    // ========== Cambios del catálogo ==========
+    
+    /**
+     * Registra un suscriptor que recibirá cada modificación del repositorio en el hilo que
+     * la hace (ver {@link BusCambiosCatalogo}). Al registrarse recibe el contenido ya cargado
+     * como un reemplazo del catálogo.
+     *
+     * @return false si el repositorio no publica sus cambios
+     */
+    default boolean suscribir(SuscriptorCambiosCatalogo suscriptor) {
+        return false;
+    }
+    
+    /**
+     * Como suscribir, pero los cambios se entregan en orden por el ejecutor dado, sin demorar
+     * las modificaciones.
+     */
+    default boolean suscribirAsincrono(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        return false;
+    }
+    
+    /**
+     * Como suscribir, con los cambios entregados por un hilo compartido.
+     */
+    default boolean suscribirAsincrono(SuscriptorCambiosCatalogo suscriptor) {
+        return suscribirAsincrono(suscriptor, BusCambiosCatalogo.ejecutorCompartido());
+    }
+    
+    default void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+    }
+    
+    /**
+     * Registra un oyente con un método por tipo de cambio; equivale a suscribir.
+     *
+     * @return false si el repositorio no admite oyentes
+     */
+    default boolean agregarOyente(OyenteRepositorioAnime oyente) {
+        return suscribir(oyente);
+    }
+    
+    default void quitarOyente(OyenteRepositorioAnime oyente) {
+        desuscribir(oyente);
+    }
 }
-
@@ -1,27 +1,51 @@
 package repositorio;
 
 import modelo.AnimeBase;
+import modelo.Estado;
 import excepcion.ExcepcionPersistencia;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
- * Implementación de RepositorioAnime que persiste datos en archivo binario.
+ * Implementación de RepositorioAnime que persiste datos en archivo binario
+ * (ver {@link FormatoBinario}).
+ *
+ * Cada modificación reemplaza el archivo de forma atómica (ver {@link ArchivoAtomico}). Con
+ * una ventana de agrupación, las modificaciones se acumulan y se escriben juntas en segundo
+ * plano; {@link #confirmarEscrituras()} fuerza la escritura de lo pendiente.
  */
-public class RepositorioAnimeArchivo implements RepositorioAnime {
+public class RepositorioAnimeArchivo implements RepositorioAnime, ConsultasCatalogo {
     
     private final String rutaArchivo;
-    private List<AnimeBase> cache;
+    private final IndiceTitulos cache;
+    private final ConfirmacionAgrupada agrupacion;
     private boolean cacheCargada;
     
-    public RepositorioAnimeArchivo(String rutaArchivo) {
+    /**
+     * @param ventanaAgrupacionMillis tiempo durante el que se acumulan modificaciones antes
+     *                                de escribirlas, o 0 para escribir en cada modificación
+     */
+    public RepositorioAnimeArchivo(String rutaArchivo, long ventanaAgrupacionMillis) {
         this.rutaArchivo = rutaArchivo;
-        this.cache = new ArrayList<>();
+        this.cache = new IndiceTitulos();
+        this.agrupacion = ventanaAgrupacionMillis > 0
+            ? new ConfirmacionAgrupada(ventanaAgrupacionMillis, this::escribirInstantanea) : null;
         this.cacheCargada = false;
     }
     
+    public RepositorioAnimeArchivo(String rutaArchivo) {
+        this(rutaArchivo, 0);
+    }
+    
     public RepositorioAnimeArchivo() {
         this("data/animes.dat");
     }
@@ -29,46 +53,47 @@ public class RepositorioAnimeArchivo implements RepositorioAnime {
     // ========== Implementación de RepositorioAnime ==========
     
     @Override
-    public void guardar(AnimeBase anime) throws ExcepcionPersistencia {
+    public synchronized void guardar(AnimeBase anime) throws ExcepcionPersistencia {
         cargarSiNecesario();
-        
-        AnimeBase existente = buscarEnCache(anime.obtenerTitulo());
-        if (existente != null) {
-            int indice = cache.indexOf(existente);
-            cache.set(indice, anime);
-        } else {
-            cache.add(anime);
-        }
-        
+        cache.guardar(anime);
         persistir();
     }
     
+    /**
+     * Reemplaza el catálogo completo. Si la escritura falla, la caché vuelve al catálogo
+     * anterior y el reemplazo no queda visible.
+     */
     @Override
-    public void guardarTodos(List<AnimeBase> animes) throws ExcepcionPersistencia {
-        this.cache = new ArrayList<>(animes);
-        this.cacheCargada = true;
-        persistir();
+    public synchronized void guardarTodos(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        reemplazarYPersistir(animes);
     }
     
     @Override
-    public AnimeBase buscarPorTitulo(String titulo) throws ExcepcionPersistencia {
+    public synchronized AnimeBase buscarPorTitulo(String titulo) throws ExcepcionPersistencia {
         cargarSiNecesario();
-        return buscarEnCache(titulo);
+        return cache.buscar(titulo);
     }
     
     @Override
-    public List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia {
+    public synchronized List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia {
         cargarSiNecesario();
-        return new ArrayList<>(cache);
+        return new ArrayList<>(cache.valores());
     }
     
+    /**
+     * Retorna la instantánea publicada por el índice en memoria, sin copiar el catálogo.
+     */
     @Override
-    public boolean eliminarPorTitulo(String titulo) throws ExcepcionPersistencia {
+    public synchronized InstantaneaCatalogo obtenerInstantanea() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.instantanea();
+    }
+    
+    @Override
+    public synchronized boolean eliminarPorTitulo(String titulo) throws ExcepcionPersistencia {
         cargarSiNecesario();
         
-        AnimeBase anime = buscarEnCache(titulo);
-        if (anime != null) {
-            cache.remove(anime);
+        if (cache.eliminar(titulo) != null) {
             persistir();
             return true;
         }
@@ -76,27 +101,87 @@ public class RepositorioAnimeArchivo implements RepositorioAnime {
     }
     
     @Override
-    public boolean eliminar(AnimeBase anime) throws ExcepcionPersistencia {
+    public synchronized boolean eliminar(AnimeBase anime) throws ExcepcionPersistencia {
         return eliminarPorTitulo(anime.obtenerTitulo());
     }
     
     @Override
-    public boolean existePorTitulo(String titulo) throws ExcepcionPersistencia {
+    public synchronized boolean existePorTitulo(String titulo) throws ExcepcionPersistencia {
         cargarSiNecesario();
-        return buscarEnCache(titulo) != null;
+        return cache.contiene(titulo);
     }
     
     @Override
-    public int contar() throws ExcepcionPersistencia {
+    public synchronized int contar() throws ExcepcionPersistencia {
         cargarSiNecesario();
-        return cache.size();
+        return cache.tamanio();
     }
     
     @Override
-    public void eliminarTodos() throws ExcepcionPersistencia {
-        cache.clear();
-        cacheCargada = true;
-        persistir();
+    public synchronized void eliminarTodos() throws ExcepcionPersistencia {
+        reemplazarYPersistir(new ArrayList<>());
+    }
+    
+    @Override
+    public synchronized boolean suscribir(SuscriptorCambiosCatalogo suscriptor) {
+        cache.suscribir(suscriptor, null);
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean suscribirAsincrono(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        cache.suscribir(suscriptor, ejecutor);
+        return true;
+    }
+    
+    @Override
+    public synchronized void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+        cache.desuscribir(suscriptor);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                                           int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.buscarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                               int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.contarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.buscarPorTituloContiene(texto);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorEstudio(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.buscarPorEstudio(texto);
+    }
+    
+    @Override
+    public synchronized Map<String, Long> contarPorEstudio() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.contarPorEstudio();
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.sugerirPorPrefijo(prefijo, limite);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloAproximado(String titulo, int distanciaMaxima, int limite)
+            throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.buscarAproximados(titulo, distanciaMaxima, limite);
     }
     
     // ========== Métodos privados de persistencia ==========
@@ -107,63 +192,93 @@ public class RepositorioAnimeArchivo implements RepositorioAnime {
         }
     }
     
-    @SuppressWarnings("unchecked")
     private void cargar() throws ExcepcionPersistencia {
-        File archivo = new File(rutaArchivo);
+        Path archivo = Paths.get(rutaArchivo);
         
-        if (!archivo.exists()) {
-            cache = new ArrayList<>();
+        if (!Files.exists(archivo)) {
+            cache.limpiar();
             cacheCargada = true;
             return;
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(archivo))) {
-            Object obj = ois.readObject();
-            if (obj instanceof List) {
-                cache = (List<AnimeBase>) obj;
-            } else {
-                throw new ExcepcionPersistencia("Formato de archivo inválido");
-            }
+        MigradorArchivosDat.migrarCatalogoSiEsNecesario(archivo);
+        try {
+            cache.reemplazarTodos(FormatoBinario.leerCatalogo(archivo));
             cacheCargada = true;
-        } catch (FileNotFoundException e) {
-            cache = new ArrayList<>();
+        } catch (NoSuchFileException e) {
+            cache.limpiar();
             cacheCargada = true;
         } catch (IOException e) {
             throw new ExcepcionPersistencia("Error al leer el archivo de anime: " + e.getMessage(), e);
-        } catch (ClassNotFoundException e) {
-            throw new ExcepcionPersistencia("Error al deserializar: clase no encontrada", e);
         }
     }
     
-    private void persistir() throws ExcepcionPersistencia {
-        File archivo = new File(rutaArchivo);
-        
-        File dirPadre = archivo.getParentFile();
-        if (dirPadre != null && !dirPadre.exists()) {
-            if (!dirPadre.mkdirs()) {
-                throw new ExcepcionPersistencia("No se pudo crear el directorio: " + dirPadre.getPath());
+    /**
+     * Reemplaza la caché y la escribe; si la escritura falla restaura el contenido anterior
+     * (o la deja sin cargar si no lo estaba) antes de propagar el error.
+     */
+    private void reemplazarYPersistir(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        List<AnimeBase> anteriores = cacheCargada ? cache.instantanea().obtenerAnimes() : null;
+        cache.reemplazarTodos(animes);
+        cacheCargada = true;
+        try {
+            persistir();
+        } catch (ExcepcionPersistencia e) {
+            if (anteriores != null) {
+                cache.reemplazarTodos(anteriores);
+            } else {
+                invalidarCache();
             }
+            throw e;
         }
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(archivo))) {
-            oos.writeObject(cache);
+    }
+    
+    private void persistir() throws ExcepcionPersistencia {
+        if (agrupacion != null) {
+            agrupacion.programar();
+        } else {
+            escribir(cache.valores());
+        }
+    }
+    
+    private void escribirInstantanea() throws ExcepcionPersistencia {
+        List<AnimeBase> animes;
+        synchronized (this) {
+            animes = cache.instantanea().obtenerAnimes();
+        }
+        escribir(animes);
+    }
+    
+    private void escribir(Collection<AnimeBase> animes) throws ExcepcionPersistencia {
+        try {
+            ArchivoAtomico.reemplazar(Paths.get(rutaArchivo),
+                destino -> FormatoBinario.escribirCatalogo(destino, animes));
         } catch (IOException e) {
             throw new ExcepcionPersistencia("Error al guardar el archivo de anime: " + e.getMessage(), e);
         }
     }
     
-    private AnimeBase buscarEnCache(String titulo) {
-        for (AnimeBase anime : cache) {
-            if (anime.obtenerTitulo().equalsIgnoreCase(titulo)) {
-                return anime;
-            }
+    /**
+     * Escribe ya las modificaciones acumuladas por la ventana de agrupación, si las hay.
+     */
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        if (agrupacion != null) {
+            agrupacion.confirmar();
         }
-        return null;
     }
     
-    public void invalidarCache() {
+    /**
+     * Escribe en el archivo un catálogo ya armado por otro repositorio, sin reconstruir la
+     * caché; la caché queda sin cargar para que una lectura posterior vea lo escrito.
+     */
+    synchronized void escribirCatalogo(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        escribir(animes);
+        invalidarCache();
+    }
+    
+    public synchronized void invalidarCache() {
         cacheCargada = false;
-        cache.clear();
+        cache.limpiar();
     }
 }
 
@@ -0,0 +1,673 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import excepcion.ExcepcionPersistencia;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Implementación de RepositorioAnime basada en una bitácora de escritura anticipada.
+ *
+ * Cada mutación se agrega al final de la bitácora como un registro pequeño, en lugar de
+ * reescribir el catálogo completo. Cuando la bitácora supera un umbral, un hilo en segundo
+ * plano la compacta en una instantánea. Al iniciar se carga la instantánea y se reproducen
+ * los registros pendientes.
+ *
+ * Cada modificación se aplica en memoria recién después de agregarse a la bitácora, así que
+ * si la escritura falla el catálogo en memoria no cambia.
+ */
+public class RepositorioAnimeBitacora implements RepositorioAnime, ConsultasCatalogo {
+    
+    public static final int UMBRAL_COMPACTACION_POR_DEFECTO = 10_000;
+    
+    private static final int MAGIA_INSTANTANEA = 0x414E4953; // "ANIS"
+    /** La versión 2 agrega el tamaño y el CRC de la bitácora rotada que ya incluye */
+    private static final int VERSION_INSTANTANEA = 2;
+    
+    private static final byte OP_GUARDAR = 1;
+    private static final byte OP_ELIMINAR = 2;
+    private static final byte OP_ELIMINAR_TODOS = 3;
+    private static final byte OP_REEMPLAZAR_TODOS = 4;
+    private static final byte OP_RENOMBRAR = 5;
+    
+    /** Longitud + CRC32 que preceden a cada registro de la bitácora. */
+    private static final int TAMANIO_CABECERA_REGISTRO = 8;
+    
+    private final Path rutaInstantanea;
+    private final Path rutaBitacora;
+    private final Path rutaBitacoraCompactando;
+    private final int umbralCompactacion;
+    private final boolean sincronizarCadaEscritura;
+    
+    private final IndiceTitulos entradas;
+    private boolean cacheCargada;
+    
+    /** Estudios y directores ya leídos, sólo mientras se carga */
+    private DiccionarioNombres nombresCargados;
+    
+    private FileChannel canalBitacora;
+    private int registrosEnBitacora;
+    private boolean compactacionEnCurso;
+    private boolean cerrado;
+    private volatile Exception ultimoErrorCompactacion;
+    
+    private final ExecutorService compactador;
+    
+    public RepositorioAnimeBitacora(String rutaBase, int umbralCompactacion, boolean sincronizarCadaEscritura) {
+        this.rutaInstantanea = Paths.get(rutaBase + ".snap");
+        this.rutaBitacora = Paths.get(rutaBase + ".log");
+        this.rutaBitacoraCompactando = Paths.get(rutaBase + ".log.compactando");
+        this.umbralCompactacion = Math.max(1, umbralCompactacion);
+        this.sincronizarCadaEscritura = sincronizarCadaEscritura;
+        this.entradas = new IndiceTitulos();
+        this.cacheCargada = false;
+        this.compactador = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "compactador-bitacora-anime");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+    
+    public RepositorioAnimeBitacora(String rutaBase) {
+        this(rutaBase, UMBRAL_COMPACTACION_POR_DEFECTO, false);
+    }
+    
+    public RepositorioAnimeBitacora() {
+        this("data/animes");
+    }
+    
+    // ========== Implementación de RepositorioAnime ==========
+    
+    @Override
+    public synchronized void guardar(AnimeBase anime) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        
+        // Si el mismo objeto fue renombrado, el registro lleva también el título anterior
+        String clavePrevia = entradas.claveDe(anime);
+        boolean renombrado = clavePrevia != null
+            && !clavePrevia.equals(IndiceTitulos.normalizar(anime.obtenerTitulo()));
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        try {
+            escribirRegistro(new DataOutputStream(buffer), renombrado ? OP_RENOMBRAR : OP_GUARDAR,
+                clavePrevia, anime);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al codificar el anime: " + e.getMessage(), e);
+        }
+        
+        agregarABitacora(buffer.toByteArray(), 1);
+        entradas.guardar(anime);
+    }
+    
+    /**
+     * Reemplaza el catálogo con un único registro: al reproducir la bitácora se aplica
+     * completo o, si la escritura quedó cortada, no se aplica y queda el catálogo anterior.
+     */
+    @Override
+    public synchronized void guardarTodos(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(128, animes.size() * 96));
+        try {
+            escribirReemplazo(new DataOutputStream(buffer), animes);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al codificar el catálogo: " + e.getMessage(), e);
+        }
+        
+        agregarABitacora(buffer.toByteArray(), animes.size() + 1);
+        entradas.reemplazarTodos(animes);
+    }
+    
+    @Override
+    public synchronized AnimeBase buscarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscar(titulo);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return new ArrayList<>(entradas.valores());
+    }
+    
+    /**
+     * Retorna la instantánea publicada por el índice en memoria, sin copiar el catálogo.
+     */
+    @Override
+    public synchronized InstantaneaCatalogo obtenerInstantanea() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.instantanea();
+    }
+    
+    @Override
+    public synchronized boolean eliminarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        
+        if (!entradas.contiene(titulo)) {
+            return false;
+        }
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try {
+            escribirRegistro(new DataOutputStream(buffer), OP_ELIMINAR, IndiceTitulos.normalizar(titulo), null);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al codificar la eliminación: " + e.getMessage(), e);
+        }
+        agregarABitacora(buffer.toByteArray(), 1);
+        entradas.eliminar(titulo);
+        return true;
+    }
+    
+    @Override
+    public boolean eliminar(AnimeBase anime) throws ExcepcionPersistencia {
+        return eliminarPorTitulo(anime.obtenerTitulo());
+    }
+    
+    @Override
+    public synchronized boolean existePorTitulo(String titulo) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contiene(titulo);
+    }
+    
+    @Override
+    public synchronized int contar() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.tamanio();
+    }
+    
+    @Override
+    public synchronized void eliminarTodos() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16);
+        try {
+            escribirRegistro(new DataOutputStream(buffer), OP_ELIMINAR_TODOS, null, null);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al codificar la eliminación: " + e.getMessage(), e);
+        }
+        agregarABitacora(buffer.toByteArray(), 1);
+        entradas.limpiar();
+    }
+    
+    @Override
+    public synchronized boolean suscribir(SuscriptorCambiosCatalogo suscriptor) {
+        entradas.suscribir(suscriptor, null);
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean suscribirAsincrono(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        entradas.suscribir(suscriptor, ejecutor);
+        return true;
+    }
+    
+    @Override
+    public synchronized void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+        entradas.desuscribir(suscriptor);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                                           int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                               int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorTituloContiene(texto);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorEstudio(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorEstudio(texto);
+    }
+    
+    @Override
+    public synchronized Map<String, Long> contarPorEstudio() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contarPorEstudio();
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.sugerirPorPrefijo(prefijo, limite);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloAproximado(String titulo, int distanciaMaxima, int limite)
+            throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarAproximados(titulo, distanciaMaxima, limite);
+    }
+    
+    // ========== Compactación y cierre ==========
+    
+    /**
+     * Compacta la bitácora en una nueva instantánea y espera a que termine.
+     */
+    public void compactar() throws ExcepcionPersistencia {
+        Future<?> tarea;
+        synchronized (this) {
+            verificarAbierto();
+            cargarSiNecesario();
+            compactacionEnCurso = true;
+            tarea = compactador.submit(this::ejecutarCompactacion);
+        }
+        esperar(tarea);
+        lanzarErrorCompactacionSiExiste();
+    }
+    
+    /**
+     * Espera las compactaciones pendientes y libera el archivo de bitácora. Después de
+     * cerrar, las modificaciones se rechazan con {@link ExcepcionPersistencia}.
+     */
+    public void cerrar() throws ExcepcionPersistencia {
+        synchronized (this) {
+            cerrado = true;
+        }
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(Long.MAX_VALUE, java.util.concurrent.TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            cerrarCanalBitacora();
+        }
+        lanzarErrorCompactacionSiExiste();
+    }
+    
+    private void ejecutarCompactacion() {
+        List<AnimeBase> estado;
+        try {
+            synchronized (this) {
+                estado = entradas.instantanea().obtenerAnimes();
+                rotarBitacora();
+            }
+            escribirInstantanea(estado);
+            // Si se corta aquí, la instantánea reconoce la bitácora rotada y no la reproduce
+            Files.deleteIfExists(rutaBitacoraCompactando);
+            ultimoErrorCompactacion = null;
+        } catch (IOException | RuntimeException e) {
+            // La bitácora rotada se conserva: se reproducirá al iniciar o en la próxima compactación
+            ultimoErrorCompactacion = e;
+        } finally {
+            synchronized (this) {
+                compactacionEnCurso = false;
+            }
+        }
+    }
+    
+    /**
+     * Cierra la bitácora activa, la aparta para compactar y abre una nueva vacía.
+     */
+    private void rotarBitacora() throws IOException {
+        cerrarCanalBitacora();
+        
+        if (Files.exists(rutaBitacora)) {
+            if (Files.exists(rutaBitacoraCompactando)) {
+                // Una compactación anterior falló: se conservan sus registros, en orden
+                try (FileChannel destino = FileChannel.open(rutaBitacoraCompactando,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                     FileChannel origen = FileChannel.open(rutaBitacora, StandardOpenOption.READ)) {
+                    long posicion = 0;
+                    long tamanio = origen.size();
+                    while (posicion < tamanio) {
+                        posicion += origen.transferTo(posicion, tamanio - posicion, destino);
+                    }
+                }
+                Files.delete(rutaBitacora);
+            } else {
+                Files.move(rutaBitacora, rutaBitacoraCompactando, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        
+        registrosEnBitacora = 0;
+        abrirCanalBitacora();
+    }
+    
+    /**
+     * Escribe la instantánea junto con el tamaño y el CRC de la bitácora rotada, que sus
+     * registros ya reflejan.
+     */
+    private void escribirInstantanea(List<AnimeBase> animes) throws IOException {
+        Path temporal = rutaInstantanea.resolveSibling(rutaInstantanea.getFileName() + ".tmp");
+        boolean hayRotada = Files.exists(rutaBitacoraCompactando);
+        long tamanioRotada = hayRotada ? Files.size(rutaBitacoraCompactando) : -1;
+        int crcRotada = hayRotada ? crcDeArchivo(rutaBitacoraCompactando) : 0;
+        
+        try (FileOutputStream archivo = new FileOutputStream(temporal.toFile());
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(archivo, 1 << 16))) {
+            salida.writeInt(MAGIA_INSTANTANEA);
+            salida.writeInt(VERSION_INSTANTANEA);
+            salida.writeLong(tamanioRotada);
+            salida.writeInt(crcRotada);
+            salida.writeInt(animes.size());
+            for (AnimeBase anime : animes) {
+                CodificadorAnime.escribir(salida, anime);
+            }
+            salida.flush();
+            archivo.getFD().sync();
+        }
+        
+        Files.move(temporal, rutaInstantanea, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // ========== Métodos privados de persistencia ==========
+    
+    private void cargarSiNecesario() throws ExcepcionPersistencia {
+        if (!cacheCargada) {
+            cargar();
+        }
+    }
+    
+    private void cargar() throws ExcepcionPersistencia {
+        entradas.limpiar();
+        nombresCargados = new DiccionarioNombres();
+        
+        try {
+            crearDirectorioPadre();
+            boolean rotadaIncluida = leerInstantanea();
+            if (rotadaIncluida) {
+                // La compactación se cortó después de escribir la instantánea
+                Files.delete(rutaBitacoraCompactando);
+            } else if (Files.exists(rutaBitacoraCompactando)) {
+                registrosEnBitacora += reproducirBitacora(rutaBitacoraCompactando);
+            }
+            if (Files.exists(rutaBitacora)) {
+                registrosEnBitacora += reproducirBitacora(rutaBitacora);
+            }
+            abrirCanalBitacora();
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al leer la bitácora de anime: " + e.getMessage(), e);
+        } finally {
+            nombresCargados = null;
+        }
+        
+        cacheCargada = true;
+    }
+    
+    /**
+     * Carga la instantánea, si existe.
+     *
+     * @return true si la bitácora rotada presente ya está incluida en la instantánea
+     */
+    private boolean leerInstantanea() throws IOException {
+        if (!Files.exists(rutaInstantanea)) {
+            return false;
+        }
+        
+        long tamanioRotada = -1;
+        int crcRotada = 0;        
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(rutaInstantanea), 1 << 16))) {
+            if (entrada.readInt() != MAGIA_INSTANTANEA) {
+                throw new IOException("Formato de instantánea inválido");
+            }
+            int version = entrada.readInt();
+            if (version != 1 && version != VERSION_INSTANTANEA) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            if (version >= 2) {
+                tamanioRotada = entrada.readLong();
+                crcRotada = entrada.readInt();
+            }
+            int cantidad = entrada.readInt();
+            for (int i = 0; i < cantidad; i++) {
+                entradas.guardar(CodificadorAnime.leer(entrada, nombresCargados));
+            }
+        }
+        
+        return tamanioRotada >= 0 && Files.exists(rutaBitacoraCompactando)
+            && Files.size(rutaBitacoraCompactando) == tamanioRotada
+            && crcDeArchivo(rutaBitacoraCompactando) == crcRotada;
+    }
+    
+    private static int crcDeArchivo(Path ruta) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            while (canal.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return (int) crc.getValue();
+    }
+    
+    /**
+     * Reproduce los registros válidos de una bitácora. Un registro final incompleto o con
+     * CRC inválido (escritura interrumpida) se descarta y el archivo se trunca antes de él.
+     */
+    private int reproducirBitacora(Path ruta) throws IOException {
+        int aplicados = 0;
+        long posicionValida = 0;
+        
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             DataInputStream entrada = new DataInputStream(
+                     new BufferedInputStream(Channels.newInputStream(canal), 1 << 16))) {
+            long tamanio = canal.size();
+            CRC32 crc = new CRC32();
+            
+            while (posicionValida + TAMANIO_CABECERA_REGISTRO <= tamanio) {
+                int longitud = entrada.readInt();
+                int crcEsperado = entrada.readInt();
+                if (longitud <= 0 || posicionValida + TAMANIO_CABECERA_REGISTRO + longitud > tamanio) {
+                    break;
+                }
+                
+                byte[] contenido = new byte[longitud];
+                entrada.readFully(contenido);
+                crc.reset();
+                crc.update(contenido, 0, longitud);
+                if ((int) crc.getValue() != crcEsperado) {
+                    break;
+                }
+                
+                aplicarRegistro(new DataInputStream(new ByteArrayInputStream(contenido)));
+                posicionValida += TAMANIO_CABECERA_REGISTRO + longitud;
+                aplicados++;
+            }
+            
+            if (posicionValida < tamanio) {
+                canal.truncate(posicionValida);
+            }
+        }
+        
+        return aplicados;
+    }
+    
+    private void aplicarRegistro(DataInputStream registro) throws IOException {
+        byte operacion = registro.readByte();
+        switch (operacion) {
+            case OP_GUARDAR:
+                entradas.guardar(CodificadorAnime.leer(registro, nombresCargados));
+                break;
+            case OP_ELIMINAR:
+                entradas.eliminar(registro.readUTF());
+                break;
+            case OP_ELIMINAR_TODOS:
+                entradas.limpiar();
+                break;
+            case OP_REEMPLAZAR_TODOS:
+                entradas.reemplazarTodos(leerReemplazo(registro));
+                break;
+            case OP_RENOMBRAR:
+                aplicarRenombrado(registro.readUTF(), CodificadorAnime.leer(registro, nombresCargados));
+                break;
+            default:
+                throw new IOException("Operación de bitácora desconocida: " + operacion);
+        }
+    }
+    
+    /**
+     * Renombra la instancia cargada bajo el título anterior, para que conserve su posición, y
+     * la reemplaza por la del registro.
+     */
+    private void aplicarRenombrado(String clavePrevia, AnimeBase anime) {
+        AnimeBase previo = entradas.buscar(clavePrevia);
+        if (previo != null) {
+            previo.establecerTitulo(anime.obtenerTitulo());
+            entradas.guardar(previo);
+        }
+        entradas.guardar(anime);
+    }
+    
+    private List<AnimeBase> leerReemplazo(DataInputStream registro) throws IOException {
+        int cantidad = registro.readInt();
+        List<AnimeBase> animes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            animes.add(CodificadorAnime.leer(registro, nombresCargados));
+        }
+        return animes;
+    }
+    
+    /**
+     * Escribe un registro enmarcado (longitud + CRC32 + operación + contenido).
+     */
+    private void escribirRegistro(DataOutputStream salida, byte operacion, String clave, AnimeBase anime)
+            throws IOException {
+        ByteArrayOutputStream contenido = new ByteArrayOutputStream(96);
+        DataOutputStream datos = new DataOutputStream(contenido);
+        datos.writeByte(operacion);
+        if (operacion == OP_ELIMINAR || operacion == OP_RENOMBRAR) {
+            datos.writeUTF(clave);
+        }
+        if (operacion == OP_GUARDAR || operacion == OP_RENOMBRAR) {
+            CodificadorAnime.escribir(datos, anime);
+        }
+        
+        enmarcar(salida, contenido.toByteArray());
+    }
+    
+    /**
+     * Escribe el reemplazo del catálogo completo como un solo registro enmarcado.
+     */
+    private void escribirReemplazo(DataOutputStream salida, List<AnimeBase> animes) throws IOException {
+        ByteArrayOutputStream contenido = new ByteArrayOutputStream(Math.max(128, animes.size() * 96));
+        DataOutputStream datos = new DataOutputStream(contenido);
+        datos.writeByte(OP_REEMPLAZAR_TODOS);
+        datos.writeInt(animes.size());
+        for (AnimeBase anime : animes) {
+            CodificadorAnime.escribir(datos, anime);
+        }
+        enmarcar(salida, contenido.toByteArray());
+    }
+    
+    private static void enmarcar(DataOutputStream salida, byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        
+        salida.writeInt(bytes.length);
+        salida.writeInt((int) crc.getValue());
+        salida.write(bytes);
+    }
+    
+    /**
+     * Agrega registros ya enmarcados. Si la escritura falla a mitad de camino se trunca lo
+     * escrito, para que los registros siguientes no queden detrás de uno cortado.
+     */
+    private void agregarABitacora(byte[] registros, int cantidad) throws ExcepcionPersistencia {
+        verificarAbierto();
+        long tamanioPrevio = -1;
+        try {
+            if (canalBitacora == null) {
+                abrirCanalBitacora();
+            }
+            tamanioPrevio = canalBitacora.size();
+            ByteBuffer buffer = ByteBuffer.wrap(registros);
+            while (buffer.hasRemaining()) {
+                canalBitacora.write(buffer);
+            }
+            if (sincronizarCadaEscritura) {
+                canalBitacora.force(false);
+            }
+        } catch (IOException e) {
+            if (tamanioPrevio >= 0) {
+                try {
+                    canalBitacora.truncate(tamanioPrevio);
+                } catch (IOException ignorada) {
+                    // al reproducir se descarta el registro cortado por su CRC
+                }
+            }
+            throw new ExcepcionPersistencia("Error al escribir la bitácora de anime: " + e.getMessage(), e);
+        }
+        
+        registrosEnBitacora += cantidad;
+        if (registrosEnBitacora >= umbralCompactacion && !compactacionEnCurso) {
+            compactacionEnCurso = true;
+            compactador.submit(this::ejecutarCompactacion);
+        }
+    }
+    
+    private void verificarAbierto() throws ExcepcionPersistencia {
+        if (cerrado) {
+            throw new ExcepcionPersistencia("El repositorio de anime está cerrado: " + rutaBitacora);
+        }
+    }
+    
+    private void abrirCanalBitacora() throws IOException {
+        crearDirectorioPadre();
+        canalBitacora = FileChannel.open(rutaBitacora,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    private void cerrarCanalBitacora() {
+        if (canalBitacora != null) {
+            try {
+                canalBitacora.close();
+            } catch (IOException e) {
+                // Nada que recuperar: los registros ya fueron escritos
+            }
+            canalBitacora = null;
+        }
+    }
+    
+    private void crearDirectorioPadre() throws IOException {
+        Path dirPadre = rutaBitacora.toAbsolutePath().getParent();
+        if (dirPadre != null && !Files.exists(dirPadre)) {
+            Files.createDirectories(dirPadre);
+        }
+    }
+    
+    private void esperar(Future<?> tarea) throws ExcepcionPersistencia {
+        try {
+            tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcepcionPersistencia("Compactación interrumpida", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new ExcepcionPersistencia("Error al compactar la bitácora: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private void lanzarErrorCompactacionSiExiste() throws ExcepcionPersistencia {
+        Exception error = ultimoErrorCompactacion;
+        if (error != null) {
+            throw new ExcepcionPersistencia("Error al compactar la bitácora: " + error.getMessage(), error);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package repositorio;
+
+import modelo.AnimeBase;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementación en memoria de RepositorioAnime para usar desde varios hilos a la vez.
+ *
+ * Los anime se guardan en un ConcurrentHashMap por título normalizado, así que las
+ * búsquedas no toman ningún lock. El orden de obtenerTodos es el mismo que el de los demás
+ * repositorios (ver {@link IndiceTitulos}) y se lleva en un {@link FilasVersionadas}.
+ *
+ * Las modificaciones de un título se serializan con uno de {@value #FRANJAS} locks elegido
+ * por su clave, así que las de títulos distintos avanzan a la vez; un renombrado toma los
+ * de ambas claves. Cada modificación termina con un paso corto de publicación, bajo su
+ * propio lock, que ajusta las filas y publica una instantánea nueva en un campo volatile.
+ * Las filas comparten sus bloques con las instantáneas anteriores, así que publicar cuesta
+ * el índice de bloques y no una copia del catálogo. obtenerInstantanea sólo lee ese campo:
+ * nunca bloquea ni ve una modificación aplicada a medias. guardarTodos, eliminarTodos y la
+ * renumeración de filas toman todos los locks y reemplazan también el mapa entero, así que
+ * las búsquedas ven el catálogo anterior o el nuevo.
+ *
+ * No persiste: para cargarlo, pasar el contenido de otro repositorio al constructor.
+ */
+public class RepositorioAnimeConcurrente implements RepositorioAnime {
+    
+    /** Cantidad de locks por clave; potencia de dos */
+    private static final int FRANJAS = 64;
+    
+    /** Renumerar las filas cuando los huecos superan esta cantidad y a los anime vivos */
+    private static final int HUECOS_MINIMOS_COMPACTACION = 1024;
+    
+    private volatile ConcurrentHashMap<String, Entrada> entradas;
+    private volatile InstantaneaCatalogo publicada;
+    
+    private final ReentrantLock[] franjas;
+    
+    /** Clave bajo la que está guardado cada anime; cambia sólo con el lock de esa clave */
+    private final Map<AnimeBase, String> claves;
+    
+    // Sólo se usan con el lock de publicación tomado
+    private final ReentrantLock publicacion;
+    private final FilasVersionadas filas;
+    
+    public RepositorioAnimeConcurrente() {
+        this.entradas = new ConcurrentHashMap<>();
+        this.franjas = new ReentrantLock[FRANJAS];
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.claves = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.publicacion = new ReentrantLock();
+        this.filas = new FilasVersionadas();
+        this.publicada = filas.publicar();
+    }
+    
+    public RepositorioAnimeConcurrente(Collection<AnimeBase> animes) {
+        this();
+        guardarTodos(new ArrayList<>(animes));
+    }
+    
+    /**
+     * Anime indexado bajo una clave con su fila.
+     */
+    private static final class Entrada {
+        final AnimeBase anime;
+        final int fila;
+        
+        Entrada(AnimeBase anime, int fila) {
+            this.anime = anime;
+            this.fila = fila;
+        }
+    }
+    
+    // ========== Implementación de RepositorioAnime ==========
+    
+    /**
+     * Inserta o reemplaza un anime. Un anime renombrado deja su título anterior y conserva su
+     * posición; si el nuevo título lo tenía otro anime, éste se elimina.
+     */
+    @Override
+    public void guardar(AnimeBase anime) {
+        String clave = IndiceTitulos.normalizar(anime.obtenerTitulo());
+        
+        // La clave previa puede cambiar hasta tomar su lock: se relee y se reintenta
+        String clavePrevia;
+        while (true) {
+            clavePrevia = claves.get(anime);
+            bloquear(clave, clavePrevia);
+            if (Objects.equals(clavePrevia, claves.get(anime))) {
+                break;
+            }
+            desbloquear(clave, clavePrevia);
+        }
+        try {
+            guardarBloqueado(anime, clave, clavePrevia);
+        } finally {
+            desbloquear(clave, clavePrevia);
+        }
+        compactarSiNecesario();
+    }
+    
+    @Override
+    public void guardarTodos(List<AnimeBase> animes) {
+        bloquearTodas();
+        try {
+            ConcurrentHashMap<String, Entrada> nuevas = new ConcurrentHashMap<>();
+            claves.clear();
+            publicacion.lock();
+            try {
+                filas.limpiar();
+                for (AnimeBase anime : animes) {
+                    String clave = IndiceTitulos.normalizar(anime.obtenerTitulo());
+                    Entrada anterior = nuevas.get(clave);
+                    int fila = anterior != null ? anterior.fila : filas.obtenerCantidadFilas();
+                    if (anterior != null) {
+                        claves.remove(anterior.anime);
+                    }
+                    filas.establecer(fila, anime);
+                    nuevas.put(clave, new Entrada(anime, fila));
+                    claves.put(anime, clave);
+                }
+                entradas = nuevas;
+                publicada = filas.publicar();
+            } finally {
+                publicacion.unlock();
+            }
+        } finally {
+            desbloquearTodas();
+        }
+    }
+    
+    @Override
+    public AnimeBase buscarPorTitulo(String titulo) {
+        Entrada entrada = entradas.get(IndiceTitulos.normalizar(titulo));
+        return entrada != null ? entrada.anime : null;
+    }
+    
+    @Override
+    public List<AnimeBase> obtenerTodos() {
+        return new ArrayList<>(obtenerInstantanea().obtenerAnimes());
+    }
+    
+    /**
+     * Retorna el catálogo tal como quedó tras la última modificación terminada, sin bloquear.
+     */
+    @Override
+    public InstantaneaCatalogo obtenerInstantanea() {
+        return publicada;
+    }
+    
+    @Override
+    public boolean eliminarPorTitulo(String titulo) {
+        String clave = IndiceTitulos.normalizar(titulo);
+        
+        bloquear(clave, null);
+        try {
+            Entrada eliminada = entradas.remove(clave);
+            if (eliminada == null) {
+                return false;
+            }
+            claves.remove(eliminada.anime);
+            publicacion.lock();
+            try {
+                filas.establecer(eliminada.fila, null);
+                publicada = filas.publicar();
+            } finally {
+                publicacion.unlock();
+            }
+        } finally {
+            desbloquear(clave, null);
+        }
+        compactarSiNecesario();
+        return true;
+    }
+    
+    @Override
+    public boolean eliminar(AnimeBase anime) {
+        return eliminarPorTitulo(anime.obtenerTitulo());
+    }
+    
+    @Override
+    public boolean existePorTitulo(String titulo) {
+        return entradas.containsKey(IndiceTitulos.normalizar(titulo));
+    }
+    
+    @Override
+    public int contar() {
+        return publicada.tamanio();
+    }
+    
+    @Override
+    public void eliminarTodos() {
+        guardarTodos(Collections.emptyList());
+    }
+    
+    // ========== Filas ==========
+    
+    /**
+     * Guarda el anime con los locks de su clave y de la previa tomados. Sólo el ajuste de
+     * las filas y la publicación ocurren bajo el lock de publicación.
+     */
+    private void guardarBloqueado(AnimeBase anime, String clave, String clavePrevia) {
+        ConcurrentHashMap<String, Entrada> actuales = entradas;
+        Entrada previa = clavePrevia != null && !clavePrevia.equals(clave) ? actuales.get(clavePrevia) : null;
+        Entrada anterior = actuales.get(clave);
+        if (anterior != null && anterior.anime == anime) {
+            anterior = null;
+        }
+        
+        int fila;
+        publicacion.lock();
+        try {
+            if (previa != null) {
+                fila = previa.fila;
+                if (anterior != null) {
+                    filas.establecer(anterior.fila, null);
+                }
+            } else {
+                Entrada propia = actuales.get(clave);
+                fila = propia != null ? propia.fila : filas.obtenerCantidadFilas();
+            }
+            filas.establecer(fila, anime);
+            
+            if (previa != null) {
+                actuales.remove(clavePrevia);
+            }
+            if (anterior != null) {
+                claves.remove(anterior.anime);
+            }
+            actuales.put(clave, new Entrada(anime, fila));
+            claves.put(anime, clave);
+            publicada = filas.publicar();
+        } finally {
+            publicacion.unlock();
+        }
+    }
+    
+    /**
+     * Las bajas dejan huecos en las filas; cuando dominan, se renumeran siguiendo el orden
+     * actual con todos los locks tomados. Se llama sin ningún lock.
+     */
+    private void compactarSiNecesario() {
+        publicacion.lock();
+        try {
+            if (!hayQueCompactar()) {
+                return;
+            }
+        } finally {
+            publicacion.unlock();
+        }
+        bloquearTodas();
+        try {
+            publicacion.lock();
+            try {
+                if (!hayQueCompactar()) {
+                    return;
+                }
+                List<AnimeBase> vivos = filas.publicar().obtenerAnimes();
+                filas.limpiar();
+                int fila = 0;
+                for (AnimeBase anime : vivos) {
+                    filas.establecer(fila, anime);
+                    entradas.put(claves.get(anime), new Entrada(anime, fila));
+                    fila++;
+                }
+                publicada = filas.publicar();
+            } finally {
+                publicacion.unlock();
+            }
+        } finally {
+            desbloquearTodas();
+        }
+    }
+    
+    /**
+     * Se llama con el lock de publicación tomado.
+     */
+    private boolean hayQueCompactar() {
+        int vivos = publicada.tamanio();
+        int huecos = filas.obtenerCantidadFilas() - vivos;
+        return huecos >= HUECOS_MINIMOS_COMPACTACION && huecos > vivos;
+    }
+    
+    // ========== Locks por clave ==========
+    
+    private static int franja(String clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & (FRANJAS - 1);
+    }
+    
+    /**
+     * Toma los locks de una o dos claves, siempre en orden de franja para no trabarse.
+     */
+    private void bloquear(String clave, String otra) {
+        int a = franja(clave);
+        int b = otra != null ? franja(otra) : a;
+        franjas[Math.min(a, b)].lock();
+        if (a != b) {
+            franjas[Math.max(a, b)].lock();
+        }
+    }
+    
+    private void desbloquear(String clave, String otra) {
+        int a = franja(clave);
+        int b = otra != null ? franja(otra) : a;
+        if (a != b) {
+            franjas[Math.max(a, b)].unlock();
+        }
+        franjas[Math.min(a, b)].unlock();
+    }
+    
+    private void bloquearTodas() {
+        for (ReentrantLock franja : franjas) {
+            franja.lock();
+        }
+    }
+    
+    private void desbloquearTodas() {
+        for (int i = FRANJAS - 1; i >= 0; i--) {
+            franjas[i].unlock();
+        }
+    }
+}
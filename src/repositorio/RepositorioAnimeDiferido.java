@@ -0,0 +1,257 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import excepcion.ExcepcionPersistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * RepositorioAnime con escritura diferida sobre otro repositorio.
+ *
+ * Las modificaciones se aplican de inmediato en memoria y cada una encola un número de
+ * versión. Un hilo en segundo plano toma las versiones acumuladas y escribe una sola vez el
+ * catálogo en memoria en el repositorio destino (a un {@link RepositorioAnimeArchivo}, sólo
+ * su archivo); si ese catálogo ya incluía las versiones pendientes, no vuelve a escribir.
+ * Con la cola llena, las modificaciones esperan a que se libere lugar.
+ *
+ * Se escribe el catálogo completo y no cada operación porque los anime se modifican en el
+ * lugar: reaplicar un guardar sobre una instancia renombrada mientras se escribía podría
+ * dejarla en otra posición que en memoria.
+ *
+ * {@link #confirmarEscrituras()} espera a que se escriba lo pendiente, y lo pendiente también
+ * se escribe al cerrar la JVM.
+ */
+public class RepositorioAnimeDiferido implements RepositorioAnime, ConsultasCatalogo {
+    
+    public static final int CAPACIDAD_POR_DEFECTO = 1024;
+    
+    private final RepositorioAnime destino;
+    private final IndiceTitulos entradas;
+    private final ColaEscrituraDiferida<Long> cola;
+    private boolean cacheCargada;
+    
+    /** Versión del catálogo en memoria, incrementada con cada modificación */
+    private long version;
+    
+    /** Última versión escrita en el destino; sólo la usa el hilo escritor */
+    private long versionEscrita;
+    
+    /** Mantiene el orden de la cola igual al de las modificaciones en memoria */
+    private final Object ordenEscrituras = new Object();
+    
+    public RepositorioAnimeDiferido(RepositorioAnime destino, int capacidadCola) {
+        this.destino = destino;
+        this.entradas = new IndiceTitulos();
+        this.cola = new ColaEscrituraDiferida<>("escritura-diferida-anime", capacidadCola, this::aplicar);
+        this.cacheCargada = false;
+    }
+    
+    public RepositorioAnimeDiferido(RepositorioAnime destino) {
+        this(destino, CAPACIDAD_POR_DEFECTO);
+    }
+    
+    // ========== Implementación de RepositorioAnime ==========
+    
+    @Override
+    public void guardar(AnimeBase anime) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            long versionNueva;
+            synchronized (this) {
+                cargarSiNecesario();
+                entradas.guardar(anime);
+                versionNueva = ++version;
+            }
+            cola.encolar(versionNueva);
+        }
+    }
+    
+    @Override
+    public void guardarTodos(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            long versionNueva;
+            synchronized (this) {
+                entradas.reemplazarTodos(animes);
+                cacheCargada = true;
+                versionNueva = ++version;
+            }
+            cola.encolar(versionNueva);
+        }
+    }
+    
+    @Override
+    public synchronized AnimeBase buscarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscar(titulo);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return new ArrayList<>(entradas.valores());
+    }
+    
+    /**
+     * Retorna la instantánea publicada por el índice en memoria, sin copiar el catálogo.
+     */
+    @Override
+    public synchronized InstantaneaCatalogo obtenerInstantanea() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.instantanea();
+    }
+    
+    @Override
+    public boolean eliminarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            long versionNueva;
+            synchronized (this) {
+                cargarSiNecesario();
+                if (entradas.eliminar(titulo) == null) {
+                    return false;
+                }
+                versionNueva = ++version;
+            }
+            cola.encolar(versionNueva);
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean eliminar(AnimeBase anime) throws ExcepcionPersistencia {
+        return eliminarPorTitulo(anime.obtenerTitulo());
+    }
+    
+    @Override
+    public synchronized boolean existePorTitulo(String titulo) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contiene(titulo);
+    }
+    
+    @Override
+    public synchronized int contar() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.tamanio();
+    }
+    
+    @Override
+    public void eliminarTodos() throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            long versionNueva;
+            synchronized (this) {
+                entradas.limpiar();
+                cacheCargada = true;
+                versionNueva = ++version;
+            }
+            cola.encolar(versionNueva);
+        }
+    }
+    
+    @Override
+    public synchronized boolean suscribir(SuscriptorCambiosCatalogo suscriptor) {
+        entradas.suscribir(suscriptor, null);
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean suscribirAsincrono(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        entradas.suscribir(suscriptor, ejecutor);
+        return true;
+    }
+    
+    @Override
+    public synchronized void desuscribir(SuscriptorCambiosCatalogo suscriptor) {
+        entradas.desuscribir(suscriptor);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                                           int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                               int calificacionMinima) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorTituloContiene(texto);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorEstudio(String texto) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarPorEstudio(texto);
+    }
+    
+    @Override
+    public synchronized Map<String, Long> contarPorEstudio() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.contarPorEstudio();
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.sugerirPorPrefijo(prefijo, limite);
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloAproximado(String titulo, int distanciaMaxima, int limite)
+            throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return entradas.buscarAproximados(titulo, distanciaMaxima, limite);
+    }
+    
+    // ========== Escritura diferida ==========
+    
+    /**
+     * Espera a que el repositorio destino refleje todas las modificaciones hechas hasta ahora.
+     * Si una escritura anterior falló, la vuelve a intentar.
+     */
+    @Override
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        cola.confirmar();
+    }
+    
+    /**
+     * Escribe lo pendiente y detiene el hilo escritor.
+     */
+    public void cerrar() throws ExcepcionPersistencia {
+        cola.cerrar();
+    }
+    
+    private void aplicar(List<Long> lote) throws ExcepcionPersistencia {
+        if (lote.get(lote.size() - 1) <= versionEscrita) {
+            return;
+        }
+        List<AnimeBase> catalogo;
+        long versionCatalogo;
+        synchronized (this) {
+            catalogo = entradas.instantanea().obtenerAnimes();
+            versionCatalogo = version;
+        }
+        if (destino instanceof RepositorioAnimeArchivo) {
+            // Sólo hace falta el archivo: guardarTodos armaría otro índice y su respaldo
+            ((RepositorioAnimeArchivo) destino).escribirCatalogo(catalogo);
+        } else {
+            destino.guardarTodos(catalogo);
+        }
+        versionEscrita = versionCatalogo;
+    }
+    
+    private void cargarSiNecesario() throws ExcepcionPersistencia {
+        if (!cacheCargada) {
+            entradas.reemplazarTodos(destino.obtenerTodos());
+            cacheCargada = true;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package repositorio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import excepcion.ExcepcionPersistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Implementación de RepositorioAnime de lectura frecuente sobre un archivo columnar mapeado
+ * en memoria (ver {@link CatalogoMapeado}).
+ *
+ * Abrir el repositorio no carga el catálogo: contar, buscar por título y filtrar por
+ * atributos leen directamente del mapeo, y obtenerInstantanea devuelve una vista que
+ * construye cada anime recién cuando se pide. Los anime obtenidos por título se conservan para que
+ * guardarlos tras modificarlos (incluso renombrarlos) actúe sobre su misma fila.
+ *
+ * Cada modificación reescribe el archivo completo, por lo que conviene para catálogos que
+ * se consultan mucho más de lo que se editan. No publica sus cambios a suscriptores.
+ */
+public class RepositorioAnimeMapeado implements RepositorioAnime, ConsultasAtributos {
+    
+    private final Path archivo;
+    private CatalogoMapeado catalogo;
+    
+    /** Cantidad de reescrituras del archivo, que sirve de versión de las instantáneas */
+    private long version;
+    private InstantaneaCatalogo publicada;
+    
+    /** Anime entregados por buscarPorTitulo, por fila, y su inversa por identidad */
+    private final Map<Integer, AnimeBase> vistas;
+    private final Map<AnimeBase, Integer> filasDeVistas;
+    
+    public RepositorioAnimeMapeado(String rutaArchivo) {
+        this.archivo = Paths.get(rutaArchivo);
+        this.vistas = new HashMap<>();
+        this.filasDeVistas = new IdentityHashMap<>();
+    }
+    
+    public RepositorioAnimeMapeado() {
+        this("data/animes.col");
+    }
+    
+    /**
+     * Indica si el archivo del catálogo ya existe.
+     */
+    public boolean existeArchivo() {
+        return Files.exists(archivo);
+    }
+    
+    // ========== Implementación de RepositorioAnime ==========
+    
+    @Override
+    public synchronized void guardar(AnimeBase anime) throws ExcepcionPersistencia {
+        CatalogoMapeado actual = abrirSiNecesario();
+        String clave = IndiceTitulos.normalizar(anime.obtenerTitulo());
+        
+        // Si es una instancia ya entregada y cambió de título, deja su fila anterior
+        Integer filaVista = filasDeVistas.get(anime);
+        int omitida = filaVista != null && !IndiceTitulos.normalizar(actual.titulo(filaVista)).equals(clave)
+            ? filaVista : -1;
+        int reemplazada = actual.buscarFila(clave);
+        
+        CatalogoMapeado.Escritor escritor = new CatalogoMapeado.Escritor();
+        for (int fila = 0; fila < actual.tamanio(); fila++) {
+            if (fila == reemplazada) {
+                escritor.agregar(anime);
+            } else if (fila != omitida) {
+                escritor.copiar(actual, fila);
+            }
+        }
+        if (reemplazada < 0) {
+            escritor.agregar(anime);
+        }
+        reemplazarArchivo(escritor);
+        
+        int nuevaFila = reemplazada < 0 ? catalogo.tamanio() - 1 : desplazar(reemplazada, omitida);
+        Map<Integer, AnimeBase> anteriores = new HashMap<>(vistas);
+        anteriores.remove(reemplazada);
+        if (filaVista != null) {
+            anteriores.remove(filaVista);
+        }
+        reubicarVistas(anteriores, omitida);
+        registrarVista(nuevaFila, anime);
+    }
+    
+    @Override
+    public synchronized void guardarTodos(List<AnimeBase> animes) throws ExcepcionPersistencia {
+        // Mismas reglas que el repositorio en memoria: un título repetido conserva la primera
+        // posición y se queda con la última instancia
+        IndiceTitulos sinRepetidos = new IndiceTitulos();
+        sinRepetidos.reemplazarTodos(animes);
+        
+        CatalogoMapeado.Escritor escritor = new CatalogoMapeado.Escritor();
+        for (AnimeBase anime : sinRepetidos.valores()) {
+            escritor.agregar(anime);
+        }
+        reemplazarArchivo(escritor);
+        vistas.clear();
+        filasDeVistas.clear();
+    }
+    
+    @Override
+    public synchronized AnimeBase buscarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        int fila = abrirSiNecesario().buscarFila(IndiceTitulos.normalizar(titulo));
+        if (fila < 0) {
+            return null;
+        }
+        AnimeBase anime = vistas.get(fila);
+        if (anime == null) {
+            anime = catalogo.materializar(fila);
+            registrarVista(fila, anime);
+        }
+        return anime;
+    }
+    
+    /**
+     * Retorna una copia modificable del catálogo, como el resto de los repositorios. Para
+     * recorrerlo sin construir todos los anime, ver obtenerInstantanea.
+     */
+    @Override
+    public synchronized List<AnimeBase> obtenerTodos() throws ExcepcionPersistencia {
+        return new ArrayList<>(new Instantanea(abrirSiNecesario()));
+    }
+    
+    /**
+     * Retorna una vista inmutable del catálogo en el momento de la llamada, que construye
+     * cada anime al accederlo. Las modificaciones posteriores no la afectan.
+     */
+    @Override
+    public synchronized InstantaneaCatalogo obtenerInstantanea() throws ExcepcionPersistencia {
+        if (publicada == null) {
+            publicada = new InstantaneaCatalogo(version, new Instantanea(abrirSiNecesario()));
+        }
+        return publicada;
+    }
+    
+    @Override
+    public synchronized boolean eliminarPorTitulo(String titulo) throws ExcepcionPersistencia {
+        CatalogoMapeado actual = abrirSiNecesario();
+        int eliminada = actual.buscarFila(IndiceTitulos.normalizar(titulo));
+        if (eliminada < 0) {
+            return false;
+        }
+        
+        CatalogoMapeado.Escritor escritor = new CatalogoMapeado.Escritor();
+        for (int fila = 0; fila < actual.tamanio(); fila++) {
+            if (fila != eliminada) {
+                escritor.copiar(actual, fila);
+            }
+        }
+        reemplazarArchivo(escritor);
+        reubicarVistas(new HashMap<>(vistas), eliminada);
+        return true;
+    }
+    
+    @Override
+    public boolean eliminar(AnimeBase anime) throws ExcepcionPersistencia {
+        return eliminarPorTitulo(anime.obtenerTitulo());
+    }
+    
+    @Override
+    public synchronized boolean existePorTitulo(String titulo) throws ExcepcionPersistencia {
+        return abrirSiNecesario().buscarFila(IndiceTitulos.normalizar(titulo)) >= 0;
+    }
+    
+    @Override
+    public synchronized int contar() throws ExcepcionPersistencia {
+        return abrirSiNecesario().tamanio();
+    }
+    
+    @Override
+    public synchronized void eliminarTodos() throws ExcepcionPersistencia {
+        reemplazarArchivo(new CatalogoMapeado.Escritor());
+        vistas.clear();
+        filasDeVistas.clear();
+    }
+    
+    @Override
+    public synchronized List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                                           int calificacionMinima) throws ExcepcionPersistencia {
+        CatalogoMapeado actual = abrirSiNecesario();
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (int fila = 0; fila < actual.tamanio(); fila++) {
+            if (cumple(actual, fila, estado, generosRequeridos, generosAlguno, calificacionMinima)) {
+                resultado.add(obtenerFila(actual, fila));
+            }
+        }
+        return resultado;
+    }
+    
+    @Override
+    public synchronized int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                               int calificacionMinima) throws ExcepcionPersistencia {
+        CatalogoMapeado actual = abrirSiNecesario();
+        int cantidad = 0;
+        for (int fila = 0; fila < actual.tamanio(); fila++) {
+            if (cumple(actual, fila, estado, generosRequeridos, generosAlguno, calificacionMinima)) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+    
+    /**
+     * Recorre los títulos del mapeo sin construir los anime que no coinciden.
+     */
+    @Override
+    public synchronized List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia {
+        CatalogoMapeado actual = abrirSiNecesario();
+        String consulta = IndiceTitulos.normalizar(texto);
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (int fila = 0; fila < actual.tamanio(); fila++) {
+            if (IndiceTitulos.normalizar(actual.titulo(fila)).contains(consulta)) {
+                resultado.add(obtenerFila(actual, fila));
+            }
+        }
+        return resultado;
+    }
+    
+    private static boolean cumple(CatalogoMapeado catalogo, int fila, Estado estado, int generosRequeridos,
+                                  int generosAlguno, int calificacionMinima) {
+        if (estado != null && catalogo.estado(fila) != estado.ordinal()) {
+            return false;
+        }
+        int mascara = catalogo.mascaraGeneros(fila);
+        if ((mascara & generosRequeridos) != generosRequeridos
+                || (generosAlguno != 0 && (mascara & generosAlguno) == 0)) {
+            return false;
+        }
+        int calificacion = catalogo.calificacion(fila);
+        return calificacionMinima <= 0
+            || (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion >= calificacionMinima);
+    }
+    
+    // ========== Vistas ==========
+    
+    /**
+     * Retorna el anime ya entregado para la fila, o uno nuevo si no lo hay o si la fila es de
+     * un catálogo que ya fue reemplazado.
+     */
+    private AnimeBase obtenerFila(CatalogoMapeado origen, int fila) {
+        AnimeBase anime = origen == catalogo ? vistas.get(fila) : null;
+        return anime != null ? anime : origen.materializar(fila);
+    }
+    
+    private void registrarVista(int fila, AnimeBase anime) {
+        vistas.put(fila, anime);
+        filasDeVistas.put(anime, fila);
+    }
+    
+    /**
+     * Vuelve a registrar las vistas tras quitar una fila del archivo.
+     */
+    private void reubicarVistas(Map<Integer, AnimeBase> anteriores, int quitada) {
+        vistas.clear();
+        filasDeVistas.clear();
+        for (Map.Entry<Integer, AnimeBase> entrada : anteriores.entrySet()) {
+            int fila = entrada.getKey();
+            if (fila != quitada) {
+                registrarVista(desplazar(fila, quitada), entrada.getValue());
+            }
+        }
+    }
+    
+    private static int desplazar(int fila, int quitada) {
+        return quitada >= 0 && fila > quitada ? fila - 1 : fila;
+    }
+    
+    private final class Instantanea extends AbstractList<AnimeBase> implements RandomAccess {
+        private final CatalogoMapeado origen;
+        
+        Instantanea(CatalogoMapeado origen) {
+            this.origen = origen;
+        }
+        
+        @Override
+        public AnimeBase get(int indice) {
+            Objects.checkIndex(indice, origen.tamanio());
+            synchronized (RepositorioAnimeMapeado.this) {
+                return obtenerFila(origen, indice);
+            }
+        }
+        
+        @Override
+        public int size() {
+            return origen.tamanio();
+        }
+    }
+    
+    // ========== Métodos privados de persistencia ==========
+    
+    private CatalogoMapeado abrirSiNecesario() throws ExcepcionPersistencia {
+        if (catalogo == null) {
+            try {
+                catalogo = Files.exists(archivo) ? CatalogoMapeado.abrir(archivo) : CatalogoMapeado.vacio();
+            } catch (IOException e) {
+                throw new ExcepcionPersistencia("Error al abrir el archivo de anime: " + e.getMessage(), e);
+            }
+        }
+        return catalogo;
+    }
+    
+    /**
+     * Escribe el catálogo nuevo al lado del actual, lo coloca en su lugar y lo vuelve a mapear.
+     * Las instantáneas entregadas siguen leyendo el mapeo anterior.
+     */
+    private void reemplazarArchivo(CatalogoMapeado.Escritor escritor) throws ExcepcionPersistencia {
+        try {
+            ArchivoAtomico.reemplazar(archivo, escritor::escribir);
+            catalogo = CatalogoMapeado.abrir(archivo);
+            version++;
+            publicada = null;
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al guardar el archivo de anime: " + e.getMessage(), e);
+        }
+    }
+}
@@ -44,5 +44,12 @@ public interface RepositorioListaPersonalizada {
      * Obtiene la cantidad de listas personalizadas.
      */
     int contar() throws ExcepcionPersistencia;
+    
+    /**
+     * Espera a que estén escritas todas las modificaciones hechas hasta ahora. Los
+     * repositorios que escriben en cada modificación no tienen nada que esperar.
+     */
+    default void confirmarEscrituras() throws ExcepcionPersistencia {
+    }
 }
 
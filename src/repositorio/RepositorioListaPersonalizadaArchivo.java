@@ -3,25 +3,44 @@ package repositorio;
 import modelo.ListaPersonalizada;
 import excepcion.ExcepcionPersistencia;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Implementación de RepositorioListaPersonalizada que persiste en archivo binario.
+ * Implementación de RepositorioListaPersonalizada que persiste en archivo binario
+ * (ver {@link FormatoBinario}).
+ *
+ * Las escrituras son atómicas y pueden agruparse igual que en {@link RepositorioAnimeArchivo}.
  */
 public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPersonalizada {
     
     private final String rutaArchivo;
+    private final ConfirmacionAgrupada agrupacion;
     private List<ListaPersonalizada> cache;
+    private List<ListaPersonalizada> pendientes;
     private boolean cacheCargada;
     
-    public RepositorioListaPersonalizadaArchivo(String rutaArchivo) {
+    /**
+     * @param ventanaAgrupacionMillis tiempo durante el que se acumulan modificaciones antes
+     *                                de escribirlas, o 0 para escribir en cada modificación
+     */
+    public RepositorioListaPersonalizadaArchivo(String rutaArchivo, long ventanaAgrupacionMillis) {
         this.rutaArchivo = rutaArchivo;
+        this.agrupacion = ventanaAgrupacionMillis > 0
+            ? new ConfirmacionAgrupada(ventanaAgrupacionMillis, this::escribirPendientes) : null;
         this.cache = new ArrayList<>();
         this.cacheCargada = false;
     }
     
+    public RepositorioListaPersonalizadaArchivo(String rutaArchivo) {
+        this(rutaArchivo, 0);
+    }
+    
     public RepositorioListaPersonalizadaArchivo() {
         this("data/listas.dat");
     }
@@ -29,7 +48,7 @@ public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPer
     // ========== Implementación de RepositorioListaPersonalizada ==========
     
     @Override
-    public void guardar(ListaPersonalizada lista) throws ExcepcionPersistencia {
+    public synchronized void guardar(ListaPersonalizada lista) throws ExcepcionPersistencia {
         cargarSiNecesario();
         
         ListaPersonalizada existente = buscarEnCache(lista.obtenerNombre());
@@ -44,26 +63,26 @@ public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPer
     }
     
     @Override
-    public void guardarTodas(List<ListaPersonalizada> listas) throws ExcepcionPersistencia {
+    public synchronized void guardarTodas(List<ListaPersonalizada> listas) throws ExcepcionPersistencia {
         this.cache = new ArrayList<>(listas);
         this.cacheCargada = true;
         persistir();
     }
     
     @Override
-    public ListaPersonalizada buscarPorNombre(String nombre) throws ExcepcionPersistencia {
+    public synchronized ListaPersonalizada buscarPorNombre(String nombre) throws ExcepcionPersistencia {
         cargarSiNecesario();
         return buscarEnCache(nombre);
     }
     
     @Override
-    public List<ListaPersonalizada> obtenerTodas() throws ExcepcionPersistencia {
+    public synchronized List<ListaPersonalizada> obtenerTodas() throws ExcepcionPersistencia {
         cargarSiNecesario();
         return new ArrayList<>(cache);
     }
     
     @Override
-    public boolean eliminarPorNombre(String nombre) throws ExcepcionPersistencia {
+    public synchronized boolean eliminarPorNombre(String nombre) throws ExcepcionPersistencia {
         cargarSiNecesario();
         
         ListaPersonalizada lista = buscarEnCache(nombre);
@@ -76,13 +95,13 @@ public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPer
     }
     
     @Override
-    public boolean existePorNombre(String nombre) throws ExcepcionPersistencia {
+    public synchronized boolean existePorNombre(String nombre) throws ExcepcionPersistencia {
         cargarSiNecesario();
         return buscarEnCache(nombre) != null;
     }
     
     @Override
-    public int contar() throws ExcepcionPersistencia {
+    public synchronized int contar() throws ExcepcionPersistencia {
         cargarSiNecesario();
         return cache.size();
     }
@@ -95,51 +114,80 @@ public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPer
         }
     }
     
-    @SuppressWarnings("unchecked")
     private void cargar() throws ExcepcionPersistencia {
-        File archivo = new File(rutaArchivo);
+        Path archivo = Paths.get(rutaArchivo);
         
-        if (!archivo.exists()) {
+        if (!Files.exists(archivo)) {
             cache = new ArrayList<>();
             cacheCargada = true;
             return;
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(archivo))) {
-            Object obj = ois.readObject();
-            if (obj instanceof List) {
-                cache = (List<ListaPersonalizada>) obj;
-            } else {
-                throw new ExcepcionPersistencia("Formato de archivo inválido");
-            }
+        MigradorArchivosDat.migrarListasSiEsNecesario(archivo);
+        try {
+            cache = FormatoBinario.leerListas(archivo);
             cacheCargada = true;
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             cache = new ArrayList<>();
             cacheCargada = true;
         } catch (IOException e) {
             throw new ExcepcionPersistencia("Error al leer el archivo de listas: " + e.getMessage(), e);
-        } catch (ClassNotFoundException e) {
-            throw new ExcepcionPersistencia("Error al deserializar: clase no encontrada", e);
         }
     }
     
     private void persistir() throws ExcepcionPersistencia {
-        File archivo = new File(rutaArchivo);
-        
-        File dirPadre = archivo.getParentFile();
-        if (dirPadre != null && !dirPadre.exists()) {
-            if (!dirPadre.mkdirs()) {
-                throw new ExcepcionPersistencia("No se pudo crear el directorio: " + dirPadre.getPath());
+        if (agrupacion == null) {
+            escribir(cache);
+            return;
+        }
+        // Los servicios modifican las listas fuera del repositorio, así que se copian ahora
+        pendientes = new ArrayList<>(cache.size());
+        for (ListaPersonalizada lista : cache) {
+            pendientes.add(lista.copiar());
+        }
+        agrupacion.programar();
+    }
+    
+    private void escribirPendientes() throws ExcepcionPersistencia {
+        List<ListaPersonalizada> listas;
+        synchronized (this) {
+            listas = pendientes;
+            pendientes = null;
+        }
+        if (listas == null) {
+            return;
+        }
+        try {
+            escribir(listas);
+        } catch (ExcepcionPersistencia e) {
+            // Se conserva para el siguiente intento, salvo que ya haya una versión más nueva
+            synchronized (this) {
+                if (pendientes == null) {
+                    pendientes = listas;
+                }
             }
+            throw e;
         }
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(archivo))) {
-            oos.writeObject(cache);
+    }
+    
+    private void escribir(List<ListaPersonalizada> listas) throws ExcepcionPersistencia {
+        try {
+            ArchivoAtomico.reemplazar(Paths.get(rutaArchivo),
+                destino -> FormatoBinario.escribirListas(destino, listas));
         } catch (IOException e) {
             throw new ExcepcionPersistencia("Error al guardar el archivo de listas: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Escribe ya las modificaciones acumuladas por la ventana de agrupación, si las hay.
+     */
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        if (agrupacion != null) {
+            agrupacion.confirmar();
+        }
+    }
+    
     private ListaPersonalizada buscarEnCache(String nombre) {
         for (ListaPersonalizada lista : cache) {
             if (lista.obtenerNombre().equalsIgnoreCase(nombre)) {
@@ -149,7 +197,7 @@ public class RepositorioListaPersonalizadaArchivo implements RepositorioListaPer
         return null;
     }
     
-    public void invalidarCache() {
+    public synchronized void invalidarCache() {
         cacheCargada = false;
         cache.clear();
     }
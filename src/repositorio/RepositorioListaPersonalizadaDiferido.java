@@ -0,0 +1,161 @@
+package repositorio;
+
+import modelo.ListaPersonalizada;
+import excepcion.ExcepcionPersistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RepositorioListaPersonalizada con escritura diferida sobre otro repositorio.
+ *
+ * Cada modificación se aplica en memoria y encola una copia de las listas, porque los
+ * servicios modifican las listas fuera del repositorio. El hilo escritor escribe sólo la
+ * copia más reciente de las acumuladas.
+ */
+public class RepositorioListaPersonalizadaDiferido implements RepositorioListaPersonalizada {
+    
+    public static final int CAPACIDAD_POR_DEFECTO = 64;
+    
+    private final RepositorioListaPersonalizada destino;
+    private final ColaEscrituraDiferida<List<ListaPersonalizada>> cola;
+    private List<ListaPersonalizada> cache;
+    private boolean cacheCargada;
+    
+    /** Mantiene el orden de la cola igual al de las modificaciones en memoria */
+    private final Object ordenEscrituras = new Object();
+    
+    public RepositorioListaPersonalizadaDiferido(RepositorioListaPersonalizada destino, int capacidadCola) {
+        this.destino = destino;
+        this.cola = new ColaEscrituraDiferida<>("escritura-diferida-listas", capacidadCola, this::aplicar);
+        this.cache = new ArrayList<>();
+        this.cacheCargada = false;
+    }
+    
+    public RepositorioListaPersonalizadaDiferido(RepositorioListaPersonalizada destino) {
+        this(destino, CAPACIDAD_POR_DEFECTO);
+    }
+    
+    // ========== Implementación de RepositorioListaPersonalizada ==========
+    
+    @Override
+    public void guardar(ListaPersonalizada lista) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            List<ListaPersonalizada> copia;
+            synchronized (this) {
+                cargarSiNecesario();
+                ListaPersonalizada existente = buscarEnCache(lista.obtenerNombre());
+                if (existente != null) {
+                    cache.set(cache.indexOf(existente), lista);
+                } else {
+                    cache.add(lista);
+                }
+                copia = copiarCache();
+            }
+            cola.encolar(copia);
+        }
+    }
+    
+    @Override
+    public void guardarTodas(List<ListaPersonalizada> listas) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            List<ListaPersonalizada> copia;
+            synchronized (this) {
+                cache = new ArrayList<>(listas);
+                cacheCargada = true;
+                copia = copiarCache();
+            }
+            cola.encolar(copia);
+        }
+    }
+    
+    @Override
+    public synchronized ListaPersonalizada buscarPorNombre(String nombre) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return buscarEnCache(nombre);
+    }
+    
+    @Override
+    public synchronized List<ListaPersonalizada> obtenerTodas() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return new ArrayList<>(cache);
+    }
+    
+    @Override
+    public boolean eliminarPorNombre(String nombre) throws ExcepcionPersistencia {
+        synchronized (ordenEscrituras) {
+            List<ListaPersonalizada> copia;
+            synchronized (this) {
+                cargarSiNecesario();
+                ListaPersonalizada lista = buscarEnCache(nombre);
+                if (lista == null) {
+                    return false;
+                }
+                cache.remove(lista);
+                copia = copiarCache();
+            }
+            cola.encolar(copia);
+            return true;
+        }
+    }
+    
+    @Override
+    public synchronized boolean existePorNombre(String nombre) throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return buscarEnCache(nombre) != null;
+    }
+    
+    @Override
+    public synchronized int contar() throws ExcepcionPersistencia {
+        cargarSiNecesario();
+        return cache.size();
+    }
+    
+    // ========== Escritura diferida ==========
+    
+    /**
+     * Espera a que el repositorio destino refleje todas las modificaciones hechas hasta ahora.
+     * Si una escritura anterior falló, la vuelve a intentar.
+     */
+    @Override
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        cola.confirmar();
+    }
+    
+    /**
+     * Escribe lo pendiente y detiene el hilo escritor.
+     */
+    public void cerrar() throws ExcepcionPersistencia {
+        cola.cerrar();
+    }
+    
+    private void aplicar(List<List<ListaPersonalizada>> lote) throws ExcepcionPersistencia {
+        destino.guardarTodas(lote.get(lote.size() - 1));
+    }
+    
+    // ========== Métodos privados ==========
+    
+    private void cargarSiNecesario() throws ExcepcionPersistencia {
+        if (!cacheCargada) {
+            cache = new ArrayList<>(destino.obtenerTodas());
+            cacheCargada = true;
+        }
+    }
+    
+    private List<ListaPersonalizada> copiarCache() {
+        List<ListaPersonalizada> copia = new ArrayList<>(cache.size());
+        for (ListaPersonalizada lista : cache) {
+            copia.add(lista.copiar());
+        }
+        return copia;
+    }
+    
+    private ListaPersonalizada buscarEnCache(String nombre) {
+        for (ListaPersonalizada lista : cache) {
+            if (lista.obtenerNombre().equalsIgnoreCase(nombre)) {
+                return lista;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package repositorio;
+
+/**
+ * Recibe los cambios del catálogo de un repositorio de anime (ver {@link BusCambiosCatalogo}).
+ */
+@FunctionalInterface
+public interface SuscriptorCambiosCatalogo {
+    
+    void cambioCatalogo(CambioCatalogo cambio);
+}
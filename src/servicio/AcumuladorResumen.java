@@ -0,0 +1,175 @@
+package servicio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import utilidad.SeleccionTopK;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Acumula en una sola pasada todos los campos de {@link ServicioEstadisticas.ResumenEstadisticas}.
+ *
+ * Los acumuladores parciales de tramos consecutivos del catálogo se pueden combinar, lo que
+ * permite repartir el recorrido entre varios hilos con fork/join. Los empates se resuelven a
+ * favor del anime que aparece primero, igual que el recorrido secuencial.
+ */
+class AcumuladorResumen {
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Genero[] GENEROS = Genero.values();
+    
+    /** Tamaño de tramo por debajo del cual el cálculo paralelo deja de dividir. */
+    private static final int TRAMO_MINIMO = 16_384;
+    
+    private int total;
+    private int calificados;
+    private long sumaCalificaciones;
+    private final long[] cantidadPorEstado = new long[ESTADOS.length];
+    private final long[] cantidadPorGenero = new long[GENEROS.length];
+    private AnimeBase masAntiguo;
+    private AnimeBase masNuevo;
+    private AnimeBase mejorCalificado;
+    
+    // ========== Cálculo ==========
+    
+    static ServicioEstadisticas.ResumenEstadisticas resumir(List<AnimeBase> animes) {
+        AcumuladorResumen acumulador = new AcumuladorResumen();
+        acumulador.acumular(animes, 0, animes.size());
+        return acumulador.construirResumen();
+    }
+    
+    /**
+     * Divide el catálogo en tramos que se acumulan en el pool común y se combinan en orden.
+     * La lista debe admitir acceso aleatorio y no modificarse durante el cálculo.
+     */
+    static ServicioEstadisticas.ResumenEstadisticas resumirEnParalelo(List<AnimeBase> animes) {
+        return ForkJoinPool.commonPool()
+            .invoke(new Tramo(animes, 0, animes.size()))
+            .construirResumen();
+    }
+    
+    private static final class Tramo extends RecursiveTask<AcumuladorResumen> {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<AnimeBase> animes;
+        private final int desde;
+        private final int hasta;
+        
+        Tramo(List<AnimeBase> animes, int desde, int hasta) {
+            this.animes = animes;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+        
+        @Override
+        protected AcumuladorResumen compute() {
+            if (hasta - desde <= TRAMO_MINIMO) {
+                AcumuladorResumen acumulador = new AcumuladorResumen();
+                acumulador.acumular(animes, desde, hasta);
+                return acumulador;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tramo derecha = new Tramo(animes, medio, hasta);
+            derecha.fork();
+            AcumuladorResumen izquierda = new Tramo(animes, desde, medio).compute();
+            return izquierda.combinar(derecha.join());
+        }
+    }
+    
+    // ========== Acumulación ==========
+    
+    void acumular(List<AnimeBase> animes, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            acumular(animes.get(i));
+        }
+    }
+    
+    void acumular(AnimeBase anime) {
+        total++;
+        cantidadPorEstado[anime.obtenerEstado().ordinal()]++;
+        
+        int mascara = anime.obtenerMascaraGeneros();
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((mascara & (1 << g)) != 0) {
+                cantidadPorGenero[g]++;
+            }
+        }
+        
+        int anio = anime.obtenerAnioLanzamiento();
+        if (masAntiguo == null || anio < masAntiguo.obtenerAnioLanzamiento()) {
+            masAntiguo = anime;
+        }
+        if (masNuevo == null || anio > masNuevo.obtenerAnioLanzamiento()) {
+            masNuevo = anime;
+        }
+        
+        if (anime.tieneCalificacion()) {
+            int calificacion = anime.obtenerCalificacion();
+            calificados++;
+            sumaCalificaciones += calificacion;
+            if (mejorCalificado == null || calificacion > mejorCalificado.obtenerCalificacion()) {
+                mejorCalificado = anime;
+            }
+        }
+    }
+    
+    /**
+     * Incorpora el acumulador del tramo que sigue inmediatamente a este.
+     */
+    AcumuladorResumen combinar(AcumuladorResumen siguiente) {
+        total += siguiente.total;
+        calificados += siguiente.calificados;
+        sumaCalificaciones += siguiente.sumaCalificaciones;
+        for (int i = 0; i < cantidadPorEstado.length; i++) {
+            cantidadPorEstado[i] += siguiente.cantidadPorEstado[i];
+        }
+        for (int g = 0; g < cantidadPorGenero.length; g++) {
+            cantidadPorGenero[g] += siguiente.cantidadPorGenero[g];
+        }
+        
+        // Sólo reemplaza si el siguiente tramo es estrictamente mejor
+        if (siguiente.masAntiguo != null && (masAntiguo == null
+                || siguiente.masAntiguo.obtenerAnioLanzamiento() < masAntiguo.obtenerAnioLanzamiento())) {
+            masAntiguo = siguiente.masAntiguo;
+        }
+        if (siguiente.masNuevo != null && (masNuevo == null
+                || siguiente.masNuevo.obtenerAnioLanzamiento() > masNuevo.obtenerAnioLanzamiento())) {
+            masNuevo = siguiente.masNuevo;
+        }
+        if (siguiente.mejorCalificado != null && (mejorCalificado == null
+                || siguiente.mejorCalificado.obtenerCalificacion() > mejorCalificado.obtenerCalificacion())) {
+            mejorCalificado = siguiente.mejorCalificado;
+        }
+        return this;
+    }
+    
+    ServicioEstadisticas.ResumenEstadisticas construirResumen() {
+        Map<Estado, Long> porEstado = new EnumMap<>(Estado.class);
+        for (Estado estado : ESTADOS) {
+            porEstado.put(estado, cantidadPorEstado[estado.ordinal()]);
+        }
+        
+        SeleccionTopK<Map.Entry<Genero, Long>> top3 = SeleccionTopK.conComparador(3,
+            (e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        for (Genero genero : GENEROS) {
+            if (cantidadPorGenero[genero.ordinal()] > 0) {
+                top3.ofrecer(new AbstractMap.SimpleImmutableEntry<>(genero, cantidadPorGenero[genero.ordinal()]));
+            }
+        }
+        
+        double promedio = calificados == 0 ? 0.0 : (double) sumaCalificaciones / calificados;
+        return new ServicioEstadisticas.ResumenEstadisticas(
+            total,
+            calificados,
+            promedio,
+            porEstado,
+            top3.obtenerResultado(),
+            masAntiguo,
+            masNuevo,
+            mejorCalificado
+        );
+    }
+}
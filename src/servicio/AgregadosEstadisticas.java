@@ -0,0 +1,316 @@
+package servicio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+import repositorio.OyenteRepositorioAnime;
+import utilidad.SeleccionTopK;
+
+import java.util.*;
+
+/**
+ * Agregados de estadísticas del catálogo mantenidos de forma incremental a partir de las
+ * notificaciones del repositorio.
+ *
+ * Como los servicios modifican los anime en el lugar antes de guardarlos, se conserva una
+ * huella con los valores agregados de cada instancia: al recibir un guardado se restan los
+ * valores anteriores y se suman los actuales. Las consultas no recorren el catálogo, salvo
+ * para volver a elegir el anime más antiguo, más nuevo o mejor calificado cuando el elegido
+ * deja de serlo.
+ */
+public class AgregadosEstadisticas implements OyenteRepositorioAnime {
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Genero[] GENEROS = Genero.values();
+    
+    private final Map<AnimeBase, Huella> huellas;
+    private long siguienteSecuencia;
+    
+    private int total;
+    private int calificados;
+    private long sumaCalificaciones;
+    private final long[] cantidadPorEstado;
+    private final long[] cantidadPorGenero;
+    private final long[] calificadosPorGenero;
+    private final long[] sumaCalificacionesPorGenero;
+    private final TreeMap<Integer, Integer> cantidadPorAnio;
+    
+    private boolean destacadosVigentes;
+    private AnimeBase masAntiguo;
+    private AnimeBase masNuevo;
+    private AnimeBase mejorCalificado;
+    
+    public AgregadosEstadisticas() {
+        this.huellas = new IdentityHashMap<>();
+        this.cantidadPorEstado = new long[ESTADOS.length];
+        this.cantidadPorGenero = new long[GENEROS.length];
+        this.calificadosPorGenero = new long[GENEROS.length];
+        this.sumaCalificacionesPorGenero = new long[GENEROS.length];
+        this.cantidadPorAnio = new TreeMap<>();
+    }
+    
+    /**
+     * Valores de un anime tal como se sumaron a los agregados. La secuencia da el orden
+     * de alta, usado para desempatar igual que un recorrido del catálogo.
+     */
+    private static final class Huella {
+        final int anio;
+        final int estado;
+        final int calificacion;
+        final int mascaraGeneros;
+        final long secuencia;
+        
+        Huella(AnimeBase anime, long secuencia) {
+            this.anio = anime.obtenerAnioLanzamiento();
+            this.estado = anime.obtenerEstado().ordinal();
+            this.calificacion = anime.obtenerCalificacion();
+            this.mascaraGeneros = anime.obtenerMascaraGeneros();
+            this.secuencia = secuencia;
+        }
+    }
+    
+    // ========== Implementación de OyenteRepositorioAnime ==========
+    
+    @Override
+    public synchronized void animeGuardado(AnimeBase anime) {
+        Huella previa = huellas.get(anime);
+        long secuencia;
+        if (previa != null) {
+            // También un cambio de título conserva la posición en el catálogo
+            restar(anime, previa);
+            secuencia = previa.secuencia;
+        } else {
+            secuencia = siguienteSecuencia++;
+        }
+        agregar(anime, secuencia);
+    }
+    
+    @Override
+    public synchronized void animeReemplazado(AnimeBase anterior, AnimeBase nuevo) {
+        Huella huellaAnterior = huellas.remove(anterior);
+        if (huellaAnterior == null) {
+            animeGuardado(nuevo);
+            return;
+        }
+        restar(anterior, huellaAnterior);
+        
+        // Un anime renombrado sobre otro título conserva su propia posición
+        long secuencia = huellaAnterior.secuencia;
+        Huella previa = huellas.get(nuevo);
+        if (previa != null) {
+            restar(nuevo, previa);
+            secuencia = previa.secuencia;
+        }
+        agregar(nuevo, secuencia);
+    }
+    
+    @Override
+    public synchronized void animeEliminado(AnimeBase anime) {
+        Huella previa = huellas.remove(anime);
+        if (previa != null) {
+            restar(anime, previa);
+        }
+    }
+    
+    @Override
+    public synchronized void catalogoReemplazado(Collection<AnimeBase> animes) {
+        huellas.clear();
+        siguienteSecuencia = 0;
+        total = 0;
+        calificados = 0;
+        sumaCalificaciones = 0;
+        Arrays.fill(cantidadPorEstado, 0);
+        Arrays.fill(cantidadPorGenero, 0);
+        Arrays.fill(calificadosPorGenero, 0);
+        Arrays.fill(sumaCalificacionesPorGenero, 0);
+        cantidadPorAnio.clear();
+        destacadosVigentes = true;
+        masAntiguo = null;
+        masNuevo = null;
+        mejorCalificado = null;
+        
+        for (AnimeBase anime : animes) {
+            animeGuardado(anime);
+        }
+    }
+    
+    private void agregar(AnimeBase anime, long secuencia) {
+        Huella actual = new Huella(anime, secuencia);
+        huellas.put(anime, actual);
+        sumar(anime, actual);
+    }
+    
+    private void sumar(AnimeBase anime, Huella huella) {
+        actualizarContadores(huella, 1);
+        cantidadPorAnio.merge(huella.anio, 1, Integer::sum);
+        
+        if (destacadosVigentes) {
+            if (masAntiguo == null || esMasAntiguo(huella, huellas.get(masAntiguo))) {
+                masAntiguo = anime;
+            }
+            if (masNuevo == null || esMasNuevo(huella, huellas.get(masNuevo))) {
+                masNuevo = anime;
+            }
+            if (huella.calificacion > 0
+                    && (mejorCalificado == null || esMejorCalificado(huella, huellas.get(mejorCalificado)))) {
+                mejorCalificado = anime;
+            }
+        }
+    }
+    
+    private void restar(AnimeBase anime, Huella huella) {
+        actualizarContadores(huella, -1);
+        cantidadPorAnio.computeIfPresent(huella.anio, (anio, cantidad) -> cantidad > 1 ? cantidad - 1 : null);
+        
+        if (anime == masAntiguo || anime == masNuevo || anime == mejorCalificado) {
+            destacadosVigentes = false;
+        }
+    }
+    
+    private void actualizarContadores(Huella huella, int signo) {
+        total += signo;
+        cantidadPorEstado[huella.estado] += signo;
+        
+        boolean calificado = huella.calificacion > 0;
+        if (calificado) {
+            calificados += signo;
+            sumaCalificaciones += signo * huella.calificacion;
+        }
+        
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((huella.mascaraGeneros & (1 << g)) != 0) {
+                cantidadPorGenero[g] += signo;
+                if (calificado) {
+                    calificadosPorGenero[g] += signo;
+                    sumaCalificacionesPorGenero[g] += signo * huella.calificacion;
+                }
+            }
+        }
+    }
+    
+    private static boolean esMasAntiguo(Huella candidata, Huella actual) {
+        return candidata.anio < actual.anio
+            || (candidata.anio == actual.anio && candidata.secuencia < actual.secuencia);
+    }
+    
+    private static boolean esMasNuevo(Huella candidata, Huella actual) {
+        return candidata.anio > actual.anio
+            || (candidata.anio == actual.anio && candidata.secuencia < actual.secuencia);
+    }
+    
+    private static boolean esMejorCalificado(Huella candidata, Huella actual) {
+        return candidata.calificacion > actual.calificacion
+            || (candidata.calificacion == actual.calificacion && candidata.secuencia < actual.secuencia);
+    }
+    
+    /**
+     * Vuelve a elegir los anime destacados recorriendo las huellas; sólo ocurre cuando
+     * alguno de los elegidos fue modificado o eliminado.
+     */
+    private void recalcularDestacados() {
+        masAntiguo = null;
+        masNuevo = null;
+        mejorCalificado = null;
+        destacadosVigentes = true;
+        
+        Huella antiguo = null;
+        Huella nuevo = null;
+        Huella mejor = null;
+        for (Map.Entry<AnimeBase, Huella> entrada : huellas.entrySet()) {
+            Huella huella = entrada.getValue();
+            if (antiguo == null || esMasAntiguo(huella, antiguo)) {
+                antiguo = huella;
+                masAntiguo = entrada.getKey();
+            }
+            if (nuevo == null || esMasNuevo(huella, nuevo)) {
+                nuevo = huella;
+                masNuevo = entrada.getKey();
+            }
+            if (huella.calificacion > 0 && (mejor == null || esMejorCalificado(huella, mejor))) {
+                mejor = huella;
+                mejorCalificado = entrada.getKey();
+            }
+        }
+    }
+    
+    // ========== Consultas ==========
+    
+    public synchronized int obtenerTotal() {
+        return total;
+    }
+    
+    public synchronized int obtenerCalificados() {
+        return calificados;
+    }
+    
+    public synchronized double obtenerPromedioCalificacion() {
+        return calificados == 0 ? 0.0 : (double) sumaCalificaciones / calificados;
+    }
+    
+    public synchronized double obtenerPromedioCalificacion(Genero genero) {
+        long cantidad = calificadosPorGenero[genero.ordinal()];
+        return cantidad == 0 ? 0.0 : (double) sumaCalificacionesPorGenero[genero.ordinal()] / cantidad;
+    }
+    
+    public synchronized Map<Estado, Long> obtenerCantidadPorEstado() {
+        Map<Estado, Long> conteo = new EnumMap<>(Estado.class);
+        for (Estado estado : ESTADOS) {
+            conteo.put(estado, cantidadPorEstado[estado.ordinal()]);
+        }
+        return conteo;
+    }
+    
+    /**
+     * Cantidad de anime por género; sólo incluye los géneros presentes.
+     */
+    public synchronized Map<Genero, Long> obtenerDistribucionGeneros() {
+        Map<Genero, Long> distribucion = new EnumMap<>(Genero.class);
+        for (Genero genero : GENEROS) {
+            if (cantidadPorGenero[genero.ordinal()] > 0) {
+                distribucion.put(genero, cantidadPorGenero[genero.ordinal()]);
+            }
+        }
+        return distribucion;
+    }
+    
+    public synchronized List<Map.Entry<Genero, Long>> obtenerTopGeneros(int cantidad) {
+        SeleccionTopK<Map.Entry<Genero, Long>> top = SeleccionTopK.conComparador(cantidad,
+            (e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        for (Map.Entry<Genero, Long> entrada : obtenerDistribucionGeneros().entrySet()) {
+            top.ofrecer(entrada);
+        }
+        return top.obtenerResultado();
+    }
+    
+    /**
+     * Año de lanzamiento mínimo del catálogo, o null si está vacío.
+     */
+    public synchronized Integer obtenerAnioMinimo() {
+        return cantidadPorAnio.isEmpty() ? null : cantidadPorAnio.firstKey();
+    }
+    
+    public synchronized Integer obtenerAnioMaximo() {
+        return cantidadPorAnio.isEmpty() ? null : cantidadPorAnio.lastKey();
+    }
+    
+    public synchronized AnimeBase obtenerMasAntiguo() {
+        if (!destacadosVigentes) {
+            recalcularDestacados();
+        }
+        return masAntiguo;
+    }
+    
+    public synchronized AnimeBase obtenerMasNuevo() {
+        if (!destacadosVigentes) {
+            recalcularDestacados();
+        }
+        return masNuevo;
+    }
+    
+    public synchronized AnimeBase obtenerMejorCalificado() {
+        if (!destacadosVigentes) {
+            recalcularDestacados();
+        }
+        return mejorCalificado;
+    }
+}
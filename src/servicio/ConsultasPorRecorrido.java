@@ -0,0 +1,152 @@
+package servicio;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import repositorio.ConsultasAtributos;
+import repositorio.ConsultasCatalogo;
+import repositorio.IndiceDistanciaEdicion;
+import repositorio.IndiceEstudios;
+import repositorio.IndiceTitulos;
+import repositorio.RepositorioAnime;
+import excepcion.ExcepcionPersistencia;
+import utilidad.SeleccionTopK;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Consultas del catálogo para los repositorios que no las resuelven con índices: recorren
+ * la instantánea del repositorio. Las de atributos se delegan al repositorio si implementa
+ * {@link ConsultasAtributos}.
+ */
+final class ConsultasPorRecorrido implements ConsultasCatalogo {
+    
+    private final RepositorioAnime repositorio;
+    
+    private ConsultasPorRecorrido(RepositorioAnime repositorio) {
+        this.repositorio = repositorio;
+    }
+    
+    /**
+     * Las consultas del repositorio, completadas con recorridos donde no las implementa.
+     */
+    static ConsultasCatalogo para(RepositorioAnime repositorio) {
+        if (repositorio instanceof ConsultasCatalogo) {
+            return (ConsultasCatalogo) repositorio;
+        }
+        return new ConsultasPorRecorrido(repositorio);
+    }
+    
+    // ========== Consultas por atributos ==========
+    
+    @Override
+    public List<AnimeBase> buscarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                              int calificacionMinima) throws ExcepcionPersistencia {
+        if (repositorio instanceof ConsultasAtributos) {
+            return ((ConsultasAtributos) repositorio).buscarPorAtributos(
+                estado, generosRequeridos, generosAlguno, calificacionMinima);
+        }
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : repositorio.obtenerInstantanea().obtenerAnimes()) {
+            if ((estado == null || anime.obtenerEstado() == estado)
+                    && anime.coincideConTodosLosGeneros(generosRequeridos)
+                    && (generosAlguno == 0 || anime.coincideConAlgunGenero(generosAlguno))
+                    && (calificacionMinima <= 0 || anime.cumpleCalificacionMinima(calificacionMinima))) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+    
+    @Override
+    public int contarPorAtributos(Estado estado, int generosRequeridos, int generosAlguno,
+                                  int calificacionMinima) throws ExcepcionPersistencia {
+        if (repositorio instanceof ConsultasAtributos) {
+            return ((ConsultasAtributos) repositorio).contarPorAtributos(
+                estado, generosRequeridos, generosAlguno, calificacionMinima);
+        }
+        return buscarPorAtributos(estado, generosRequeridos, generosAlguno, calificacionMinima).size();
+    }
+    
+    @Override
+    public List<AnimeBase> buscarPorTituloContiene(String texto) throws ExcepcionPersistencia {
+        if (repositorio instanceof ConsultasAtributos) {
+            return ((ConsultasAtributos) repositorio).buscarPorTituloContiene(texto);
+        }
+        String consulta = IndiceTitulos.normalizar(texto);
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : repositorio.obtenerInstantanea().obtenerAnimes()) {
+            if (IndiceTitulos.normalizar(anime.obtenerTitulo()).contains(consulta)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+    
+    // ========== Estudios ==========
+    
+    @Override
+    public List<AnimeBase> buscarPorEstudio(String texto) throws ExcepcionPersistencia {
+        String consulta = texto.trim().toLowerCase(Locale.ROOT);
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : repositorio.obtenerInstantanea().obtenerAnimes()) {
+            String estudio = anime.obtenerEstudio() != null ? anime.obtenerEstudio() : "";
+            if (estudio.toLowerCase(Locale.ROOT).contains(consulta)) {
+                resultado.add(anime);
+            }
+        }
+        return resultado;
+    }
+    
+    @Override
+    public Map<String, Long> contarPorEstudio() throws ExcepcionPersistencia {
+        IndiceEstudios indice = new IndiceEstudios();
+        List<AnimeBase> animes = repositorio.obtenerInstantanea().obtenerAnimes();
+        for (int fila = 0; fila < animes.size(); fila++) {
+            indice.establecer(fila, animes.get(fila).obtenerEstudio());
+        }
+        return indice.contarPorEstudio();
+    }
+    
+    // ========== Búsqueda por título ==========
+    
+    @Override
+    public List<AnimeBase> sugerirPorPrefijo(String prefijo, int limite) throws ExcepcionPersistencia {
+        String consulta = prefijo.stripLeading().toLowerCase(Locale.ROOT);
+        SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.conComparador(limite,
+            Comparator.comparingInt((AnimeBase anime) -> Math.min(anime.obtenerCalificacion(), AnimeBase.CALIFICACION_MAXIMA))
+                .reversed()
+                .thenComparing(anime -> IndiceTitulos.normalizar(anime.obtenerTitulo())));
+        for (AnimeBase anime : repositorio.obtenerInstantanea().obtenerAnimes()) {
+            if (IndiceTitulos.normalizar(anime.obtenerTitulo()).startsWith(consulta)) {
+                seleccion.ofrecer(anime);
+            }
+        }
+        return seleccion.obtenerResultado();
+    }
+    
+    @Override
+    public List<AnimeBase> buscarPorTituloAproximado(String titulo, int distanciaMaxima, int limite)
+            throws ExcepcionPersistencia {
+        String consulta = IndiceTitulos.normalizar(titulo);
+        Map<AnimeBase, Integer> distancias = new IdentityHashMap<>();
+        for (AnimeBase anime : repositorio.obtenerInstantanea().obtenerAnimes()) {
+            int distancia = IndiceDistanciaEdicion.distancia(consulta, IndiceTitulos.normalizar(anime.obtenerTitulo()), distanciaMaxima);
+            if (distancia <= distanciaMaxima) {
+                distancias.put(anime, distancia);
+            }
+        }
+        
+        SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.conComparador(limite,
+            Comparator.comparingInt((AnimeBase anime) -> distancias.get(anime))
+                .thenComparing(anime -> IndiceTitulos.normalizar(anime.obtenerTitulo())));
+        for (AnimeBase anime : distancias.keySet()) {
+            seleccion.ofrecer(anime);
+        }
+        return seleccion.obtenerResultado();
+    }
+}
@@ -0,0 +1,37 @@
+package servicio;
+
+import repositorio.RepositorioAnime;
+import excepcion.ExcepcionPersistencia;
+import utilidad.EstadisticasCatalogo;
+
+/**
+ * Estadísticas del catálogo de un repositorio para ordenar los criterios de los filtros.
+ *
+ * Como sólo deciden el orden de evaluación y no el resultado, no se recalculan en cada
+ * cambio: se conservan hasta que la cantidad de anime se aleja más de un octavo de la que
+ * había al calcularlas.
+ */
+final class EstadisticasVigentes {
+    
+    private final RepositorioAnime repositorio;
+    private volatile EstadisticasCatalogo estadisticas;
+    
+    EstadisticasVigentes(RepositorioAnime repositorio) {
+        this.repositorio = repositorio;
+    }
+    
+    EstadisticasCatalogo obtener() throws ExcepcionPersistencia {
+        EstadisticasCatalogo actuales = estadisticas;
+        if (actuales != null && !desactualizadas(actuales, repositorio.contar())) {
+            return actuales;
+        }
+        actuales = EstadisticasCatalogo.de(repositorio.obtenerInstantanea().obtenerAnimes());
+        estadisticas = actuales;
+        return actuales;
+    }
+    
+    private static boolean desactualizadas(EstadisticasCatalogo estadisticas, int tamanioActual) {
+        int total = estadisticas.obtenerTotal();
+        return Math.abs(tamanioActual - total) > total / 8;
+    }
+}
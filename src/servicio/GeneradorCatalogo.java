@@ -0,0 +1,353 @@
+package servicio;
+
+import modelo.*;
+import excepcion.ExcepcionPersistencia;
+import utilidad.OyenteProgreso;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generador determinístico de catálogos sintéticos para pruebas de carga.
+ *
+ * Con la misma semilla y configuración produce siempre la misma secuencia de anime. Los anime
+ * se crean de a uno a medida que se consumen, de modo que generar o escribir millones de
+ * líneas no exige tenerlas todas en memoria. Los títulos son únicos ("Anime sintético N").
+ *
+ * Las distribuciones se configuran con pesos relativos:
+ * <ul>
+ *   <li>géneros: peso de cada género al elegir los de cada anime (sin repetición)</li>
+ *   <li>estados: peso de cada estado</li>
+ *   <li>calificación: el peso del nivel k es k^sesgo (0 uniforme, positivo favorece las
+ *       altas, negativo las bajas), más una proporción de anime sin calificar</li>
+ *   <li>estudios: cantidad de estudios distintos, de popularidad uniforme</li>
+ *   <li>años: rango de lanzamiento, uniforme</li>
+ * </ul>
+ */
+public class GeneradorCatalogo {
+    
+    private static final Genero[] GENEROS = Genero.values();
+    private static final Estado[] ESTADOS = Estado.values();
+    
+    private final long semilla;
+    private long cantidad;
+    private double[] pesosGeneros;
+    private int generosMinimos;
+    private int generosMaximos;
+    private double[] pesosEstados;
+    private double sesgoCalificacion;
+    private double proporcionSinCalificar;
+    private int cantidadEstudios;
+    private int anioDesde;
+    private int anioHasta;
+    private double proporcionPeliculas;
+    
+    public GeneradorCatalogo(long semilla) {
+        this.semilla = semilla;
+        this.cantidad = 1_000;
+        this.pesosGeneros = new double[GENEROS.length];
+        Arrays.fill(pesosGeneros, 1.0);
+        this.generosMinimos = 1;
+        this.generosMaximos = 3;
+        this.pesosEstados = new double[ESTADOS.length];
+        Arrays.fill(pesosEstados, 1.0);
+        this.sesgoCalificacion = 0.0;
+        this.proporcionSinCalificar = 1.0 / 3;
+        this.cantidadEstudios = 200;
+        this.anioDesde = 1960;
+        this.anioHasta = 2025;
+        this.proporcionPeliculas = 0.2;
+    }
+    
+    // ========== Configuración ==========
+    
+    public GeneradorCatalogo conCantidad(long cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa");
+        }
+        this.cantidad = cantidad;
+        return this;
+    }
+    
+    /**
+     * Pesos relativos de los géneros; los que no figuran en el mapa no se generan.
+     */
+    public GeneradorCatalogo conPesosGeneros(Map<Genero, Double> pesos) {
+        double[] nuevos = new double[GENEROS.length];
+        for (Map.Entry<Genero, Double> entrada : pesos.entrySet()) {
+            nuevos[entrada.getKey().ordinal()] = validarPeso(entrada.getValue());
+        }
+        this.pesosGeneros = nuevos;
+        return this;
+    }
+    
+    public GeneradorCatalogo conGenerosPorAnime(int minimo, int maximo) {
+        if (minimo < 0 || maximo < minimo || maximo > GENEROS.length) {
+            throw new IllegalArgumentException("Rango de géneros por anime inválido: " + minimo + "-" + maximo);
+        }
+        this.generosMinimos = minimo;
+        this.generosMaximos = maximo;
+        return this;
+    }
+    
+    /**
+     * Pesos relativos de los estados; los que no figuran en el mapa no se generan.
+     */
+    public GeneradorCatalogo conPesosEstados(Map<Estado, Double> pesos) {
+        double[] nuevos = new double[ESTADOS.length];
+        for (Map.Entry<Estado, Double> entrada : pesos.entrySet()) {
+            nuevos[entrada.getKey().ordinal()] = validarPeso(entrada.getValue());
+        }
+        this.pesosEstados = nuevos;
+        return this;
+    }
+    
+    /**
+     * @param sesgo                  exponente del peso de cada nivel de calificación
+     * @param proporcionSinCalificar fracción de anime sin calificar, entre 0 y 1
+     */
+    public GeneradorCatalogo conCalificaciones(double sesgo, double proporcionSinCalificar) {
+        if (proporcionSinCalificar < 0 || proporcionSinCalificar > 1) {
+            throw new IllegalArgumentException("La proporción sin calificar debe estar entre 0 y 1");
+        }
+        this.sesgoCalificacion = sesgo;
+        this.proporcionSinCalificar = proporcionSinCalificar;
+        return this;
+    }
+    
+    public GeneradorCatalogo conCantidadEstudios(int cantidadEstudios) {
+        if (cantidadEstudios < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un estudio");
+        }
+        this.cantidadEstudios = cantidadEstudios;
+        return this;
+    }
+    
+    public GeneradorCatalogo conRangoAnios(int desde, int hasta) {
+        if (desde < 1900 || hasta < desde) {
+            throw new IllegalArgumentException("Rango de años inválido: " + desde + "-" + hasta);
+        }
+        this.anioDesde = desde;
+        this.anioHasta = hasta;
+        return this;
+    }
+    
+    public GeneradorCatalogo conProporcionPeliculas(double proporcion) {
+        if (proporcion < 0 || proporcion > 1) {
+            throw new IllegalArgumentException("La proporción de películas debe estar entre 0 y 1");
+        }
+        this.proporcionPeliculas = proporcion;
+        return this;
+    }
+    
+    private static double validarPeso(Double peso) {
+        if (peso == null || peso < 0 || peso.isNaN() || peso.isInfinite()) {
+            throw new IllegalArgumentException("Peso inválido: " + peso);
+        }
+        return peso;
+    }
+    
+    // ========== Generación ==========
+    
+    /**
+     * Recorre el catálogo generándolo a medida que se consume. Cada llamada empieza de nuevo
+     * desde la semilla.
+     */
+    public Iterator<AnimeBase> iterador() {
+        return new Secuencia();
+    }
+    
+    /**
+     * Flujo secuencial y perezoso del catálogo.
+     */
+    public Stream<AnimeBase> generar() {
+        Spliterator<AnimeBase> partes = Spliterators.spliterator(iterador(), cantidad,
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+        return StreamSupport.stream(partes, false);
+    }
+    
+    /**
+     * Genera el catálogo completo en una lista. Sólo para tamaños que entran en memoria.
+     */
+    public List<AnimeBase> generarLista() {
+        if (cantidad > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("El catálogo no entra en una lista: " + cantidad);
+        }
+        List<AnimeBase> animes = new ArrayList<>((int) cantidad);
+        for (Iterator<AnimeBase> it = iterador(); it.hasNext(); ) {
+            animes.add(it.next());
+        }
+        return animes;
+    }
+    
+    /**
+     * Escribe el catálogo en un archivo UTF-8 con el formato de exportarATxt, línea por línea.
+     */
+    public void escribirTxt(Path archivo, OyenteProgreso oyente) throws ExcepcionPersistencia {
+        try (Writer destino = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            escribirTxt(destino, oyente);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al generar " + archivo + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Escribe el catálogo en el destino con el formato de exportarATxt. El destino se vacía
+     * pero no se cierra.
+     */
+    public void escribirTxt(Writer destino, OyenteProgreso oyente) throws IOException {
+        long intervaloProgreso = Math.max(1, cantidad / 100);
+        
+        ServicioAnime.escribirEncabezadoTxt(destino);
+        StringBuilder linea = new StringBuilder(128);
+        Iterator<AnimeBase> animes = iterador();
+        for (long i = 0; animes.hasNext(); i++) {
+            linea.setLength(0);
+            ServicioAnime.animeALinea(linea, animes.next());
+            linea.append('\n');
+            destino.append(linea);
+            
+            if ((i + 1) % intervaloProgreso == 0) {
+                oyente.progresoActualizado(i + 1, cantidad);
+            }
+        }
+        
+        destino.flush();
+        oyente.progresoActualizado(cantidad, cantidad);
+    }
+    
+    /**
+     * Estado de un recorrido: la fuente aleatoria y las tablas acumuladas de pesos, fijadas
+     * al crearlo para que cambiar la configuración no altere un recorrido en curso.
+     */
+    private final class Secuencia implements Iterator<AnimeBase> {
+        private final SplittableRandom aleatorio = new SplittableRandom(semilla);
+        private final long total = cantidad;
+        private final double[] acumuladoEstados = acumular(pesosEstados);
+        private final double[] acumuladoCalificaciones = acumularCalificaciones(sesgoCalificacion);
+        private final double[] pesos = pesosGeneros.clone();
+        private final int minimo = Math.min(generosMinimos, contarPositivos(pesosGeneros));
+        private final int maximo = Math.min(generosMaximos, contarPositivos(pesosGeneros));
+        private final String[] estudios = new String[cantidadEstudios];
+        private final int desde = anioDesde;
+        private final int amplitud = anioHasta - anioDesde + 1;
+        private final double sinCalificar = proporcionSinCalificar;
+        private final double peliculas = proporcionPeliculas;
+        private long generados;
+        
+        Secuencia() {
+            if (acumuladoEstados[acumuladoEstados.length - 1] <= 0) {
+                throw new IllegalStateException("Ningún estado tiene peso positivo");
+            }
+            for (int i = 0; i < estudios.length; i++) {
+                estudios[i] = "Estudio " + i;
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return generados < total;
+        }
+        
+        @Override
+        public AnimeBase next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String titulo = "Anime sintético " + generados++;
+            int anio = desde + aleatorio.nextInt(amplitud);
+            String estudio = estudios[aleatorio.nextInt(estudios.length)];
+            Set<Genero> generos = elegirGeneros();
+            
+            AnimeBase anime;
+            if (aleatorio.nextDouble() < peliculas) {
+                anime = new AnimePelicula(titulo, anio, estudio, 80 + aleatorio.nextInt(70), generos,
+                    "Director " + aleatorio.nextInt(estudios.length));
+            } else {
+                anime = new AnimeSerie(titulo, anio, estudio, 12 + aleatorio.nextInt(40), generos,
+                    aleatorio.nextInt(10) == 0);
+            }
+            
+            anime.establecerEstado(ESTADOS[elegir(acumuladoEstados)]);
+            if (aleatorio.nextDouble() >= sinCalificar) {
+                anime.establecerCalificacion(AnimeBase.CALIFICACION_MINIMA + elegir(acumuladoCalificaciones));
+            }
+            return anime;
+        }
+        
+        /**
+         * Muestreo ponderado sin reemplazo de una cantidad de géneros entre el mínimo y el máximo.
+         */
+        private Set<Genero> elegirGeneros() {
+            Set<Genero> generos = EnumSet.noneOf(Genero.class);
+            int objetivo = minimo + aleatorio.nextInt(maximo - minimo + 1);
+            double restante = 0;
+            for (double peso : pesos) {
+                restante += peso;
+            }
+            int mascara = 0;
+            while (generos.size() < objetivo) {
+                double punto = aleatorio.nextDouble() * restante;
+                int elegido = -1;
+                for (int g = 0; g < pesos.length; g++) {
+                    if ((mascara & (1 << g)) != 0 || pesos[g] <= 0) {
+                        continue;
+                    }
+                    elegido = g;
+                    punto -= pesos[g];
+                    if (punto < 0) {
+                        break;
+                    }
+                }
+                mascara |= 1 << elegido;
+                restante -= pesos[elegido];
+                generos.add(GENEROS[elegido]);
+            }
+            return generos;
+        }
+        
+        private int elegir(double[] acumulado) {
+            double punto = aleatorio.nextDouble() * acumulado[acumulado.length - 1];
+            for (int i = 0; i < acumulado.length - 1; i++) {
+                if (punto < acumulado[i]) {
+                    return i;
+                }
+            }
+            return acumulado.length - 1;
+        }
+    }
+    
+    private static double[] acumular(double[] pesos) {
+        double[] acumulado = new double[pesos.length];
+        double suma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            suma += pesos[i];
+            acumulado[i] = suma;
+        }
+        return acumulado;
+    }
+    
+    private static double[] acumularCalificaciones(double sesgo) {
+        double[] pesos = new double[AnimeBase.CALIFICACION_MAXIMA - AnimeBase.CALIFICACION_MINIMA + 1];
+        for (int i = 0; i < pesos.length; i++) {
+            pesos[i] = Math.pow(AnimeBase.CALIFICACION_MINIMA + i, sesgo);
+        }
+        return acumular(pesos);
+    }
+    
+    private static int contarPositivos(double[] pesos) {
+        int positivos = 0;
+        for (double peso : pesos) {
+            if (peso > 0) {
+                positivos++;
+            }
+        }
+        return positivos;
+    }
+}
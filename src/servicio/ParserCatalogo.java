@@ -0,0 +1,493 @@
+package servicio;
+
+import modelo.*;
+import repositorio.DiccionarioNombres;
+import excepcion.ExcepcionPersistencia;
+import excepcion.ExcepcionValidacion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parser del formato TXT del catálogo: TIPO|TITULO|AÑO|ESTUDIO|DURACION|GENEROS|ESTADO|CALIFICACION|EXTRA
+ *
+ * Tokeniza cada línea en una sola pasada sobre sus bytes UTF-8, sin expresiones regulares ni
+ * subcadenas intermedias: solo se crean String para título, estudio y director, y cada hilo
+ * comparte una sola instancia de los estudios y directores repetidos. Los archivos
+ * grandes se dividen en trozos alineados a líneas, se mapean en memoria y se parsean en paralelo.
+ * Las líneas rechazadas se informan con su número y el motivo.
+ */
+public class ParserCatalogo {
+    
+    private static final int CAMPOS_MINIMOS = 8;
+    private static final int CAMPOS_LEIDOS = 9;
+    
+    /** Límite por trozo: cada trozo se mapea con un único MappedByteBuffer. */
+    private static final long TAMANIO_MAXIMO_TROZO = 256L << 20;
+    private static final long TAMANIO_MINIMO_TROZO = 1L << 20;
+    private static final int TAMANIO_VENTANA = 1 << 16;
+    /** Estudios y directores distintos que recuerda cada hilo antes de empezar de nuevo */
+    private static final int MAXIMO_NOMBRES_COMPARTIDOS = 1 << 16;
+    
+    private static final byte[] SERIE = ascii("SERIE");
+    private static final byte[] PELICULA = ascii("PELICULA");
+    private static final byte[] VERDADERO = ascii("TRUE");
+    private static final Genero[] GENEROS = Genero.values();
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final byte[][] NOMBRES_GENEROS = nombres(GENEROS);
+    private static final byte[][] NOMBRES_ESTADOS = nombres(ESTADOS);
+    
+    private final ThreadLocal<Tokenizador> tokenizadores = ThreadLocal.withInitial(Tokenizador::new);
+    private final int paralelismo;
+    
+    public ParserCatalogo(int paralelismo) {
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+    
+    public ParserCatalogo() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Parsea una línea del catálogo.
+     *
+     * @return el anime, o null si la línea está vacía o es un comentario
+     * @throws ExcepcionValidacion si la línea no respeta el formato
+     */
+    public AnimeBase parsearLinea(String linea) throws ExcepcionValidacion {
+        if (linea == null) {
+            return null;
+        }
+        byte[] bytes = linea.getBytes(StandardCharsets.UTF_8);
+        return tokenizadores.get().parsear(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Parsea un archivo UTF-8 completo, dividiéndolo en trozos que se procesan en paralelo.
+     * El resultado conserva el orden de las líneas del archivo.
+     */
+    public ResultadoParseo parsearArchivo(Path archivo) throws ExcepcionPersistencia {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            long[] limites = limitesDeTrozos(canal, tamanio);
+            
+            List<Trozo> trozos = IntStream.range(0, limites.length - 1)
+                .parallel()
+                .mapToObj(i -> parsearTrozo(canal, limites[i], limites[i + 1]))
+                .collect(Collectors.toList());
+            
+            return unir(trozos);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al leer " + archivo + ": " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new ExcepcionPersistencia("Error al leer " + archivo + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    // ========== División en trozos ==========
+    
+    /**
+     * Calcula los límites de los trozos, cada uno empezando justo después de un salto de línea.
+     */
+    private long[] limitesDeTrozos(FileChannel canal, long tamanio) throws IOException {
+        long cantidad = Math.max(1, Math.min((long) paralelismo * 4, tamanio / TAMANIO_MINIMO_TROZO));
+        cantidad = Math.max(cantidad, (tamanio + TAMANIO_MAXIMO_TROZO - 1) / TAMANIO_MAXIMO_TROZO);
+        
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer lectura = ByteBuffer.allocate(8192);
+        
+        for (long i = 1; i < cantidad; i++) {
+            long objetivo = Math.max(tamanio * i / cantidad, limites.get(limites.size() - 1));
+            long limite = siguienteInicioDeLinea(canal, objetivo, tamanio, lectura);
+            if (limite > limites.get(limites.size() - 1) && limite < tamanio) {
+                limites.add(limite);
+            }
+        }
+        limites.add(tamanio);
+        
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+    
+    private long siguienteInicioDeLinea(FileChannel canal, long desde, long tamanio, ByteBuffer lectura)
+            throws IOException {
+        long posicion = desde;
+        while (posicion < tamanio) {
+            lectura.clear();
+            int leidos = canal.read(lectura, posicion);
+            if (leidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (lectura.get(i) == '\n') {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += leidos;
+        }
+        return tamanio;
+    }
+    
+    /**
+     * Parsea un trozo mapeado en memoria. Los bytes se copian por bloques a una ventana
+     * reutilizable para recorrerlos como arreglo, sin crear una cadena por línea.
+     */
+    private Trozo parsearTrozo(FileChannel canal, long inicio, long fin) {
+        MappedByteBuffer datos;
+        try {
+            datos = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        Tokenizador tokenizador = tokenizadores.get();
+        Trozo trozo = new Trozo();
+        byte[] ventana = tokenizador.ventana;
+        int limite = datos.limit();
+        int posicion = 0;
+        int pendientes = 0;
+        
+        while (true) {
+            int copiados = Math.min(ventana.length - pendientes, limite - posicion);
+            datos.get(posicion, ventana, pendientes, copiados);
+            posicion += copiados;
+            int llenos = pendientes + copiados;
+            
+            int desde = 0;
+            for (int i = 0; i < llenos; i++) {
+                if (ventana[i] == '\n') {
+                    parsearLineaDeTrozo(tokenizador, trozo, ventana, desde, i);
+                    desde = i + 1;
+                }
+            }
+            
+            if (posicion >= limite) {
+                if (desde < llenos) {
+                    parsearLineaDeTrozo(tokenizador, trozo, ventana, desde, llenos);
+                }
+                break;
+            }
+            
+            pendientes = llenos - desde;
+            if (pendientes == ventana.length) {
+                // Una línea no entra en la ventana: se agranda
+                ventana = Arrays.copyOf(ventana, ventana.length * 2);
+                tokenizador.ventana = ventana;
+            } else {
+                System.arraycopy(ventana, desde, ventana, 0, pendientes);
+            }
+        }
+        
+        return trozo;
+    }
+    
+    private void parsearLineaDeTrozo(Tokenizador tokenizador, Trozo trozo, byte[] datos, int inicio, int fin) {
+        if (fin > inicio && datos[fin - 1] == '\r') {
+            fin--;
+        }
+        trozo.lineas++;
+        
+        try {
+            AnimeBase anime = tokenizador.parsear(datos, inicio, fin);
+            if (anime != null) {
+                trozo.animes.add(anime);
+                trozo.agregarNumeroLinea(trozo.lineas);
+            }
+        } catch (ExcepcionValidacion e) {
+            trozo.rechazadas.add(new ServicioAnime.LineaRechazada(
+                trozo.lineas, texto(datos, inicio, fin), e.getMessage()));
+        }
+    }
+    
+    private ResultadoParseo unir(List<Trozo> trozos) {
+        int totalAnimes = 0;
+        for (Trozo trozo : trozos) {
+            totalAnimes += trozo.animes.size();
+        }
+        
+        List<AnimeBase> animes = new ArrayList<>(totalAnimes);
+        int[] numerosLinea = new int[totalAnimes];
+        List<ServicioAnime.LineaRechazada> rechazadas = new ArrayList<>();
+        int lineasPrevias = 0;
+        
+        for (Trozo trozo : trozos) {
+            for (int i = 0; i < trozo.animes.size(); i++) {
+                numerosLinea[animes.size()] = lineasPrevias + trozo.numerosLinea[i];
+                animes.add(trozo.animes.get(i));
+            }
+            for (ServicioAnime.LineaRechazada rechazada : trozo.rechazadas) {
+                rechazadas.add(new ServicioAnime.LineaRechazada(lineasPrevias + rechazada.obtenerNumeroLinea(),
+                    rechazada.obtenerLinea(), rechazada.obtenerMotivo()));
+            }
+            lineasPrevias += trozo.lineas;
+        }
+        
+        return new ResultadoParseo(animes, numerosLinea, rechazadas, lineasPrevias);
+    }
+    
+    // ========== Tokenización ==========
+    
+    /**
+     * Estado reutilizable por hilo: límites de campos y la ventana de lectura de trozos.
+     */
+    private static final class Tokenizador {
+        private final int[] inicios = new int[CAMPOS_LEIDOS];
+        private final int[] fines = new int[CAMPOS_LEIDOS];
+        private byte[] ventana = new byte[TAMANIO_VENTANA];
+        private final DiccionarioNombres nombres = new DiccionarioNombres();
+        
+        AnimeBase parsear(byte[] datos, int inicio, int fin) throws ExcepcionValidacion {
+            int primero = saltarEspacios(datos, inicio, fin);
+            if (primero == fin || datos[primero] == '#') {
+                return null;
+            }
+            
+            // Como String.split, los campos vacíos al final no cuentan
+            int total = 0;
+            int ultimoNoVacio = -1;
+            int desde = inicio;
+            for (int i = inicio; i <= fin; i++) {
+                if (i == fin || datos[i] == '|') {
+                    if (total < CAMPOS_LEIDOS) {
+                        inicios[total] = desde;
+                        fines[total] = i;
+                    }
+                    if (i > desde) {
+                        ultimoNoVacio = total;
+                    }
+                    total++;
+                    desde = i + 1;
+                }
+            }
+            int campos = ultimoNoVacio + 1;
+            if (campos < CAMPOS_MINIMOS) {
+                throw new ExcepcionValidacion("Se esperaban al menos " + CAMPOS_MINIMOS + " campos y hay " + campos);
+            }
+            
+            for (int c = 0; c < Math.min(campos, CAMPOS_LEIDOS); c++) {
+                inicios[c] = saltarEspacios(datos, inicios[c], fines[c]);
+                fines[c] = retrocederEspacios(datos, inicios[c], fines[c]);
+            }
+            
+            boolean esSerie = igualesSinMayusculas(datos, inicios[0], fines[0], SERIE);
+            if (!esSerie && !igualesSinMayusculas(datos, inicios[0], fines[0], PELICULA)) {
+                throw new ExcepcionValidacion("tipo", "Tipo desconocido: " + texto(datos, inicios[0], fines[0]));
+            }
+            
+            String titulo = texto(datos, inicios[1], fines[1]);
+            int anio = entero(datos, inicios[2], fines[2]);
+            String estudio = nombre(datos, inicios[3], fines[3]);
+            int duracion = entero(datos, inicios[4], fines[4]);
+            Set<Genero> generos = generos(datos, inicios[5], fines[5]);
+            int estado = buscarNombre(datos, inicios[6], fines[6], NOMBRES_ESTADOS);
+            int calificacion = enteroOCero(datos, inicios[7], fines[7]);
+            
+            AnimeBase anime;
+            if (esSerie) {
+                boolean enEmision = campos > 8 && igualesSinMayusculas(datos, inicios[8], fines[8], VERDADERO);
+                anime = new AnimeSerie(titulo, anio, estudio, duracion, generos, enEmision);
+            } else {
+                String director = campos > 8 ? nombre(datos, inicios[8], fines[8]) : "";
+                anime = new AnimePelicula(titulo, anio, estudio, duracion, generos, director);
+            }
+            
+            anime.establecerEstado(estado >= 0 ? ESTADOS[estado] : Estado.POR_VER);
+            if (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion <= AnimeBase.CALIFICACION_MAXIMA) {
+                anime.establecerCalificacion(calificacion);
+            }
+            
+            return anime;
+        }
+        
+        /**
+         * Estudio o director compartido con las líneas anteriores que lo repiten.
+         */
+        private String nombre(byte[] datos, int inicio, int fin) {
+            if (nombres.tamanio() >= MAXIMO_NOMBRES_COMPARTIDOS) {
+                nombres.limpiar();
+            }
+            return nombres.canonico(texto(datos, inicio, fin));
+        }
+        
+        private Set<Genero> generos(byte[] datos, int inicio, int fin) {
+            int mascara = 0;
+            int desde = inicio;
+            for (int i = inicio; i <= fin; i++) {
+                if (i == fin || datos[i] == ',') {
+                    int a = saltarEspacios(datos, desde, i);
+                    int b = retrocederEspacios(datos, a, i);
+                    int indice = buscarNombre(datos, a, b, NOMBRES_GENEROS);
+                    if (indice >= 0) {
+                        mascara |= 1 << indice;
+                    }
+                    desde = i + 1;
+                }
+            }
+            
+            return Genero.desdeMascara(mascara != 0 ? mascara : Genero.SHONEN.obtenerMascara());
+        }
+        
+        private int entero(byte[] datos, int inicio, int fin) throws ExcepcionValidacion {
+            long valor = leerEntero(datos, inicio, fin);
+            if (valor == Long.MIN_VALUE) {
+                throw new ExcepcionValidacion("Valor inválido: número mal formado \"" + texto(datos, inicio, fin) + "\"");
+            }
+            return (int) valor;
+        }
+        
+        private int enteroOCero(byte[] datos, int inicio, int fin) {
+            long valor = leerEntero(datos, inicio, fin);
+            return valor == Long.MIN_VALUE ? 0 : (int) valor;
+        }
+    }
+    
+    /**
+     * Lee un entero con signo opcional, con las mismas reglas que Integer.parseInt.
+     *
+     * @return el valor, o Long.MIN_VALUE si el texto no es un entero válido
+     */
+    private static long leerEntero(byte[] datos, int inicio, int fin) {
+        if (inicio >= fin) {
+            return Long.MIN_VALUE;
+        }
+        boolean negativo = false;
+        int i = inicio;
+        byte signo = datos[i];
+        if (signo == '-' || signo == '+') {
+            negativo = signo == '-';
+            i++;
+            if (i == fin) {
+                return Long.MIN_VALUE;
+            }
+        }
+        
+        long valor = 0;
+        for (; i < fin; i++) {
+            int digito = datos[i] - '0';
+            if (digito < 0 || digito > 9) {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        
+        valor = negativo ? -valor : valor;
+        return (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) ? Long.MIN_VALUE : valor;
+    }
+    
+    private static int buscarNombre(byte[] datos, int inicio, int fin, byte[][] nombres) {
+        for (int i = 0; i < nombres.length; i++) {
+            if (igualesSinMayusculas(datos, inicio, fin, nombres[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Compara un rango de bytes con un nombre en mayúsculas ASCII, ignorando mayúsculas.
+     */
+    private static boolean igualesSinMayusculas(byte[] datos, int inicio, int fin, byte[] nombre) {
+        if (fin - inicio != nombre.length) {
+            return false;
+        }
+        for (int i = 0; i < nombre.length; i++) {
+            int b = datos[inicio + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != nombre[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int saltarEspacios(byte[] datos, int inicio, int fin) {
+        while (inicio < fin && (datos[inicio] & 0xFF) <= ' ') {
+            inicio++;
+        }
+        return inicio;
+    }
+    
+    private static int retrocederEspacios(byte[] datos, int inicio, int fin) {
+        while (fin > inicio && (datos[fin - 1] & 0xFF) <= ' ') {
+            fin--;
+        }
+        return fin;
+    }
+    
+    private static String texto(byte[] datos, int inicio, int fin) {
+        return new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+    }
+    
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static byte[][] nombres(Enum<?>[] valores) {
+        byte[][] nombres = new byte[valores.length][];
+        for (int i = 0; i < valores.length; i++) {
+            nombres[i] = ascii(valores[i].name());
+        }
+        return nombres;
+    }
+    
+    // ========== Resultados ==========
+    
+    /**
+     * Resultado parcial de un trozo, con números de línea relativos al trozo.
+     */
+    private static final class Trozo {
+        private final List<AnimeBase> animes = new ArrayList<>();
+        private final List<ServicioAnime.LineaRechazada> rechazadas = new ArrayList<>();
+        private int[] numerosLinea = new int[1024];
+        private int lineas;
+        
+        private void agregarNumeroLinea(int numero) {
+            int indice = animes.size() - 1;
+            if (indice >= numerosLinea.length) {
+                numerosLinea = Arrays.copyOf(numerosLinea, numerosLinea.length * 2);
+            }
+            numerosLinea[indice] = numero;
+        }
+    }
+    
+    /**
+     * Clase interna que encapsula el resultado de parsear un archivo completo.
+     */
+    public static class ResultadoParseo {
+        private final List<AnimeBase> animes;
+        private final int[] numerosLinea;
+        private final List<ServicioAnime.LineaRechazada> rechazadas;
+        private final int lineasLeidas;
+        
+        public ResultadoParseo(List<AnimeBase> animes, int[] numerosLinea,
+                               List<ServicioAnime.LineaRechazada> rechazadas, int lineasLeidas) {
+            this.animes = animes;
+            this.numerosLinea = numerosLinea;
+            this.rechazadas = rechazadas;
+            this.lineasLeidas = lineasLeidas;
+        }
+        
+        public List<AnimeBase> obtenerAnimes() { return Collections.unmodifiableList(animes); }
+        public int obtenerNumeroLinea(int indice) { return numerosLinea[indice]; }
+        public List<ServicioAnime.LineaRechazada> obtenerRechazadas() { return Collections.unmodifiableList(rechazadas); }
+        public int obtenerLineasLeidas() { return lineasLeidas; }
+    }
+}
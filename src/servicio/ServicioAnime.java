@@ -1,11 +1,22 @@
 package servicio;
 
 import modelo.*;
+import repositorio.ConsultasAtributos;
+import repositorio.ConsultasCatalogo;
+import repositorio.IndiceTitulos;
+import repositorio.InstantaneaCatalogo;
 import repositorio.RepositorioAnime;
+import repositorio.SuscriptorCambiosCatalogo;
 import excepcion.*;
 import utilidad.*;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Servicio que coordina los casos de uso relacionados con anime.
@@ -13,9 +24,16 @@ import java.util.*;
 public class ServicioAnime {
     
     private final RepositorioAnime repositorioAnime;
+    private final ConsultasCatalogo consultas;
+    private final ParserCatalogo parser;
+    private final EstadisticasVigentes estadisticas;
+    private volatile CatalogoVigente catalogoColumnar;
     
     public ServicioAnime(RepositorioAnime repositorioAnime) {
         this.repositorioAnime = repositorioAnime;
+        this.consultas = ConsultasPorRecorrido.para(repositorioAnime);
+        this.parser = new ParserCatalogo();
+        this.estadisticas = new EstadisticasVigentes(repositorioAnime);
     }
     
     // ========== Gestión de Anime ==========
@@ -38,6 +56,7 @@ public class ServicioAnime {
             estudio != null ? estudio.trim() : "", cantidadCapitulos, generos, enEmision);
         
         repositorioAnime.guardar(serie);
+        invalidarCatalogoColumnar();
         
         return serie;
     }
@@ -61,6 +80,7 @@ public class ServicioAnime {
             director != null ? director.trim() : "");
         
         repositorioAnime.guardar(pelicula);
+        invalidarCatalogoColumnar();
         
         return pelicula;
     }
@@ -102,6 +122,7 @@ public class ServicioAnime {
             anime.establecerGeneros(generos);
         }
         
+        invalidarCatalogoColumnar();
         repositorioAnime.guardar(anime);
     }
     
@@ -112,6 +133,7 @@ public class ServicioAnime {
         
         AnimeBase anime = buscarPorTituloExacto(titulo);
         anime.establecerCalificacion(calificacion);
+        invalidarCatalogoColumnar();
         repositorioAnime.guardar(anime);
     }
     
@@ -120,10 +142,12 @@ public class ServicioAnime {
         
         AnimeBase anime = buscarPorTituloExacto(titulo);
         anime.establecerEstado(nuevoEstado);
+        invalidarCatalogoColumnar();
         repositorioAnime.guardar(anime);
     }
     
     public boolean eliminarAnime(String titulo) throws ExcepcionPersistencia {
+        invalidarCatalogoColumnar();
         return repositorioAnime.eliminarPorTitulo(titulo);
     }
     
@@ -131,16 +155,28 @@ public class ServicioAnime {
         return repositorioAnime.obtenerTodos();
     }
     
+    /**
+     * Busca un anime por su título exacto. Si no existe, la excepción trae los títulos más
+     * parecidos como sugerencias.
+     */
     public AnimeBase buscarPorTituloExacto(String titulo) 
             throws ExcepcionAnimeNoEncontrado, ExcepcionPersistencia {
         
         AnimeBase encontrado = repositorioAnime.buscarPorTitulo(titulo);
         if (encontrado == null) {
-            throw new ExcepcionAnimeNoEncontrado(titulo);
+            throw new ExcepcionAnimeNoEncontrado(titulo, SugerenciasTitulo.parecidos(repositorioAnime, titulo));
         }
         return encontrado;
     }
     
+    /**
+     * Retorna hasta limite títulos existentes parecidos al dado: primero los que difieren
+     * en pocas letras y después los que lo contienen.
+     */
+    public List<String> sugerirTitulosParecidos(String titulo, int limite) throws ExcepcionPersistencia {
+        return SugerenciasTitulo.parecidos(repositorioAnime, titulo, limite);
+    }
+    
     // ========== Búsqueda y Filtrado ==========
     
     public List<AnimeBase> buscarPorTitulo(String texto) throws ExcepcionPersistencia {
@@ -148,87 +184,168 @@ public class ServicioAnime {
             return listarTodos();
         }
         
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
-        
-        for (AnimeBase anime : todos) {
-            if (anime.tituloContiene(texto.trim())) {
-                resultado.add(anime);
-            }
+        return busquedaAvanzada(new FiltroAnime().porTitulo(texto));
+    }
+    
+    /**
+     * Sugiere hasta limite títulos que empiezan con el prefijo, de mayor a menor calificación,
+     * para autocompletar la búsqueda. Con el prefijo vacío no sugiere nada.
+     */
+    public List<String> sugerirTitulos(String prefijo, int limite) throws ExcepcionPersistencia {
+        if (prefijo == null || prefijo.trim().isEmpty() || limite <= 0) {
+            return new ArrayList<>();
         }
         
-        return resultado;
+        List<String> titulos = new ArrayList<>();
+        for (AnimeBase anime : consultas.sugerirPorPrefijo(prefijo, limite)) {
+            titulos.add(anime.obtenerTitulo());
+        }
+        return titulos;
     }
     
     public List<AnimeBase> buscarPorRangoAnios(int desde, int hasta) throws ExcepcionPersistencia {
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
-        
-        for (AnimeBase anime : todos) {
-            if (anime.lanzadoEntre(desde, hasta)) {
-                resultado.add(anime);
-            }
-        }
-        
-        return resultado;
+        return busquedaAvanzada(new FiltroAnime().porRangoAnios(desde, hasta));
     }
     
     public List<AnimeBase> filtrarPorGenero(Genero genero) throws ExcepcionPersistencia {
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
-        
-        for (AnimeBase anime : todos) {
-            if (anime.perteneceAGenero(genero)) {
-                resultado.add(anime);
-            }
+        if (genero == null) {
+            return new ArrayList<>();
         }
-        
-        return resultado;
+        return busquedaAvanzada(new FiltroAnime().porGenero(genero));
     }
     
     public List<AnimeBase> filtrarPorEstado(Estado estado) throws ExcepcionPersistencia {
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
+        if (estado == null) {
+            return new ArrayList<>();
+        }
+        return busquedaAvanzada(new FiltroAnime().porEstado(estado));
+    }
+    
+    public List<AnimeBase> filtrarPorCalificacionMinima(int minima) throws ExcepcionPersistencia {
+        return busquedaAvanzada(new FiltroAnime().soloCalificados().porCalificacionMinima(minima));
+    }
+    
+    public List<AnimeBase> busquedaAvanzada(FiltroAnime filtro) throws ExcepcionPersistencia {
+        if (filtro == null) {
+            return listarTodos();
+        }
         
-        for (AnimeBase anime : todos) {
-            if (anime.obtenerEstado() == estado) {
-                resultado.add(anime);
-            }
+        if (puedeUsarIndicesSecundarios(filtro)) {
+            return buscarConIndicesSecundarios(filtro);
         }
         
-        return resultado;
+        CatalogoColumnar catalogo = obtenerCatalogoColumnar();
+        return catalogo.obtenerFilas(filtro.compilar(estadisticas.obtener()).filtrar(catalogo));
     }
     
-    public List<AnimeBase> filtrarPorCalificacionMinima(int minima) throws ExcepcionPersistencia {
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
+    /**
+     * Filtra y ordena sobre la instantánea columnar sin materializar resultados intermedios.
+     */
+    public List<AnimeBase> busquedaAvanzada(FiltroAnime filtro, CriterioOrdenamiento criterio)
+            throws ExcepcionPersistencia {
         
-        for (AnimeBase anime : todos) {
-            if (anime.cumpleCalificacionMinima(minima)) {
-                resultado.add(anime);
-            }
+        if (filtro != null && puedeUsarIndicesSecundarios(filtro)) {
+            List<AnimeBase> resultado = buscarConIndicesSecundarios(filtro);
+            return criterio != null ? ordenar(resultado, criterio) : resultado;
         }
         
-        return resultado;
+        CatalogoColumnar catalogo = obtenerCatalogoColumnar();
+        BitSet filas = filtro != null
+            ? filtro.compilar(estadisticas.obtener()).filtrar(catalogo)
+            : todasLasFilas(catalogo);
+        if (criterio == null) {
+            return catalogo.obtenerFilas(filas);
+        }
+        return catalogo.ordenar(filas, criterio);
     }
     
-    public List<AnimeBase> busquedaAvanzada(FiltroAnime filtro) throws ExcepcionPersistencia {
-        if (filtro == null) {
-            return listarTodos();
+    private boolean puedeUsarIndicesSecundarios(FiltroAnime filtro) {
+        return (filtro.tieneCriteriosIndexables() || filtro.obtenerTextoBusqueda() != null
+                || filtro.obtenerEstudio() != null)
+            && repositorioAnime instanceof ConsultasAtributos;
+    }
+    
+    /**
+     * Obtiene los candidatos con los índices del repositorio y aplica el resto de los
+     * criterios sólo sobre ellos, compilados sin los que ya resolvió el índice. Con texto de
+     * búsqueda se parte de la búsqueda por título, y si no, del estudio: ambos suelen dejar
+     * muchos menos candidatos que estado, géneros o calificación.
+     */
+    private List<AnimeBase> buscarConIndicesSecundarios(FiltroAnime filtro) throws ExcepcionPersistencia {
+        List<AnimeBase> candidatos;
+        Set<CriterioFiltro> resueltos;
+        if (filtro.obtenerTextoBusqueda() != null) {
+            candidatos = consultas.buscarPorTituloContiene(filtro.obtenerTextoBusqueda());
+            resueltos = EnumSet.of(CriterioFiltro.TITULO);
+        } else if (filtro.obtenerEstudio() != null) {
+            candidatos = consultas.buscarPorEstudio(filtro.obtenerEstudio());
+            resueltos = EnumSet.of(CriterioFiltro.ESTUDIO);
+        } else {
+            candidatos = consultas.buscarPorAtributos(
+                filtro.obtenerEstado(),
+                filtro.obtenerMascaraGenerosRequeridos(),
+                filtro.obtenerMascaraGenerosAlguno(),
+                filtro.obtenerCalificacionMinimaRequerida());
+            resueltos = EnumSet.of(CriterioFiltro.ESTADO, CriterioFiltro.GENEROS_REQUERIDOS,
+                CriterioFiltro.GENEROS_ALGUNO, CriterioFiltro.CALIFICACION);
         }
         
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> resultado = new ArrayList<>();
+        FiltroCompilado resto = filtro.compilar(estadisticas.obtener(), resueltos);
+        if (resto.estaVacio()) {
+            return candidatos;
+        }
         
-        for (AnimeBase anime : todos) {
-            if (filtro.cumpleFiltro(anime)) {
+        List<AnimeBase> resultado = new ArrayList<>();
+        for (AnimeBase anime : candidatos) {
+            if (resto.test(anime)) {
                 resultado.add(anime);
             }
         }
-        
         return resultado;
     }
     
+    /**
+     * Retorna la instantánea columnar del catálogo, construyéndola de nuevo si cambió la
+     * versión del repositorio desde la última consulta. Con repositorios sin versiones solo
+     * se reconstruye cuando la modificación pasó por este servicio.
+     */
+    public CatalogoColumnar obtenerCatalogoColumnar() throws ExcepcionPersistencia {
+        CatalogoVigente vigente = catalogoColumnar;
+        if (vigente != null && vigente.version == InstantaneaCatalogo.SIN_VERSION) {
+            return vigente.catalogo;
+        }
+        InstantaneaCatalogo instantanea = repositorioAnime.obtenerInstantanea();
+        if (vigente == null || !instantanea.esVersion(vigente.version)) {
+            vigente = new CatalogoVigente(CatalogoColumnar.construir(instantanea.obtenerAnimes()),
+                instantanea.obtenerVersion());
+            catalogoColumnar = vigente;
+        }
+        return vigente.catalogo;
+    }
+    
+    /**
+     * Catálogo columnar junto con la versión del repositorio a partir de la que se construyó.
+     */
+    private static final class CatalogoVigente {
+        final CatalogoColumnar catalogo;
+        final long version;
+        
+        CatalogoVigente(CatalogoColumnar catalogo, long version) {
+            this.catalogo = catalogo;
+            this.version = version;
+        }
+    }
+    
+    private void invalidarCatalogoColumnar() {
+        catalogoColumnar = null;
+    }
+    
+    private static BitSet todasLasFilas(CatalogoColumnar catalogo) {
+        BitSet filas = new BitSet(catalogo.tamanio());
+        filas.set(0, catalogo.tamanio());
+        return filas;
+    }
+    
     // ========== Ordenamiento ==========
     
     public List<AnimeBase> ordenar(List<AnimeBase> animes, CriterioOrdenamiento criterio) {
@@ -249,6 +366,30 @@ public class ServicioAnime {
         return ordenar(listarTodos(), new OrdenamientoPorAnio());
     }
     
+    // ========== Cambios del catálogo ==========
+    
+    /**
+     * Suscribe a los cambios del catálogo, entregados en orden por el ejecutor dado (por
+     * ejemplo SwingUtilities::invokeLater para actualizar la interfaz). Al suscribirse se
+     * recibe el contenido actual como un reemplazo del catálogo.
+     *
+     * @return false si el repositorio no publica sus cambios
+     */
+    public boolean suscribirCambios(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        return repositorioAnime.suscribirAsincrono(suscriptor, ejecutor);
+    }
+    
+    public void desuscribirCambios(SuscriptorCambiosCatalogo suscriptor) {
+        repositorioAnime.desuscribir(suscriptor);
+    }
+    
+    /**
+     * Espera a que esté escrito el catálogo modificado hasta ahora.
+     */
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        repositorioAnime.confirmarEscrituras();
+    }
+    
     // ========== Validaciones privadas ==========
     
     private void validarTitulo(String titulo) throws ExcepcionValidacion {
@@ -308,24 +449,84 @@ public class ServicioAnime {
     // ========== Exportación e Importación TXT ==========
     
     public String exportarATxt() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = listarTodos();
-        StringBuilder sb = new StringBuilder();
+        StringWriter destino = new StringWriter();
+        try {
+            exportarATxt(destino, OyenteProgreso.NINGUNO);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al exportar: " + e.getMessage(), e);
+        }
+        return destino.toString();
+    }
+    
+    /**
+     * Exporta el catálogo a un archivo UTF-8, escribiendo línea por línea.
+     */
+    public void exportarATxt(Path archivo, OyenteProgreso oyente) throws ExcepcionPersistencia {
+        exportarATxt(listarTodos(), archivo, oyente);
+    }
+    
+    /**
+     * Exporta los anime dados a un archivo UTF-8. Permite tomar la lista en un hilo y
+     * escribirla en otro.
+     */
+    public void exportarATxt(List<AnimeBase> animes, Path archivo, OyenteProgreso oyente)
+            throws ExcepcionPersistencia {
+        try (Writer destino = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            exportarATxt(animes, destino, oyente);
+        } catch (IOException e) {
+            throw new ExcepcionPersistencia("Error al exportar a " + archivo + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Exporta el catálogo a un flujo de bytes en UTF-8. El flujo no se cierra.
+     */
+    public void exportarATxt(OutputStream destino, OyenteProgreso oyente)
+            throws ExcepcionPersistencia, IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), 1 << 16);
+        exportarATxt(listarTodos(), escritor, oyente);
+    }
+    
+    /**
+     * Exporta el catálogo escribiendo cada línea directamente en el destino, sin armar el
+     * archivo completo en memoria. El destino se vacía pero no se cierra.
+     */
+    public void exportarATxt(Writer destino, OyenteProgreso oyente) throws ExcepcionPersistencia, IOException {
+        exportarATxt(listarTodos(), destino, oyente);
+    }
+    
+    private void exportarATxt(List<AnimeBase> animes, Writer destino, OyenteProgreso oyente) throws IOException {
+        int total = animes.size();
+        int intervaloProgreso = Math.max(1, total / 100);
         
-        sb.append("# Catálogo de Anime - Exportado\n");
-        sb.append("# Formato: TIPO|TITULO|AÑO|ESTUDIO|DURACION|GENEROS|ESTADO|CALIFICACION|EXTRA\n");
-        sb.append("#\n");
+        escribirEncabezadoTxt(destino);
         
-        for (AnimeBase anime : animes) {
-            sb.append(animeALinea(anime));
-            sb.append("\n");
+        StringBuilder linea = new StringBuilder(128);
+        for (int i = 0; i < total; i++) {
+            linea.setLength(0);
+            animeALinea(linea, animes.get(i));
+            linea.append('\n');
+            destino.append(linea);
+            
+            if ((i + 1) % intervaloProgreso == 0) {
+                oyente.progresoActualizado(i + 1, total);
+            }
         }
         
-        return sb.toString();
+        destino.flush();
+        oyente.progresoActualizado(total, total);
     }
     
-    private String animeALinea(AnimeBase anime) {
-        StringBuilder sb = new StringBuilder();
-        
+    static void escribirEncabezadoTxt(Writer destino) throws IOException {
+        destino.write("# Catálogo de Anime - Exportado\n");
+        destino.write("# Formato: TIPO|TITULO|AÑO|ESTUDIO|DURACION|GENEROS|ESTADO|CALIFICACION|EXTRA\n");
+        destino.write("#\n");
+    }
+    
+    /**
+     * Agrega la línea TXT del anime, sin el salto de línea final.
+     */
+    static void animeALinea(StringBuilder sb, AnimeBase anime) {
         sb.append(anime.obtenerTipo().name()).append("|");
         sb.append(anime.obtenerTitulo()).append("|");
         sb.append(anime.obtenerAnioLanzamiento()).append("|");
@@ -341,91 +542,177 @@ public class ServicioAnime {
         sb.append("|");
         
         sb.append(anime.obtenerEstado().name()).append("|");
-        sb.append(anime.tieneCalificacion() ? anime.obtenerCalificacion() : "0").append("|");
+        sb.append(anime.tieneCalificacion() ? anime.obtenerCalificacion() : 0).append("|");
         
         if (anime instanceof AnimeSerie) {
             sb.append(((AnimeSerie) anime).estaEnEmision());
         } else if (anime instanceof AnimePelicula) {
             sb.append(((AnimePelicula) anime).obtenerDirector());
         }
-        
-        return sb.toString();
     }
     
     public AnimeBase parsearLineaAnime(String linea) {
-        if (linea == null || linea.trim().isEmpty() || linea.trim().startsWith("#")) {
+        try {
+            return parser.parsearLinea(linea);
+        } catch (ExcepcionValidacion e) {
             return null;
         }
+    }
+    
+    public boolean registrarAnimeDirecto(AnimeBase anime) throws ExcepcionPersistencia {
+        if (repositorioAnime.existePorTitulo(anime.obtenerTitulo())) {
+            return false;
+        }
+        repositorioAnime.guardar(anime);
+        invalidarCatalogoColumnar();
+        return true;
+    }
+    
+    // ========== Importación por lotes ==========
+    
+    /**
+     * Importa un catálogo en formato TXT desde un archivo UTF-8. El archivo se parsea en
+     * paralelo y se confirma como una sola transacción.
+     */
+    public ResultadoImportacion importarDesdeArchivo(Path archivo) throws ExcepcionPersistencia {
+        ParserCatalogo.ResultadoParseo parseo = parser.parsearArchivo(archivo);
         
-        String[] partes = linea.split("\\|");
-        if (partes.length < 8) {
-            return null;
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        resultado.rechazadas.addAll(parseo.obtenerRechazadas());
+        
+        LoteImportacion lote = new LoteImportacion(repositorioAnime.obtenerTodos(), resultado);
+        List<AnimeBase> animes = parseo.obtenerAnimes();
+        for (int i = 0; i < animes.size(); i++) {
+            lote.incorporar(animes.get(i), parseo.obtenerNumeroLinea(i), null);
         }
         
-        try {
-            String tipo = partes[0].trim().toUpperCase();
-            String titulo = partes[1].trim();
-            int anio = Integer.parseInt(partes[2].trim());
-            String estudio = partes[3].trim();
-            int duracion = Integer.parseInt(partes[4].trim());
+        resultado.rechazadas.sort(Comparator.comparingInt(LineaRechazada::obtenerNumeroLinea));
+        lote.confirmar();
+        return resultado;
+    }
+    
+    /**
+     * Importa líneas en formato TXT como una sola transacción: parsea, valida y descarta
+     * duplicados en memoria, y confirma todo el lote con una única escritura.
+     * Si la escritura falla no se importa ninguna línea.
+     */
+    public ResultadoImportacion importarLote(Stream<String> lineas) throws ExcepcionPersistencia {
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        LoteImportacion lote = new LoteImportacion(repositorioAnime.obtenerTodos(), resultado);
+        int numeroLinea = 0;
+        
+        Iterator<String> iterador = lineas.iterator();
+        while (iterador.hasNext()) {
+            String linea = iterador.next();
+            numeroLinea++;
             
-            Set<Genero> generos = new HashSet<>();
-            String[] generosStr = partes[5].split(",");
-            for (String g : generosStr) {
-                try {
-                    generos.add(Genero.valueOf(g.trim().toUpperCase()));
-                } catch (IllegalArgumentException e) {
-                    // Ignorar género inválido
+            try {
+                AnimeBase anime = parser.parsearLinea(linea);
+                if (anime != null) {
+                    lote.incorporar(anime, numeroLinea, linea);
                 }
+            } catch (ExcepcionValidacion e) {
+                resultado.rechazadas.add(new LineaRechazada(numeroLinea, linea, e.getMessage()));
             }
-            if (generos.isEmpty()) {
-                generos.add(Genero.SHONEN);
-            }
-            
-            Estado estado = Estado.POR_VER;
-            try {
-                estado = Estado.valueOf(partes[6].trim().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                // Usar default
+        }
+        
+        lote.confirmar();
+        return resultado;
+    }
+    
+    /**
+     * Acumula en memoria los anime de una importación y los confirma con una única escritura.
+     */
+    private class LoteImportacion {
+        private final List<AnimeBase> catalogo;
+        private final Set<String> titulos;
+        private final ResultadoImportacion resultado;
+        
+        LoteImportacion(List<AnimeBase> catalogo, ResultadoImportacion resultado) {
+            this.catalogo = catalogo;
+            this.titulos = new HashSet<>();
+            this.resultado = resultado;
+            for (AnimeBase anime : catalogo) {
+                titulos.add(IndiceTitulos.normalizar(anime.obtenerTitulo()));
             }
-            
-            int calificacion = 0;
+        }
+        
+        void incorporar(AnimeBase anime, int numeroLinea, String linea) {
             try {
-                calificacion = Integer.parseInt(partes[7].trim());
-            } catch (NumberFormatException e) {
-                // Sin calificación
+                validarAnimeImportado(anime);
+            } catch (ExcepcionValidacion e) {
+                resultado.rechazadas.add(new LineaRechazada(numeroLinea,
+                    linea != null ? linea : anime.toString(), e.getMessage()));
+                return;
             }
             
-            String extra = partes.length > 8 ? partes[8].trim() : "";
-            
-            AnimeBase anime;
-            if (tipo.equals("SERIE")) {
-                boolean enEmision = extra.equalsIgnoreCase("true");
-                anime = new AnimeSerie(titulo, anio, estudio, duracion, generos, enEmision);
-            } else if (tipo.equals("PELICULA")) {
-                anime = new AnimePelicula(titulo, anio, estudio, duracion, generos, extra);
+            if (titulos.add(IndiceTitulos.normalizar(anime.obtenerTitulo()))) {
+                catalogo.add(anime);
+                resultado.importados++;
             } else {
-                return null;
+                resultado.duplicados++;
             }
-            
-            anime.establecerEstado(estado);
-            if (calificacion >= AnimeBase.CALIFICACION_MINIMA && calificacion <= AnimeBase.CALIFICACION_MAXIMA) {
-                anime.establecerCalificacion(calificacion);
+        }
+        
+        void confirmar() throws ExcepcionPersistencia {
+            if (resultado.importados > 0) {
+                invalidarCatalogoColumnar();
+                repositorioAnime.guardarTodos(catalogo);
             }
-            
-            return anime;
-            
-        } catch (Exception e) {
-            return null;
         }
     }
     
-    public boolean registrarAnimeDirecto(AnimeBase anime) throws ExcepcionPersistencia {
-        if (repositorioAnime.existePorTitulo(anime.obtenerTitulo())) {
-            return false;
+    private void validarAnimeImportado(AnimeBase anime) throws ExcepcionValidacion {
+        validarTitulo(anime.obtenerTitulo());
+        validarAnio(anime.obtenerAnioLanzamiento());
+        if (anime instanceof AnimeSerie) {
+            validarCapitulos(anime.obtenerDuracion());
+        } else {
+            validarDuracion(anime.obtenerDuracion());
+        }
+    }
+    
+    /**
+     * Línea descartada durante una importación, con su número y el motivo.
+     */
+    public static class LineaRechazada {
+        private final int numeroLinea;
+        private final String linea;
+        private final String motivo;
+        
+        public LineaRechazada(int numeroLinea, String linea, String motivo) {
+            this.numeroLinea = numeroLinea;
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+        
+        public int obtenerNumeroLinea() { return numeroLinea; }
+        public String obtenerLinea() { return linea; }
+        public String obtenerMotivo() { return motivo; }
+        
+        @Override
+        public String toString() {
+            return "Línea " + numeroLinea + ": " + motivo;
+        }
+    }
+    
+    /**
+     * Clase interna que encapsula el resultado de una importación por lotes.
+     */
+    public static class ResultadoImportacion {
+        private int importados;
+        private int duplicados;
+        private final List<LineaRechazada> rechazadas = new ArrayList<>();
+        
+        public int obtenerImportados() { return importados; }
+        public int obtenerDuplicados() { return duplicados; }
+        public List<LineaRechazada> obtenerRechazadas() { return Collections.unmodifiableList(rechazadas); }
+        
+        @Override
+        public String toString() {
+            return String.format("Importados: %d, duplicados: %d, rechazadas: %d",
+                importados, duplicados, rechazadas.size());
         }
-        repositorioAnime.guardar(anime);
-        return true;
     }
 }
 
@@ -4,23 +4,59 @@ import modelo.AnimeBase;
 import modelo.Estado;
 import modelo.Genero;
 import repositorio.RepositorioAnime;
+import repositorio.SuscriptorCambiosCatalogo;
 import excepcion.ExcepcionPersistencia;
+import utilidad.SeleccionTopK;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * Servicio que proporciona estadísticas sobre el catálogo de anime.
  */
 public class ServicioEstadisticas {
     
+    /** Tamaño de catálogo a partir del cual el resumen se calcula en paralelo. */
+    private static final int UMBRAL_RESUMEN_PARALELO = 200_000;
+    
     private final RepositorioAnime repositorioAnime;
+    private final AgregadosEstadisticas agregados;
     
     public ServicioEstadisticas(RepositorioAnime repositorioAnime) {
         this.repositorioAnime = repositorioAnime;
+        AgregadosEstadisticas incrementales = new AgregadosEstadisticas();
+        this.agregados = repositorioAnime.agregarOyente(incrementales) ? incrementales : null;
+    }
+    
+    /**
+     * Retorna los agregados mantenidos por las notificaciones del repositorio, o null si el
+     * repositorio no admite oyentes y hay que recorrer el catálogo.
+     */
+    private AgregadosEstadisticas agregadosIncrementales() throws ExcepcionPersistencia {
+        if (agregados != null) {
+            // Fuerza la carga diferida del repositorio, que notifica el catálogo a los agregados
+            repositorioAnime.contar();
+        }
+        return agregados;
+    }
+    
+    /**
+     * Suscribe a los cambios del catálogo, entregados en orden por el ejecutor dado, para
+     * saber cuándo vuelven a cambiar las estadísticas.
+     *
+     * @return false si el repositorio no publica sus cambios
+     */
+    public boolean suscribirCambios(SuscriptorCambiosCatalogo suscriptor, Executor ejecutor) {
+        return repositorioAnime.suscribirAsincrono(suscriptor, ejecutor);
     }
     
     public double obtenerPromedioCalificacionGlobal() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return agregados.obtenerPromedioCalificacion();
+        }
+        
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         
         int suma = 0;
         int cantidad = 0;
@@ -40,7 +76,12 @@ public class ServicioEstadisticas {
     }
     
     public double obtenerPromedioCalificacionPorGenero(Genero genero) throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return genero != null ? agregados.obtenerPromedioCalificacion(genero) : 0.0;
+        }
+        
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         
         int suma = 0;
         int cantidad = 0;
@@ -73,7 +114,12 @@ public class ServicioEstadisticas {
     }
     
     public Map<Estado, Long> obtenerCantidadPorEstado() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return agregados.obtenerCantidadPorEstado();
+        }
+        
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         
         Map<Estado, Long> conteo = new EnumMap<>(Estado.class);
         for (Estado estado : Estado.values()) {
@@ -88,8 +134,21 @@ public class ServicioEstadisticas {
         return conteo;
     }
     
+    /**
+     * Cantidad de anime por estudio, de más a menos frecuente. Los anime hechos entre varios
+     * estudios ("Wit Studio / MAPPA") cuentan para cada uno.
+     */
+    public Map<String, Long> obtenerCantidadPorEstudio() throws ExcepcionPersistencia {
+        return ConsultasPorRecorrido.para(repositorioAnime).contarPorEstudio();
+    }
+    
     public List<Map.Entry<Genero, Long>> obtenerTop3GenerosMasFrecuentes() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return agregados.obtenerTopGeneros(3);
+        }
+        
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         
         Map<Genero, Long> conteoGeneros = new EnumMap<>(Genero.class);
         
@@ -104,24 +163,27 @@ public class ServicioEstadisticas {
             }
         }
         
-        List<Map.Entry<Genero, Long>> listaOrdenada = new ArrayList<>(conteoGeneros.entrySet());
-        Collections.sort(listaOrdenada, new Comparator<Map.Entry<Genero, Long>>() {
-            @Override
-            public int compare(Map.Entry<Genero, Long> e1, Map.Entry<Genero, Long> e2) {
-                return e2.getValue().compareTo(e1.getValue());
-            }
-        });
-        
-        List<Map.Entry<Genero, Long>> top3 = new ArrayList<>();
-        for (int i = 0; i < Math.min(3, listaOrdenada.size()); i++) {
-            top3.add(listaOrdenada.get(i));
+        SeleccionTopK<Map.Entry<Genero, Long>> top3 = SeleccionTopK.conComparador(3,
+            new Comparator<Map.Entry<Genero, Long>>() {
+                @Override
+                public int compare(Map.Entry<Genero, Long> e1, Map.Entry<Genero, Long> e2) {
+                    return e2.getValue().compareTo(e1.getValue());
+                }
+            });
+        for (Map.Entry<Genero, Long> entrada : conteoGeneros.entrySet()) {
+            top3.ofrecer(entrada);
         }
         
-        return top3;
+        return top3.obtenerResultado();
     }
     
     public Map<Genero, Long> obtenerDistribucionGeneros() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return agregados.obtenerDistribucionGeneros();
+        }
+        
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         
         Map<Genero, Long> distribucion = new EnumMap<>(Genero.class);
         
@@ -140,51 +202,40 @@ public class ServicioEstadisticas {
     }
     
     public ResumenEstadisticas obtenerResumenEstadisticas() throws ExcepcionPersistencia {
-        List<AnimeBase> animes = repositorioAnime.obtenerTodos();
-        
-        int totalAnimes = animes.size();
-        
-        int animesCalificados = 0;
-        for (AnimeBase anime : animes) {
-            if (anime.tieneCalificacion()) {
-                animesCalificados++;
-            }
+        AgregadosEstadisticas agregados = agregadosIncrementales();
+        if (agregados != null) {
+            return new ResumenEstadisticas(
+                agregados.obtenerTotal(),
+                agregados.obtenerCalificados(),
+                agregados.obtenerPromedioCalificacion(),
+                agregados.obtenerCantidadPorEstado(),
+                agregados.obtenerTopGeneros(3),
+                agregados.obtenerMasAntiguo(),
+                agregados.obtenerMasNuevo(),
+                agregados.obtenerMejorCalificado()
+            );
         }
         
-        double promedioGlobal = obtenerPromedioCalificacionGlobal();
-        Map<Estado, Long> porEstado = obtenerCantidadPorEstado();
-        List<Map.Entry<Genero, Long>> topGeneros = obtenerTop3GenerosMasFrecuentes();
-        
-        AnimeBase masAntiguo = null;
-        AnimeBase masNuevo = null;
-        AnimeBase mejorCalificado = null;
-        
-        for (AnimeBase anime : animes) {
-            if (masAntiguo == null || anime.obtenerAnioLanzamiento() < masAntiguo.obtenerAnioLanzamiento()) {
-                masAntiguo = anime;
-            }
-            
-            if (masNuevo == null || anime.obtenerAnioLanzamiento() > masNuevo.obtenerAnioLanzamiento()) {
-                masNuevo = anime;
-            }
-            
-            if (anime.tieneCalificacion()) {
-                if (mejorCalificado == null || anime.obtenerCalificacion() > mejorCalificado.obtenerCalificacion()) {
-                    mejorCalificado = anime;
-                }
-            }
+        List<AnimeBase> animes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
+        if (animes.size() >= UMBRAL_RESUMEN_PARALELO) {
+            return calcularResumenEnParalelo(animes);
         }
-        
-        return new ResumenEstadisticas(
-            totalAnimes,
-            animesCalificados,
-            promedioGlobal,
-            porEstado,
-            topGeneros,
-            masAntiguo,
-            masNuevo,
-            mejorCalificado
-        );
+        return calcularResumen(animes);
+    }
+    
+    /**
+     * Calcula el resumen de una lista de anime en una sola pasada.
+     */
+    public static ResumenEstadisticas calcularResumen(List<AnimeBase> animes) {
+        return AcumuladorResumen.resumir(animes);
+    }
+    
+    /**
+     * Calcula el resumen repartiendo la lista en tramos entre los hilos del pool común
+     * y combinando los resultados parciales. Da el mismo resultado que calcularResumen.
+     */
+    public static ResumenEstadisticas calcularResumenEnParalelo(List<AnimeBase> animes) {
+        return AcumuladorResumen.resumirEnParalelo(animes);
     }
     
     /**
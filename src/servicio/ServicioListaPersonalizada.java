@@ -143,6 +143,13 @@ public class ServicioListaPersonalizada {
         return repositorioLista.contar();
     }
     
+    /**
+     * Espera a que estén escritas las listas modificadas hasta ahora.
+     */
+    public void confirmarEscrituras() throws ExcepcionPersistencia {
+        repositorioLista.confirmarEscrituras();
+    }
+    
     // ========== Métodos privados ==========
     
     private void validarNombreLista(String nombre) throws ExcepcionValidacion {
@@ -156,7 +163,7 @@ public class ServicioListaPersonalizada {
         
         AnimeBase anime = repositorioAnime.buscarPorTitulo(titulo);
         if (anime == null) {
-            throw new ExcepcionAnimeNoEncontrado(titulo);
+            throw new ExcepcionAnimeNoEncontrado(titulo, SugerenciasTitulo.parecidos(repositorioAnime, titulo));
         }
         return anime;
     }
@@ -3,43 +3,77 @@ package servicio;
 import modelo.AnimeBase;
 import modelo.Genero;
 import modelo.Estado;
+import repositorio.ConsultasAtributos;
+import repositorio.ConsultasCatalogo;
 import repositorio.RepositorioAnime;
 import excepcion.ExcepcionPersistencia;
 import utilidad.*;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio que coordina los casos de uso de recomendación.
+ *
+ * Si el repositorio publica sus cambios, los tops por calificación se conservan hasta la
+ * siguiente modificación del catálogo.
  */
 public class ServicioRecomendacion {
     
     private final RepositorioAnime repositorioAnime;
+    private final ConsultasCatalogo consultas;
+    private final EstadisticasVigentes estadisticas;
+    
+    /** Tops calculados desde el último cambio del catálogo */
+    private final Map<String, List<AnimeBase>> tops;
+    private final boolean conservarTops;
+    private long cambiosRecibidos;
     
     public ServicioRecomendacion(RepositorioAnime repositorioAnime) {
         this.repositorioAnime = repositorioAnime;
+        this.consultas = ConsultasPorRecorrido.para(repositorioAnime);
+        this.estadisticas = new EstadisticasVigentes(repositorioAnime);
+        this.tops = new HashMap<>();
+        this.conservarTops = repositorioAnime.suscribir(cambio -> descartarTops());
     }
     
     public List<AnimeBase> obtenerRecomendaciones(CriterioRecomendacion criterio, int cantidad)
             throws ExcepcionPersistencia {
         
-        List<AnimeBase> todosLosAnimes = repositorioAnime.obtenerTodos();
+        List<AnimeBase> todosLosAnimes = repositorioAnime.obtenerInstantanea().obtenerAnimes();
         return criterio.recomendar(todosLosAnimes, cantidad);
     }
     
     public List<AnimeBase> obtenerTopGlobal(int cantidad) throws ExcepcionPersistencia {
-        return obtenerRecomendaciones(new RecomendacionTopGlobal(), cantidad);
+        return obtenerTop("global:" + cantidad, () -> {
+            List<AnimeBase> calificados = consultas.buscarPorAtributos(
+                null, 0, 0, AnimeBase.CALIFICACION_MINIMA);
+            return new RecomendacionTopGlobal().recomendar(calificados, cantidad);
+        });
     }
     
     public List<AnimeBase> obtenerTopPorGenero(Genero genero, int cantidad) throws ExcepcionPersistencia {
-        return obtenerRecomendaciones(new RecomendacionTopPorGenero(genero), cantidad);
+        if (genero == null) {
+            return new ArrayList<>();
+        }
+        return obtenerTop("genero:" + genero.name() + ":" + cantidad, () -> {
+            List<AnimeBase> candidatos = consultas.buscarPorAtributos(
+                null, genero.obtenerMascara(), 0, AnimeBase.CALIFICACION_MINIMA);
+            return new RecomendacionTopPorGenero(genero).recomendar(candidatos, cantidad);
+        });
     }
     
     public List<AnimeBase> obtenerTopPorEstado(Estado estado, int cantidad) throws ExcepcionPersistencia {
-        return obtenerRecomendaciones(new RecomendacionPorEstado(estado), cantidad);
+        if (estado == null) {
+            return new ArrayList<>();
+        }
+        return obtenerTop("estado:" + estado.name() + ":" + cantidad, () -> {
+            List<AnimeBase> candidatos = consultas.buscarPorAtributos(
+                estado, 0, 0, AnimeBase.CALIFICACION_MINIMA);
+            return new RecomendacionPorEstado(estado).recomendar(candidatos, cantidad);
+        });
     }
     
     public List<AnimeBase> obtenerRecomendacionesAvanzadas(Genero genero, Integer calificacionMinima,
@@ -52,28 +86,68 @@ public class ServicioRecomendacion {
             .porCalificacionMinima(calificacionMinima)
             .soloCalificados();
         
-        List<AnimeBase> todos = repositorioAnime.obtenerTodos();
-        List<AnimeBase> filtrados = new ArrayList<>();
+        SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.porCalificacion(cantidad);
         
-        for (AnimeBase anime : todos) {
-            if (filtro.cumpleFiltro(anime)) {
-                filtrados.add(anime);
+        if (repositorioAnime instanceof ConsultasAtributos) {
+            // Todos los criterios son indexables: se resuelven directamente en el repositorio
+            List<AnimeBase> filtrados = consultas.buscarPorAtributos(
+                filtro.obtenerEstado(),
+                filtro.obtenerMascaraGenerosRequeridos(),
+                filtro.obtenerMascaraGenerosAlguno(),
+                filtro.obtenerCalificacionMinimaRequerida());
+            for (AnimeBase anime : filtrados) {
+                seleccion.ofrecer(anime);
             }
+            return seleccion.obtenerResultado();
         }
         
-        Collections.sort(filtrados, new Comparator<AnimeBase>() {
-            @Override
-            public int compare(AnimeBase a1, AnimeBase a2) {
-                return Integer.compare(a2.obtenerCalificacion(), a1.obtenerCalificacion());
+        // Sin índices se recorre la instantánea con el filtro compilado, sin lista intermedia
+        FiltroCompilado compilado = filtro.compilar(estadisticas.obtener());
+        for (AnimeBase anime : repositorioAnime.obtenerInstantanea().obtenerAnimes()) {
+            if (compilado.test(anime)) {
+                seleccion.ofrecer(anime);
             }
-        });
-        
-        List<AnimeBase> resultado = new ArrayList<>();
-        for (int i = 0; i < Math.min(cantidad, filtrados.size()); i++) {
-            resultado.add(filtrados.get(i));
+        }
+        return seleccion.obtenerResultado();
+    }
+    
+    // ========== Tops conservados ==========
+    
+    /**
+     * Cálculo de un top a partir del repositorio.
+     */
+    @FunctionalInterface
+    private interface CalculoTop {
+        List<AnimeBase> calcular() throws ExcepcionPersistencia;
+    }
+    
+    private List<AnimeBase> obtenerTop(String clave, CalculoTop calculo) throws ExcepcionPersistencia {
+        if (!conservarTops) {
+            return calculo.calcular();
+        }
+        long cambiosPrevios;
+        synchronized (tops) {
+            List<AnimeBase> conservado = tops.get(clave);
+            if (conservado != null) {
+                return new ArrayList<>(conservado);
+            }
+            cambiosPrevios = cambiosRecibidos;
         }
         
-        return resultado;
+        List<AnimeBase> top = calculo.calcular();
+        synchronized (tops) {
+            // Si el catálogo cambió durante el cálculo el resultado puede no reflejarlo
+            if (cambiosRecibidos == cambiosPrevios) {
+                tops.put(clave, new ArrayList<>(top));
+            }
+        }
+        return top;
+    }
+    
+    private void descartarTops() {
+        synchronized (tops) {
+            cambiosRecibidos++;
+            tops.clear();
+        }
     }
 }
-
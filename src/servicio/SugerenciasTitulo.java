@@ -0,0 +1,67 @@
+package servicio;
+
+import modelo.AnimeBase;
+import repositorio.ConsultasCatalogo;
+import repositorio.IndiceTitulos;
+import repositorio.RepositorioAnime;
+import excepcion.ExcepcionPersistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Títulos existentes parecidos a uno que no se encontró, para sugerirlos como "¿quisiste
+ * decir...?".
+ *
+ * Primero van los títulos a poca distancia de edición (errores de tipeo, espacios de más o de
+ * menos) y después los que contienen el título buscado, para cuando se escribió sólo una parte
+ * de un título largo.
+ */
+final class SugerenciasTitulo {
+    
+    /** Cantidad de sugerencias que acompañan a un anime no encontrado */
+    static final int MAXIMO_SUGERENCIAS = 5;
+    
+    private SugerenciasTitulo() {
+    }
+    
+    static List<String> parecidos(RepositorioAnime repositorio, String titulo) throws ExcepcionPersistencia {
+        return parecidos(repositorio, titulo, MAXIMO_SUGERENCIAS);
+    }
+    
+    static List<String> parecidos(RepositorioAnime repositorio, String titulo, int limite)
+            throws ExcepcionPersistencia {
+        List<String> sugerencias = new ArrayList<>();
+        String consulta = titulo != null ? IndiceTitulos.normalizar(titulo) : "";
+        if (consulta.isEmpty() || limite <= 0) {
+            return sugerencias;
+        }
+        
+        ConsultasCatalogo consultas = ConsultasPorRecorrido.para(repositorio);
+        for (AnimeBase anime : consultas.buscarPorTituloAproximado(consulta, distanciaMaxima(consulta), limite)) {
+            sugerencias.add(anime.obtenerTitulo());
+        }
+        if (sugerencias.size() < limite && consulta.length() >= 3) {
+            for (AnimeBase anime : consultas.buscarPorTituloContiene(consulta)) {
+                if (sugerencias.size() == limite) {
+                    break;
+                }
+                if (!sugerencias.contains(anime.obtenerTitulo())) {
+                    sugerencias.add(anime.obtenerTitulo());
+                }
+            }
+        }
+        return sugerencias;
+    }
+    
+    /**
+     * Los títulos cortos admiten menos errores: a "abc" cualquier título de tres letras le
+     * queda a distancia tres.
+     */
+    static int distanciaMaxima(String consulta) {
+        if (consulta.length() <= 4) {
+            return 1;
+        }
+        return consulta.length() <= 10 ? 2 : 3;
+    }
+}
@@ -0,0 +1,282 @@
+package utilidad;
+
+import modelo.AnimeBase;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Instantánea columnar e inmutable del catálogo para filtrar y ordenar sin recorrer objetos.
+ *
+ * Cada atributo filtrable se guarda en un arreglo primitivo indexado por fila; los estudios
+ * se codifican con un diccionario. Los filtros producen un {@link BitSet} de filas que
+ * coinciden y sólo al final se materializan los anime correspondientes.
+ */
+public final class CatalogoColumnar {
+    
+    private final AnimeBase[] animes;
+    private final int tamanio;
+    
+    final int[] anios;
+    final byte[] calificaciones;
+    final byte[] estados;
+    final int[] mascarasGeneros;
+    final int[] estudios;
+    final String[] diccionarioEstudios;
+    final String[] titulosEnMinusculas;
+    
+    private CatalogoColumnar(AnimeBase[] animes) {
+        this.animes = animes;
+        this.tamanio = animes.length;
+        this.anios = new int[tamanio];
+        this.calificaciones = new byte[tamanio];
+        this.estados = new byte[tamanio];
+        this.mascarasGeneros = new int[tamanio];
+        this.estudios = new int[tamanio];
+        this.titulosEnMinusculas = new String[tamanio];
+        
+        Map<String, Integer> idsEstudio = new HashMap<>();
+        List<String> nombresEstudio = new ArrayList<>();
+        for (int i = 0; i < tamanio; i++) {
+            AnimeBase anime = animes[i];
+            anios[i] = anime.obtenerAnioLanzamiento();
+            calificaciones[i] = (byte) anime.obtenerCalificacion();
+            estados[i] = (byte) anime.obtenerEstado().ordinal();
+            mascarasGeneros[i] = anime.obtenerMascaraGeneros();
+            titulosEnMinusculas[i] = anime.obtenerTitulo().toLowerCase(Locale.ROOT);
+            
+            String estudio = anime.obtenerEstudio() != null ? anime.obtenerEstudio() : "";
+            Integer id = idsEstudio.get(estudio);
+            if (id == null) {
+                id = nombresEstudio.size();
+                idsEstudio.put(estudio, id);
+                nombresEstudio.add(estudio);
+            }
+            estudios[i] = id;
+        }
+        this.diccionarioEstudios = nombresEstudio.toArray(new String[0]);
+    }
+    
+    /**
+     * Construye la instantánea a partir de los anime en el orden dado.
+     */
+    public static CatalogoColumnar construir(Collection<AnimeBase> animes) {
+        return new CatalogoColumnar(animes.toArray(new AnimeBase[0]));
+    }
+    
+    public int tamanio() {
+        return tamanio;
+    }
+    
+    public AnimeBase obtener(int fila) {
+        return animes[fila];
+    }
+    
+    /**
+     * Evalúa el filtro sobre todas las filas.
+     */
+    public BitSet filtrar(FiltroAnime filtro) {
+        return filtro.filtrar(this);
+    }
+    
+    /**
+     * Retorna los anime de las filas marcadas, en el orden del catálogo.
+     */
+    public List<AnimeBase> obtenerFilas(BitSet filas) {
+        List<AnimeBase> resultado = new ArrayList<>(filas.cardinality());
+        for (int i = filas.nextSetBit(0); i >= 0 && i < tamanio; i = filas.nextSetBit(i + 1)) {
+            resultado.add(animes[i]);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Retorna los anime de las filas marcadas ordenados según el criterio. El orden es estable,
+     * igual que {@link Collections#sort}. Los criterios por año y por calificación se
+     * resuelven con un ordenamiento por conteo sobre las columnas; el resto compara objetos.
+     */
+    public List<AnimeBase> ordenar(BitSet filas, CriterioOrdenamiento criterio) {
+        if (criterio instanceof OrdenamientoPorCalificacion) {
+            // Las claves 0..MAX-1 son las calificaciones en el orden pedido; sin calificar al final
+            int sinCalificar = AnimeBase.CALIFICACION_MAXIMA;
+            boolean descendente = ((OrdenamientoPorCalificacion) criterio).esDescendente();
+            return ordenarPorConteo(filas, sinCalificar + 1, fila -> {
+                int calificacion = calificaciones[fila];
+                if (calificacion <= 0) {
+                    return sinCalificar;
+                }
+                return descendente ? AnimeBase.CALIFICACION_MAXIMA - calificacion : calificacion - 1;
+            });
+        }
+        if (criterio instanceof OrdenamientoPorAnio) {
+            int minimo = Integer.MAX_VALUE;
+            int maximo = Integer.MIN_VALUE;
+            for (int i = filas.nextSetBit(0); i >= 0 && i < tamanio; i = filas.nextSetBit(i + 1)) {
+                minimo = Math.min(minimo, anios[i]);
+                maximo = Math.max(maximo, anios[i]);
+            }
+            if (minimo > maximo) {
+                return new ArrayList<>();
+            }
+            if ((long) maximo - minimo < tamanio + 1024L) {
+                int desde = minimo;
+                int hasta = maximo;
+                boolean descendente = ((OrdenamientoPorAnio) criterio).esDescendente();
+                return ordenarPorConteo(filas, hasta - desde + 1,
+                    fila -> descendente ? hasta - anios[fila] : anios[fila] - desde);
+            }
+        }
+        
+        List<AnimeBase> resultado = obtenerFilas(filas);
+        Collections.sort(resultado, criterio);
+        return resultado;
+    }
+    
+    /**
+     * Ordenamiento estable por conteo: la clave de cada fila es su posición relativa
+     * (0..cantidadClaves-1) en el orden final.
+     */
+    private List<AnimeBase> ordenarPorConteo(BitSet filas, int cantidadClaves, IntUnaryOperator clave) {
+        int[] inicios = new int[cantidadClaves + 1];
+        for (int i = filas.nextSetBit(0); i >= 0 && i < tamanio; i = filas.nextSetBit(i + 1)) {
+            inicios[clave.applyAsInt(i) + 1]++;
+        }
+        for (int k = 1; k <= cantidadClaves; k++) {
+            inicios[k] += inicios[k - 1];
+        }
+        
+        AnimeBase[] ordenados = new AnimeBase[inicios[cantidadClaves]];
+        for (int i = filas.nextSetBit(0); i >= 0 && i < tamanio; i = filas.nextSetBit(i + 1)) {
+            ordenados[inicios[clave.applyAsInt(i)]++] = animes[i];
+        }
+        return new ArrayList<>(Arrays.asList(ordenados));
+    }
+    
+    // ========== Evaluación de predicados ==========
+    
+    /**
+     * Crea el conjunto de palabras con todas las filas marcadas.
+     */
+    long[] todasLasFilas() {
+        long[] palabras = new long[(tamanio + 63) >>> 6];
+        Arrays.fill(palabras, -1L);
+        if ((tamanio & 63) != 0) {
+            palabras[palabras.length - 1] = (1L << (tamanio & 63)) - 1;
+        }
+        return palabras;
+    }
+    
+    void retenerAnios(long[] palabras, int desde, int hasta) {
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p] == 0) {
+                continue;
+            }
+            int base = p << 6;
+            int fin = Math.min(base + 64, tamanio);
+            long coincidencias = 0;
+            for (int i = base; i < fin; i++) {
+                int anio = anios[i];
+                if (anio >= desde && anio <= hasta) {
+                    coincidencias |= 1L << (i - base);
+                }
+            }
+            palabras[p] &= coincidencias;
+        }
+    }
+    
+    void retenerCalificacionMinima(long[] palabras, int minima) {
+        int minimaEfectiva = Math.max(minima, AnimeBase.CALIFICACION_MINIMA);
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p] == 0) {
+                continue;
+            }
+            int base = p << 6;
+            int fin = Math.min(base + 64, tamanio);
+            long coincidencias = 0;
+            for (int i = base; i < fin; i++) {
+                if (calificaciones[i] >= minimaEfectiva) {
+                    coincidencias |= 1L << (i - base);
+                }
+            }
+            palabras[p] &= coincidencias;
+        }
+    }
+    
+    void retenerEstado(long[] palabras, int ordinal) {
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p] == 0) {
+                continue;
+            }
+            int base = p << 6;
+            int fin = Math.min(base + 64, tamanio);
+            long coincidencias = 0;
+            for (int i = base; i < fin; i++) {
+                if (estados[i] == ordinal) {
+                    coincidencias |= 1L << (i - base);
+                }
+            }
+            palabras[p] &= coincidencias;
+        }
+    }
+    
+    /**
+     * Retiene las filas con alguno (o todos) los géneros de la máscara.
+     */
+    void retenerGeneros(long[] palabras, int mascara, boolean todos) {
+        int esperado = todos ? mascara : 0;
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p] == 0) {
+                continue;
+            }
+            int base = p << 6;
+            int fin = Math.min(base + 64, tamanio);
+            long coincidencias = 0;
+            for (int i = base; i < fin; i++) {
+                int interseccion = mascarasGeneros[i] & mascara;
+                if (todos ? interseccion == esperado : interseccion != 0) {
+                    coincidencias |= 1L << (i - base);
+                }
+            }
+            palabras[p] &= coincidencias;
+        }
+    }
+    
+    /**
+     * Retiene las filas cuyo estudio contiene el texto (ya en minúsculas). El texto se
+     * compara una vez por entrada del diccionario, no por fila.
+     */
+    void retenerEstudio(long[] palabras, String textoEnMinusculas) {
+        boolean[] estudioCoincide = new boolean[diccionarioEstudios.length];
+        for (int id = 0; id < diccionarioEstudios.length; id++) {
+            estudioCoincide[id] = diccionarioEstudios[id].toLowerCase(Locale.ROOT).contains(textoEnMinusculas);
+        }
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p] == 0) {
+                continue;
+            }
+            int base = p << 6;
+            int fin = Math.min(base + 64, tamanio);
+            long coincidencias = 0;
+            for (int i = base; i < fin; i++) {
+                if (estudioCoincide[estudios[i]]) {
+                    coincidencias |= 1L << (i - base);
+                }
+            }
+            palabras[p] &= coincidencias;
+        }
+    }
+    
+    void retenerTitulo(long[] palabras, String textoEnMinusculas) {
+        for (int p = 0; p < palabras.length; p++) {
+            long palabra = palabras[p];
+            int base = p << 6;
+            while (palabra != 0) {
+                int bit = Long.numberOfTrailingZeros(palabra);
+                palabra &= palabra - 1;
+                if (!titulosEnMinusculas[base + bit].contains(textoEnMinusculas)) {
+                    palabras[p] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+}
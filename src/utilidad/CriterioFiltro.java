@@ -0,0 +1,35 @@
+package utilidad;
+
+/**
+ * Criterios que puede combinar un {@link FiltroAnime}, con el costo relativo de evaluarlos
+ * sobre una fila.
+ */
+public enum CriterioFiltro {
+    ESTADO("estado", 1),
+    GENEROS_REQUERIDOS("géneros requeridos", 1),
+    GENEROS_ALGUNO("algún género", 1),
+    CALIFICACION("calificación", 1),
+    ANIOS("años", 1),
+    // Los criterios de texto pasan a minúsculas y buscan una subcadena en cada fila
+    ESTUDIO("estudio", 8),
+    TITULO("título", 10);
+    
+    private final String descripcion;
+    private final int costo;
+    
+    CriterioFiltro(String descripcion, int costo) {
+        this.descripcion = descripcion;
+        this.costo = costo;
+    }
+    
+    public String obtenerDescripcion() {
+        return descripcion;
+    }
+    
+    /**
+     * Costo de evaluar el criterio sobre una fila, relativo a comparar un entero.
+     */
+    public int obtenerCosto() {
+        return costo;
+    }
+}
@@ -0,0 +1,177 @@
+package utilidad;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+import modelo.Genero;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Distribución de estados, géneros, calificaciones y años de un catálogo, usada para
+ * estimar qué fracción de las filas deja pasar cada criterio de un filtro.
+ *
+ * Es una foto inmutable: sirve mientras el catálogo no cambie demasiado, porque sólo decide
+ * en qué orden se evalúan los criterios y no qué filas cumplen.
+ */
+public final class EstadisticasCatalogo {
+    
+    /** Fracción supuesta cuando no hay datos para estimar */
+    static final double SELECTIVIDAD_DESCONOCIDA = 0.5;
+    
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Genero[] GENEROS = Genero.values();
+    
+    private final int total;
+    private final long[] porEstado;
+    private final long[] porGenero;
+    /** En la posición k, los anime calificados con k o más */
+    private final long[] calificadosDesde;
+    /** Años distintos, ordenados, y cuántos anime hay hasta cada uno inclusive */
+    private final int[] anios;
+    private final long[] acumuladoAnios;
+    
+    private EstadisticasCatalogo(int total, long[] porEstado, long[] porGenero,
+                                 long[] calificadosDesde, int[] anios, long[] acumuladoAnios) {
+        this.total = total;
+        this.porEstado = porEstado;
+        this.porGenero = porGenero;
+        this.calificadosDesde = calificadosDesde;
+        this.anios = anios;
+        this.acumuladoAnios = acumuladoAnios;
+    }
+    
+    /**
+     * Estadísticas de un catálogo vacío: todos los criterios se estiman con la misma
+     * fracción y el orden lo decide sólo el costo.
+     */
+    public static EstadisticasCatalogo sinDatos() {
+        return new EstadisticasCatalogo(0, new long[ESTADOS.length], new long[GENEROS.length],
+            new long[AnimeBase.CALIFICACION_MAXIMA + 1], new int[0], new long[0]);
+    }
+    
+    /**
+     * Calcula las estadísticas en una pasada sobre los anime.
+     */
+    public static EstadisticasCatalogo de(Collection<AnimeBase> animes) {
+        long[] porEstado = new long[ESTADOS.length];
+        long[] porGenero = new long[GENEROS.length];
+        long[] calificadosDesde = new long[AnimeBase.CALIFICACION_MAXIMA + 1];
+        int[] anios = new int[animes.size()];
+        
+        int total = 0;
+        for (AnimeBase anime : animes) {
+            porEstado[anime.obtenerEstado().ordinal()]++;
+            int mascara = anime.obtenerMascaraGeneros();
+            for (int g = 0; g < GENEROS.length; g++) {
+                if ((mascara & (1 << g)) != 0) {
+                    porGenero[g]++;
+                }
+            }
+            calificadosDesde[Math.min(anime.obtenerCalificacion(), AnimeBase.CALIFICACION_MAXIMA)]++;
+            anios[total++] = anime.obtenerAnioLanzamiento();
+        }
+        
+        // De cantidad por calificación exacta a cantidad con esa calificación o más
+        for (int k = AnimeBase.CALIFICACION_MAXIMA - 1; k >= 0; k--) {
+            calificadosDesde[k] += calificadosDesde[k + 1];
+        }
+        
+        Arrays.sort(anios, 0, total);
+        int distintos = 0;
+        long[] acumulado = new long[total];
+        for (int i = 0; i < total; i++) {
+            if (distintos > 0 && anios[distintos - 1] == anios[i]) {
+                acumulado[distintos - 1]++;
+            } else {
+                anios[distintos] = anios[i];
+                acumulado[distintos] = (distintos > 0 ? acumulado[distintos - 1] : 0) + 1;
+                distintos++;
+            }
+        }
+        
+        return new EstadisticasCatalogo(total, porEstado, porGenero, calificadosDesde,
+            Arrays.copyOf(anios, distintos), Arrays.copyOf(acumulado, distintos));
+    }
+    
+    public int obtenerTotal() {
+        return total;
+    }
+    
+    // ========== Fracciones estimadas ==========
+    
+    /**
+     * Fracción de anime con el estado dado.
+     */
+    public double fraccionEstado(Estado estado) {
+        return fraccion(porEstado[estado.ordinal()]);
+    }
+    
+    /**
+     * Fracción estimada de anime con todos los géneros de la máscara, suponiendo géneros
+     * independientes entre sí.
+     */
+    public double fraccionTodosLosGeneros(int mascara) {
+        if (total == 0) {
+            return SELECTIVIDAD_DESCONOCIDA;
+        }
+        double resultado = 1.0;
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((mascara & (1 << g)) != 0) {
+                resultado *= fraccion(porGenero[g]);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Fracción estimada de anime con al menos uno de los géneros de la máscara, suponiendo
+     * géneros independientes entre sí.
+     */
+    public double fraccionAlgunGenero(int mascara) {
+        if (total == 0) {
+            return SELECTIVIDAD_DESCONOCIDA;
+        }
+        double ninguno = 1.0;
+        for (int g = 0; g < GENEROS.length; g++) {
+            if ((mascara & (1 << g)) != 0) {
+                ninguno *= 1.0 - fraccion(porGenero[g]);
+            }
+        }
+        return 1.0 - ninguno;
+    }
+    
+    /**
+     * Fracción de anime calificados con la calificación dada o más.
+     */
+    public double fraccionCalificacionMinima(int minima) {
+        if (minima > AnimeBase.CALIFICACION_MAXIMA) {
+            return 0.0;
+        }
+        return fraccion(calificadosDesde[Math.max(minima, AnimeBase.CALIFICACION_MINIMA)]);
+    }
+    
+    /**
+     * Fracción de anime lanzados entre los años dados, ambos inclusive.
+     */
+    public double fraccionAnios(int desde, int hasta) {
+        if (desde > hasta) {
+            return 0.0;
+        }
+        return fraccion(hastaAnio(hasta) - hastaAnio(desde - 1L));
+    }
+    
+    /** Cantidad de anime lanzados en el año dado o antes */
+    private long hastaAnio(long anio) {
+        int posicion = Arrays.binarySearch(anios, (int) Math.max(Integer.MIN_VALUE,
+            Math.min(Integer.MAX_VALUE, anio)));
+        if (posicion < 0) {
+            posicion = -posicion - 2;
+        }
+        return posicion >= 0 ? acumuladoAnios[posicion] : 0;
+    }
+    
+    private double fraccion(long cantidad) {
+        return total == 0 ? SELECTIVIDAD_DESCONOCIDA : (double) cantidad / total;
+    }
+}
@@ -4,7 +4,11 @@ import modelo.AnimeBase;
 import modelo.Estado;
 import modelo.Genero;
 
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -15,8 +19,8 @@ public class FiltroAnime {
     private String textoBusqueda;
     private Integer anioDesde;
     private Integer anioHasta;
-    private Genero genero;
-    private Set<Genero> generos;
+    private int mascaraGenero;
+    private int mascaraGeneros;
     private Estado estado;
     private Integer calificacionMinima;
     private boolean soloCalificados;
@@ -40,13 +44,13 @@ public class FiltroAnime {
     }
     
     public FiltroAnime porGenero(Genero genero) {
-        this.genero = genero;
+        this.mascaraGenero = genero != null ? genero.obtenerMascara() : 0;
         return this;
     }
     
     public FiltroAnime porGeneros(Set<Genero> generos) {
         if (generos != null && !generos.isEmpty()) {
-            this.generos = new HashSet<>(generos);
+            this.mascaraGeneros = Genero.mascaraDe(generos);
         }
         return this;
     }
@@ -70,7 +74,7 @@ public class FiltroAnime {
     
     public FiltroAnime porEstudio(String estudio) {
         if (estudio != null && !estudio.trim().isEmpty()) {
-            this.estudio = estudio.trim().toLowerCase();
+            this.estudio = estudio.trim().toLowerCase(Locale.ROOT);
         }
         return this;
     }
@@ -79,10 +83,6 @@ public class FiltroAnime {
      * Evalúa si un anime cumple TODOS los criterios del filtro.
      */
     public boolean cumpleFiltro(AnimeBase anime) {
-        if (textoBusqueda != null && !anime.tituloContiene(textoBusqueda)) {
-            return false;
-        }
-        
         if (anioDesde != null && anioHasta != null) {
             if (!anime.lanzadoEntre(anioDesde, anioHasta)) {
                 return false;
@@ -97,11 +97,11 @@ public class FiltroAnime {
             }
         }
         
-        if (genero != null && !anime.perteneceAGenero(genero)) {
+        if (mascaraGenero != 0 && !anime.coincideConTodosLosGeneros(mascaraGenero)) {
             return false;
         }
         
-        if (generos != null && !generos.isEmpty() && !anime.perteneceAAlgunGenero(generos)) {
+        if (mascaraGeneros != 0 && !anime.coincideConAlgunGenero(mascaraGeneros)) {
             return false;
         }
         
@@ -117,13 +117,131 @@ public class FiltroAnime {
             return false;
         }
         
-        if (estudio != null && !anime.obtenerEstudio().toLowerCase().contains(estudio)) {
+        if (estudio != null && !anime.obtenerEstudio().toLowerCase(Locale.ROOT).contains(estudio)) {
+            return false;
+        }
+        
+        // Las comparaciones de cadenas al final, sólo si pasaron los criterios numéricos
+        if (textoBusqueda != null && !anime.tituloContiene(textoBusqueda)) {
             return false;
         }
         
         return true;
     }
     
+    // ========== Compilación ==========
+    
+    /**
+     * Compila el filtro en un predicado con sólo los criterios activos, ordenados según las
+     * estadísticas del catálogo. Conviene para evaluar el mismo filtro sobre muchas filas.
+     */
+    public FiltroCompilado compilar(EstadisticasCatalogo estadisticas) {
+        return compilar(estadisticas, EnumSet.noneOf(CriterioFiltro.class));
+    }
+    
+    /**
+     * Compila el filtro omitiendo los criterios que ya garantizan los candidatos, por
+     * ejemplo los resueltos con un índice del repositorio.
+     */
+    public FiltroCompilado compilar(EstadisticasCatalogo estadisticas, Set<CriterioFiltro> resueltos) {
+        Map<CriterioFiltro, Double> selectividades = new EnumMap<>(CriterioFiltro.class);
+        int minima = obtenerCalificacionMinimaRequerida();
+        int desde = anioDesde != null ? anioDesde : Integer.MIN_VALUE;
+        int hasta = anioHasta != null ? anioHasta : Integer.MAX_VALUE;
+        
+        if (estado != null) {
+            selectividades.put(CriterioFiltro.ESTADO, estadisticas.fraccionEstado(estado));
+        }
+        if (minima > 0) {
+            selectividades.put(CriterioFiltro.CALIFICACION, estadisticas.fraccionCalificacionMinima(minima));
+        }
+        if (mascaraGenero != 0) {
+            selectividades.put(CriterioFiltro.GENEROS_REQUERIDOS,
+                estadisticas.fraccionTodosLosGeneros(mascaraGenero));
+        }
+        if (mascaraGeneros != 0) {
+            selectividades.put(CriterioFiltro.GENEROS_ALGUNO, estadisticas.fraccionAlgunGenero(mascaraGeneros));
+        }
+        if (anioDesde != null || anioHasta != null) {
+            selectividades.put(CriterioFiltro.ANIOS, estadisticas.fraccionAnios(desde, hasta));
+        }
+        if (estudio != null) {
+            selectividades.put(CriterioFiltro.ESTUDIO, FiltroCompilado.SELECTIVIDAD_TEXTO);
+        }
+        if (textoBusqueda != null) {
+            selectividades.put(CriterioFiltro.TITULO, FiltroCompilado.SELECTIVIDAD_TEXTO);
+        }
+        selectividades.keySet().removeAll(resueltos);
+        
+        return new FiltroCompilado(selectividades, estado, mascaraGenero, mascaraGeneros, minima,
+            desde, hasta, estudio, textoBusqueda);
+    }
+    
+    // ========== Criterios resolubles con índices secundarios ==========
+    
+    /**
+     * Indica si el filtro usa estado, géneros o calificación, los atributos que los
+     * repositorios pueden resolver con mapas de bits.
+     */
+    public boolean tieneCriteriosIndexables() {
+        return estado != null || mascaraGenero != 0 || mascaraGeneros != 0
+            || obtenerCalificacionMinimaRequerida() > 0;
+    }
+    
+    /**
+     * Texto que debe contener el título, o null.
+     */
+    public String obtenerTextoBusqueda() {
+        return textoBusqueda;
+    }
+    
+    /**
+     * Texto que debe contener el estudio, en minúsculas, o null.
+     */
+    public String obtenerEstudio() {
+        return estudio;
+    }
+    
+    public Estado obtenerEstado() {
+        return estado;
+    }
+    
+    /**
+     * Máscara de géneros que el anime debe tener todos, o 0.
+     */
+    public int obtenerMascaraGenerosRequeridos() {
+        return mascaraGenero;
+    }
+    
+    /**
+     * Máscara de géneros de los que el anime debe tener al menos uno, o 0.
+     */
+    public int obtenerMascaraGenerosAlguno() {
+        return mascaraGeneros;
+    }
+    
+    /**
+     * Calificación mínima exigida (1 si sólo se piden calificados), o 0.
+     */
+    public int obtenerCalificacionMinimaRequerida() {
+        if (calificacionMinima != null) {
+            return calificacionMinima;
+        }
+        return soloCalificados ? AnimeBase.CALIFICACION_MINIMA : 0;
+    }
+    
+    /**
+     * Evalúa el filtro sobre una instantánea columnar: cada criterio activo recorre su
+     * columna y descarta filas del conjunto, saltando bloques de 64 filas ya descartados.
+     * Sin estadísticas, los criterios numéricos van antes que los de texto; para ordenarlos
+     * también por selectividad, ver {@link #compilar}.
+     *
+     * @return las filas que cumplen TODOS los criterios
+     */
+    public BitSet filtrar(CatalogoColumnar catalogo) {
+        return compilar(EstadisticasCatalogo.sinDatos()).filtrar(catalogo);
+    }
+    
     public boolean probar(AnimeBase anime) {
         return cumpleFiltro(anime);
     }
@@ -0,0 +1,164 @@
+package utilidad;
+
+import modelo.AnimeBase;
+import modelo.Estado;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Forma compilada de un {@link FiltroAnime}: sólo contiene los criterios activos, ordenados
+ * para descartar cuanto antes con el menor trabajo.
+ *
+ * Cada criterio se ordena por su costo dividido la fracción de filas que descarta (la
+ * estimada con {@link EstadisticasCatalogo}), así un criterio barato y selectivo va primero
+ * y las comparaciones de cadenas sólo se hacen sobre las filas que pasaron el resto. El
+ * orden no cambia el resultado, sólo el trabajo.
+ *
+ * Los valores de los criterios se guardan en campos y cada fila recorre el orden con un
+ * switch, sin una llamada virtual por criterio.
+ */
+public final class FiltroCompilado implements Predicate<AnimeBase> {
+    
+    /** Fracción supuesta para los criterios de texto, de los que no hay estadísticas */
+    static final double SELECTIVIDAD_TEXTO = 0.1;
+    
+    /** Cota para no dividir por cero con criterios que no descartan nada */
+    private static final double DESCARTE_MINIMO = 1e-3;
+    
+    private final CriterioFiltro[] orden;
+    private final double[] selectividades;
+    
+    private final Estado estado;
+    private final int generosRequeridos;
+    private final int generosAlguno;
+    private final int calificacionMinima;
+    private final int anioDesde;
+    private final int anioHasta;
+    private final String estudioEnMinusculas;
+    private final String tituloEnMinusculas;
+    
+    /**
+     * @param selectividades fracción estimada de filas que deja pasar cada criterio activo;
+     *                       los valores de los criterios ausentes se ignoran
+     */
+    FiltroCompilado(Map<CriterioFiltro, Double> selectividades, Estado estado,
+                    int generosRequeridos, int generosAlguno, int calificacionMinima,
+                    int anioDesde, int anioHasta, String estudioEnMinusculas, String titulo) {
+        this.orden = selectividades.keySet().toArray(new CriterioFiltro[0]);
+        // Orden estable: a igual rango se conserva el de CriterioFiltro
+        Arrays.sort(orden, Comparator.comparingDouble(criterio -> rango(criterio, selectividades.get(criterio))));
+        this.selectividades = new double[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            this.selectividades[i] = selectividades.get(orden[i]);
+        }
+        
+        this.estado = estado;
+        this.generosRequeridos = generosRequeridos;
+        this.generosAlguno = generosAlguno;
+        this.calificacionMinima = calificacionMinima;
+        this.anioDesde = anioDesde;
+        this.anioHasta = anioHasta;
+        this.estudioEnMinusculas = estudioEnMinusculas;
+        this.tituloEnMinusculas = titulo != null ? titulo.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    private static double rango(CriterioFiltro criterio, double selectividad) {
+        return criterio.obtenerCosto() / Math.max(1.0 - selectividad, DESCARTE_MINIMO);
+    }
+    
+    /**
+     * Evalúa los criterios en orden y se detiene en el primero que no se cumple.
+     */
+    @Override
+    public boolean test(AnimeBase anime) {
+        for (CriterioFiltro criterio : orden) {
+            if (!cumple(criterio, anime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean cumple(CriterioFiltro criterio, AnimeBase anime) {
+        switch (criterio) {
+            case ESTADO:
+                return anime.obtenerEstado() == estado;
+            case GENEROS_REQUERIDOS:
+                return anime.coincideConTodosLosGeneros(generosRequeridos);
+            case GENEROS_ALGUNO:
+                return anime.coincideConAlgunGenero(generosAlguno);
+            case CALIFICACION:
+                return anime.cumpleCalificacionMinima(calificacionMinima);
+            case ANIOS:
+                return anime.lanzadoEntre(anioDesde, anioHasta);
+            case ESTUDIO:
+                return anime.obtenerEstudio().toLowerCase(Locale.ROOT).contains(estudioEnMinusculas);
+            case TITULO:
+                return anime.obtenerTitulo().toLowerCase(Locale.ROOT).contains(tituloEnMinusculas);
+            default:
+                throw new IllegalStateException("Criterio desconocido: " + criterio);
+        }
+    }
+    
+    /**
+     * Evalúa los criterios en orden sobre una instantánea columnar; cada uno recorre sólo
+     * los bloques de 64 filas que dejaron los anteriores.
+     *
+     * @return las filas que cumplen todos los criterios
+     */
+    public BitSet filtrar(CatalogoColumnar catalogo) {
+        long[] filas = catalogo.todasLasFilas();
+        for (CriterioFiltro criterio : orden) {
+            switch (criterio) {
+                case ESTADO:
+                    catalogo.retenerEstado(filas, estado.ordinal());
+                    break;
+                case GENEROS_REQUERIDOS:
+                    catalogo.retenerGeneros(filas, generosRequeridos, true);
+                    break;
+                case GENEROS_ALGUNO:
+                    catalogo.retenerGeneros(filas, generosAlguno, false);
+                    break;
+                case CALIFICACION:
+                    catalogo.retenerCalificacionMinima(filas, calificacionMinima);
+                    break;
+                case ANIOS:
+                    catalogo.retenerAnios(filas, anioDesde, anioHasta);
+                    break;
+                case ESTUDIO:
+                    catalogo.retenerEstudio(filas, estudioEnMinusculas);
+                    break;
+                case TITULO:
+                    catalogo.retenerTitulo(filas, tituloEnMinusculas);
+                    break;
+                default:
+                    throw new IllegalStateException("Criterio desconocido: " + criterio);
+            }
+        }
+        return BitSet.valueOf(filas);
+    }
+    
+    /**
+     * Indica si no quedó ningún criterio: el filtro acepta todos los anime.
+     */
+    public boolean estaVacio() {
+        return orden.length == 0;
+    }
+    
+    /**
+     * Criterios en el orden en que se evalúan.
+     */
+    public List<CriterioFiltro> obtenerOrden() {
+        return Collections.unmodifiableList(Arrays.asList(orden));
+    }
+    
+    @Override
+    public String toString() {
+        StringJoiner texto = new StringJoiner(" → ", "[", "]");
+        for (int i = 0; i < orden.length; i++) {
+            texto.add(String.format("%s (%.3f)", orden[i].obtenerDescripcion(), selectividades[i]));
+        }
+        return texto.toString();
+    }
+}
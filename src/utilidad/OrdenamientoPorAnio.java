@@ -23,6 +23,10 @@ public class OrdenamientoPorAnio implements CriterioOrdenamiento {
         return descendente ? -resultado : resultado;
     }
     
+    public boolean esDescendente() {
+        return descendente;
+    }
+    
     @Override
     public String obtenerDescripcion() {
         return "Por año " + (descendente ? "(recientes primero)" : "(antiguos primero)");
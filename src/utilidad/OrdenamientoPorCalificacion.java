@@ -33,6 +33,10 @@ public class OrdenamientoPorCalificacion implements CriterioOrdenamiento {
         return descendente ? -resultado : resultado;
     }
     
+    public boolean esDescendente() {
+        return descendente;
+    }
+    
     @Override
     public String obtenerDescripcion() {
         return "Por calificación " + (descendente ? "(mejor primero)" : "(peor primero)");
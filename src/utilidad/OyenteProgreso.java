@@ -0,0 +1,18 @@
+package utilidad;
+
+/**
+ * Interfaz funcional para informar el avance de operaciones largas (exportación, importación).
+ */
+@FunctionalInterface
+public interface OyenteProgreso {
+    
+    /**
+     * Se invoca periódicamente con la cantidad de elementos procesados sobre el total.
+     */
+    void progresoActualizado(long procesados, long total);
+    
+    /**
+     * Oyente que ignora las notificaciones.
+     */
+    OyenteProgreso NINGUNO = (procesados, total) -> { };
+}
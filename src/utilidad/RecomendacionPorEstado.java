@@ -3,9 +3,6 @@ package utilidad;
 import modelo.AnimeBase;
 import modelo.Estado;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -21,26 +18,13 @@ public class RecomendacionPorEstado implements CriterioRecomendacion {
     
     @Override
     public List<AnimeBase> recomendar(List<AnimeBase> animes, int cantidad) {
-        List<AnimeBase> filtrados = new ArrayList<>();
+        SeleccionTopK<AnimeBase> seleccion = SeleccionTopK.porCalificacion(cantidad);
         for (AnimeBase anime : animes) {
             if (anime.obtenerEstado() == estado && anime.tieneCalificacion()) {
-                filtrados.add(anime);
+                seleccion.ofrecer(anime);
             }
         }
-        
-        Collections.sort(filtrados, new Comparator<AnimeBase>() {
-            @Override
-            public int compare(AnimeBase a1, AnimeBase a2) {
-                return Integer.compare(a2.obtenerCalificacion(), a1.obtenerCalificacion());
-            }
-        });
-        
-        List<AnimeBase> resultado = new ArrayList<>();
-        for (int i = 0; i < Math.min(cantidad, filtrados.size()); i++) {
-            resultado.add(filtrados.get(i));
-        }
-        
-        return resultado;
+        return seleccion.obtenerResultado();
     }
     
     @Override
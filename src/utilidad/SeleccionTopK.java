@@ -0,0 +1,139 @@
+package utilidad;
+
+import modelo.AnimeBase;
+
+import java.util.*;
+
+/**
+ * Selección de los K mejores elementos de una secuencia sin ordenarla completa.
+ *
+ * Los elementos se ofrecen de a uno y sólo se conservan los candidatos al resultado.
+ * Los empates se resuelven a favor del elemento ofrecido primero, igual que un ordenamiento
+ * estable de la secuencia completa seguido de tomar los K primeros.
+ */
+public abstract class SeleccionTopK<T> {
+    
+    protected final int cantidad;
+    
+    protected SeleccionTopK(int cantidad) {
+        this.cantidad = Math.max(0, cantidad);
+    }
+    
+    /**
+     * Ofrece un elemento a la selección.
+     */
+    public abstract void ofrecer(T elemento);
+    
+    /**
+     * Retorna los elementos seleccionados, del mejor al peor.
+     */
+    public abstract List<T> obtenerResultado();
+    
+    /**
+     * Selección genérica con un montículo acotado a K elementos: O(n log K) en el peor caso,
+     * O(n + K log K) cuando la mayoría de los elementos no supera al peor conservado.
+     *
+     * @param orden orden del resultado: los menores según el comparador son los mejores
+     */
+    public static <T> SeleccionTopK<T> conComparador(int cantidad, Comparator<? super T> orden) {
+        return new MonticuloAcotado<>(cantidad, orden);
+    }
+    
+    /**
+     * Selección de anime por calificación descendente mediante conteo: como la calificación
+     * toma pocos valores, basta conservar los primeros K de cada nivel. Costo O(n + K).
+     */
+    public static SeleccionTopK<AnimeBase> porCalificacion(int cantidad) {
+        return new ConteoPorCalificacion(cantidad);
+    }
+    
+    // ========== Implementaciones ==========
+    
+    private static final class MonticuloAcotado<T> extends SeleccionTopK<T> {
+        
+        private final Comparator<? super T> orden;
+        private final Comparator<Candidato<T>> deMejorAPeor;
+        private final PriorityQueue<Candidato<T>> candidatos;
+        private long ofrecidos;
+        
+        MonticuloAcotado(int cantidad, Comparator<? super T> orden) {
+            super(cantidad);
+            this.orden = orden;
+            Comparator<Candidato<T>> porValor = (a, b) -> orden.compare(a.elemento, b.elemento);
+            this.deMejorAPeor = porValor.thenComparingLong(c -> c.secuencia);
+            // La raíz es el peor candidato conservado
+            this.candidatos = new PriorityQueue<>(Math.max(1, Math.min(this.cantidad, 1024)),
+                deMejorAPeor.reversed());
+        }
+        
+        @Override
+        public void ofrecer(T elemento) {
+            long secuencia = ofrecidos++;
+            if (cantidad == 0) {
+                return;
+            }
+            if (candidatos.size() < cantidad) {
+                candidatos.add(new Candidato<>(elemento, secuencia));
+                return;
+            }
+            // Ante empate gana el conservado, que fue ofrecido antes
+            if (orden.compare(elemento, candidatos.peek().elemento) < 0) {
+                candidatos.poll();
+                candidatos.add(new Candidato<>(elemento, secuencia));
+            }
+        }
+        
+        @Override
+        public List<T> obtenerResultado() {
+            List<Candidato<T>> ordenados = new ArrayList<>(candidatos);
+            ordenados.sort(deMejorAPeor);
+            List<T> resultado = new ArrayList<>(ordenados.size());
+            for (Candidato<T> candidato : ordenados) {
+                resultado.add(candidato.elemento);
+            }
+            return resultado;
+        }
+    }
+    
+    private static final class Candidato<T> {
+        final T elemento;
+        final long secuencia;
+        
+        Candidato(T elemento, long secuencia) {
+            this.elemento = elemento;
+            this.secuencia = secuencia;
+        }
+    }
+    
+    private static final class ConteoPorCalificacion extends SeleccionTopK<AnimeBase> {
+        
+        /** Un nivel por calificación posible, incluido 0 (sin calificar). */
+        private final List<List<AnimeBase>> niveles;
+        
+        ConteoPorCalificacion(int cantidad) {
+            super(cantidad);
+            this.niveles = new ArrayList<>(AnimeBase.CALIFICACION_MAXIMA + 1);
+            for (int i = 0; i <= AnimeBase.CALIFICACION_MAXIMA; i++) {
+                niveles.add(new ArrayList<>());
+            }
+        }
+        
+        @Override
+        public void ofrecer(AnimeBase anime) {
+            List<AnimeBase> nivel = niveles.get(anime.obtenerCalificacion());
+            if (nivel.size() < cantidad) {
+                nivel.add(anime);
+            }
+        }
+        
+        @Override
+        public List<AnimeBase> obtenerResultado() {
+            List<AnimeBase> resultado = new ArrayList<>();
+            for (int i = AnimeBase.CALIFICACION_MAXIMA; i >= 0 && resultado.size() < cantidad; i--) {
+                List<AnimeBase> nivel = niveles.get(i);
+                resultado.addAll(nivel.subList(0, Math.min(nivel.size(), cantidad - resultado.size())));
+            }
+            return resultado;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package vista;
 
 import modelo.*;
+import repositorio.CambioCatalogo;
 import servicio.*;
 import excepcion.*;
 import utilidad.*;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
@@ -17,17 +20,26 @@ import java.util.List;
  */
 public class PanelAnime extends JPanel {
     
+    private static final int MAXIMO_SUGERENCIAS = 8;
+    
     private final ServicioAnime servicioAnime;
     private final ServicioListaPersonalizada servicioLista;
     
     private JTable tablaAnime;
     private ModeloTablaAnime modeloTabla;
     private JTextField txtBusqueda;
+    private JPopupMenu menuSugerencias;
+    private boolean eligiendoSugerencia;
     private JComboBox<String> cmbGenero;
     private JComboBox<String> cmbEstado;
     private JComboBox<String> cmbOrden;
     private JSpinner spnCalificacionMin;
     
+    /** Filtro (null para todo el catálogo) y orden de lo que muestra la tabla */
+    private FiltroAnime filtroActual;
+    private CriterioOrdenamiento criterioActual;
+    private final boolean actualizacionIncremental;
+    
     public PanelAnime(ServicioAnime servicioAnime, ServicioListaPersonalizada servicioLista) {
         this.servicioAnime = servicioAnime;
         this.servicioLista = servicioLista;
@@ -40,6 +52,7 @@ public class PanelAnime extends JPanel {
         crearPanelInferior();
         
         refrescar();
+        actualizacionIncremental = servicioAnime.suscribirCambios(this::aplicarCambio, SwingUtilities::invokeLater);
     }
     
     private void crearPanelSuperior() {
@@ -48,9 +61,30 @@ public class PanelAnime extends JPanel {
         JPanel panelBusqueda = new JPanel(new FlowLayout(FlowLayout.LEFT));
         panelBusqueda.add(new JLabel("🔍 Buscar:"));
         txtBusqueda = new JTextField(20);
-        txtBusqueda.addActionListener(e -> aplicarFiltros());
+        txtBusqueda.addActionListener(e -> {
+            menuSugerencias.setVisible(false);
+            aplicarFiltros();
+        });
+        txtBusqueda.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                mostrarSugerencias();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                mostrarSugerencias();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         panelBusqueda.add(txtBusqueda);
         
+        menuSugerencias = new JPopupMenu();
+        menuSugerencias.setFocusable(false);
+        
         JButton btnBuscar = new JButton("Buscar");
         btnBuscar.addActionListener(e -> aplicarFiltros());
         panelBusqueda.add(btnBuscar);
@@ -174,7 +208,7 @@ public class PanelAnime extends JPanel {
         dialogo.setVisible(true);
         
         if (dialogo.estaConfirmado()) {
-            refrescar();
+            refrescarSiNoHayCambios();
         }
     }
     
@@ -184,7 +218,7 @@ public class PanelAnime extends JPanel {
         dialogo.setVisible(true);
         
         if (dialogo.estaConfirmado()) {
-            refrescar();
+            refrescarSiNoHayCambios();
         }
     }
     
@@ -199,12 +233,12 @@ public class PanelAnime extends JPanel {
             DialogoAnimeSerie dialogo = new DialogoAnimeSerie(
                 (Frame) SwingUtilities.getWindowAncestor(this), servicioAnime, (AnimeSerie) anime);
             dialogo.setVisible(true);
-            if (dialogo.estaConfirmado()) refrescar();
+            if (dialogo.estaConfirmado()) refrescarSiNoHayCambios();
         } else if (anime instanceof AnimePelicula) {
             DialogoAnimePelicula dialogo = new DialogoAnimePelicula(
                 (Frame) SwingUtilities.getWindowAncestor(this), servicioAnime, (AnimePelicula) anime);
             dialogo.setVisible(true);
-            if (dialogo.estaConfirmado()) refrescar();
+            if (dialogo.estaConfirmado()) refrescarSiNoHayCambios();
         }
     }
     
@@ -250,7 +284,7 @@ public class PanelAnime extends JPanel {
                 JOptionPane.showMessageDialog(this, 
                     "Se eliminaron " + eliminados + " anime. Errores: " + errores, "Aviso", JOptionPane.WARNING_MESSAGE);
             }
-            refrescar();
+            refrescarSiNoHayCambios();
         }
     }
     
@@ -267,7 +301,7 @@ public class PanelAnime extends JPanel {
         if (seleccion >= 0) {
             try {
                 servicioAnime.calificarAnime(anime.obtenerTitulo(), seleccion + 1);
-                refrescar();
+                refrescarSiNoHayCambios();
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Error al calificar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -320,18 +354,59 @@ public class PanelAnime extends JPanel {
                 filtro.porCalificacionMinima(calMin);
             }
             
-            List<AnimeBase> resultado = servicioAnime.busquedaAvanzada(filtro);
-            
             CriterioOrdenamiento criterio = obtenerCriterioOrdenamiento();
-            resultado = servicioAnime.ordenar(resultado, criterio);
+            List<AnimeBase> resultado = servicioAnime.busquedaAvanzada(filtro, criterio);
             
             modeloTabla.establecerAnimes(resultado);
+            filtroActual = filtro;
+            criterioActual = criterio;
             
         } catch (ExcepcionPersistencia e) {
             JOptionPane.showMessageDialog(this, "Error al filtrar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
+    /**
+     * Muestra bajo el campo de búsqueda los títulos mejor calificados que empiezan con lo
+     * escrito.
+     */
+    private void mostrarSugerencias() {
+        menuSugerencias.setVisible(false);
+        if (eligiendoSugerencia || !txtBusqueda.isShowing()) {
+            return;
+        }
+        
+        String texto = txtBusqueda.getText();
+        List<String> titulos;
+        try {
+            titulos = servicioAnime.sugerirTitulos(texto, MAXIMO_SUGERENCIAS);
+        } catch (ExcepcionPersistencia e) {
+            // Sin sugerencias: el error se informa al buscar
+            return;
+        }
+        if (titulos.isEmpty() || (titulos.size() == 1 && titulos.get(0).equalsIgnoreCase(texto.trim()))) {
+            return;
+        }
+        
+        menuSugerencias.removeAll();
+        for (String titulo : titulos) {
+            JMenuItem item = new JMenuItem(titulo);
+            item.addActionListener(e -> elegirSugerencia(titulo));
+            menuSugerencias.add(item);
+        }
+        menuSugerencias.show(txtBusqueda, 0, txtBusqueda.getHeight());
+    }
+    
+    private void elegirSugerencia(String titulo) {
+        eligiendoSugerencia = true;
+        try {
+            txtBusqueda.setText(titulo);
+        } finally {
+            eligiendoSugerencia = false;
+        }
+        aplicarFiltros();
+    }
+    
     private CriterioOrdenamiento obtenerCriterioOrdenamiento() {
         int indice = cmbOrden.getSelectedIndex();
         switch (indice) {
@@ -346,7 +421,12 @@ public class PanelAnime extends JPanel {
     }
     
     private void limpiarFiltros() {
-        txtBusqueda.setText("");
+        eligiendoSugerencia = true;
+        try {
+            txtBusqueda.setText("");
+        } finally {
+            eligiendoSugerencia = false;
+        }
         cmbGenero.setSelectedIndex(0);
         cmbEstado.setSelectedIndex(0);
         spnCalificacionMin.setValue(0);
@@ -358,11 +438,58 @@ public class PanelAnime extends JPanel {
         try {
             List<AnimeBase> animes = servicioAnime.listarOrdenadosPorTitulo();
             modeloTabla.establecerAnimes(animes);
+            filtroActual = null;
+            criterioActual = new OrdenamientoPorTitulo();
         } catch (ExcepcionPersistencia e) {
             JOptionPane.showMessageDialog(this, "Error al cargar datos: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
+    /**
+     * Indica si la tabla se mantiene al día con los cambios del catálogo sin volver a
+     * consultarlo.
+     */
+    public boolean estaAlDia() {
+        return actualizacionIncremental;
+    }
+    
+    private void refrescarSiNoHayCambios() {
+        if (!actualizacionIncremental) {
+            refrescar();
+        }
+    }
+    
+    /**
+     * Aplica un cambio del catálogo a las filas mostradas, conservando el filtro y el orden.
+     */
+    private void aplicarCambio(CambioCatalogo cambio) {
+        switch (cambio.obtenerTipo()) {
+            case CATALOGO_REEMPLAZADO:
+                List<AnimeBase> visibles = new ArrayList<>();
+                for (AnimeBase anime : cambio.obtenerCatalogo().obtenerAnimes()) {
+                    if (filtroActual == null || filtroActual.cumpleFiltro(anime)) {
+                        visibles.add(anime);
+                    }
+                }
+                visibles.sort(criterioActual);
+                modeloTabla.establecerAnimes(visibles);
+                break;
+            case ELIMINADO:
+                modeloTabla.quitarAnime(cambio.obtenerAnterior());
+                break;
+            default:
+                AnimeBase nuevo = cambio.obtenerNuevo();
+                if (cambio.obtenerAnterior() != null) {
+                    modeloTabla.quitarAnime(cambio.obtenerAnterior());
+                }
+                // Una instancia editada en el lugar se vuelve a ubicar según sus datos actuales
+                modeloTabla.quitarAnime(nuevo);
+                if (filtroActual == null || filtroActual.cumpleFiltro(nuevo)) {
+                    modeloTabla.insertarOrdenado(nuevo, criterioActual);
+                }
+        }
+    }
+    
     /**
      * Modelo de tabla para mostrar anime.
      */
@@ -375,6 +502,35 @@ public class PanelAnime extends JPanel {
             fireTableDataChanged();
         }
         
+        public void quitarAnime(AnimeBase anime) {
+            for (int fila = 0; fila < animes.size(); fila++) {
+                if (animes.get(fila) == anime) {
+                    animes.remove(fila);
+                    fireTableRowsDeleted(fila, fila);
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Inserta el anime después de los que el criterio considera iguales, como quedaría
+         * con un ordenamiento estable.
+         */
+        public void insertarOrdenado(AnimeBase anime, Comparator<AnimeBase> criterio) {
+            int desde = 0;
+            int hasta = animes.size();
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (criterio.compare(animes.get(medio), anime) <= 0) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            animes.add(desde, anime);
+            fireTableRowsInserted(desde, desde);
+        }
+        
         public AnimeBase obtenerAnimeEn(int fila) {
             if (fila >= 0 && fila < animes.size()) {
                 return animes.get(fila);
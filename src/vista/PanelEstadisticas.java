@@ -24,6 +24,11 @@ public class PanelEstadisticas extends JPanel {
     private JPanel panelTopGeneros;
     private JTextArea txtResumen;
     
+    /** Se recibe cada cambio del catálogo; los que llegan con el panel oculto lo desactualizan */
+    private final boolean suscrito;
+    private boolean desactualizado;
+    private boolean refrescoPendiente;
+    
     public PanelEstadisticas(ServicioEstadisticas servicioEstadisticas) {
         this.servicioEstadisticas = servicioEstadisticas;
         
@@ -32,6 +37,7 @@ public class PanelEstadisticas extends JPanel {
         
         crearUI();
         refrescar();
+        suscrito = servicioEstadisticas.suscribirCambios(cambio -> programarRefresco(), SwingUtilities::invokeLater);
     }
     
     private void crearUI() {
@@ -111,7 +117,30 @@ public class PanelEstadisticas extends JPanel {
         return card;
     }
     
+    /**
+     * Indica si las estadísticas mostradas reflejan el catálogo actual.
+     */
+    public boolean estaAlDia() {
+        return suscrito && !desactualizado;
+    }
+    
+    /**
+     * Refresca una sola vez por cada tanda de cambios recibida mientras el panel está visible.
+     */
+    private void programarRefresco() {
+        if (!isShowing()) {
+            desactualizado = true;
+        } else if (!refrescoPendiente) {
+            refrescoPendiente = true;
+            SwingUtilities.invokeLater(() -> {
+                refrescoPendiente = false;
+                refrescar();
+            });
+        }
+    }
+    
     public void refrescar() {
+        desactualizado = false;
         try {
             ServicioEstadisticas.ResumenEstadisticas resumen = servicioEstadisticas.obtenerResumenEstadisticas();
             
@@ -8,6 +8,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Ventana principal de la aplicación.
@@ -167,9 +173,33 @@ public class VentanaPrincipal extends JFrame {
         
         if (opcion == JOptionPane.YES_OPTION) {
             guardarCambios();
-            System.exit(0);
+            salir();
         } else if (opcion == JOptionPane.NO_OPTION) {
-            System.exit(0);
+            salir();
+        }
+    }
+    
+    /**
+     * Espera a que terminen de escribirse los cambios antes de cerrar. Si la escritura falla
+     * se puede reintentar o cancelar la salida; lo no escrito sigue pendiente.
+     */
+    private void salir() {
+        Object[] opciones = {"Reintentar", "Cancelar"};
+        while (true) {
+            try {
+                servicioAnime.confirmarEscrituras();
+                servicioLista.confirmarEscrituras();
+                System.exit(0);
+                return;
+            } catch (ExcepcionPersistencia e) {
+                int eleccion = JOptionPane.showOptionDialog(this,
+                    "No se pudieron guardar los últimos cambios: " + e.getMessage(),
+                    "Error al guardar", JOptionPane.DEFAULT_OPTION, JOptionPane.ERROR_MESSAGE,
+                    null, opciones, opciones[0]);
+                if (eleccion != 0) {
+                    return;
+                }
+            }
         }
     }
     
@@ -179,32 +209,74 @@ public class VentanaPrincipal extends JFrame {
     }
     
     private void exportarCatalogo() {
+        JFileChooser selectorArchivo = new JFileChooser();
+        selectorArchivo.setDialogTitle("Exportar catálogo");
+        selectorArchivo.setSelectedFile(new java.io.File("catalogo_anime.txt"));
+        
+        int resultado = selectorArchivo.showSaveDialog(this);
+        if (resultado != JFileChooser.APPROVE_OPTION) return;
+        
+        java.io.File seleccionado = selectorArchivo.getSelectedFile();
+        if (!seleccionado.getName().toLowerCase(Locale.ROOT).endsWith(".txt")) {
+            seleccionado = new java.io.File(seleccionado.getAbsolutePath() + ".txt");
+        }
+        final java.io.File archivo = seleccionado;
+        
+        final List<modelo.AnimeBase> animes;
         try {
-            String contenido = servicioAnime.exportarATxt();
-            
-            JFileChooser selectorArchivo = new JFileChooser();
-            selectorArchivo.setDialogTitle("Exportar catálogo");
-            selectorArchivo.setSelectedFile(new java.io.File("catalogo_anime.txt"));
-            
-            int resultado = selectorArchivo.showSaveDialog(this);
-            if (resultado == JFileChooser.APPROVE_OPTION) {
-                java.io.File archivo = selectorArchivo.getSelectedFile();
-                if (!archivo.getName().toLowerCase().endsWith(".txt")) {
-                    archivo = new java.io.File(archivo.getAbsolutePath() + ".txt");
-                }
-                
-                java.io.FileWriter writer = new java.io.FileWriter(archivo);
-                writer.write(contenido);
-                writer.close();
-                
-                JOptionPane.showMessageDialog(this,
-                    "Catálogo exportado exitosamente a:\n" + archivo.getAbsolutePath(),
-                    "Exportación completada", JOptionPane.INFORMATION_MESSAGE);
-            }
-        } catch (Exception e) {
+            animes = servicioAnime.listarTodos();
+        } catch (ExcepcionPersistencia e) {
             JOptionPane.showMessageDialog(this, "Error al exportar: " + e.getMessage(),
                 "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exportando catálogo...", null, 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        
+        SwingWorker<Void, Void> tarea = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                try {
+                    servicioAnime.exportarATxt(animes, archivo.toPath(), (procesados, total) -> {
+                        // El botón Cancelar del monitor corta la escritura en la próxima línea informada
+                        if (monitor.isCanceled()) {
+                            throw new CancellationException();
+                        }
+                        setProgress(total == 0 ? 100 : (int) (procesados * 100 / total));
+                    });
+                } catch (CancellationException | ExcepcionPersistencia e) {
+                    borrarArchivoParcial(archivo);
+                    throw e;
+                }
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(VentanaPrincipal.this,
+                        "Catálogo exportado exitosamente a:\n" + archivo.getAbsolutePath(),
+                        "Exportación completada", JOptionPane.INFORMATION_MESSAGE);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(VentanaPrincipal.this, "Error al exportar: " + e.getCause().getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        tarea.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+            }
+        });
+        tarea.execute();
     }
     
     private void importarCatalogo() {
@@ -214,44 +286,71 @@ public class VentanaPrincipal extends JFrame {
         int resultado = selectorArchivo.showOpenDialog(this);
         if (resultado != JFileChooser.APPROVE_OPTION) return;
         
-        java.io.File archivo = selectorArchivo.getSelectedFile();
+        final java.io.File archivo = selectorArchivo.getSelectedFile();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         
-        try {
-            java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(archivo));
-            String linea;
-            int importados = 0, omitidos = 0;
+        // El parseo y la escritura del lote no bloquean la interfaz
+        SwingWorker<ServicioAnime.ResultadoImportacion, Void> tarea =
+                new SwingWorker<ServicioAnime.ResultadoImportacion, Void>() {
+            @Override
+            protected ServicioAnime.ResultadoImportacion doInBackground() throws Exception {
+                return servicioAnime.importarDesdeArchivo(archivo.toPath());
+            }
             
-            while ((linea = reader.readLine()) != null) {
-                modelo.AnimeBase anime = servicioAnime.parsearLineaAnime(linea);
-                if (anime != null) {
-                    if (!servicioAnime.existeAnime(anime.obtenerTitulo())) {
-                        servicioAnime.registrarAnimeDirecto(anime);
-                        importados++;
-                    } else {
-                        omitidos++;
-                    }
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    mostrarResultadoImportacion(get());
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(VentanaPrincipal.this, "Error al importar: " + e.getCause().getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
             }
-            reader.close();
-            
-            refrescarTodo();
-            
-            JOptionPane.showMessageDialog(this,
-                String.format("Importación completada:\n• Importados: %d\n• Omitidos (duplicados): %d", importados, omitidos),
-                "Importación", JOptionPane.INFORMATION_MESSAGE);
-                
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error al importar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        };
+        tarea.execute();
+    }
+    
+    private void mostrarResultadoImportacion(ServicioAnime.ResultadoImportacion resultadoImportacion) {
+        refrescarTodo();
+        
+        StringBuilder mensaje = new StringBuilder(String.format(
+            "Importación completada:\n• Importados: %d\n• Omitidos (duplicados): %d\n• Rechazados: %d",
+            resultadoImportacion.obtenerImportados(), resultadoImportacion.obtenerDuplicados(),
+            resultadoImportacion.obtenerRechazadas().size()));
+        
+        List<ServicioAnime.LineaRechazada> rechazadas = resultadoImportacion.obtenerRechazadas();
+        for (int i = 0; i < Math.min(5, rechazadas.size()); i++) {
+            mensaje.append("\n   ").append(rechazadas.get(i));
+        }
+        if (rechazadas.size() > 5) {
+            mensaje.append("\n   ...");
+        }
+        
+        JOptionPane.showMessageDialog(this, mensaje.toString(),
+            "Importación", JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    /**
+     * Borra lo escrito de una exportación cancelada o fallida.
+     */
+    private static void borrarArchivoParcial(java.io.File archivo) {
+        try {
+            Files.deleteIfExists(archivo.toPath());
+        } catch (IOException e) {
+            // Queda el archivo incompleto; el usuario ya sabe que la exportación no terminó
         }
     }
     
     private void refrescarPestaniaActual() {
         int indice = pestanias.getSelectedIndex();
         switch (indice) {
-            case 0: panelAnime.refrescar(); break;
+            case 0: if (!panelAnime.estaAlDia()) panelAnime.refrescar(); break;
             case 1: panelListas.refrescar(); break;
             case 2: panelRecomendaciones.refrescar(); break;
-            case 3: panelEstadisticas.refrescar(); break;
+            case 3: if (!panelEstadisticas.estaAlDia()) panelEstadisticas.refrescar(); break;
         }
     }
     
@@ -261,11 +360,18 @@ public class VentanaPrincipal extends JFrame {
         JOptionPane.showMessageDialog(this, mensaje, "Acerca de", JOptionPane.INFORMATION_MESSAGE);
     }
     
+    /**
+     * Refresca los paneles que no se mantienen al día con los cambios del catálogo.
+     */
     public void refrescarTodo() {
-        panelAnime.refrescar();
+        if (!panelAnime.estaAlDia()) {
+            panelAnime.refrescar();
+        }
         panelListas.refrescar();
         panelRecomendaciones.refrescar();
-        panelEstadisticas.refrescar();
+        if (!panelEstadisticas.estaAlDia()) {
+            panelEstadisticas.refrescar();
+        }
     }
     
     // ========== TEMA WISTERIA ==========
@@ -622,13 +728,30 @@ public class VentanaPrincipal extends JFrame {
     
     // ========== PUNTO DE ENTRADA ==========
     
+    /**
+     * Con -Danime.catalogo=mapeado se usa el catálogo columnar mapeado en memoria, que abre
+     * al instante aun con catálogos grandes. La primera vez se importa data/animes.dat.
+     * Si no, el catálogo se escribe en segundo plano para no bloquear la interfaz.
+     */
+    private static RepositorioAnime crearRepositorioAnime() throws ExcepcionPersistencia {
+        if (!"mapeado".equals(System.getProperty("anime.catalogo"))) {
+            return new RepositorioAnimeDiferido(new RepositorioAnimeArchivo());
+        }
+        RepositorioAnimeMapeado mapeado = new RepositorioAnimeMapeado();
+        if (!mapeado.existeArchivo()) {
+            mapeado.guardarTodos(new RepositorioAnimeArchivo().obtenerTodos());
+        }
+        return mapeado;
+    }
+    
     public static void main(String[] args) {
         configurarTemaWisteria();
         
         SwingUtilities.invokeLater(() -> {
             try {
-                RepositorioAnime repositorioAnime = new RepositorioAnimeArchivo();
-                RepositorioListaPersonalizada repositorioLista = new RepositorioListaPersonalizadaArchivo();
+                RepositorioAnime repositorioAnime = crearRepositorioAnime();
+                RepositorioListaPersonalizada repositorioLista =
+                    new RepositorioListaPersonalizadaDiferido(new RepositorioListaPersonalizadaArchivo());
                 
                 ServicioAnime servicioAnime = new ServicioAnime(repositorioAnime);
                 ServicioListaPersonalizada servicioLista = 
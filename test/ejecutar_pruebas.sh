@@ -0,0 +1,26 @@
+#!/bin/bash
+echo "======================================"
+echo " Pruebas del Sistema de Anime"
+echo "======================================"
+
+# Uso: ./test/ejecutar_pruebas.sh
+# Se ejecuta desde la raíz del proyecto.
+mkdir -p out/prueba
+
+echo "Compilando pruebas..."
+javac -encoding UTF-8 -d out/prueba \
+    src/excepcion/*.java \
+    src/modelo/*.java \
+    src/repositorio/*.java \
+    src/servicio/*.java \
+    src/utilidad/*.java \
+    test/src/prueba/*.java
+
+if [ $? -ne 0 ]; then
+    echo ""
+    echo "ERROR: La compilación de las pruebas falló."
+    exit 1
+fi
+
+echo ""
+java -cp out/prueba prueba.EjecutarPruebas "$@"
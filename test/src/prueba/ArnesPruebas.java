@@ -0,0 +1,101 @@
+package prueba;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Arnés mínimo de pruebas sin dependencias: ejecuta cada prueba, informa las que fallan y
+ * ofrece verificaciones y directorios temporales.
+ */
+public final class ArnesPruebas {
+    
+    /**
+     * Cuerpo de una prueba; falla lanzando cualquier excepción.
+     */
+    @FunctionalInterface
+    public interface Prueba {
+        void ejecutar() throws Exception;
+    }
+    
+    /**
+     * Operación de la que se espera una excepción.
+     */
+    @FunctionalInterface
+    public interface Accion {
+        void ejecutar() throws Exception;
+    }
+    
+    private int ejecutadas;
+    private int fallidas;
+    
+    public void probar(String nombre, Prueba prueba) {
+        ejecutadas++;
+        try {
+            prueba.ejecutar();
+            System.out.println("  OK    " + nombre);
+        } catch (Throwable e) {
+            fallidas++;
+            System.out.println("  FALLA " + nombre + ": " + e);
+            e.printStackTrace(System.out);
+        }
+    }
+    
+    public int obtenerFallidas() {
+        return fallidas;
+    }
+    
+    public void imprimirResumen() {
+        System.out.printf("%n%d pruebas, %d fallidas%n", ejecutadas, fallidas);
+    }
+    
+    // ========== Verificaciones ==========
+    
+    public static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+    
+    public static void verificarIgual(Object esperado, Object obtenido, String mensaje) {
+        if (!Objects.equals(esperado, obtenido)) {
+            throw new AssertionError(mensaje + ": se esperaba <" + esperado + "> y se obtuvo <" + obtenido + ">");
+        }
+    }
+    
+    /**
+     * Verifica que la acción lance una excepción del tipo dado y la retorna.
+     */
+    public static <E extends Throwable> E verificarExcepcion(Class<E> tipo, Accion accion) {
+        try {
+            accion.ejecutar();
+        } catch (Throwable e) {
+            if (tipo.isInstance(e)) {
+                return tipo.cast(e);
+            }
+            throw new AssertionError("Se esperaba " + tipo.getSimpleName() + " y se obtuvo " + e, e);
+        }
+        throw new AssertionError("Se esperaba " + tipo.getSimpleName() + " y no se lanzó ninguna excepción");
+    }
+    
+    // ========== Archivos temporales ==========
+    
+    public static Path directorioTemporal() throws IOException {
+        return Files.createTempDirectory("pruebas-anime");
+    }
+    
+    /**
+     * Borra un directorio temporal con todo su contenido.
+     */
+    public static void borrar(Path directorio) throws IOException {
+        if (!Files.exists(directorio)) {
+            return;
+        }
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            rutas.sorted(Comparator.reverseOrder()).forEach(ruta -> ruta.toFile().delete());
+        }
+    }
+}
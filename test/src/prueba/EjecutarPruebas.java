@@ -0,0 +1,45 @@
+package prueba;
+
+/**
+ * Ejecuta todas las pruebas y termina con código 1 si alguna falla.
+ *
+ * Uso: java prueba.EjecutarPruebas
+ */
+public class EjecutarPruebas {
+    
+    public static void main(String[] args) throws Exception {
+        ArnesPruebas arnes = new ArnesPruebas();
+        
+        System.out.println("IndiceTitulos");
+        PruebasIndiceTitulos.ejecutar(arnes);
+        
+        System.out.println("RepositorioAnimeMapeado");
+        PruebasRepositorioMapeado.ejecutar(arnes);
+        
+        System.out.println("Formato binario");
+        PruebasFormatoBinario.ejecutar(arnes);
+        
+        System.out.println("FiltroCompilado");
+        PruebasFiltroCompilado.ejecutar(arnes);
+        
+        System.out.println("Importación por lotes");
+        PruebasImportacion.ejecutar(arnes);
+        
+        System.out.println("RepositorioAnimeBitacora");
+        PruebasRepositorioBitacora.ejecutar(arnes);
+        
+        System.out.println("RepositorioAnimeConcurrente");
+        PruebasRepositorioConcurrente.ejecutar(arnes);
+        
+        System.out.println("Escritura diferida");
+        PruebasEscrituraDiferida.ejecutar(arnes);
+        
+        System.out.println("Confirmación agrupada");
+        PruebasConfirmacionAgrupada.ejecutar(arnes);
+        
+        arnes.imprimirResumen();
+        if (arnes.obtenerFallidas() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package prueba;
+
+import excepcion.ExcepcionPersistencia;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.RepositorioAnimeArchivo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas de la escritura agrupada del repositorio de archivo.
+ */
+final class PruebasConfirmacionAgrupada {
+    
+    private static final long VENTANA_MS = 20;
+    private static final long ESPERA_MAXIMA_MS = 10000;
+    
+    private PruebasConfirmacionAgrupada() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("una escritura agrupada fallida se reintenta sin fallar la modificación siguiente", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                RepositorioAnimeArchivo repositorio = new RepositorioAnimeArchivo(ruta, VENTANA_MS);
+                
+                // Un directorio no vacío en lugar del archivo temporal hace fallar cada escritura
+                Path bloqueo = Files.createDirectory(directorio.resolve("x.dat.tmp"));
+                Path contenido = Files.createFile(bloqueo.resolve("bloqueo"));
+                
+                repositorio.guardar(anime("Death Note"));
+                Thread.sleep(VENTANA_MS * 10);
+                repositorio.guardar(anime("Bleach"));
+                verificarExcepcion(ExcepcionPersistencia.class, repositorio::confirmarEscrituras);
+                
+                // Sin confirmar, el reintento en segundo plano escribe lo pendiente
+                Files.delete(contenido);
+                Files.delete(bloqueo);
+                long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+                while (!Files.exists(directorio.resolve("x.dat")) && System.currentTimeMillis() < limite) {
+                    Thread.sleep(VENTANA_MS);
+                }
+                repositorio.confirmarEscrituras();
+                
+                RepositorioAnimeArchivo escrito = new RepositorioAnimeArchivo(ruta);
+                verificarIgual(2, escrito.contar(), "anime escritos tras el reintento");
+                verificar(escrito.existePorTitulo("Death Note"), "se perdió la escritura fallida");
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+    
+    private static AnimeSerie anime(String titulo) {
+        return new AnimeSerie(titulo, 2006, "Madhouse", 12, EnumSet.of(Genero.SHONEN), false);
+    }
+}
@@ -0,0 +1,95 @@
+package prueba;
+
+import excepcion.ExcepcionPersistencia;
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.RepositorioAnimeArchivo;
+import repositorio.RepositorioAnimeDiferido;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas de la escritura diferida del catálogo.
+ */
+final class PruebasEscrituraDiferida {
+    
+    private PruebasEscrituraDiferida() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("un lote fallido se reintenta al confirmar", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                RepositorioAnimeDiferido repositorio = new RepositorioAnimeDiferido(new RepositorioAnimeArchivo(ruta));
+                
+                // Un directorio no vacío en lugar del archivo temporal hace fallar cada escritura
+                Path bloqueo = Files.createDirectory(directorio.resolve("x.dat.tmp"));
+                Path contenido = Files.createFile(bloqueo.resolve("bloqueo"));
+                
+                repositorio.guardar(anime("Death Note"));
+                verificarExcepcion(ExcepcionPersistencia.class, repositorio::confirmarEscrituras);
+                repositorio.guardar(anime("Bleach"));
+                verificarExcepcion(ExcepcionPersistencia.class, repositorio::confirmarEscrituras);
+                
+                Files.delete(contenido);
+                Files.delete(bloqueo);
+                repositorio.confirmarEscrituras();
+                repositorio.cerrar();
+                
+                RepositorioAnimeArchivo escrito = new RepositorioAnimeArchivo(ruta);
+                verificarIgual(2, escrito.contar(), "anime escritos tras el reintento");
+                verificar(escrito.existePorTitulo("Death Note"), "se perdió el lote fallido");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("el archivo queda en el orden de las modificaciones en memoria", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                // Con una cola chica las modificaciones esperan al escritor a mitad de camino
+                RepositorioAnimeDiferido repositorio = new RepositorioAnimeDiferido(new RepositorioAnimeArchivo(ruta), 4);
+                List<AnimeBase> animes = new ArrayList<>();
+                for (int i = 0; i < 300; i++) {
+                    animes.add(anime("anime " + i));
+                    repositorio.guardar(animes.get(i));
+                    if (i % 3 == 0) {
+                        repositorio.eliminarPorTitulo("anime " + (i / 2));
+                    }
+                    if (i % 7 == 0) {
+                        animes.get(i / 2).establecerTitulo("renombrado " + i);
+                        repositorio.guardar(animes.get(i / 2));
+                    }
+                }
+                repositorio.confirmarEscrituras();
+                List<String> enMemoria = titulos(repositorio.obtenerTodos());
+                repositorio.cerrar();
+                
+                verificarIgual(enMemoria, titulos(new RepositorioAnimeArchivo(ruta).obtenerTodos()), "orden en el archivo");
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+    
+    private static List<String> titulos(List<AnimeBase> animes) {
+        List<String> titulos = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            titulos.add(anime.obtenerTitulo());
+        }
+        return titulos;
+    }
+    
+    private static AnimeSerie anime(String titulo) {
+        return new AnimeSerie(titulo, 2006, "Madhouse", 12, EnumSet.of(Genero.SHONEN), false);
+    }
+}
@@ -0,0 +1,105 @@
+package prueba;
+
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import utilidad.CriterioFiltro;
+import utilidad.EstadisticasCatalogo;
+import utilidad.FiltroAnime;
+import utilidad.FiltroCompilado;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del orden de evaluación de los filtros compilados.
+ */
+final class PruebasFiltroCompilado {
+    
+    private static final int CANTIDAD = 100;
+    
+    private PruebasFiltroCompilado() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("sin estadísticas los criterios numéricos van antes que los de texto", () -> {
+            FiltroCompilado compilado = new FiltroAnime()
+                .porTitulo("death")
+                .porEstudio("madhouse")
+                .porGenero(Genero.SHONEN)
+                .compilar(EstadisticasCatalogo.sinDatos());
+            
+            verificarIgual(List.of(CriterioFiltro.GENEROS_REQUERIDOS, CriterioFiltro.ESTUDIO, CriterioFiltro.TITULO),
+                compilado.obtenerOrden(), "orden de los criterios");
+        });
+        
+        arnes.probar("el criterio que más descarta se evalúa primero", () -> {
+            List<AnimeBase> animes = catalogo();
+            EstadisticasCatalogo estadisticas = EstadisticasCatalogo.de(animes);
+            
+            // Casi todos son SHONEN y pocos son del año 2000
+            FiltroAnime anioRaro = new FiltroAnime().porGenero(Genero.SHONEN).porRangoAnios(2000, 2000);
+            verificarIgual(List.of(CriterioFiltro.ANIOS, CriterioFiltro.GENEROS_REQUERIDOS),
+                anioRaro.compilar(estadisticas).obtenerOrden(), "orden con el año selectivo");
+            
+            // Sólo uno es SEINEN y todos están en el rango de años
+            FiltroAnime generoRaro = new FiltroAnime().porGenero(Genero.SEINEN).porRangoAnios(1990, 2100);
+            verificarIgual(List.of(CriterioFiltro.GENEROS_REQUERIDOS, CriterioFiltro.ANIOS),
+                generoRaro.compilar(estadisticas).obtenerOrden(), "orden con el género selectivo");
+        });
+        
+        arnes.probar("el orden no cambia qué anime cumplen el filtro", () -> {
+            List<AnimeBase> animes = catalogo();
+            FiltroAnime filtro = new FiltroAnime().porGenero(Genero.SHONEN).porRangoAnios(2000, 2010).porTitulo("1");
+            FiltroCompilado conDatos = filtro.compilar(EstadisticasCatalogo.de(animes));
+            FiltroCompilado sinDatos = filtro.compilar(EstadisticasCatalogo.sinDatos());
+            for (AnimeBase anime : animes) {
+                boolean esperado = filtro.cumpleFiltro(anime);
+                verificarIgual(esperado, conDatos.test(anime), "con estadísticas: " + anime.obtenerTitulo());
+                verificarIgual(esperado, sinDatos.test(anime), "sin estadísticas: " + anime.obtenerTitulo());
+            }
+        });
+        
+        arnes.probar("los criterios ya resueltos no se evalúan", () -> {
+            FiltroCompilado compilado = new FiltroAnime()
+                .porTitulo("death")
+                .porGenero(Genero.SHONEN)
+                .compilar(EstadisticasCatalogo.sinDatos(), EnumSet.of(CriterioFiltro.TITULO));
+            
+            verificarIgual(List.of(CriterioFiltro.GENEROS_REQUERIDOS), compilado.obtenerOrden(), "criterios restantes");
+        });
+        
+        arnes.probar("las búsquedas de texto no dependen del idioma del sistema", () -> {
+            Locale anterior = Locale.getDefault();
+            // En turco "I" pasa a minúsculas como "ı", sin punto
+            Locale.setDefault(new Locale("tr", "TR"));
+            try {
+                AnimeBase anime = new AnimeSerie("KILL la KILL", 2013, "TRIGGER INC", 24,
+                    EnumSet.of(Genero.SHONEN), false);
+                verificar(anime.tituloContiene("kill"), "tituloContiene");
+                
+                FiltroAnime filtro = new FiltroAnime().porTitulo("kill").porEstudio("inc");
+                verificar(filtro.cumpleFiltro(anime), "cumpleFiltro");
+                verificar(filtro.compilar(EstadisticasCatalogo.sinDatos()).test(anime), "filtro compilado");
+            } finally {
+                Locale.setDefault(anterior);
+            }
+        });
+    }
+    
+    /**
+     * Anime de los años 2000 a 2024, todos SHONEN salvo el último, que es SEINEN.
+     */
+    private static List<AnimeBase> catalogo() {
+        List<AnimeBase> animes = new ArrayList<>();
+        for (int i = 0; i < CANTIDAD; i++) {
+            Genero genero = i == CANTIDAD - 1 ? Genero.SEINEN : Genero.SHONEN;
+            animes.add(new AnimeSerie("Anime " + i, 2000 + i % 25, "Madhouse", 12, EnumSet.of(genero), false));
+        }
+        return animes;
+    }
+}
@@ -0,0 +1,87 @@
+package prueba;
+
+import excepcion.ExcepcionPersistencia;
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.RepositorioAnimeArchivo;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del formato binario de los archivos .dat.
+ */
+final class PruebasFormatoBinario {
+    
+    /** Suficientes para que el archivo ocupe varios buffers de lectura */
+    private static final int CANTIDAD = 40000;
+    
+    private PruebasFormatoBinario() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("un catálogo de varios buffers se lee igual que se escribió", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                new RepositorioAnimeArchivo(ruta).guardarTodos(catalogo());
+                verificar(Files.size(directorio.resolve("x.dat")) > (1 << 20), "el archivo cabe en un buffer");
+                
+                RepositorioAnimeArchivo leido = new RepositorioAnimeArchivo(ruta);
+                List<AnimeBase> animes = leido.obtenerTodos();
+                verificarIgual(CANTIDAD, animes.size(), "anime leídos");
+                verificarIgual(titulo(CANTIDAD / 2), animes.get(CANTIDAD / 2).obtenerTitulo(), "anime del medio");
+                verificarIgual(titulo(CANTIDAD - 1), animes.get(CANTIDAD - 1).obtenerTitulo(), "último anime");
+                
+                // Recién leído, el archivo se puede reemplazar
+                leido.eliminarPorTitulo(titulo(0));
+                verificarIgual(CANTIDAD - 1, new RepositorioAnimeArchivo(ruta).contar(), "anime tras guardar");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("un byte cambiado en el cuerpo se detecta al leer", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                Path archivo = directorio.resolve("x.dat");
+                new RepositorioAnimeArchivo(archivo.toString()).guardarTodos(catalogo());
+                
+                try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long posicion = canal.size() * 3 / 4;
+                    ByteBuffer dato = ByteBuffer.allocate(1);
+                    canal.read(dato, posicion);
+                    dato.put(0, (byte) (dato.get(0) ^ 1));
+                    dato.rewind();
+                    canal.write(dato, posicion);
+                }
+                
+                verificarExcepcion(ExcepcionPersistencia.class, () -> new RepositorioAnimeArchivo(archivo.toString()).contar());
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+    
+    private static List<AnimeBase> catalogo() {
+        List<AnimeBase> animes = new ArrayList<>();
+        for (int i = 0; i < CANTIDAD; i++) {
+            animes.add(new AnimeSerie(titulo(i), 1990 + i % 30, "Estudio " + i % 50, 12 + i % 40,
+                EnumSet.of(Genero.SHONEN), false));
+        }
+        return animes;
+    }
+    
+    private static String titulo(int i) {
+        return "Un título bastante largo para la prueba número " + i;
+    }
+}
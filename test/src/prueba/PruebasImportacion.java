@@ -0,0 +1,110 @@
+package prueba;
+
+import excepcion.ExcepcionPersistencia;
+import repositorio.RepositorioAnimeArchivo;
+import repositorio.RepositorioAnimeBitacora;
+import servicio.ServicioAnime;
+
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas de la importación por lotes de ServicioAnime.
+ */
+final class PruebasImportacion {
+    
+    private PruebasImportacion() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("una escritura fallida no deja visible ninguna línea del lote", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                RepositorioAnimeArchivo repositorio = new RepositorioAnimeArchivo(ruta);
+                ServicioAnime servicio = new ServicioAnime(repositorio);
+                servicio.importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                
+                // Un directorio en lugar del archivo temporal hace fallar la escritura
+                Files.createDirectory(directorio.resolve("x.dat.tmp"));
+                verificarExcepcion(ExcepcionPersistencia.class, () -> servicio.importarLote(Stream.of(
+                    "SERIE|Bleach|2004|Pierrot|366|SHONEN|FINALIZADO|4|false")));
+                
+                verificarIgual(1, repositorio.contar(), "anime tras la importación fallida");
+                verificar(!repositorio.existePorTitulo("Bleach"), "el lote fallido quedó visible");
+                verificar(repositorio.existePorTitulo("Death Note"), "se perdió el catálogo anterior");
+                verificarIgual(1, servicio.listarTodos().size(), "anime listados por el servicio");
+                
+                Files.deleteIfExists(directorio.resolve("x.dat.tmp"));
+                verificarIgual(1, new RepositorioAnimeArchivo(ruta).contar(), "anime en el archivo");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("una escritura fallida antes de cargar deja el catálogo del archivo", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                new ServicioAnime(new RepositorioAnimeArchivo(ruta)).importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                
+                RepositorioAnimeArchivo repositorio = new RepositorioAnimeArchivo(ruta);
+                Files.createDirectory(directorio.resolve("x.dat.tmp"));
+                verificarExcepcion(ExcepcionPersistencia.class, () -> repositorio.eliminarTodos());
+                verificarIgual(1, repositorio.contar(), "anime tras el vaciado fallido");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("una importación desde archivo fallida no deja visible ninguna línea", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                RepositorioAnimeArchivo repositorio = new RepositorioAnimeArchivo(ruta);
+                ServicioAnime servicio = new ServicioAnime(repositorio);
+                servicio.importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                
+                Path catalogo = Files.write(directorio.resolve("catalogo.txt"), List.of(
+                    "SERIE|Bleach|2004|Pierrot|366|SHONEN|FINALIZADO|4|false",
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN|FINALIZADO|5|false",
+                    "PELICULA|Akira|1988|TMS|124|SEINEN|FINALIZADO|5|Katsuhiro Otomo"), StandardCharsets.UTF_8);
+                Files.createDirectory(directorio.resolve("x.dat.tmp"));
+                verificarExcepcion(ExcepcionPersistencia.class, () -> servicio.importarDesdeArchivo(catalogo));
+                
+                verificarIgual(1, repositorio.contar(), "anime tras la importación fallida");
+                verificar(!repositorio.existePorTitulo("Bleach"), "el lote fallido quedó visible");
+                verificar(!repositorio.existePorTitulo("Akira"), "el lote fallido quedó visible");
+                verificarIgual(1, servicio.busquedaAvanzada(null, null).size(), "anime en el catálogo del servicio");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("un lote rechazado por la bitácora no cambia el catálogo en memoria", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(directorio.resolve("animes").toString());
+                ServicioAnime servicio = new ServicioAnime(repositorio);
+                servicio.importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                repositorio.cerrar();
+                
+                verificarExcepcion(ExcepcionPersistencia.class, () -> servicio.importarLote(Stream.of(
+                    "SERIE|Bleach|2004|Pierrot|366|SHONEN|FINALIZADO|4|false")));
+                verificarIgual(1, repositorio.contar(), "anime tras el lote rechazado");
+                verificar(!repositorio.existePorTitulo("Bleach"), "el lote rechazado quedó visible");
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+}
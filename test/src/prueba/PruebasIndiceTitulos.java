@@ -0,0 +1,97 @@
+package prueba;
+
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.IndiceTitulos;
+import repositorio.RepositorioAnime;
+import repositorio.RepositorioAnimeArchivo;
+import repositorio.RepositorioAnimeConcurrente;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del índice de títulos que ordena el catálogo en memoria.
+ */
+final class PruebasIndiceTitulos {
+    
+    private PruebasIndiceTitulos() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("renombrar el anime del medio conserva su posición", () -> {
+            IndiceTitulos indice = new IndiceTitulos();
+            List<AnimeBase> animes = catalogo("A", "B", "C");
+            indice.reemplazarTodos(animes);
+            // Con una búsqueda previa el índice de trigramas ya está construido
+            verificarIgual(1, indice.buscarPorTituloContiene("b").size(), "búsqueda antes de renombrar");
+            
+            animes.get(1).establecerTitulo("Z");
+            indice.guardar(animes.get(1));
+            
+            verificarIgual(List.of("A", "Z", "C"), titulos(indice.valores()), "orden tras renombrar");
+            verificarIgual(List.of("A", "Z", "C"), titulos(indice.instantanea().obtenerAnimes()), "orden de la instantánea");
+            verificar(indice.buscar("B") == null, "quedó el título anterior");
+            verificarIgual(1, indice.buscarPorTituloContiene("z").size(), "búsqueda por el título nuevo");
+            verificarIgual(0, indice.buscarPorTituloContiene("b").size(), "búsqueda por el título anterior");
+        });
+        
+        arnes.probar("renombrar sobre un título existente reemplaza al otro en su lugar", () -> {
+            IndiceTitulos indice = new IndiceTitulos();
+            List<AnimeBase> animes = catalogo("A", "B", "C");
+            indice.reemplazarTodos(animes);
+            
+            animes.get(2).establecerTitulo("A");
+            indice.guardar(animes.get(2));
+            
+            verificarIgual(List.of("B", "A"), titulos(indice.valores()), "orden tras renombrar");
+            verificar(indice.buscar("A") == animes.get(2), "el título no apunta al renombrado");
+        });
+        
+        arnes.probar("el repositorio de archivo guarda un renombrado en su posición", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("x.dat").toString();
+                verificarRenombrado(new RepositorioAnimeArchivo(ruta));
+                verificarIgual(List.of("A", "Z", "C"), titulos(new RepositorioAnimeArchivo(ruta).obtenerTodos()),
+                    "orden en el archivo");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("el repositorio concurrente guarda un renombrado en su posición", () -> {
+            verificarRenombrado(new RepositorioAnimeConcurrente());
+        });
+    }
+    
+    private static void verificarRenombrado(RepositorioAnime repositorio) throws Exception {
+        List<AnimeBase> animes = catalogo("A", "B", "C");
+        repositorio.guardarTodos(animes);
+        animes.get(1).establecerTitulo("Z");
+        repositorio.guardar(animes.get(1));
+        verificarIgual(List.of("A", "Z", "C"), titulos(repositorio.obtenerTodos()), "orden tras renombrar");
+        verificar(!repositorio.existePorTitulo("B"), "quedó el título anterior");
+    }
+    
+    private static List<AnimeBase> catalogo(String... titulos) {
+        List<AnimeBase> animes = new ArrayList<>();
+        for (String titulo : titulos) {
+            animes.add(new AnimeSerie(titulo, 2000, "Madhouse", 12, EnumSet.of(Genero.SHONEN), false));
+        }
+        return animes;
+    }
+    
+    private static List<String> titulos(Iterable<AnimeBase> animes) {
+        List<String> titulos = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            titulos.add(anime.obtenerTitulo());
+        }
+        return titulos;
+    }
+}
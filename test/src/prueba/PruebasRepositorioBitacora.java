@@ -0,0 +1,174 @@
+package prueba;
+
+import excepcion.ExcepcionPersistencia;
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.RepositorioAnimeBitacora;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del repositorio con bitácora de escritura anticipada.
+ */
+final class PruebasRepositorioBitacora {
+    
+    private PruebasRepositorioBitacora() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("guardarTodos se reproduce completo tras reabrir", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String base = directorio.resolve("animes").toString();
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(base);
+                repositorio.guardarTodos(catalogo("viejo", 3));
+                repositorio.guardarTodos(catalogo("nuevo", 50));
+                repositorio.cerrar();
+                
+                RepositorioAnimeBitacora reabierto = new RepositorioAnimeBitacora(base);
+                verificarIgual(50, reabierto.contar(), "anime tras reabrir");
+                verificar(!reabierto.existePorTitulo("viejo 0"), "quedó un anime del catálogo reemplazado");
+                reabierto.cerrar();
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("un guardarTodos cortado a la mitad conserva el catálogo anterior", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String base = directorio.resolve("animes").toString();
+                Path bitacora = directorio.resolve("animes.log");
+                
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(base);
+                repositorio.guardarTodos(catalogo("viejo", 3));
+                long antesDelReemplazo = Files.size(bitacora);
+                repositorio.guardarTodos(catalogo("nuevo", 50));
+                repositorio.cerrar();
+                
+                // Simula un corte durante la escritura del reemplazo
+                long cortada = antesDelReemplazo + (Files.size(bitacora) - antesDelReemplazo) / 2;
+                try (FileChannel canal = FileChannel.open(bitacora, StandardOpenOption.WRITE)) {
+                    canal.truncate(cortada);
+                }
+                
+                RepositorioAnimeBitacora reabierto = new RepositorioAnimeBitacora(base);
+                verificarIgual(3, reabierto.contar(), "anime tras reabrir");
+                for (int i = 0; i < 3; i++) {
+                    verificar(reabierto.existePorTitulo("viejo " + i), "falta viejo " + i);
+                }
+                verificar(!reabierto.existePorTitulo("nuevo 0"), "se aplicó parte del reemplazo");
+                reabierto.cerrar();
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("después de cerrar se rechazan las escrituras sin tocar la memoria", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                // Con umbral 1 cada escritura intentaría programar una compactación
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(
+                    directorio.resolve("animes").toString(), 1, false);
+                List<AnimeBase> animes = catalogo("a", 3);
+                repositorio.guardarTodos(animes);
+                repositorio.cerrar();
+                
+                animes.get(1).establecerTitulo("renombrado");
+                verificarExcepcion(ExcepcionPersistencia.class, () -> repositorio.guardar(animes.get(1)));
+                verificarExcepcion(ExcepcionPersistencia.class, () -> repositorio.guardar(catalogo("b", 1).get(0)));
+                verificarExcepcion(ExcepcionPersistencia.class, () -> repositorio.eliminarPorTitulo("a 0"));
+                verificarExcepcion(ExcepcionPersistencia.class, repositorio::eliminarTodos);
+                verificarExcepcion(ExcepcionPersistencia.class, repositorio::compactar);
+                
+                // El objeto renombrado es el mismo, pero el índice sigue bajo el título anterior
+                verificarIgual(3, repositorio.contar(), "anime en memoria");
+                verificar(repositorio.existePorTitulo("a 0"), "se aplicó la eliminación rechazada");
+                verificar(repositorio.existePorTitulo("a 1"), "se aplicó el renombrado rechazado");
+                verificar(!repositorio.existePorTitulo("renombrado"), "se aplicó el renombrado rechazado");
+                verificar(!repositorio.existePorTitulo("b 0"), "se aplicó el alta rechazada");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("un renombrado conserva su posición tras reabrir", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String base = directorio.resolve("animes").toString();
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(base);
+                List<AnimeBase> animes = catalogo("a", 3);
+                for (AnimeBase anime : animes) {
+                    repositorio.guardar(anime);
+                }
+                animes.get(1).establecerTitulo("z");
+                repositorio.guardar(animes.get(1));
+                repositorio.cerrar();
+                
+                RepositorioAnimeBitacora reabierto = new RepositorioAnimeBitacora(base);
+                verificarIgual(List.of("a 0", "z", "a 2"), titulos(reabierto.obtenerTodos()), "orden tras reabrir");
+                reabierto.cerrar();
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("una compactación cortada antes de borrar la bitácora rotada se reproduce igual", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String base = directorio.resolve("animes").toString();
+                RepositorioAnimeBitacora repositorio = new RepositorioAnimeBitacora(base);
+                List<AnimeBase> animes = catalogo("a", 5);
+                for (AnimeBase anime : animes) {
+                    repositorio.guardar(anime);
+                }
+                repositorio.eliminarPorTitulo("a 0");
+                animes.get(2).establecerTitulo("z");
+                repositorio.guardar(animes.get(2));
+                repositorio.guardar(catalogo("a", 1).get(0));
+                repositorio.cerrar();
+                List<String> esperados = List.of("a 1", "z", "a 3", "a 4", "a 0");
+                Path registros = Files.copy(directorio.resolve("animes.log"), directorio.resolve("registros"));
+                
+                RepositorioAnimeBitacora compactado = new RepositorioAnimeBitacora(base);
+                compactado.compactar();
+                compactado.cerrar();
+                
+                // La instantánea ya incluye los registros, pero la bitácora rotada no se borró
+                Files.move(registros, directorio.resolve("animes.log.compactando"), StandardCopyOption.REPLACE_EXISTING);
+                RepositorioAnimeBitacora reabierto = new RepositorioAnimeBitacora(base);
+                verificarIgual(esperados, titulos(reabierto.obtenerTodos()), "orden tras reabrir");
+                reabierto.cerrar();
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+    
+    private static List<String> titulos(List<AnimeBase> animes) {
+        List<String> titulos = new ArrayList<>();
+        for (AnimeBase anime : animes) {
+            titulos.add(anime.obtenerTitulo());
+        }
+        return titulos;
+    }
+    
+    private static List<AnimeBase> catalogo(String prefijo, int cantidad) {
+        List<AnimeBase> animes = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            animes.add(new AnimeSerie(prefijo + " " + i, 2000 + i % 20, "Madhouse", 12,
+                EnumSet.of(Genero.SHONEN), false));
+        }
+        return animes;
+    }
+}
@@ -0,0 +1,197 @@
+package prueba;
+
+import modelo.AnimeBase;
+import modelo.AnimeSerie;
+import modelo.Genero;
+import repositorio.InstantaneaCatalogo;
+import repositorio.RepositorioAnimeConcurrente;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del repositorio en memoria para varios hilos.
+ */
+final class PruebasRepositorioConcurrente {
+    
+    private static final int TAMANIO_CATALOGO = 200;
+    private static final int LECTORES = 3;
+    private static final long DURACION_MS = 500;
+    
+    private PruebasRepositorioConcurrente() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("ninguna instantánea muestra una modificación a medias", () -> {
+            List<AnimeBase> catalogoA = catalogo("a", TAMANIO_CATALOGO);
+            List<AnimeBase> catalogoB = catalogo("b", TAMANIO_CATALOGO);
+            RepositorioAnimeConcurrente repositorio = new RepositorioAnimeConcurrente(catalogoA);
+            
+            AtomicBoolean detener = new AtomicBoolean();
+            AtomicReference<String> error = new AtomicReference<>();
+            List<Thread> hilos = new ArrayList<>();
+            
+            // Alterna catálogos enteros mientras otro hilo agrega y quita un título suelto
+            hilos.add(new Thread(() -> {
+                for (int i = 0; !detener.get(); i++) {
+                    repositorio.guardarTodos(i % 2 == 0 ? catalogoB : catalogoA);
+                }
+            }));
+            hilos.add(new Thread(() -> {
+                for (int i = 0; !detener.get(); i++) {
+                    repositorio.guardar(anime("extra", i));
+                    repositorio.eliminarPorTitulo("extra");
+                }
+            }));
+            for (int l = 0; l < LECTORES; l++) {
+                hilos.add(new Thread(() -> {
+                    long versionPrevia = Long.MIN_VALUE;
+                    while (!detener.get() && error.get() == null) {
+                        InstantaneaCatalogo instantanea = repositorio.obtenerInstantanea();
+                        String problema = inconsistencia(instantanea, versionPrevia);
+                        if (problema != null) {
+                            error.compareAndSet(null, problema);
+                        }
+                        versionPrevia = instantanea.obtenerVersion();
+                    }
+                }));
+            }
+            
+            for (Thread hilo : hilos) {
+                hilo.start();
+            }
+            Thread.sleep(DURACION_MS);
+            detener.set(true);
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+            verificar(error.get() == null, error.get());
+        });
+        
+        arnes.probar("las bajas masivas conservan el orden y las búsquedas", () -> {
+            RepositorioAnimeConcurrente repositorio = new RepositorioAnimeConcurrente();
+            for (AnimeBase anime : catalogo("a", 3000)) {
+                repositorio.guardar(anime);
+            }
+            for (int i = 0; i < 3000; i++) {
+                if (i % 10 != 0) {
+                    repositorio.eliminarPorTitulo("a " + i);
+                }
+            }
+            repositorio.guardar(anime("nuevo", 0));
+            
+            List<AnimeBase> todos = repositorio.obtenerTodos();
+            verificarIgual(301, todos.size(), "anime tras las bajas");
+            verificarIgual(301, repositorio.contar(), "contar tras las bajas");
+            for (int i = 0; i < 300; i++) {
+                verificarIgual("a " + (i * 10), todos.get(i).obtenerTitulo(), "orden en la fila " + i);
+                verificar(repositorio.existePorTitulo("a " + (i * 10)), "no se encuentra a " + (i * 10));
+            }
+            verificarIgual("nuevo", todos.get(300).obtenerTitulo(), "último anime");
+        });
+        
+        arnes.probar("escritores de títulos distintos en paralelo conservan cada anime y su orden", () -> {
+            RepositorioAnimeConcurrente repositorio = new RepositorioAnimeConcurrente();
+            int escritores = 4;
+            int porEscritor = 3000;
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            List<Thread> hilos = new ArrayList<>();
+            for (int e = 0; e < escritores; e++) {
+                String prefijo = "h" + e;
+                hilos.add(new Thread(() -> {
+                    try {
+                        List<AnimeBase> propios = catalogo(prefijo, porEscritor);
+                        for (int i = 0; i < porEscritor; i++) {
+                            repositorio.guardar(propios.get(i));
+                            if (i % 2 == 1) {
+                                repositorio.eliminarPorTitulo(prefijo + " " + (i - 1));
+                            }
+                            if (i % 10 == 0 && i > 0) {
+                                // Renombra uno ya guardado que sigue en el catálogo
+                                AnimeBase renombrado = propios.get(i - 1);
+                                renombrado.establecerTitulo(prefijo + " r" + (i - 1));
+                                repositorio.guardar(renombrado);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }));
+            }
+            for (Thread hilo : hilos) {
+                hilo.start();
+            }
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+            verificar(error.get() == null, String.valueOf(error.get()));
+            
+            List<AnimeBase> todos = repositorio.obtenerTodos();
+            verificarIgual(escritores * porEscritor / 2, todos.size(), "anime tras escribir");
+            verificarIgual(todos.size(), repositorio.contar(), "contar tras escribir");
+            for (int e = 0; e < escritores; e++) {
+                int previo = -1;
+                for (AnimeBase anime : todos) {
+                    String titulo = anime.obtenerTitulo();
+                    if (!titulo.startsWith("h" + e + " ")) {
+                        continue;
+                    }
+                    verificar(repositorio.buscarPorTitulo(titulo) == anime, "no se encuentra " + titulo);
+                    int numero = Integer.parseInt(titulo.substring(titulo.indexOf(' ') + 1).replace("r", ""));
+                    verificar(numero > previo, "fuera de orden: " + titulo);
+                    previo = numero;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Describe lo que esté mal en la instantánea, o null si refleja un único estado.
+     */
+    private static String inconsistencia(InstantaneaCatalogo instantanea, long versionPrevia) {
+        if (instantanea.obtenerVersion() < versionPrevia) {
+            return "la versión retrocedió de " + versionPrevia + " a " + instantanea.obtenerVersion();
+        }
+        int contados = 0;
+        int extras = 0;
+        String prefijo = null;
+        for (AnimeBase anime : instantanea.obtenerAnimes()) {
+            contados++;
+            String titulo = anime.obtenerTitulo();
+            if (titulo.equals("extra")) {
+                extras++;
+                continue;
+            }
+            String propio = titulo.substring(0, titulo.indexOf(' '));
+            if (prefijo == null) {
+                prefijo = propio;
+            } else if (!prefijo.equals(propio)) {
+                return "mezcla de catálogos: " + prefijo + " y " + propio;
+            }
+        }
+        if (contados != instantanea.tamanio()) {
+            return "recorrió " + contados + " anime de " + instantanea.tamanio();
+        }
+        if (extras > 1 || contados - extras != TAMANIO_CATALOGO) {
+            return contados + " anime con " + extras + " extra";
+        }
+        return null;
+    }
+    
+    private static List<AnimeBase> catalogo(String prefijo, int cantidad) {
+        List<AnimeBase> animes = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            animes.add(anime(prefijo + " " + i, i));
+        }
+        return animes;
+    }
+    
+    private static AnimeBase anime(String titulo, int i) {
+        return new AnimeSerie(titulo, 2000 + i % 20, "Madhouse", 12, EnumSet.of(Genero.SHONEN), false);
+    }
+}
@@ -0,0 +1,63 @@
+package prueba;
+
+import modelo.AnimeBase;
+import repositorio.RepositorioAnimeMapeado;
+import servicio.ServicioAnime;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static prueba.ArnesPruebas.*;
+
+/**
+ * Pruebas del repositorio de catálogo mapeado en memoria.
+ */
+final class PruebasRepositorioMapeado {
+    
+    private PruebasRepositorioMapeado() {
+    }
+    
+    static void ejecutar(ArnesPruebas arnes) {
+        arnes.probar("obtenerTodos retorna una copia modificable", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                RepositorioAnimeMapeado repositorio = new RepositorioAnimeMapeado(
+                    directorio.resolve("animes.col").toString());
+                ServicioAnime servicio = new ServicioAnime(repositorio);
+                servicio.importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                
+                List<AnimeBase> todos = repositorio.obtenerTodos();
+                todos.clear();
+                verificarIgual(1, repositorio.contar(), "el repositorio no debe cambiar");
+            } finally {
+                borrar(directorio);
+            }
+        });
+        
+        arnes.probar("importar un lote en el repositorio mapeado", () -> {
+            Path directorio = directorioTemporal();
+            try {
+                String ruta = directorio.resolve("animes.col").toString();
+                ServicioAnime servicio = new ServicioAnime(new RepositorioAnimeMapeado(ruta));
+                servicio.importarLote(Stream.of(
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN,SEINEN|FINALIZADO|5|false"));
+                
+                ServicioAnime.ResultadoImportacion resultado = servicio.importarLote(Stream.of(
+                    "SERIE|Attack on Titan|2013|Wit Studio / MAPPA|94|SHONEN,SEINEN|FINALIZADO|5|false",
+                    "PELICULA|Your Name|2016|CoMix Wave|106|SHOJO|FINALIZADO|5|Makoto Shinkai",
+                    "SERIE|Death Note|2006|Madhouse|37|SHONEN|FINALIZADO|4|false"));
+                
+                verificarIgual(2, resultado.obtenerImportados(), "importados");
+                verificarIgual(1, resultado.obtenerDuplicados(), "duplicados");
+                
+                RepositorioAnimeMapeado reabierto = new RepositorioAnimeMapeado(ruta);
+                verificarIgual(3, reabierto.contar(), "anime tras reabrir");
+                verificar(reabierto.existePorTitulo("Your Name"), "falta la película importada");
+            } finally {
+                borrar(directorio);
+            }
+        });
+    }
+}